@@ -85,6 +85,9 @@ public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExce
             case DEPRECATED_VERSION_ERROR:
                 errorStatus = HttpStatus.GONE;
                 break;
+            case SERVICE_UNAVAILABLE_ERROR:
+                errorStatus = HttpStatus.SERVICE_UNAVAILABLE;
+                break;
             case EXTERNAL_SERVICE_ERROR:
             case INTERNAL_ERROR:
             case UNEXPECTED_ERROR:
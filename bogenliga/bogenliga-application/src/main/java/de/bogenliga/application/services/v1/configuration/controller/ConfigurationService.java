@@ -1,22 +1,44 @@
 package de.bogenliga.application.services.v1.configuration.controller;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
 import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.BusinessException;
 import de.bogenliga.application.common.service.ServiceFacade;
 import de.bogenliga.application.common.validation.Preconditions;
 import de.bogenliga.application.services.v1.configuration.mapper.ConfigurationDTOMapper;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationChangeDTO;
 import de.bogenliga.application.services.v1.configuration.model.ConfigurationDTO;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationImportDTO;
+import de.bogenliga.application.services.v1.configuration.stream.ConfigurationChangeBroker;
 
 /**
  * I´m a REST resource and handle configuration CRUD requests over the HTTP protocol.
@@ -38,22 +60,31 @@ public class ConfigurationService implements ServiceFacade {
 
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationService.class);
 
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+    static final String LINK = "Link";
+    static final String AFTER = "after";
+
     /*
      * Business components
      *
      * dependency injection with {@link Autowired}
      */
     private final ConfigurationComponent configurationComponent;
+    private final ConfigurationChangeBroker configurationChangeBroker;
 
 
     /**
      * Constructor with dependency injection
      *
-     * @param configurationComponent to handle the database CRUD requests
+     * @param configurationComponent    to handle the database CRUD requests
+     * @param configurationChangeBroker to stream the configuration changes
      */
     @Autowired
-    public ConfigurationService(final ConfigurationComponent configurationComponent) {
+    public ConfigurationService(final ConfigurationComponent configurationComponent,
+                                final ConfigurationChangeBroker configurationChangeBroker) {
         this.configurationComponent = configurationComponent;
+        this.configurationChangeBroker = configurationChangeBroker;
     }
 
 
@@ -76,15 +107,146 @@ public class ConfigurationService implements ServiceFacade {
      * }
      * </pre>
      *
+     * The response contains the version of the entries as strong entity tag (ETag).
+     * If the request contains the current version in the "If-None-Match" header,
+     * "304 Not Modified" is returned without body.
+     * The entity tag and the body come from the same snapshot of the entries.
+     *
+     * @param ifNoneMatch entity tags of the cached response, optional
      * @return list of {@link ConfigurationDTO} as JSON
      */
     @RequestMapping(method = RequestMethod.GET,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<ConfigurationDTO> findAll() {
+    public ResponseEntity<List<ConfigurationDTO>> findAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
         logger.debug("Receive 'findAll' request");
 
-        final List<ConfigurationVO> configurationVOList = configurationComponent.findAll();
-        return configurationVOList.stream().map(ConfigurationDTOMapper.toDTO).collect(Collectors.toList());
+        final Versioned<List<ConfigurationVO>> configurationVOList = configurationComponent.findAllWithVersion();
+        final String currentETag = toETag(configurationVOList.getVersion());
+        if (isNotModified(ifNoneMatch, currentETag)) {
+            return notModified(currentETag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(currentETag)
+                .cacheControl(CacheControl.noCache())
+                .body(configurationVOList.getValue().stream()
+                        .map(ConfigurationDTOMapper.toDTO)
+                        .collect(Collectors.toList()));
+    }
+
+
+    /**
+     * I return the configuration entries of the database with the given keys.
+     *
+     * All keys are resolved with a single database query, instead of a request per key.
+     * Unknown keys are no error and are missing in the response.
+     * The keys are separated by comma or given as repeated request parameter.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/configuration?keys=app.bogenliga.frontend.autorefresh.active,unknown}</pre>
+     * <pre>{@code Response:
+     * [
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     *  }
+     * ]
+     * }
+     * </pre>
+     *
+     * @param keys of the configuration entries
+     * @return list of {@link ConfigurationDTO} in the order of the keys as JSON
+     */
+    @RequestMapping(method = RequestMethod.GET, params = "keys",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<ConfigurationDTO> findByKeys(@RequestParam("keys") final List<String> keys) {
+        Preconditions.checkArgument(keys != null && !keys.isEmpty(), "Keys must not be null or empty");
+
+        logger.debug("Receive 'findByKeys' request with {} keys", keys.size());
+
+        return configurationComponent.findByKeys(keys).stream()
+                .map(ConfigurationDTOMapper.toDTO)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * I return the configuration entries of the database with keys starting with the given prefix.
+     *
+     * The configuration keys are dotted namespaces, so a client can load a single subtree
+     * instead of all entries. The prefix is compared literally, without wildcards.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/configuration?prefix=app.bogenliga.frontend.}</pre>
+     * <pre>{@code Response:
+     * [
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     *  },
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.interval",
+     *    "value": "10"
+     *  }
+     * ]
+     * }
+     * </pre>
+     *
+     * @param prefix of the configuration keys
+     * @return list of {@link ConfigurationDTO} ordered by key as JSON
+     */
+    @RequestMapping(method = RequestMethod.GET, params = {"prefix", "!keys"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<ConfigurationDTO> findByPrefix(@RequestParam("prefix") final String prefix) {
+        Preconditions.checkNotNullOrEmpty(prefix, "Prefix must not be null or empty");
+
+        logger.debug("Receive 'findByPrefix' request with prefix '{}'", prefix);
+
+        return configurationComponent.findByPrefix(prefix).stream()
+                .map(ConfigurationDTOMapper.toDTO)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * I return a page of configuration entries of the database ordered by key.
+     *
+     * The pages are selected with keyset pagination, so each page has the same cost regardless of its position.
+     * The response contains the link to the next page with an opaque cursor in the "Link" header.
+     * The last page has no link.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/configuration?limit=2}</pre>
+     * <pre>{@code Response:
+     * Link: <http://localhost:9000/v1/configuration?limit=2&after={cursor}>; rel="next"
+     * [
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     *  },
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.interval",
+     *    "value": "10"
+     *  }
+     * ]
+     * }
+     * </pre>
+     *
+     * @param limit maximum number of entries of the page, between 1 and
+     *              {@link ConfigurationComponent#MAX_PAGE_LIMIT}
+     * @param after cursor of the "Link" header of the previous page; empty for the first page
+     * @return list of {@link ConfigurationDTO} ordered by key as JSON
+     */
+    @RequestMapping(method = RequestMethod.GET, params = {"limit", "!keys", "!prefix"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ConfigurationDTO>> findPage(
+            @RequestParam("limit") final int limit,
+            @RequestParam(value = AFTER, required = false) final String after) {
+        logger.debug("Receive 'findPage' request with limit {}", limit);
+
+        final Page<ConfigurationVO> page = configurationComponent.findPage(fromCursor(after), limit);
+        return toPageResponse(page, ServletUriComponentsBuilder.fromCurrentRequest());
     }
 
 
@@ -101,16 +263,64 @@ public class ConfigurationService implements ServiceFacade {
      * }
      * </pre>
      *
+     * The response contains the version of the entry as strong entity tag (ETag),
+     * see {@link #findAll(String)}.
+     *
+     * @param key         of the configuration entry
+     * @param ifNoneMatch entity tags of the cached response, optional
      * @return list of {@link ConfigurationDTO} as JSON
      */
     @RequestMapping(value = "{key}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ConfigurationDTO findByKey(@PathVariable("key") final String key) {
+    public ResponseEntity<ConfigurationDTO> findByKey(
+            @PathVariable("key") final String key,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
         Preconditions.checkNotNullOrEmpty(key, "Key string must not null or empty");
 
         logger.debug("Receive 'findByKey' request with key '{}'", key);
 
-        final ConfigurationVO configurationVO = configurationComponent.findByKey(key);
-        return ConfigurationDTOMapper.toDTO.apply(configurationVO);
+        final Versioned<ConfigurationVO> configurationVO = configurationComponent.findByKeyWithVersion(key);
+        final String currentETag = toETag(configurationVO.getVersion());
+        if (isNotModified(ifNoneMatch, currentETag)) {
+            return notModified(currentETag);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(currentETag)
+                .cacheControl(CacheControl.noCache())
+                .body(ConfigurationDTOMapper.toDTO.apply(configurationVO.getValue()));
+    }
+
+
+    /**
+     * I stream the changes of the configuration entries as server-sent events.
+     *
+     * The stream replaces the polling of all configuration entries.
+     * A new subscriber receives a "reset" event and should load all entries with {@link #findAll(String)}.
+     * Afterwards every change is sent as "change" event with the version of the stream.
+     * The browser EventSource reconnects automatically with the "Last-Event-ID" and receives the missed changes
+     * or a "reset" event, if the missed changes are unknown.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/configuration/stream}</pre>
+     * <pre>{@code Response:
+     * event:reset
+     * id:5f2b1c3a-0
+     * data:{"version":0,"type":"RESET","key":null,"value":null}
+     *
+     * event:change
+     * id:5f2b1c3a-1
+     * data:{"version":1,"type":"UPDATE","key":"app.bogenliga.frontend.autorefresh.interval","value":"20"}
+     * }
+     * </pre>
+     *
+     * @param lastEventId of the last received event, optional
+     * @return asynchronous stream of {@link ConfigurationChangeDTO} as JSON events
+     */
+    @RequestMapping(value = "stream", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = LAST_EVENT_ID, required = false) final String lastEventId) {
+        logger.debug("Receive 'stream' request with last event id '{}'", lastEventId);
+
+        return configurationChangeBroker.subscribe(lastEventId);
     }
 
 
@@ -179,6 +389,45 @@ public class ConfigurationService implements ServiceFacade {
     }
 
 
+    /**
+     * I create or replace the configuration entry with a specific key.
+     *
+     * The request is idempotent: a new entry is created, if the key does not exist,
+     * otherwise the value of the existing entry is replaced.
+     * The key of the body is optional, but must match the key of the path.
+     *
+     * Usage:
+     * <pre>{@code Request: PUT /v1/configuration/app.bogenliga.frontend.autorefresh.active
+     * Body:
+     * {
+     *    "value": "true"
+     * }
+     * }</pre>
+     * <pre>{@code Response:
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     *  }
+     * }</pre>
+     *
+     * @param key              of the configuration entry
+     * @param configurationDTO with the new value
+     * @return persisted {@link ConfigurationDTO} as JSON
+     */
+    @RequestMapping(value = "{key}", method = RequestMethod.PUT,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ConfigurationDTO upsert(@PathVariable("key") final String key,
+                                   @RequestBody final ConfigurationDTO configurationDTO) {
+        final ConfigurationVO newConfigurationVO = toUpsertVO(key, configurationDTO);
+
+        logger.debug("Receive 'upsert' request with key '{}' and value '{}'", key, configurationDTO.getValue());
+
+        final ConfigurationVO upsertedConfigurationVO = configurationComponent.upsert(newConfigurationVO);
+        return ConfigurationDTOMapper.toDTO.apply(upsertedConfigurationVO);
+    }
+
+
     /**
      * I delete an existing configuration entry from the database.
      *
@@ -195,4 +444,202 @@ public class ConfigurationService implements ServiceFacade {
         final ConfigurationVO configurationVO = new ConfigurationVO(key, null);
         configurationComponent.delete(configurationVO);
     }
+
+
+    /**
+     * I export all configuration entries of the database as file.
+     *
+     * The entries are streamed from the database to the response without holding the payload in memory.
+     * The CSV format contains a header line and the columns "configuration_key" and "configuration_value".
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/configuration/export?format=csv}</pre>
+     * <pre>{@code Response:
+     * configuration_key,configuration_value
+     * app.bogenliga.frontend.autorefresh.active,true
+     * app.bogenliga.frontend.autorefresh.interval,10
+     * }
+     * </pre>
+     *
+     * @param format "csv" (default) or "binary" (PostgreSQL binary format)
+     * @return streamed export file
+     */
+    @RequestMapping(value = "export", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @RequestParam(value = "format", defaultValue = "csv") final String format) {
+        final CopyFormat copyFormat = toCopyFormat(format);
+
+        logger.debug("Receive 'exportAll' request with format '{}'", copyFormat);
+
+        final StreamingResponseBody body = outputStream -> {
+            final long exportedRows = configurationComponent.exportAll(copyFormat, outputStream);
+            logger.debug("Exported {} configuration entries", exportedRows);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(toMediaType(copyFormat))
+                .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"configuration.%s\"",
+                        copyFormat == CopyFormat.CSV ? "csv" : "bin"))
+                .body(body);
+    }
+
+
+    /**
+     * I import configuration entries from a file.
+     *
+     * The request body is streamed into the database. Existing entries with the same key are updated.
+     * The format is selected by the content type: "text/csv" with a header line
+     * or "application/octet-stream" for the PostgreSQL binary format of the export.
+     *
+     * Usage:
+     * <pre>{@code Request: POST /v1/configuration/import
+     * Content-Type: text/csv
+     * Body:
+     * configuration_key,configuration_value
+     * app.bogenliga.frontend.autorefresh.active,true
+     * }</pre>
+     * <pre>{@code Response:
+     *  {
+     *    "importedRows": 1
+     *  }
+     * }</pre>
+     *
+     * @param contentType of the request body
+     * @param inputStream request body
+     * @return number of created or updated configuration entries as JSON
+     */
+    @RequestMapping(value = "import", method = RequestMethod.POST,
+            consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ConfigurationImportDTO importAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) final String contentType,
+                                            final InputStream inputStream) {
+        final CopyFormat copyFormat = MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(
+                MediaType.parseMediaType(contentType)) ? CopyFormat.BINARY : CopyFormat.CSV;
+
+        logger.debug("Receive 'importAll' request with format '{}'", copyFormat);
+
+        return new ConfigurationImportDTO(configurationComponent.importAll(copyFormat, inputStream));
+    }
+
+
+    /**
+     * I validate the body of an upsert request and return the configuration with the key of the path.
+     *
+     * @param key              of the request path
+     * @param configurationDTO of the request body
+     * @return configuration to create or replace
+     */
+    static ConfigurationVO toUpsertVO(final String key, final ConfigurationDTO configurationDTO) {
+        Preconditions.checkNotNullOrEmpty(key, "Key string must not null or empty");
+        Preconditions.checkNotNull(configurationDTO, "ConfigurationDTO must not null");
+        Preconditions.checkNotNull(configurationDTO.getValue(), "ConfigurationDTO value must not null");
+        Preconditions.checkArgument(configurationDTO.getKey() == null || key.equals(configurationDTO.getKey()),
+                "ConfigurationDTO key must match the key of the request path");
+
+        return new ConfigurationVO(key, configurationDTO.getValue());
+    }
+
+
+    /**
+     * I convert a page of configuration entries into the response with the link to the next page.
+     *
+     * @param page       of configuration entries
+     * @param requestUri of the current page request
+     * @return list of {@link ConfigurationDTO} with the "Link" header, if a next page exists
+     * @see <a href="https://tools.ietf.org/html/rfc8288">RFC 8288 - Web Linking</a>
+     */
+    static ResponseEntity<List<ConfigurationDTO>> toPageResponse(final Page<ConfigurationVO> page,
+                                                                  final UriComponentsBuilder requestUri) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            final String nextUri = requestUri
+                    .replaceQueryParam(AFTER, toCursor(page.getLast().getKey()))
+                    .toUriString();
+            response.header(LINK, String.format("<%s>; rel=\"next\"", nextUri));
+        }
+        return response.body(page.map(ConfigurationDTOMapper.toDTO).getContent());
+    }
+
+
+    /**
+     * I encode the key of the last entry of a page as URL-safe cursor.
+     *
+     * The cursor is opaque for the clients, so the ordering of the pages can change without breaking the API.
+     */
+    static String toCursor(final String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * I decode the cursor of a page request.
+     *
+     * @return key of the last entry of the previous page; null for the first page
+     */
+    static String fromCursor(final String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR,
+                    String.format("Invalid cursor '%s'", cursor), e);
+        }
+    }
+
+
+    private static String toETag(final String version) {
+        return '"' + version + '"';
+    }
+
+
+    /**
+     * I compare the entity tags of the "If-None-Match" header with the current entity tag.
+     *
+     * The weak comparison is used, as defined for the "If-None-Match" header.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc7232#section-3.2">RFC 7232 - If-None-Match</a>
+     */
+    static boolean isNotModified(final String ifNoneMatch, final String currentETag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+
+        for (final String eTag : ifNoneMatch.split(",")) {
+            final String trimmedETag = eTag.trim();
+
+            if ("*".equals(trimmedETag) || currentETag.equals(trimmedETag.startsWith("W/")
+                    ? trimmedETag.substring(2) : trimmedETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static <T> ResponseEntity<T> notModified(final String currentETag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(currentETag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+
+    private static CopyFormat toCopyFormat(final String format) {
+        try {
+            return CopyFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR,
+                    String.format("Unsupported format '%s'", format), e);
+        }
+    }
+
+
+    private static MediaType toMediaType(final CopyFormat copyFormat) {
+        return copyFormat == CopyFormat.CSV
+                ? MediaType.parseMediaType(TEXT_CSV_VALUE)
+                : MediaType.APPLICATION_OCTET_STREAM;
+    }
 }
@@ -0,0 +1,291 @@
+package de.bogenliga.application.services.v1.configuration.controller;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import de.bogenliga.application.business.configuration.api.ReactiveConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.service.ServiceFacade;
+import de.bogenliga.application.common.validation.Preconditions;
+import de.bogenliga.application.services.v1.configuration.mapper.ConfigurationDTOMapper;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * I´m a non-blocking REST resource and handle configuration CRUD requests over the HTTP protocol.
+ *
+ * I provide the requests of the {@link ConfigurationService} with the same request and response bodies.
+ * The servlet thread is released after the request is handed over to the {@link ReactiveConfigurationComponent}.
+ * The response is written asynchronously, when the database request is completed.
+ * So the number of concurrent requests is not limited by the number of servlet threads.
+ *
+ * The errors are handled by the
+ * {@link de.bogenliga.application.services.common.errorhandling.CustomizedResponseEntityExceptionHandler}
+ * like the errors of the {@link ConfigurationService}, e.g. "404 Not Found" for an unknown key.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://docs.spring.io/spring/docs/5.0.x/spring-framework-reference/web.html#mvc-ann-async">
+ * Spring MVC - Asynchronous requests</a>
+ */
+@RestController
+@RequestMapping("v1/reactive/configuration")
+public class ReactiveConfigurationService implements ServiceFacade {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveConfigurationService.class);
+
+    /*
+     * Business components
+     *
+     * dependency injection with {@link Autowired}
+     */
+    private final ReactiveConfigurationComponent reactiveConfigurationComponent;
+
+
+    /**
+     * Constructor with dependency injection
+     *
+     * @param reactiveConfigurationComponent to handle the database CRUD requests
+     */
+    @Autowired
+    public ReactiveConfigurationService(final ReactiveConfigurationComponent reactiveConfigurationComponent) {
+        this.reactiveConfigurationComponent = reactiveConfigurationComponent;
+    }
+
+
+    /**
+     * I return all configuration entries of the database.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/reactive/configuration}</pre>
+     * <pre>{@code Response:
+     * [
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     *  }
+     * ]
+     * }
+     * </pre>
+     *
+     * @return list of {@link ConfigurationDTO} as JSON
+     */
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<ConfigurationDTO> findAll() {
+        logger.debug("Receive 'findAll' request");
+
+        return reactiveConfigurationComponent.findAll().map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I return the configuration entries of the database with the given keys.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/reactive/configuration?keys=app.bogenliga.frontend.autorefresh.active,unknown}</pre>
+     *
+     * @param keys of the configuration entries
+     * @return list of {@link ConfigurationDTO} in the order of the keys as JSON
+     * @see ConfigurationService#findByKeys(List)
+     */
+    @RequestMapping(method = RequestMethod.GET, params = "keys", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<ConfigurationDTO> findByKeys(@RequestParam("keys") final List<String> keys) {
+        Preconditions.checkArgument(keys != null && !keys.isEmpty(), "Keys must not be null or empty");
+
+        logger.debug("Receive 'findByKeys' request with {} keys", keys.size());
+
+        return reactiveConfigurationComponent.findByKeys(keys).map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I return the configuration entries of the database with keys starting with the given prefix.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/reactive/configuration?prefix=app.bogenliga.frontend.}</pre>
+     *
+     * @param prefix of the configuration keys
+     * @return list of {@link ConfigurationDTO} ordered by key as JSON
+     * @see ConfigurationService#findByPrefix(String)
+     */
+    @RequestMapping(method = RequestMethod.GET, params = {"prefix", "!keys"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<ConfigurationDTO> findByPrefix(@RequestParam("prefix") final String prefix) {
+        Preconditions.checkNotNullOrEmpty(prefix, "Prefix must not be null or empty");
+
+        logger.debug("Receive 'findByPrefix' request with prefix '{}'", prefix);
+
+        return reactiveConfigurationComponent.findByPrefix(prefix).map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I return a page of configuration entries of the database ordered by key.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/reactive/configuration?limit=100}</pre>
+     *
+     * @param limit maximum number of entries of the page
+     * @param after cursor of the "Link" header of the previous page; empty for the first page
+     * @return list of {@link ConfigurationDTO} ordered by key as JSON
+     * @see ConfigurationService#findPage(int, String)
+     */
+    @RequestMapping(method = RequestMethod.GET, params = {"limit", "!keys", "!prefix"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<ConfigurationDTO>>> findPage(
+            @RequestParam("limit") final int limit,
+            @RequestParam(value = ConfigurationService.AFTER, required = false) final String after) {
+        logger.debug("Receive 'findPage' request with limit {}", limit);
+
+        // the request is not available on the scheduler thread
+        final UriComponentsBuilder requestUri = ServletUriComponentsBuilder.fromCurrentRequest();
+
+        return reactiveConfigurationComponent.findPage(ConfigurationService.fromCursor(after), limit)
+                .map(page -> ConfigurationService.toPageResponse(page, requestUri));
+    }
+
+
+    /**
+     * I return the configuration entry of the database with a specific key.
+     *
+     * Usage:
+     * <pre>{@code Request: GET /v1/reactive/configuration/app.bogenliga.frontend.autorefresh.active}</pre>
+     * <pre>{@code Response:
+     *  {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     *  }
+     * }
+     * </pre>
+     *
+     * @param key of the configuration entry
+     * @return {@link ConfigurationDTO} as JSON
+     */
+    @RequestMapping(value = "{key}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ConfigurationDTO> findByKey(@PathVariable("key") final String key) {
+        Preconditions.checkNotNullOrEmpty(key, "Key string must not null or empty");
+
+        logger.debug("Receive 'findByKey' request with key '{}'", key);
+
+        return reactiveConfigurationComponent.findByKey(key).map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I persist a new configuration and return this configuration entry.
+     *
+     * Usage:
+     * <pre>{@code Request: POST /v1/reactive/configuration
+     * Body:
+     * {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     * }
+     * }</pre>
+     *
+     * @return persisted {@link ConfigurationDTO} as JSON
+     */
+    @RequestMapping(method = RequestMethod.POST,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ConfigurationDTO> create(@RequestBody final ConfigurationDTO configurationDTO) {
+        checkConfigurationDTO(configurationDTO);
+
+        logger.debug("Receive 'create' request with key '{}' and value '{}'", configurationDTO.getKey(),
+                configurationDTO.getValue());
+
+        return reactiveConfigurationComponent.create(ConfigurationDTOMapper.toVO.apply(configurationDTO))
+                .map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I persist a newer version of the configuration in the database.
+     *
+     * Usage:
+     * <pre>{@code Request: PUT /v1/reactive/configuration
+     * Body:
+     * {
+     *    "key": "app.bogenliga.frontend.autorefresh.active",
+     *    "value": "true"
+     * }
+     * }</pre>
+     *
+     * @return persisted {@link ConfigurationDTO} as JSON
+     */
+    @RequestMapping(method = RequestMethod.PUT,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ConfigurationDTO> update(@RequestBody final ConfigurationDTO configurationDTO) {
+        checkConfigurationDTO(configurationDTO);
+
+        logger.debug("Receive 'update' request with key '{}' and value '{}'", configurationDTO.getKey(),
+                configurationDTO.getValue());
+
+        return reactiveConfigurationComponent.update(ConfigurationDTOMapper.toVO.apply(configurationDTO))
+                .map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I create or replace the configuration entry with a specific key.
+     *
+     * Usage:
+     * <pre>{@code Request: PUT /v1/reactive/configuration/app.bogenliga.frontend.autorefresh.active
+     * Body:
+     * {
+     *    "value": "true"
+     * }
+     * }</pre>
+     *
+     * @return persisted {@link ConfigurationDTO} as JSON
+     * @see ConfigurationService#upsert(String, ConfigurationDTO)
+     */
+    @RequestMapping(value = "{key}", method = RequestMethod.PUT,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ConfigurationDTO> upsert(@PathVariable("key") final String key,
+                                         @RequestBody final ConfigurationDTO configurationDTO) {
+        final ConfigurationVO newConfigurationVO = ConfigurationService.toUpsertVO(key, configurationDTO);
+
+        logger.debug("Receive 'upsert' request with key '{}' and value '{}'", key, configurationDTO.getValue());
+
+        return reactiveConfigurationComponent.upsert(newConfigurationVO).map(ConfigurationDTOMapper.toDTO);
+    }
+
+
+    /**
+     * I delete an existing configuration entry from the database.
+     *
+     * Usage:
+     * <pre>{@code Request: DELETE /v1/reactive/configuration/app.bogenliga.frontend.autorefresh.active}</pre>
+     *
+     * @return completion signal of the deletion
+     */
+    @RequestMapping(value = "{key}", method = RequestMethod.DELETE)
+    public Mono<Void> delete(@PathVariable("key") final String key) {
+        Preconditions.checkNotNullOrEmpty(key, "Key string must not null or empty");
+
+        logger.debug("Receive 'delete' request with key '{}'", key);
+
+        // allow value == null, the value will be ignored
+        return reactiveConfigurationComponent.delete(new ConfigurationVO(key, null));
+    }
+
+
+    private static void checkConfigurationDTO(final ConfigurationDTO configurationDTO) {
+        Preconditions.checkNotNull(configurationDTO, "ConfigurationDTO must not null");
+        Preconditions.checkNotNullOrEmpty(configurationDTO.getKey(), "ConfigurationDTO key must not null or empty");
+        Preconditions.checkNotNull(configurationDTO.getValue(), "ConfigurationDTO value must not null");
+    }
+}
@@ -0,0 +1,83 @@
+package de.bogenliga.application.services.v1.configuration.model;
+
+import de.bogenliga.application.common.service.types.DataTransferObject;
+
+/**
+ * I´m the data transfer object of a configuration change event.
+ *
+ * I contain the version of the change stream, the type of the change and the changed key-value pair.
+ * The key and the value are null for the change type "RESET", the value is null for "DELETE".
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see DataTransferObject
+ */
+public class ConfigurationChangeDTO implements DataTransferObject {
+    private long version;
+    private String type;
+    private String key;
+    private String value;
+
+
+    /**
+     * Constructor
+     */
+    public ConfigurationChangeDTO() {
+        // empty constructor
+    }
+
+
+    /**
+     * Constructor with all fields
+     *
+     * @param version of the change stream
+     * @param type    of the change
+     * @param key     of the changed configuration entry
+     * @param value   new value of the configuration entry
+     */
+    public ConfigurationChangeDTO(final long version, final String type, final String key, final String value) {
+        this.version = version;
+        this.type = type;
+        this.key = key;
+        this.value = value;
+    }
+
+
+    public long getVersion() {
+        return version;
+    }
+
+
+    public void setVersion(final long version) {
+        this.version = version;
+    }
+
+
+    public String getType() {
+        return type;
+    }
+
+
+    public void setType(final String type) {
+        this.type = type;
+    }
+
+
+    public String getKey() {
+        return key;
+    }
+
+
+    public void setKey(final String key) {
+        this.key = key;
+    }
+
+
+    public String getValue() {
+        return value;
+    }
+
+
+    public void setValue(final String value) {
+        this.value = value;
+    }
+}
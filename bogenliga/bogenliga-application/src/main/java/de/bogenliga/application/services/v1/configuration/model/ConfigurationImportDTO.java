@@ -0,0 +1,43 @@
+package de.bogenliga.application.services.v1.configuration.model;
+
+import de.bogenliga.application.common.service.types.DataTransferObject;
+
+/**
+ * I´m the data transfer object of a configuration import.
+ *
+ * I contain the number of created or updated configuration entries.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see DataTransferObject
+ */
+public class ConfigurationImportDTO implements DataTransferObject {
+    private long importedRows;
+
+
+    /**
+     * Constructor
+     */
+    public ConfigurationImportDTO() {
+        // empty constructor
+    }
+
+
+    /**
+     * Constructor with required fields
+     *
+     * @param importedRows number of created or updated configuration entries
+     */
+    public ConfigurationImportDTO(final long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+
+    public void setImportedRows(final long importedRows) {
+        this.importedRows = importedRows;
+    }
+}
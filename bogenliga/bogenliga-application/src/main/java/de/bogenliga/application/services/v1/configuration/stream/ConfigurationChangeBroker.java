@@ -0,0 +1,493 @@
+package de.bogenliga.application.services.v1.configuration.stream;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangeType;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangedEvent;
+import de.bogenliga.application.common.configuration.StreamConfiguration;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationChangeDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * I distribute the {@link ConfigurationChangedEvent}s to the subscribers of the configuration stream.
+ *
+ * The subscribers are asynchronous {@link SseEmitter}s and do not block a request thread while idle.
+ * All subscriptions, changes and heartbeats are processed by a single thread,
+ * so the state of the stream is confined to this thread.
+ *
+ * The events are not sent by this thread, because a send blocks while the TCP send buffer of a slow client is full.
+ * Each subscriber has a bounded queue of pending events, which is sent in order by a sender thread.
+ * A subscriber with a full queue is disconnected and resumes the stream with the "Last-Event-ID" after reconnecting,
+ * so a slow client does not stall the other subscribers.
+ * The sender threads are a fixed pool, so a broadcast to thousands of subscribers does not start a thread
+ * per subscriber. A subscriber, which cannot be queued for a sender thread, is disconnected as well.
+ *
+ * Each change increments the version of the stream. The event id contains the instance id of this node
+ * and the version. A subscriber can resume the stream with the "Last-Event-ID", if this node still contains
+ * the missed changes in its history. Otherwise the subscriber receives a "reset" event and has to reload
+ * all configuration entries.
+ *
+ * A change can be published more than once, e.g. by the component and by the database notification.
+ * Changes without effect on the last known state of the key are not sent again.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">Server-sent events</a>
+ */
+@Component
+public class ConfigurationChangeBroker implements ApplicationListener<ConfigurationChangedEvent> {
+
+    static final String CHANGE_EVENT = "change";
+    static final String RESET_EVENT = "reset";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationChangeBroker.class);
+    private static final String THREAD_NAME = "bogenliga-configuration-stream";
+    private static final String SENDER_THREAD_NAME_PREFIX = "bogenliga-configuration-stream-sender-";
+    private static final String SUBSCRIBERS_GAUGE = "configuration.stream.subscribers";
+    private static final char ID_SEPARATOR = '-';
+
+    private final StreamConfiguration streamConfiguration;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService sender;
+    // distinguishes the event ids of the application nodes and restarts
+    private final String instanceId;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // confined to the executor thread
+    private final Map<SseEmitter, Subscriber> subscribers = new LinkedHashMap<>();
+    private final Deque<ConfigurationChangeDTO> history = new ArrayDeque<>();
+    private final Map<String, ConfigurationChangeDTO> lastChanges = new HashMap<>();
+    private long version;
+
+
+    /**
+     * Constructor
+     *
+     * dependency injection with {@link Autowired}
+     *
+     * @param streamConfiguration   with the timeout, heartbeat interval and history size
+     * @param meterRegistryProvider to register the number of subscribers, if available
+     */
+    @Autowired
+    public ConfigurationChangeBroker(final StreamConfiguration streamConfiguration,
+                                     final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(streamConfiguration, createExecutor(),
+                createSender(streamConfiguration.getSenderThreads(), streamConfiguration.getSenderQueueSize()),
+                UUID.randomUUID().toString().substring(0, 8));
+
+        executor.scheduleWithFixedDelay(this::sendHeartbeat, streamConfiguration.getHeartbeatInterval(),
+                streamConfiguration.getHeartbeatInterval(), TimeUnit.MILLISECONDS);
+
+        final MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            Gauge.builder(SUBSCRIBERS_GAUGE, subscriberCount, AtomicInteger::get)
+                    .description("Number of subscribers of the configuration stream")
+                    .register(meterRegistry);
+        }
+    }
+
+
+    /**
+     * Package-private constructor with all dependencies
+     *
+     * @param streamConfiguration with the timeout and history size
+     * @param executor            to process the subscriptions and changes
+     * @param sender              to send the events to the subscribers
+     * @param instanceId          of the event ids
+     */
+    ConfigurationChangeBroker(final StreamConfiguration streamConfiguration,
+                              final ScheduledExecutorService executor, final ExecutorService sender,
+                              final String instanceId) {
+        this.streamConfiguration = streamConfiguration;
+        this.executor = executor;
+        this.sender = sender;
+        this.instanceId = instanceId;
+    }
+
+
+    private static ScheduledExecutorService createExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * I create the fixed pool of sender threads.
+     *
+     * A thread is only used while events of a subscriber are pending.
+     * The queue of waiting subscribers is bounded and rejects further subscribers.
+     *
+     * @param threads   number of sender threads
+     * @param queueSize maximum number of subscribers waiting for a sender thread
+     * @return executor to send the events
+     */
+    static ExecutorService createSender(final int threads, final int queueSize) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            SENDER_THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+
+    /**
+     * I subscribe a new client to the configuration changes.
+     *
+     * @param lastEventId of the last received event to resume the stream, optional
+     * @return asynchronous server-sent event stream
+     */
+    public SseEmitter subscribe(final String lastEventId) {
+        final SseEmitter emitter = new SseEmitter(streamConfiguration.getTimeout());
+        subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+
+    void subscribe(final SseEmitter emitter, final String lastEventId) {
+        final Runnable unsubscribe = () -> execute(() -> unsubscribe(emitter));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+
+        execute(() -> {
+            final Subscriber subscriber = new Subscriber(emitter);
+
+            if (subscribers.putIfAbsent(emitter, subscriber) == null) {
+                subscriberCount.incrementAndGet();
+                // the replay is bounded by the history size
+                replay(lastEventId).forEach(change -> subscriber.enqueue(toEvent(change)));
+            }
+        });
+    }
+
+
+    @Override
+    public void onApplicationEvent(final ConfigurationChangedEvent event) {
+        execute(() -> publish(event));
+    }
+
+
+    /**
+     * Complete all streams on application shutdown
+     */
+    @PreDestroy
+    public void close() {
+        execute(() -> {
+            subscribers.values().forEach(Subscriber::close);
+            subscribers.clear();
+            subscriberCount.set(0);
+            // the pending completions are still executed
+            sender.shutdown();
+        });
+        executor.shutdown();
+    }
+
+
+    private void publish(final ConfigurationChangedEvent event) {
+        final ConfigurationChangeType changeType = event.getChangeType();
+
+        if (isKnownState(event)) {
+            LOG.debug("Skip known configuration change {}", event);
+            return;
+        }
+
+        version++;
+        final ConfigurationChangeDTO change = new ConfigurationChangeDTO(version, changeType.name(),
+                event.getKey(), event.getValue());
+
+        if (changeType == ConfigurationChangeType.RESET) {
+            lastChanges.clear();
+        } else {
+            lastChanges.put(event.getKey(), change);
+        }
+
+        history.addLast(change);
+        while (history.size() > streamConfiguration.getHistorySize()) {
+            history.removeFirst();
+        }
+
+        broadcast(toEvent(change));
+    }
+
+
+    private boolean isKnownState(final ConfigurationChangedEvent event) {
+        if (event.getChangeType() == ConfigurationChangeType.RESET) {
+            return false;
+        }
+
+        final ConfigurationChangeDTO lastChange = lastChanges.get(event.getKey());
+        if (lastChange == null) {
+            return false;
+        }
+
+        final boolean deleted = event.getChangeType() == ConfigurationChangeType.DELETE;
+        final boolean lastDeleted = ConfigurationChangeType.DELETE.name().equals(lastChange.getType());
+
+        return deleted == lastDeleted && Objects.equals(event.getValue(), lastChange.getValue());
+    }
+
+
+    /**
+     * I return the missed changes after the last event id
+     * or a reset, if the missed changes are unknown.
+     */
+    private List<ConfigurationChangeDTO> replay(final String lastEventId) {
+        final long lastVersion = parseVersion(lastEventId);
+        final ConfigurationChangeDTO oldestChange = history.peekFirst();
+
+        if (lastVersion == version) {
+            return Collections.emptyList();
+
+        } else if (lastVersion < 0 || lastVersion > version
+                || oldestChange == null || oldestChange.getVersion() > lastVersion + 1) {
+            return Collections.singletonList(new ConfigurationChangeDTO(version,
+                    ConfigurationChangeType.RESET.name(), null, null));
+        }
+
+        final List<ConfigurationChangeDTO> missedChanges = new ArrayList<>();
+        for (final ConfigurationChangeDTO change : history) {
+            if (change.getVersion() > lastVersion) {
+                missedChanges.add(change);
+            }
+        }
+        return missedChanges;
+    }
+
+
+    private long parseVersion(final String lastEventId) {
+        final String prefix = instanceId + ID_SEPARATOR;
+
+        if (lastEventId == null || !lastEventId.startsWith(prefix)) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+
+    private SseEmitter.SseEventBuilder toEvent(final ConfigurationChangeDTO change) {
+        return SseEmitter.event()
+                .id(instanceId + ID_SEPARATOR + change.getVersion())
+                .name(ConfigurationChangeType.RESET.name().equals(change.getType()) ? RESET_EVENT : CHANGE_EVENT)
+                .data(change, MediaType.APPLICATION_JSON);
+    }
+
+
+    private void sendHeartbeat() {
+        broadcast(SseEmitter.event().comment("heartbeat"));
+    }
+
+
+    private void broadcast(final SseEmitter.SseEventBuilder event) {
+        final Iterator<Subscriber> iterator = subscribers.values().iterator();
+
+        while (iterator.hasNext()) {
+            final Subscriber subscriber = iterator.next();
+
+            if (!subscriber.offer(event)) {
+                // the client does not receive the events fast enough or closed the connection
+                LOG.debug("Remove slow configuration stream subscriber");
+                iterator.remove();
+                subscriberCount.decrementAndGet();
+                subscriber.close();
+            }
+        }
+    }
+
+
+    private void unsubscribe(final SseEmitter emitter) {
+        final Subscriber subscriber = subscribers.remove(emitter);
+        if (subscriber != null) {
+            subscriberCount.decrementAndGet();
+            subscriber.cancel();
+        }
+    }
+
+
+    private void execute(final Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            LOG.debug("Configuration stream is closed.");
+        }
+    }
+
+
+    /**
+     * I´m a subscriber with a bounded queue of pending events.
+     *
+     * The events are enqueued by the executor thread and sent by one sender thread at a time,
+     * so the events are sent in order and a blocked send only delays this subscriber.
+     * The emitter is only used by the sender threads, because a send blocks the emitter.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+
+        // guarded by this
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        private boolean completed;
+
+
+        Subscriber(final SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+
+        /**
+         * I enqueue an event without limit, e.g. the replay of a subscription.
+         */
+        synchronized void enqueue(final SseEmitter.SseEventBuilder event) {
+            pending.addLast(event);
+            scheduleDrain();
+        }
+
+
+        /**
+         * I enqueue an event, if the queue is not full.
+         *
+         * @return false, if the subscriber is too slow or closed and has to be removed
+         */
+        synchronized boolean offer(final SseEmitter.SseEventBuilder event) {
+            if (closed || pending.size() >= streamConfiguration.getSendQueueSize()) {
+                return false;
+            }
+
+            enqueue(event);
+            // the subscriber is dropped, if the event cannot be queued for a sender thread
+            return !closed;
+        }
+
+
+        /**
+         * I drop the pending events and complete the stream after the current send.
+         */
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+            scheduleDrain();
+        }
+
+
+        /**
+         * I drop the pending events of a stream, which is already completed.
+         */
+        synchronized void cancel() {
+            closed = true;
+            completed = true;
+            pending.clear();
+        }
+
+
+        private void scheduleDrain() {
+            if (draining) {
+                return;
+            }
+
+            draining = true;
+            try {
+                sender.execute(this::drain);
+            } catch (final RejectedExecutionException e) {
+                draining = false;
+
+                if (sender.isShutdown()) {
+                    LOG.debug("Configuration stream is closed.");
+                } else {
+                    drop();
+                }
+            }
+        }
+
+
+        /**
+         * I disconnect the subscriber, because all sender threads are busy and the sender queue is full.
+         *
+         * No send of this subscriber is running, so the emitter can be completed by the calling thread.
+         */
+        private void drop() {
+            LOG.debug("Remove configuration stream subscriber, the sender queue is full");
+            final boolean complete = !completed;
+            cancel();
+
+            if (complete) {
+                emitter.complete();
+            }
+            execute(() -> unsubscribe(emitter));
+        }
+
+
+        private void drain() {
+            while (true) {
+                final SseEmitter.SseEventBuilder event;
+                final boolean complete;
+                synchronized (this) {
+                    event = pending.pollFirst();
+                    complete = event == null && closed && !completed;
+
+                    if (event == null) {
+                        draining = false;
+                        completed |= complete;
+                    }
+                }
+
+                if (event == null) {
+                    if (complete) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+
+                try {
+                    emitter.send(event);
+                } catch (final IOException | IllegalStateException e) {
+                    // the client closed the connection
+                    LOG.debug("Remove configuration stream subscriber: {}", e.getMessage());
+                    synchronized (this) {
+                        cancel();
+                        draining = false;
+                    }
+                    emitter.completeWithError(e);
+                    execute(() -> unsubscribe(emitter));
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import de.bogenliga.application.common.database.tx.Propagation;
 import de.bogenliga.application.common.database.tx.TransactionManager;
 
 /**
@@ -33,6 +34,11 @@ public class TransactionManagerMock implements TransactionManager {
     }
 
 
+    @Override
+    public void begin(final Propagation propagation, final boolean readOnly) {
+    }
+
+
     @Override
     public void rollback() {
     }
@@ -48,6 +54,12 @@ public class TransactionManagerMock implements TransactionManager {
     }
 
 
+    @Override
+    public void afterCommit(final Runnable callback) {
+        callback.run();
+    }
+
+
     @Override
     public Connection getConnection() {
         return Mockito.mock(Connection.class);
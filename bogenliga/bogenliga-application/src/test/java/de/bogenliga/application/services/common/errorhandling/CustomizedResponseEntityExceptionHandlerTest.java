@@ -139,6 +139,25 @@ public class CustomizedResponseEntityExceptionHandlerTest {
     }
 
 
+    @Test
+    public void handleTechnicalException_withServiceUnavailable_shouldReturn503() {
+        // prepare test data
+        final TechnicalException exception = new TechnicalException(ErrorCode.SERVICE_UNAVAILABLE_ERROR, MESSAGE);
+        // configure mocks
+
+        // call test method
+        underTest = new CustomizedResponseEntityExceptionHandler();
+        final ResponseEntity<ErrorDTO> actual = underTest.handleTechnicalException(exception, mock(WebRequest.class));
+
+        // assert result
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(actual.getBody()).isNotNull();
+        assertThat(actual.getBody().getErrorCode()).isEqualTo(ErrorCode.SERVICE_UNAVAILABLE_ERROR);
+
+        // verify invocations
+    }
+
+
     @Test
     public void handleNullPointerException() {
         // prepare test data
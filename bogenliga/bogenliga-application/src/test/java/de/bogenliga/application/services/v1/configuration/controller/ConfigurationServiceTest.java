@@ -1,5 +1,10 @@
 package de.bogenliga.application.services.v1.configuration.controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.junit.Rule;
@@ -10,10 +15,27 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
 import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
+import de.bogenliga.application.common.errorhandling.exception.BusinessException;
 import de.bogenliga.application.services.v1.configuration.model.ConfigurationDTO;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationImportDTO;
+import de.bogenliga.application.services.v1.configuration.stream.ConfigurationChangeBroker;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Mockito.*;
 
 /**
@@ -31,12 +53,15 @@ public class ConfigurationServiceTest {
 
     private static final String KEY = "key";
     private static final String VALUE = "value";
+    private static final String VERSION = "0123456789abcdef0123456789abcdef";
 
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
     @Mock
     private ConfigurationComponent configurationComponent;
+    @Mock
+    private ConfigurationChangeBroker configurationChangeBroker;
 
     @InjectMocks
     private ConfigurationService underTest;
@@ -55,12 +80,17 @@ public class ConfigurationServiceTest {
         final List<ConfigurationVO> configurationVOList = Collections.singletonList(configurationVO);
 
         // configure mocks
-        when(configurationComponent.findAll()).thenReturn(configurationVOList);
+        when(configurationComponent.findAllWithVersion()).thenReturn(
+                new Versioned<>(configurationVOList, VERSION));
 
         // call test method
-        final List<ConfigurationDTO> actual = underTest.findAll();
+        final ResponseEntity<List<ConfigurationDTO>> response = underTest.findAll(null);
 
         // assert result
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + VERSION + "\"");
+
+        final List<ConfigurationDTO> actual = response.getBody();
         assertThat(actual)
                 .isNotNull()
                 .hasSize(1);
@@ -72,7 +102,9 @@ public class ConfigurationServiceTest {
         assertThat(actualDTO.getValue()).isEqualTo(configurationVO.getValue());
 
         // verify invocations
-        verify(configurationComponent).findAll();
+        // the entries are loaded once for the entity tag and the body
+        verify(configurationComponent).findAllWithVersion();
+        verifyNoMoreInteractions(configurationComponent);
     }
 
 
@@ -84,18 +116,105 @@ public class ConfigurationServiceTest {
         configurationVO.setValue(VALUE);
 
         // configure mocks
-        when(configurationComponent.findByKey(any())).thenReturn(configurationVO);
+        when(configurationComponent.findByKeyWithVersion(KEY)).thenReturn(new Versioned<>(configurationVO, VERSION));
 
         // call test method
-        final ConfigurationDTO actual = underTest.findByKey(KEY);
+        final ResponseEntity<ConfigurationDTO> response = underTest.findByKey(KEY, "\"outdated\"");
 
         // assert result
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + VERSION + "\"");
+
+        final ConfigurationDTO actual = response.getBody();
         assertThat(actual).isNotNull();
         assertThat(actual.getKey()).isEqualTo(configurationVO.getKey());
         assertThat(actual.getValue()).isEqualTo(configurationVO.getValue());
 
         // verify invocations
-        verify(configurationComponent).findByKey(KEY);
+        verify(configurationComponent).findByKeyWithVersion(KEY);
+        verifyNoMoreInteractions(configurationComponent);
+    }
+
+
+    @Test
+    public void findAll_withCurrentETag_shouldReturnNotModified() {
+        // prepare test data
+        final String eTag = "\"" + VERSION + "\"";
+
+        // configure mocks
+        when(configurationComponent.findAllWithVersion()).thenReturn(
+                new Versioned<>(Collections.emptyList(), VERSION));
+
+        // call test method
+        final ResponseEntity<List<ConfigurationDTO>> actual = underTest.findAll("\"outdated\", W/" + eTag);
+
+        // assert result
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(actual.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(actual.getBody()).isNull();
+
+        // verify invocations
+        verify(configurationComponent, never()).findAll();
+        verify(configurationComponent).findAllWithVersion();
+    }
+
+
+    @Test
+    public void findByKey_withCurrentETag_shouldReturnNotModified() {
+        // prepare test data
+        final String eTag = "\"" + VERSION + "\"";
+
+        // configure mocks
+        when(configurationComponent.findByKeyWithVersion(KEY)).thenReturn(
+                new Versioned<>(new ConfigurationVO(KEY, VALUE), VERSION));
+
+        // call test method
+        final ResponseEntity<ConfigurationDTO> actual = underTest.findByKey(KEY, eTag);
+
+        // assert result
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(actual.getBody()).isNull();
+
+        // verify invocations
+        verify(configurationComponent, never()).findByKey(anyString());
+    }
+
+
+    @Test
+    public void stream() {
+        // prepare test data
+        final String lastEventId = "instance-1";
+        final SseEmitter expected = new SseEmitter();
+
+        // configure mocks
+        when(configurationChangeBroker.subscribe(lastEventId)).thenReturn(expected);
+
+        // call test method
+        final SseEmitter actual = underTest.stream(lastEventId);
+
+        // assert result
+        assertThat(actual).isSameAs(expected);
+
+        // verify invocations
+        verify(configurationChangeBroker).subscribe(lastEventId);
+    }
+
+
+    @Test
+    public void isNotModified() {
+        // prepare test data
+        final String eTag = "\"" + VERSION + "\"";
+
+        // configure mocks
+        // call test method
+        // assert result
+        assertThat(ConfigurationService.isNotModified(null, eTag)).isFalse();
+        assertThat(ConfigurationService.isNotModified("\"outdated\"", eTag)).isFalse();
+        assertThat(ConfigurationService.isNotModified(eTag, eTag)).isTrue();
+        assertThat(ConfigurationService.isNotModified("W/" + eTag, eTag)).isTrue();
+        assertThat(ConfigurationService.isNotModified("*", eTag)).isTrue();
+
+        // verify invocations
     }
 
 
@@ -165,6 +284,166 @@ public class ConfigurationServiceTest {
     }
 
 
+    @Test
+    public void upsert() {
+        // prepare test data
+        final ConfigurationDTO input = new ConfigurationDTO();
+        input.setValue(VALUE);
+
+        // configure mocks
+        when(configurationComponent.upsert(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // call test method
+        final ConfigurationDTO actual = underTest.upsert(KEY, input);
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getKey()).isEqualTo(KEY);
+        assertThat(actual.getValue()).isEqualTo(VALUE);
+
+        // verify invocations
+        verify(configurationComponent).upsert(configurationVOArgumentCaptor.capture());
+
+        assertThat(configurationVOArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+        assertThat(configurationVOArgumentCaptor.getValue().getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void upsert_withOtherKeyInBody_shouldThrowException() {
+        // prepare test data
+        final ConfigurationDTO input = new ConfigurationDTO("other", VALUE);
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.upsert(KEY, input))
+                .withMessageContaining("must match the key of the request path");
+
+        // verify invocations
+        verifyZeroInteractions(configurationComponent);
+    }
+
+
+    @Test
+    public void findByKeys() {
+        // prepare test data
+        final List<String> keys = Arrays.asList(KEY, "unknown");
+
+        // configure mocks
+        when(configurationComponent.findByKeys(keys)).thenReturn(
+                Collections.singletonList(new ConfigurationVO(KEY, VALUE)));
+
+        // call test method
+        final List<ConfigurationDTO> actual = underTest.findByKeys(keys);
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getKey()).isEqualTo(KEY);
+        assertThat(actual.get(0).getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void findByKeys_withoutKeys_shouldThrowException() {
+        // prepare test data
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.findByKeys(Collections.emptyList()))
+                .withMessageContaining("Keys must not be null or empty");
+
+        // verify invocations
+        verifyZeroInteractions(configurationComponent);
+    }
+
+
+    @Test
+    public void findByPrefix() {
+        // prepare test data
+
+        // configure mocks
+        when(configurationComponent.findByPrefix("ke")).thenReturn(
+                Collections.singletonList(new ConfigurationVO(KEY, VALUE)));
+
+        // call test method
+        final List<ConfigurationDTO> actual = underTest.findByPrefix("ke");
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getKey()).isEqualTo(KEY);
+        assertThat(actual.get(0).getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void findPage_shouldLinkNextPage() {
+        // prepare test data
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/configuration");
+        request.setQueryString("limit=1&after=" + ConfigurationService.toCursor("a"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // configure mocks
+        when(configurationComponent.findPage("a", 1)).thenReturn(
+                new Page<>(Collections.singletonList(new ConfigurationVO(KEY, VALUE)), true));
+
+        // call test method
+        final ResponseEntity<List<ConfigurationDTO>> response;
+        try {
+            response = underTest.findPage(1, ConfigurationService.toCursor("a"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // assert result
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(ConfigurationService.LINK))
+                .isEqualTo("<http://localhost/v1/configuration?limit=1&after="
+                        + ConfigurationService.toCursor(KEY) + ">; rel=\"next\"");
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(response.getBody().get(0).getKey()).isEqualTo(KEY);
+    }
+
+
+    @Test
+    public void toPageResponse_withLastPage_shouldNotLink() {
+        // prepare test data
+        final Page<ConfigurationVO> page = new Page<>(Collections.singletonList(new ConfigurationVO(KEY, VALUE)),
+                false);
+
+        // call test method
+        final ResponseEntity<List<ConfigurationDTO>> response = ConfigurationService.toPageResponse(page,
+                UriComponentsBuilder.fromUriString("http://localhost/v1/configuration?limit=1"));
+
+        // assert result
+        assertThat(response.getHeaders()).doesNotContainKey(ConfigurationService.LINK);
+        assertThat(response.getBody()).hasSize(1);
+    }
+
+
+    @Test
+    public void fromCursor_shouldDecodeCursor() {
+        // prepare test data
+        final String key = "app.bogenliga.frontend.autorefresh.active";
+
+        // call test method
+        // assert result
+        assertThat(ConfigurationService.toCursor(key)).doesNotContain("=", "/", "+");
+        assertThat(ConfigurationService.fromCursor(ConfigurationService.toCursor(key))).isEqualTo(key);
+        assertThat(ConfigurationService.fromCursor("")).isNull();
+    }
+
+
+    @Test
+    public void fromCursor_withInvalidCursor_shouldThrowException() {
+        // prepare test data
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> ConfigurationService.fromCursor("not a cursor"))
+                .withMessageContaining("Invalid cursor");
+    }
+
+
     @Test
     public void delete() {
         // prepare test data
@@ -187,4 +466,64 @@ public class ConfigurationServiceTest {
         assertThat(deletedConfiguration.getKey()).isEqualTo(expected.getKey());
         assertThat(deletedConfiguration.getValue()).isNullOrEmpty();
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void exportAll() throws IOException {
+        // prepare test data
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // configure mocks
+        when(configurationComponent.exportAll(any(), any())).thenReturn(1L);
+
+        // call test method
+        final ResponseEntity<StreamingResponseBody> actual = underTest.exportAll("csv");
+
+        // assert result
+        assertThat(actual.getHeaders().getContentType()).hasToString(ConfigurationService.TEXT_CSV_VALUE);
+        assertThat(actual.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("configuration.csv");
+
+        // verify invocations
+        verifyZeroInteractions(configurationComponent);
+
+        actual.getBody().writeTo(outputStream);
+
+        verify(configurationComponent).exportAll(CopyFormat.CSV, outputStream);
+    }
+
+
+    @Test
+    public void exportAll_withUnsupportedFormat_shouldThrowException() {
+        // prepare test data
+        // configure mocks
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.exportAll("xml"));
+
+        // assert result
+
+        // verify invocations
+        verifyZeroInteractions(configurationComponent);
+    }
+
+
+    @Test
+    public void importAll() {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // configure mocks
+        when(configurationComponent.importAll(any(), any())).thenReturn(2L);
+
+        // call test method
+        final ConfigurationImportDTO actual = underTest.importAll(MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                inputStream);
+
+        // assert result
+        assertThat(actual.getImportedRows()).isEqualTo(2L);
+
+        // verify invocations
+        verify(configurationComponent).importAll(CopyFormat.BINARY, inputStream);
+    }
+}
@@ -0,0 +1,263 @@
+package de.bogenliga.application.services.v1.configuration.controller;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import de.bogenliga.application.business.configuration.api.ReactiveConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.BusinessException;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class ReactiveConfigurationServiceTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private ReactiveConfigurationComponent reactiveConfigurationComponent;
+
+    @InjectMocks
+    private ReactiveConfigurationService underTest;
+
+    @Captor
+    private ArgumentCaptor<ConfigurationVO> configurationVOArgumentCaptor;
+
+
+    @Test
+    public void findAll() {
+        // prepare test data
+        final ConfigurationVO configurationVO = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(reactiveConfigurationComponent.findAll()).thenReturn(Flux.just(configurationVO));
+
+        // call test method
+        final List<ConfigurationDTO> actual = underTest.findAll().collectList().block();
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getKey()).isEqualTo(KEY);
+        assertThat(actual.get(0).getValue()).isEqualTo(VALUE);
+
+        // verify invocations
+        verify(reactiveConfigurationComponent).findAll();
+    }
+
+
+    @Test
+    public void findByKeys() {
+        // prepare test data
+        final List<String> keys = Collections.singletonList(KEY);
+
+        // configure mocks
+        when(reactiveConfigurationComponent.findByKeys(keys)).thenReturn(Flux.just(new ConfigurationVO(KEY, VALUE)));
+
+        // call test method
+        final List<ConfigurationDTO> actual = underTest.findByKeys(keys).collectList().block();
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getKey()).isEqualTo(KEY);
+    }
+
+
+    @Test
+    public void findByPrefix() {
+        // prepare test data
+
+        // configure mocks
+        when(reactiveConfigurationComponent.findByPrefix("ke")).thenReturn(Flux.just(new ConfigurationVO(KEY, VALUE)));
+
+        // call test method
+        final List<ConfigurationDTO> actual = underTest.findByPrefix("ke").collectList().block();
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getKey()).isEqualTo(KEY);
+    }
+
+
+    @Test
+    public void findPage() {
+        // prepare test data
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/reactive/configuration");
+        request.setQueryString("limit=1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // configure mocks
+        when(reactiveConfigurationComponent.findPage(null, 1)).thenReturn(
+                Mono.just(new Page<>(Collections.singletonList(new ConfigurationVO(KEY, VALUE)), true)));
+
+        // call test method
+        final Mono<ResponseEntity<List<ConfigurationDTO>>> result;
+        try {
+            result = underTest.findPage(1, null);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        final ResponseEntity<List<ConfigurationDTO>> actual = result.block();
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getHeaders().getFirst(ConfigurationService.LINK))
+                .contains("/v1/reactive/configuration?limit=1&after=" + ConfigurationService.toCursor(KEY));
+        assertThat(actual.getBody()).hasSize(1);
+    }
+
+
+    @Test
+    public void findByKey() {
+        // prepare test data
+        final ConfigurationVO configurationVO = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(reactiveConfigurationComponent.findByKey(KEY)).thenReturn(Mono.just(configurationVO));
+
+        // call test method
+        final ConfigurationDTO actual = underTest.findByKey(KEY).block();
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getKey()).isEqualTo(KEY);
+        assertThat(actual.getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void findByKey_withUnknownKey_shouldEmitBusinessException() {
+        // prepare test data
+        final BusinessException exception = new BusinessException(ErrorCode.ENTITY_NOT_FOUND_ERROR, "not found");
+
+        // configure mocks
+        when(reactiveConfigurationComponent.findByKey(KEY)).thenReturn(Mono.error(exception));
+
+        // call test method
+        final Mono<ConfigurationDTO> result = underTest.findByKey(KEY);
+
+        // assert result
+        // the error is handled by the CustomizedResponseEntityExceptionHandler
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(result::block)
+                .isSameAs(exception);
+    }
+
+
+    @Test
+    public void findByKey_withoutKey_shouldThrowException() {
+        // prepare test data
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.findByKey(""))
+                .withMessageContaining("Key string must not null or empty");
+
+        // verify invocations
+        verifyZeroInteractions(reactiveConfigurationComponent);
+    }
+
+
+    @Test
+    public void create() {
+        // prepare test data
+        final ConfigurationDTO input = new ConfigurationDTO(KEY, VALUE);
+
+        // configure mocks
+        when(reactiveConfigurationComponent.create(any())).thenAnswer(
+                invocation -> Mono.just(invocation.getArgument(0)));
+
+        // call test method
+        final ConfigurationDTO actual = underTest.create(input).block();
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getKey()).isEqualTo(KEY);
+        assertThat(actual.getValue()).isEqualTo(VALUE);
+
+        // verify invocations
+        verify(reactiveConfigurationComponent).create(configurationVOArgumentCaptor.capture());
+
+        assertThat(configurationVOArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+        assertThat(configurationVOArgumentCaptor.getValue().getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void update() {
+        // prepare test data
+        final ConfigurationDTO input = new ConfigurationDTO(KEY, VALUE);
+
+        // configure mocks
+        when(reactiveConfigurationComponent.update(any())).thenAnswer(
+                invocation -> Mono.just(invocation.getArgument(0)));
+
+        // call test method
+        final ConfigurationDTO actual = underTest.update(input).block();
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getKey()).isEqualTo(KEY);
+        assertThat(actual.getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void upsert() {
+        // prepare test data
+        final ConfigurationDTO input = new ConfigurationDTO(null, VALUE);
+
+        // configure mocks
+        when(reactiveConfigurationComponent.upsert(any())).thenAnswer(
+                invocation -> Mono.just(invocation.getArgument(0)));
+
+        // call test method
+        final ConfigurationDTO actual = underTest.upsert(KEY, input).block();
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getKey()).isEqualTo(KEY);
+        assertThat(actual.getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void delete() {
+        // prepare test data
+
+        // configure mocks
+        when(reactiveConfigurationComponent.delete(any())).thenReturn(Mono.empty());
+
+        // call test method
+        underTest.delete(KEY).block();
+
+        // verify invocations
+        verify(reactiveConfigurationComponent).delete(configurationVOArgumentCaptor.capture());
+
+        assertThat(configurationVOArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+        assertThat(configurationVOArgumentCaptor.getValue().getValue()).isNull();
+    }
+}
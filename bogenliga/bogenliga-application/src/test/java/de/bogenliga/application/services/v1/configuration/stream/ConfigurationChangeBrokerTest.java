@@ -0,0 +1,269 @@
+package de.bogenliga.application.services.v1.configuration.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangeType;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangedEvent;
+import de.bogenliga.application.common.configuration.StreamConfiguration;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationChangeDTO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class ConfigurationChangeBrokerTest {
+
+    private static final String INSTANCE_ID = "test";
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+    private static final long TIMEOUT = 5_000;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private SseEmitter emitter;
+    @Mock
+    private SseEmitter otherEmitter;
+
+    private StreamConfiguration streamConfiguration;
+    private ScheduledExecutorService executor;
+    private ExecutorService sender;
+    private ConfigurationChangeBroker underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        streamConfiguration = new StreamConfiguration();
+        streamConfiguration.setHistorySize(2);
+
+        executor = Executors.newSingleThreadScheduledExecutor();
+        sender = ConfigurationChangeBroker.createSender(4, 1_000);
+        underTest = new ConfigurationChangeBroker(streamConfiguration, executor, sender, INSTANCE_ID);
+    }
+
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+        sender.shutdownNow();
+    }
+
+
+    @Test
+    public void subscribe_shouldSendResetAndChanges() throws Exception {
+        // prepare test data
+        // configure mocks
+        // call test method
+        underTest.subscribe(emitter, null);
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE));
+        // the change is published twice, e.g. by the component and the database notification
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE));
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.DELETE, null));
+        awaitExecutor();
+
+        // assert result
+        final List<ConfigurationChangeDTO> actual = sentChanges(emitter, 3);
+
+        assertThat(actual).extracting(ConfigurationChangeDTO::getType)
+                .containsExactly("RESET", "UPDATE", "DELETE");
+        assertThat(actual).extracting(ConfigurationChangeDTO::getVersion)
+                .containsExactly(0L, 1L, 2L);
+        assertThat(actual.get(1).getKey()).isEqualTo(KEY);
+        assertThat(actual.get(1).getValue()).isEqualTo(VALUE);
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void subscribe_withLastEventId_shouldReplayMissedChanges() throws Exception {
+        // prepare test data
+        // configure mocks
+        // call test method
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.CREATE, VALUE));
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE + 2));
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE + 3));
+        underTest.subscribe(emitter, INSTANCE_ID + "-2");
+        // version 1 is not contained in the history
+        underTest.subscribe(otherEmitter, INSTANCE_ID + "-0");
+        awaitExecutor();
+
+        // assert result
+        assertThat(sentChanges(emitter, 1)).extracting(ConfigurationChangeDTO::getValue)
+                .containsExactly(VALUE + 3);
+        assertThat(sentChanges(otherEmitter, 1)).extracting(ConfigurationChangeDTO::getType)
+                .containsExactly("RESET");
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void onApplicationEvent_withClosedConnection_shouldRemoveSubscriber() throws Exception {
+        // prepare test data
+        // configure mocks
+        doNothing().doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        // call test method
+        underTest.subscribe(emitter, null);
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE));
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE + 2));
+        awaitExecutor();
+
+        // assert result
+
+        // verify invocations
+        verify(emitter, timeout(TIMEOUT).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter, timeout(TIMEOUT)).completeWithError(any(IOException.class));
+    }
+
+
+    @Test
+    public void onApplicationEvent_withBlockedSubscriber_shouldNotDelayOtherSubscribers() throws Exception {
+        // prepare test data
+        final CountDownLatch blockedSend = new CountDownLatch(1);
+        streamConfiguration.setSendQueueSize(2);
+
+        // configure mocks
+        // the TCP send buffer of the slow client is full
+        doAnswer(invocation -> blockedSend.await(TIMEOUT, TimeUnit.MILLISECONDS))
+                .when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        // call test method
+        underTest.subscribe(emitter, null);
+        underTest.subscribe(otherEmitter, null);
+        for (int i = 1; i <= 3; i++) {
+            underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE + i));
+            verify(otherEmitter, timeout(TIMEOUT).times(i + 1)).send(any(SseEmitter.SseEventBuilder.class));
+        }
+
+        // assert result
+        // the other subscriber receives all changes while the send of the slow subscriber is blocked
+        assertThat(sentChanges(otherEmitter, 4)).extracting(ConfigurationChangeDTO::getType)
+                .containsExactly("RESET", "UPDATE", "UPDATE", "UPDATE");
+
+        blockedSend.countDown();
+
+        // verify invocations
+        // the slow subscriber exceeds the send queue, drops the pending changes and resumes after reconnecting
+        verify(emitter, timeout(TIMEOUT)).complete();
+        verify(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        verify(otherEmitter, never()).complete();
+    }
+
+
+    @Test
+    public void onApplicationEvent_withManySubscribers_shouldUseBoundedSenderThreads() throws Exception {
+        // prepare test data
+        final int subscriberCount = 200;
+        final Set<String> senderThreads = ConcurrentHashMap.newKeySet();
+        final List<SseEmitter> emitters = new ArrayList<>();
+
+        // configure mocks
+        for (int i = 0; i < subscriberCount; i++) {
+            final SseEmitter subscriber = mock(SseEmitter.class);
+            doAnswer(invocation -> senderThreads.add(Thread.currentThread().getName()))
+                    .when(subscriber).send(any(SseEmitter.SseEventBuilder.class));
+            emitters.add(subscriber);
+        }
+
+        // call test method
+        emitters.forEach(subscriber -> underTest.subscribe(subscriber, null));
+        underTest.onApplicationEvent(createEvent(ConfigurationChangeType.UPDATE, VALUE));
+        awaitExecutor();
+
+        // assert result
+        for (final SseEmitter subscriber : emitters) {
+            verify(subscriber, timeout(TIMEOUT).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        }
+        assertThat(senderThreads).hasSize(4);
+        assertThat(((ThreadPoolExecutor) sender).getLargestPoolSize()).isEqualTo(4);
+
+        // verify invocations
+        emitters.forEach(subscriber -> verify(subscriber, never()).complete());
+    }
+
+
+    @Test
+    public void subscribe_withFullSenderQueue_shouldDisconnectSubscriber() throws Exception {
+        // prepare test data
+        final CountDownLatch blockedSend = new CountDownLatch(1);
+        final SseEmitter queuedEmitter = mock(SseEmitter.class);
+        final ExecutorService singleSender = ConfigurationChangeBroker.createSender(1, 1);
+        underTest = new ConfigurationChangeBroker(streamConfiguration, executor, singleSender, INSTANCE_ID);
+
+        // configure mocks
+        // the TCP send buffer of the slow client is full
+        doAnswer(invocation -> blockedSend.await(TIMEOUT, TimeUnit.MILLISECONDS))
+                .when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        // call test method
+        try {
+            underTest.subscribe(emitter, null);
+            verify(emitter, timeout(TIMEOUT)).send(any(SseEmitter.SseEventBuilder.class));
+            underTest.subscribe(queuedEmitter, null);
+            underTest.subscribe(otherEmitter, null);
+            awaitExecutor();
+
+            // assert result
+            // the only sender thread is blocked and the queue holds the second subscriber
+            verify(otherEmitter, timeout(TIMEOUT)).complete();
+            verify(otherEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+
+            blockedSend.countDown();
+
+            // verify invocations
+            verify(queuedEmitter, timeout(TIMEOUT)).send(any(SseEmitter.SseEventBuilder.class));
+            verify(queuedEmitter, never()).complete();
+        } finally {
+            singleSender.shutdownNow();
+        }
+    }
+
+
+    private static ConfigurationChangedEvent createEvent(final ConfigurationChangeType changeType,
+                                                         final String value) {
+        return new ConfigurationChangedEvent(ConfigurationChangeBrokerTest.class, changeType, KEY, value);
+    }
+
+
+    private void awaitExecutor() throws Exception {
+        executor.submit(() -> null).get();
+    }
+
+
+    private static List<ConfigurationChangeDTO> sentChanges(final SseEmitter emitter, final int times)
+            throws IOException {
+        final ArgumentCaptor<SseEmitter.SseEventBuilder> eventCaptor =
+                ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(TIMEOUT).times(times)).send(eventCaptor.capture());
+
+        return eventCaptor.getAllValues().stream()
+                .flatMap(event -> event.build().stream())
+                .map(data -> data.getData())
+                .filter(ConfigurationChangeDTO.class::isInstance)
+                .map(ConfigurationChangeDTO.class::cast)
+                .collect(Collectors.toList());
+    }
+}
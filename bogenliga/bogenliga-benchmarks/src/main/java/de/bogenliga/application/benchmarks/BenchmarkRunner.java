@@ -0,0 +1,151 @@
+package de.bogenliga.application.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * I run the benchmarks and write the results as JSON file.
+ *
+ * The arguments are passed to JMH, e.g. a regular expression to select the benchmarks.
+ * The results are written to the file of the system property "benchmark.result"
+ * (default: {@value #DEFAULT_RESULT}) in the JSON format of JMH.
+ *
+ * If the system property "benchmark.baseline" references the JSON result of a previous run,
+ * I compare the scores with the baseline and exit with status 1, if a benchmark is slower than the
+ * baseline by more than the relative threshold of the system property "benchmark.threshold"
+ * (default: {@value #DEFAULT_THRESHOLD}).
+ *
+ * Run with
+ * {@code java -Dbenchmark.baseline=baseline.json -cp bogenliga-benchmarks/target/benchmarks.jar
+ * de.bogenliga.application.benchmarks.BenchmarkRunner}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT = "jmh-result.json";
+    private static final String DEFAULT_THRESHOLD = "0.10";
+
+
+    /**
+     * Private constructor
+     */
+    private BenchmarkRunner() {
+        // empty private constructor
+    }
+
+
+    public static void main(final String[] args)
+            throws RunnerException, CommandLineOptionException, IOException {
+        final String resultFile = System.getProperty("benchmark.result", DEFAULT_RESULT);
+        final String baselineFile = System.getProperty("benchmark.baseline");
+        final double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", DEFAULT_THRESHOLD));
+
+        final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        final Collection<RunResult> results = new Runner(options).run();
+
+        if (baselineFile != null && compare(results, readBaseline(new File(baselineFile)), threshold) > 0) {
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * I compare the scores with the baseline.
+     *
+     * @return number of regressions
+     */
+    private static int compare(final Collection<RunResult> results, final Map<String, JsonNode> baseline,
+                               final double threshold) {
+        int regressions = 0;
+
+        for (final RunResult runResult : results) {
+            final String key = key(runResult);
+            final JsonNode baselineResult = baseline.get(key);
+            final Result<?> result = runResult.getPrimaryResult();
+
+            if (baselineResult == null) {
+                System.out.printf("NEW        %s: %.3f %s%n", key, result.getScore(), result.getScoreUnit());
+                continue;
+            }
+
+            final JsonNode primaryMetric = baselineResult.get("primaryMetric");
+            if (!result.getScoreUnit().equals(primaryMetric.get("scoreUnit").asText())) {
+                System.out.printf("SKIPPED    %s: unit %s differs from baseline%n", key, result.getScoreUnit());
+                continue;
+            }
+
+            final double baselineScore = primaryMetric.get("score").asDouble();
+            // the throughput is higher, all other modes measure a time, which is lower for faster code
+            final double change = runResult.getParams().getMode() == Mode.Throughput
+                    ? (baselineScore - result.getScore()) / baselineScore
+                    : (result.getScore() - baselineScore) / baselineScore;
+
+            final boolean regression = change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s: %.3f %s (baseline %.3f, %+.1f%%)%n", regression ? "REGRESSION" : "OK",
+                    key, result.getScore(), result.getScoreUnit(), baselineScore, change * 100);
+        }
+
+        System.out.printf("%d regression(s) with threshold %.0f%%%n", regressions, threshold * 100);
+        return regressions;
+    }
+
+
+    private static Map<String, JsonNode> readBaseline(final File baselineFile) throws IOException {
+        final Map<String, JsonNode> baseline = new HashMap<>();
+
+        for (final JsonNode result : new ObjectMapper().readTree(baselineFile)) {
+            final Map<String, String> params = new TreeMap<>();
+            final JsonNode paramsNode = result.get("params");
+            if (paramsNode != null) {
+                final Iterator<Map.Entry<String, JsonNode>> fields = paramsNode.fields();
+                while (fields.hasNext()) {
+                    final Map.Entry<String, JsonNode> field = fields.next();
+                    params.put(field.getKey(), field.getValue().asText());
+                }
+            }
+            baseline.put(key(result.get("benchmark").asText(), params), result);
+        }
+        return baseline;
+    }
+
+
+    private static String key(final RunResult runResult) {
+        final Map<String, String> params = new TreeMap<>();
+        for (final String paramKey : runResult.getParams().getParamsKeys()) {
+            params.put(paramKey, runResult.getParams().getParam(paramKey));
+        }
+        return key(runResult.getParams().getBenchmark(), params);
+    }
+
+
+    private static String key(final String benchmark, final Map<String, String> params) {
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+}
@@ -0,0 +1,103 @@
+package de.bogenliga.application.benchmarks.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.impl.entity.ConfigurationBE;
+import de.bogenliga.application.business.configuration.impl.mapper.ConfigurationMapper;
+import de.bogenliga.application.services.v1.configuration.mapper.ConfigurationDTOMapper;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationDTO;
+
+/**
+ * I measure the conversions of the configuration between the layers.
+ *
+ * The {@link ConfigurationMapper} converts between business entity and value object,
+ * the {@link ConfigurationDTOMapper} between value object and data transfer object.
+ * The list benchmarks convert a list of configurations like the GET /v1/configuration request.
+ *
+ * Run with {@code java -jar bogenliga-benchmarks/target/benchmarks.jar ConfigurationMapperBenchmark}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationMapperBenchmark {
+
+    @Param({"100"})
+    private int size;
+
+    private ConfigurationBE configurationBE;
+    private ConfigurationVO configurationVO;
+    private ConfigurationDTO configurationDTO;
+    private List<ConfigurationBE> configurationBEList;
+
+
+    @Setup
+    public void setup() {
+        configurationBE = new ConfigurationBE();
+        configurationBE.setConfigurationKey("key");
+        configurationBE.setConfigurationValue("value");
+
+        configurationVO = new ConfigurationVO("key", "value");
+        configurationDTO = new ConfigurationDTO("key", "value");
+
+        configurationBEList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final ConfigurationBE be = new ConfigurationBE();
+            be.setConfigurationKey("key" + i);
+            be.setConfigurationValue("value" + i);
+            configurationBEList.add(be);
+        }
+    }
+
+
+    @Benchmark
+    public ConfigurationVO businessEntityToValueObject() {
+        return ConfigurationMapper.toVO.apply(configurationBE);
+    }
+
+
+    @Benchmark
+    public ConfigurationBE valueObjectToBusinessEntity() {
+        return ConfigurationMapper.toBE.apply(configurationVO);
+    }
+
+
+    @Benchmark
+    public ConfigurationDTO valueObjectToDataTransferObject() {
+        return ConfigurationDTOMapper.toDTO.apply(configurationVO);
+    }
+
+
+    @Benchmark
+    public ConfigurationVO dataTransferObjectToValueObject() {
+        return ConfigurationDTOMapper.toVO.apply(configurationDTO);
+    }
+
+
+    @Benchmark
+    public List<ConfigurationDTO> businessEntityListToDataTransferObjects() {
+        return configurationBEList.stream()
+                .map(ConfigurationMapper.toVO)
+                .map(ConfigurationDTOMapper.toDTO)
+                .collect(Collectors.toList());
+    }
+}
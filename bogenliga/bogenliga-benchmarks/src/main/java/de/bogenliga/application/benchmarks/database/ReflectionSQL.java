@@ -0,0 +1,170 @@
+package de.bogenliga.application.benchmarks.database;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * I´m the reflection based SQL generation which was used before the {@link de.bogenliga.application.common.database.SQLStatementPlan}.
+ *
+ * I build the SQL text and resolve the getters for each business entity again.
+ * I´m only used as baseline for the {@link SQLStatementBenchmark}.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class ReflectionSQL {
+
+    /**
+     * Private constructor
+     */
+    private ReflectionSQL() {
+        // empty private constructor
+    }
+
+
+    static Statement insertSQL(final Object insertObj, final String tableName,
+                               final Map<String, String> columnToFieldMapping) throws ReflectiveOperationException {
+        final StringBuilder sql = new StringBuilder();
+        final StringBuilder values = new StringBuilder();
+        final List<Object> para = new ArrayList<>();
+
+        sql.append("INSERT INTO ").append(tableName).append(" (");
+        values.append(") VALUES (");
+
+        boolean first = true;
+        for (final Field field : insertObj.getClass().getDeclaredFields()) {
+            if (isMappableField(field)) {
+                final String fName = field.getName();
+                final Object value = invokeGetter(insertObj, field);
+
+                if (fName.equals("id")) {
+                    continue;
+                }
+
+                if (first) {
+                    first = false;
+                } else {
+                    sql.append(", ");
+                    values.append(", ");
+                }
+
+                sql.append(resolveColumName(fName, columnToFieldMapping));
+                values.append("?");
+                para.add(value);
+            }
+        }
+
+        sql.append(values).append(");");
+        return new Statement(sql.toString(), para.toArray());
+    }
+
+
+    static Statement updateSQL(final Object updateObj, final String tableName, final String fieldSelector,
+                               final Map<String, String> columnToFieldMapping) throws ReflectiveOperationException {
+        final StringBuilder sql = new StringBuilder();
+        final List<Object> para = new ArrayList<>();
+        Object idValue = null;
+
+        sql.append("UPDATE ").append(tableName).append(" SET ");
+
+        boolean first = true;
+        for (final Field field : updateObj.getClass().getDeclaredFields()) {
+            if (isMappableField(field)) {
+                final String fName = field.getName();
+                final Object value = invokeGetter(updateObj, field);
+
+                if (fName.equals("id") || fName.equals(fieldSelector)) {
+                    idValue = value;
+                    continue;
+                }
+
+                if (first) {
+                    first = false;
+                } else {
+                    sql.append(", ");
+                }
+
+                sql.append(resolveColumName(fName, columnToFieldMapping)).append("=").append("?");
+                para.add(value);
+            }
+        }
+
+        sql.append(" WHERE ").append(resolveColumName(fieldSelector, columnToFieldMapping)).append(" = ?;");
+        para.add(idValue);
+        return new Statement(sql.toString(), para.toArray());
+    }
+
+
+    static Statement deleteSQL(final Object deleteObj, final String tableName, final String fieldSelector,
+                               final Map<String, String> columnToFieldMapping) throws ReflectiveOperationException {
+        Object idValue = null;
+
+        for (final Field field : deleteObj.getClass().getDeclaredFields()) {
+            if (isMappableField(field) && field.getName().equals(fieldSelector)) {
+                idValue = invokeGetter(deleteObj, field);
+            }
+        }
+
+        final String sql = "DELETE FROM " + tableName
+                + " WHERE " + resolveColumName(fieldSelector, columnToFieldMapping) + " = ?;";
+        return new Statement(sql, new Object[]{idValue});
+    }
+
+
+    private static boolean isMappableField(final Field field) {
+        return !Modifier.isTransient(field.getModifiers()) && !Modifier.isStatic(field.getModifiers());
+    }
+
+
+    private static Object invokeGetter(final Object obj, final Field field)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        final String fName = field.getName();
+        final String suffix = boolean.class.isAssignableFrom(field.getType())
+                || Boolean.class.isAssignableFrom(field.getType()) ? "is" : "get";
+        final Method getter = obj.getClass()
+                .getDeclaredMethod(suffix + fName.substring(0, 1).toUpperCase() + fName.substring(1));
+        final Object value = getter.invoke(obj);
+
+        return value != null && value.getClass().isEnum() ? ((Enum) value).name() : value;
+    }
+
+
+    private static String resolveColumName(final String fieldName, final Map<String, String> columnToFieldMapping) {
+        for (final Map.Entry<String, String> entry : columnToFieldMapping.entrySet()) {
+            if (fieldName.equals(entry.getValue())) {
+                return entry.getKey();
+            }
+        }
+
+        return fieldName;
+    }
+
+
+    /**
+     * I contain the SQL text and the ?-parameter values.
+     */
+    static final class Statement {
+        private final String sql;
+        private final Object[] parameter;
+
+
+        Statement(final String sql, final Object[] parameter) {
+            this.sql = sql;
+            this.parameter = parameter;
+        }
+
+
+        String getSql() {
+            return sql;
+        }
+
+
+        Object[] getParameter() {
+            return parameter;
+        }
+    }
+}
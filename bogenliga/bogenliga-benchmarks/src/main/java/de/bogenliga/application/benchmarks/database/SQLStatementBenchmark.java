@@ -0,0 +1,120 @@
+package de.bogenliga.application.benchmarks.database;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import de.bogenliga.application.business.configuration.impl.entity.ConfigurationBE;
+import de.bogenliga.application.common.database.SQL;
+import de.bogenliga.application.common.database.SQLStatementPlan;
+
+/**
+ * I compare the reflection based SQL generation with the compiled {@link SQLStatementPlan}.
+ *
+ * The reflection based path ({@link ReflectionSQL}) builds the SQL text and resolves the getters
+ * for each business entity.
+ * The {@link SQL} methods look up the cached plan of the business entity class.
+ * The compiled path only extracts the parameter values from the business entity.
+ *
+ * Run with {@code java -jar bogenliga-benchmarks/target/benchmarks.jar SQLStatementBenchmark}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLStatementBenchmark {
+
+    private static final String TABLE = "t_configuration";
+    private static final String FIELD_SELECTOR = "configurationKey";
+
+    private Map<String, String> columnToFieldMapping;
+    private ConfigurationBE configurationBE;
+
+    private SQLStatementPlan insertPlan;
+    private SQLStatementPlan updatePlan;
+    private SQLStatementPlan deletePlan;
+
+
+    @Setup
+    public void setup() {
+        columnToFieldMapping = new HashMap<>();
+        columnToFieldMapping.put("configuration_key", "configurationKey");
+        columnToFieldMapping.put("configuration_value", "configurationValue");
+
+        configurationBE = new ConfigurationBE();
+        configurationBE.setConfigurationKey("key");
+        configurationBE.setConfigurationValue("value");
+
+        insertPlan = SQL.compileInsertSQL(ConfigurationBE.class, TABLE, columnToFieldMapping);
+        updatePlan = SQL.compileUpdateSQL(ConfigurationBE.class, TABLE, FIELD_SELECTOR, columnToFieldMapping);
+        deletePlan = SQL.compileDeleteSQL(ConfigurationBE.class, TABLE, FIELD_SELECTOR, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public Object insertReflection() throws ReflectiveOperationException {
+        return ReflectionSQL.insertSQL(configurationBE, TABLE, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public SQL.SQLWithParameter insertSQL() {
+        return SQL.insertSQL(configurationBE, TABLE, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public SQL.SQLWithParameter insertPlan() {
+        return insertPlan.bind(configurationBE);
+    }
+
+
+    @Benchmark
+    public Object updateReflection() throws ReflectiveOperationException {
+        return ReflectionSQL.updateSQL(configurationBE, TABLE, FIELD_SELECTOR, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public SQL.SQLWithParameter updateSQL() {
+        return SQL.updateSQL(configurationBE, TABLE, FIELD_SELECTOR, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public SQL.SQLWithParameter updatePlan() {
+        return updatePlan.bind(configurationBE);
+    }
+
+
+    @Benchmark
+    public Object deleteReflection() throws ReflectiveOperationException {
+        return ReflectionSQL.deleteSQL(configurationBE, TABLE, FIELD_SELECTOR, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public SQL.SQLWithParameter deleteSQL() {
+        return SQL.deleteSQL(configurationBE, TABLE, FIELD_SELECTOR, columnToFieldMapping);
+    }
+
+
+    @Benchmark
+    public SQL.SQLWithParameter deletePlan() {
+        return deletePlan.bind(configurationBE);
+    }
+}
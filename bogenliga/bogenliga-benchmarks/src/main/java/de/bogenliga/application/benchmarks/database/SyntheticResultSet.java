@@ -0,0 +1,136 @@
+package de.bogenliga.application.benchmarks.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * I´m an in-memory {@link ResultSet} over a fixed table of rows.
+ *
+ * I only support the forward-only navigation and the getters used by the row mappers.
+ * The result set can be reused with {@link #rewind(ResultSet)}, so a benchmark measures the mapping
+ * and not the creation of the rows.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public final class SyntheticResultSet implements InvocationHandler {
+
+    private final String[] columnLabels;
+    private final Object[][] rows;
+    private final ResultSetMetaData metaData;
+    private int row = -1;
+    private boolean wasNull;
+
+
+    private SyntheticResultSet(final String[] columnLabels, final Object[][] rows) {
+        this.columnLabels = columnLabels.clone();
+        this.rows = rows;
+        this.metaData = (ResultSetMetaData) Proxy.newProxyInstance(SyntheticResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, this::invokeMetaData);
+    }
+
+
+    /**
+     * I create a result set, which is positioned before the first row.
+     *
+     * @param columnLabels of the columns
+     * @param rows         values of the rows in the order of the column labels
+     * @return result set proxy
+     */
+    public static ResultSet create(final String[] columnLabels, final Object[][] rows) {
+        return (ResultSet) Proxy.newProxyInstance(SyntheticResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new SyntheticResultSet(columnLabels, rows));
+    }
+
+
+    /**
+     * I position the result set before the first row again.
+     *
+     * @param resultSet of {@link #create(String[], Object[][])}
+     */
+    public static void rewind(final ResultSet resultSet) {
+        ((SyntheticResultSet) Proxy.getInvocationHandler(resultSet)).row = -1;
+    }
+
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws SQLException {
+        switch (method.getName()) {
+            case "next":
+                row++;
+                return row < rows.length;
+            case "getMetaData":
+                return metaData;
+            case "wasNull":
+                return wasNull;
+            case "getObject":
+            case "getString":
+                return value(args[0]);
+            case "getLong":
+                return number(args[0]).longValue();
+            case "getInt":
+                return number(args[0]).intValue();
+            case "getDouble":
+                return number(args[0]).doubleValue();
+            case "getFloat":
+                return number(args[0]).floatValue();
+            case "getBoolean":
+                final Object value = value(args[0]);
+                return value != null && (Boolean) value;
+            case "getTimestamp":
+                return (Timestamp) value(args[0]);
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+
+    private Object invokeMetaData(final Object proxy, final Method method, final Object[] args) {
+        switch (method.getName()) {
+            case "getColumnCount":
+                return columnLabels.length;
+            case "getColumnLabel":
+            case "getColumnName":
+                return columnLabels[(Integer) args[0] - 1];
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+
+    private Object value(final Object column) throws SQLException {
+        if (row < 0 || row >= rows.length) {
+            throw new SQLException("The result set is not positioned on a row.");
+        }
+        final Object value = rows[row][index(column)];
+        wasNull = value == null;
+        return value;
+    }
+
+
+    private Number number(final Object column) throws SQLException {
+        final Object value = value(column);
+        return value == null ? 0 : (Number) value;
+    }
+
+
+    private int index(final Object column) throws SQLException {
+        if (column instanceof Integer) {
+            return (Integer) column - 1;
+        }
+        for (int i = 0; i < columnLabels.length; i++) {
+            if (columnLabels[i].equalsIgnoreCase((String) column)) {
+                return i;
+            }
+        }
+        throw new SQLException("Unknown column " + column);
+    }
+}
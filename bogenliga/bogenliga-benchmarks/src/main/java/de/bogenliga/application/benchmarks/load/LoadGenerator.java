@@ -0,0 +1,364 @@
+package de.bogenliga.application.benchmarks.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import de.bogenliga.application.services.v1.configuration.model.ConfigurationDTO;
+
+/**
+ * I send a mix of configuration requests with a fixed number of threads to the REST layer.
+ *
+ * Every thread sends its requests one after another (closed loop). With a target rate the threads pace their
+ * requests and measure the latency from the intended start of a request, so a slow response also delays the
+ * measured latency of the following requests (no coordinated omission).
+ *
+ * I also measure the bytes allocated by all other threads of the JVM, i.e. the application server,
+ * while the load is running.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class LoadGenerator {
+
+    private static final String CONFIGURATION_PATH = "/v1/configuration";
+    private static final String KEY_PREFIX = "load-created-";
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String baseUrl;
+    private final List<String> keys;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final int threads;
+    private final double rate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // unique keys of the created entries over all runs
+    private final AtomicLong createdKeySequence = new AtomicLong();
+
+
+    /**
+     * Constructor
+     *
+     * @param baseUrl of the application, e.g. "http://localhost:9000"
+     * @param keys    of the existing configuration entries to read and update
+     * @param mix     relative weights of the operations
+     * @param threads number of concurrent requests
+     * @param rate    target requests per second of all threads, 0 to send as fast as possible
+     */
+    LoadGenerator(final String baseUrl, final List<String> keys, final Map<Operation, Integer> mix,
+                  final int threads, final double rate) {
+        this.baseUrl = baseUrl;
+        this.keys = keys;
+        this.mix = new EnumMap<>(mix);
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.threads = threads;
+        this.rate = rate;
+
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("The operation mix must contain a positive weight.");
+        }
+    }
+
+
+    /**
+     * I send the requests for the given duration and return the measured latencies.
+     *
+     * @param durationMillis of the load
+     * @return result of all threads
+     */
+    Result run(final long durationMillis) throws InterruptedException {
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Worker> workers = new ArrayList<>(threads);
+        final Set<Long> workerThreadIds = new HashSet<>();
+
+        for (int i = 0; i < threads; i++) {
+            final Worker worker = new Worker(i, ready, start);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+            workerThreadIds.add(worker.getId());
+        }
+        ready.await();
+
+        final Map<Long, Long> allocatedBefore = allocatedBytes(threadMXBean);
+        final long startTime = System.nanoTime();
+        final long endTime = startTime + durationMillis * 1_000_000L;
+        workers.forEach(worker -> worker.endTime = endTime);
+        start.countDown();
+
+        for (final Worker worker : workers) {
+            worker.join();
+        }
+        final long elapsed = System.nanoTime() - startTime;
+        final Map<Long, Long> allocatedAfter = allocatedBytes(threadMXBean);
+
+        // threads, which terminated during the load, are not included
+        long serverAllocatedBytes = allocatedAfter.isEmpty() ? -1 : 0;
+        for (final Map.Entry<Long, Long> entry : allocatedAfter.entrySet()) {
+            if (!workerThreadIds.contains(entry.getKey())) {
+                serverAllocatedBytes += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+
+        final Result result = new Result(elapsed, serverAllocatedBytes);
+        workers.forEach(worker -> result.add(worker.histograms, worker.errors));
+        return result;
+    }
+
+
+    private static Map<Long, Long> allocatedBytes(final ThreadMXBean threadMXBean) {
+        final Map<Long, Long> allocatedBytes = new HashMap<>();
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return allocatedBytes;
+        }
+
+        final long[] threadIds = threadMXBean.getAllThreadIds();
+        final long[] bytes = threadMXBean.getThreadAllocatedBytes(threadIds);
+        for (int i = 0; i < threadIds.length; i++) {
+            // -1 for threads, which terminated in the meantime
+            if (bytes[i] >= 0) {
+                allocatedBytes.put(threadIds[i], bytes[i]);
+            }
+        }
+        return allocatedBytes;
+    }
+
+
+    /**
+     * I´m a REST operation of the load.
+     */
+    enum Operation {
+        /** GET /v1/configuration */
+        FIND_ALL,
+        /** GET /v1/configuration/{key} of an existing entry */
+        FIND_BY_KEY,
+        /** POST /v1/configuration of a new entry */
+        CREATE,
+        /** PUT /v1/configuration of an existing entry */
+        UPDATE,
+        /** DELETE /v1/configuration/{key} of an entry created by the same thread, or CREATE if there is none */
+        DELETE
+    }
+
+
+    /**
+     * I´m the measured latencies of all threads.
+     */
+    static final class Result {
+        private final long elapsedNanos;
+        private final long serverAllocatedBytes;
+        private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+
+        private Result(final long elapsedNanos, final long serverAllocatedBytes) {
+            this.elapsedNanos = elapsedNanos;
+            this.serverAllocatedBytes = serverAllocatedBytes;
+        }
+
+
+        private void add(final Map<Operation, Histogram> workerHistograms, final Map<Operation, Long> workerErrors) {
+            workerHistograms.forEach((operation, histogram) -> histograms
+                    .computeIfAbsent(operation, o -> new Histogram(SIGNIFICANT_DIGITS)).add(histogram));
+            workerErrors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+        }
+
+
+        long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+
+        /**
+         * @return bytes allocated by the threads of the application server, -1 if not supported by the JVM
+         */
+        long getServerAllocatedBytes() {
+            return serverAllocatedBytes;
+        }
+
+
+        /**
+         * @return latencies in nanoseconds of the successful requests per operation
+         */
+        Map<Operation, Histogram> getHistograms() {
+            return histograms;
+        }
+
+
+        /**
+         * @return latencies in nanoseconds of all successful requests
+         */
+        Histogram getTotal() {
+            final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+            histograms.values().forEach(total::add);
+            return total;
+        }
+
+
+        long getErrors(final Operation operation) {
+            return errors.getOrDefault(operation, 0L);
+        }
+    }
+
+
+    /**
+     * I´m a thread, which sends the requests one after another.
+     */
+    private final class Worker extends Thread {
+        private final CountDownLatch ready;
+        private final CountDownLatch start;
+        private final Deque<String> createdKeys = new ArrayDeque<>();
+        private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        private volatile long endTime;
+
+
+        private Worker(final int index, final CountDownLatch ready, final CountDownLatch start) {
+            super("load-generator-" + index);
+            this.ready = ready;
+            this.start = start;
+        }
+
+
+        @Override
+        public void run() {
+            final long interval = rate > 0 ? (long) (threads * 1_000_000_000L / rate) : 0;
+            ready.countDown();
+            try {
+                start.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long intendedStart = System.nanoTime();
+            while (intendedStart < endTime) {
+                if (interval > 0) {
+                    final long delay = intendedStart - System.nanoTime();
+                    if (delay > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                } else {
+                    intendedStart = System.nanoTime();
+                }
+
+                final Operation operation = nextOperation();
+                try {
+                    if (send(operation)) {
+                        histograms.computeIfAbsent(operation, o -> new Histogram(SIGNIFICANT_DIGITS))
+                                .recordValue(System.nanoTime() - intendedStart);
+                    } else {
+                        errors.merge(operation, 1L, Long::sum);
+                    }
+                } catch (final IOException e) {
+                    errors.merge(operation, 1L, Long::sum);
+                }
+
+                intendedStart += interval;
+            }
+        }
+
+
+        private Operation nextOperation() {
+            int value = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (final Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                value -= entry.getValue();
+                if (value < 0) {
+                    return entry.getKey() == Operation.DELETE && createdKeys.isEmpty()
+                            ? Operation.CREATE
+                            : entry.getKey();
+                }
+            }
+            throw new IllegalStateException("No operation for the weight " + value);
+        }
+
+
+        private boolean send(final Operation operation) throws IOException {
+            switch (operation) {
+                case FIND_ALL:
+                    return request("GET", CONFIGURATION_PATH, null);
+                case FIND_BY_KEY:
+                    return request("GET", CONFIGURATION_PATH + "/" + randomKey(), null);
+                case CREATE:
+                    final String key = KEY_PREFIX + createdKeySequence.incrementAndGet();
+                    final boolean created = request("POST", CONFIGURATION_PATH, toJson(key));
+                    if (created) {
+                        createdKeys.push(key);
+                    }
+                    return created;
+                case UPDATE:
+                    return request("PUT", CONFIGURATION_PATH, toJson(randomKey()));
+                case DELETE:
+                    return request("DELETE", CONFIGURATION_PATH + "/" + createdKeys.pop(), null);
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        }
+
+
+        private String randomKey() {
+            return keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
+        }
+
+
+        private String toJson(final String key) throws JsonProcessingException {
+            return objectMapper.writeValueAsString(
+                    new ConfigurationDTO(key, Long.toString(ThreadLocalRandom.current().nextLong())));
+        }
+
+
+        /**
+         * I send a request and read the whole response, so the connection is kept alive for the next request.
+         *
+         * @return true, if the response status is successful
+         */
+        private boolean request(final String method, final String path, final String body) throws IOException {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setRequestProperty("Accept", "application/json");
+
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream outputStream = connection.getOutputStream()) {
+                    outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            final int status = connection.getResponseCode();
+            final InputStream response = status < HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getInputStream()
+                    : connection.getErrorStream();
+            if (response != null) {
+                try (InputStream inputStream = response) {
+                    final byte[] buffer = new byte[8192];
+                    while (inputStream.read(buffer) >= 0) {
+                        // discard the response body
+                    }
+                }
+            }
+            return status < HttpURLConnection.HTTP_MULT_CHOICE;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package de.bogenliga.application.benchmarks.load;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+import de.bogenliga.application.BogenligaApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * I run a load test of the configuration REST layer against a real PostgreSQL database.
+ *
+ * I start an embedded PostgreSQL database, migrate the schema with the Flyway migrations of the
+ * bogenliga-db-migration module, start the {@link BogenligaApplication} on a random port and send
+ * GET, POST, PUT and DELETE requests to /v1/configuration with the {@link LoadGenerator}.
+ * Afterwards I print the latency percentiles per operation, the throughput and the allocation rate of the
+ * application server.
+ *
+ * The load is configured with system properties:
+ * <ul>
+ * <li>"load.threads": number of concurrent requests (default: {@value #DEFAULT_THREADS})</li>
+ * <li>"load.rate": target requests per second, 0 to send as fast as possible (default: 0)</li>
+ * <li>"load.warmup": warmup in seconds, the results are discarded (default: {@value #DEFAULT_WARMUP})</li>
+ * <li>"load.duration": measurement in seconds (default: {@value #DEFAULT_DURATION})</li>
+ * <li>"load.keys": number of existing configuration entries (default: {@value #DEFAULT_KEYS})</li>
+ * <li>"load.mix": relative weights of the operations (default: {@value #DEFAULT_MIX})</li>
+ * </ul>
+ *
+ * If the system property "database.host" is set, I use this database instead of the embedded database,
+ * see the "database.*" properties of the application. The program arguments are passed to the application,
+ * e.g. "--database.pool.maximumPoolSize=20" to compare different configurations.
+ * PostgreSQL refuses to run as root, so the embedded database requires a non-root user.
+ *
+ * Run with
+ * {@code java -Dload.threads=32 -cp bogenliga-benchmarks/target/benchmarks.jar
+ * de.bogenliga.application.benchmarks.load.LoadTestHarness}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public final class LoadTestHarness {
+
+    private static final int DEFAULT_THREADS = 16;
+    private static final int DEFAULT_WARMUP = 10;
+    private static final int DEFAULT_DURATION = 30;
+    private static final int DEFAULT_KEYS = 100;
+    private static final String DEFAULT_MIX = "FIND_ALL=10,FIND_BY_KEY=60,CREATE=10,UPDATE=15,DELETE=5";
+
+    private static final String MIGRATION_LOCATION = "classpath:db/migration/all";
+    private static final String KEY_PREFIX = "load-";
+    private static final String INSERT_KEY_SQL =
+            "INSERT INTO t_configuration (configuration_key, configuration_value) VALUES (?, ?) "
+                    + "ON CONFLICT (configuration_key) DO NOTHING";
+    private static final String DELETE_KEYS_SQL = "DELETE FROM t_configuration WHERE configuration_key LIKE ?";
+
+
+    /**
+     * Private constructor
+     */
+    private LoadTestHarness() {
+        // empty private constructor
+    }
+
+
+    public static void main(final String[] args) throws IOException, SQLException, InterruptedException {
+        final int threads = Integer.getInteger("load.threads", DEFAULT_THREADS);
+        final double rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+        final int warmup = Integer.getInteger("load.warmup", DEFAULT_WARMUP);
+        final int duration = Integer.getInteger("load.duration", DEFAULT_DURATION);
+        final int keyCount = Integer.getInteger("load.keys", DEFAULT_KEYS);
+        final Map<LoadGenerator.Operation, Integer> mix = parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+
+        // the logging of the application is not configured before the start of the application
+        LoggingSystem.get(LoadTestHarness.class.getClassLoader())
+                .setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+
+        // the keep-alive cache of the HttpURLConnection holds 5 connections per server by default
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", Integer.toString(threads));
+        }
+
+        final EmbeddedPostgres embeddedPostgres = System.getProperty("database.host") == null
+                ? startEmbeddedPostgres()
+                : null;
+        try {
+            final String url = String.format("jdbc:postgresql://%s:%s/%s", System.getProperty("database.host"),
+                    System.getProperty("database.port", "5432"), System.getProperty("database.databaseName"));
+            final String user = System.getProperty("database.user");
+            final String password = System.getProperty("database.password");
+
+            migrate(url, user, password);
+            final List<String> keys = insertKeys(url, user, password, keyCount);
+
+            try (ConfigurableApplicationContext context = startApplication(args)) {
+                final String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                final LoadGenerator loadGenerator = new LoadGenerator(baseUrl, keys, mix, threads, rate);
+
+                System.out.printf("Warmup %d s with %d threads%n", warmup, threads);
+                loadGenerator.run(TimeUnit.SECONDS.toMillis(warmup));
+
+                System.out.printf("Measurement %d s with %d threads%n", duration, threads);
+                report(loadGenerator.run(TimeUnit.SECONDS.toMillis(duration)));
+            } finally {
+                deleteKeys(url, user, password);
+            }
+        } finally {
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+        }
+    }
+
+
+    private static EmbeddedPostgres startEmbeddedPostgres() throws IOException {
+        final EmbeddedPostgres embeddedPostgres = EmbeddedPostgres.builder().start();
+
+        // read by the database configuration of the application
+        System.setProperty("database.host", "localhost");
+        System.setProperty("database.port", Integer.toString(embeddedPostgres.getPort()));
+        System.setProperty("database.databaseName", "postgres");
+        System.setProperty("database.user", "postgres");
+        System.setProperty("database.password", "postgres");
+        return embeddedPostgres;
+    }
+
+
+    private static void migrate(final String url, final String user, final String password) {
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(url, user, password);
+        flyway.setLocations(MIGRATION_LOCATION);
+        flyway.setPlaceholderReplacement(false);
+        flyway.setBaselineOnMigrate(true);
+        flyway.migrate();
+    }
+
+
+    private static List<String> insertKeys(final String url, final String user, final String password,
+                                           final int keyCount) throws SQLException {
+        final List<String> keys = new ArrayList<>(keyCount);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PreparedStatement statement = connection.prepareStatement(INSERT_KEY_SQL)) {
+            for (int i = 0; i < keyCount; i++) {
+                final String key = String.format("%skey-%05d", KEY_PREFIX, i);
+                statement.setString(1, key);
+                statement.setString(2, Integer.toString(i));
+                statement.addBatch();
+                keys.add(key);
+            }
+            statement.executeBatch();
+        }
+        return keys;
+    }
+
+
+    /**
+     * I delete the existing and all created configuration entries of the load test.
+     */
+    private static void deleteKeys(final String url, final String user, final String password)
+            throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PreparedStatement statement = connection.prepareStatement(DELETE_KEYS_SQL)) {
+            statement.setString(1, KEY_PREFIX + "%");
+            statement.executeUpdate();
+        }
+    }
+
+
+    private static ConfigurableApplicationContext startApplication(final String[] args) {
+        // command line arguments override the properties of the active profile
+        final List<String> applicationArgs = new ArrayList<>(Arrays.asList(args));
+        applicationArgs.add("--port=0");
+        applicationArgs.add("--management.server.port=0");
+
+        return new SpringApplicationBuilder(BogenligaApplication.class)
+                .run(applicationArgs.toArray(new String[0]));
+    }
+
+
+    private static Map<LoadGenerator.Operation, Integer> parseMix(final String mix) {
+        final Map<LoadGenerator.Operation, Integer> weights = new EnumMap<>(LoadGenerator.Operation.class);
+        for (final String entry : mix.split(",")) {
+            final String[] operationAndWeight = entry.trim().split("=");
+            weights.put(LoadGenerator.Operation.valueOf(operationAndWeight[0].trim()),
+                    Integer.parseInt(operationAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+
+    private static void report(final LoadGenerator.Result result) {
+        final double seconds = result.getElapsedNanos() / 1e9;
+
+        System.out.printf("%-12s %10s %8s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long errors = 0;
+        for (final LoadGenerator.Operation operation : LoadGenerator.Operation.values()) {
+            final Histogram histogram = result.getHistograms().get(operation);
+            final long operationErrors = result.getErrors(operation);
+            errors += operationErrors;
+            if (histogram != null || operationErrors > 0) {
+                printLine(operation.name(), histogram != null ? histogram : new Histogram(3), operationErrors);
+            }
+        }
+        final Histogram total = result.getTotal();
+        printLine("TOTAL", total, errors);
+
+        System.out.printf("throughput:  %.1f requests/s%n", total.getTotalCount() / seconds);
+        if (result.getServerAllocatedBytes() >= 0) {
+            System.out.printf("allocation:  %.1f MB/s, %.1f KB/request%n",
+                    result.getServerAllocatedBytes() / seconds / (1024 * 1024),
+                    result.getServerAllocatedBytes() / 1024.0 / Math.max(1, total.getTotalCount() + errors));
+        }
+    }
+
+
+    private static void printLine(final String name, final Histogram histogram, final long errors) {
+        System.out.printf("%-12s %10d %8d %10.3f %10.3f %10.3f %10.3f%n", name, histogram.getTotalCount(), errors,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+
+    private static double millis(final long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,189 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbutils.BasicRowProcessor;
+import org.apache.commons.dbutils.BeanProcessor;
+import org.apache.commons.dbutils.handlers.BeanHandler;
+import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import de.bogenliga.application.benchmarks.database.SyntheticResultSet;
+
+/**
+ * I measure the mapping of result set rows to business entities.
+ *
+ * The {@link BasicBeanHandler} and {@link BasicBeanListHandler} use the cached column binding of the
+ * {@link de.bogenliga.application.common.database.BeanRowMapper}.
+ * The {@link BeanHandler} and {@link BeanListHandler} of commons-dbutils are the reflection based baseline.
+ * The rows are read from a {@link SyntheticResultSet}, so no database driver is involved.
+ *
+ * I´m located in the package of the {@link BasicBeanHandler} to access the package-private constructors.
+ *
+ * Run with {@code java -jar bogenliga-benchmarks/target/benchmarks.jar RowMappingBenchmark -prof gc}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final String[] COLUMNS = {
+            "row_id", "row_name", "row_points", "row_active", "row_created_at_utc", "row_created_by"};
+
+    @Param({"1", "100", "1000"})
+    private int rows;
+
+    private ResultSet resultSet;
+
+    private BasicBeanHandler<RowBE> beanHandler;
+    private BasicBeanListHandler<RowBE> beanListHandler;
+    private BeanHandler<RowBE> dbutilsBeanHandler;
+    private BeanListHandler<RowBE> dbutilsBeanListHandler;
+
+
+    @Setup
+    public void setup() {
+        final Map<String, String> columnToFieldMapping = new HashMap<>();
+        columnToFieldMapping.put("row_id", "id");
+        columnToFieldMapping.put("row_name", "name");
+        columnToFieldMapping.put("row_points", "points");
+        columnToFieldMapping.put("row_active", "active");
+        columnToFieldMapping.put("row_created_at_utc", "createdAtUtc");
+        columnToFieldMapping.put("row_created_by", "createdBy");
+
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        final Object[][] values = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            values[i] = new Object[]{(long) i, "name " + i, i % 300, i % 2 == 0, now, i % 10 == 0 ? null : 1L};
+        }
+        resultSet = SyntheticResultSet.create(COLUMNS, values);
+
+        beanHandler = new BasicBeanHandler<>(RowBE.class, columnToFieldMapping);
+        beanListHandler = new BasicBeanListHandler<>(RowBE.class, columnToFieldMapping);
+
+        final BasicRowProcessor rowProcessor = new BasicRowProcessor(new BeanProcessor(columnToFieldMapping));
+        dbutilsBeanHandler = new BeanHandler<>(RowBE.class, rowProcessor);
+        dbutilsBeanListHandler = new BeanListHandler<>(RowBE.class, rowProcessor);
+    }
+
+
+    @Benchmark
+    public RowBE beanHandler() throws SQLException {
+        SyntheticResultSet.rewind(resultSet);
+        return beanHandler.handle(resultSet);
+    }
+
+
+    @Benchmark
+    public RowBE dbutilsBeanHandler() throws SQLException {
+        SyntheticResultSet.rewind(resultSet);
+        return dbutilsBeanHandler.handle(resultSet);
+    }
+
+
+    @Benchmark
+    public List<RowBE> beanListHandler() throws SQLException {
+        SyntheticResultSet.rewind(resultSet);
+        return beanListHandler.handle(resultSet);
+    }
+
+
+    @Benchmark
+    public List<RowBE> dbutilsBeanListHandler() throws SQLException {
+        SyntheticResultSet.rewind(resultSet);
+        return dbutilsBeanListHandler.handle(resultSet);
+    }
+
+
+    /**
+     * I´m a business entity with the common column types.
+     */
+    public static class RowBE {
+        private Long id;
+        private String name;
+        private Integer points;
+        private Boolean active;
+        private Timestamp createdAtUtc;
+        private Long createdBy;
+
+
+        public Long getId() {
+            return id;
+        }
+
+
+        public void setId(final Long id) {
+            this.id = id;
+        }
+
+
+        public String getName() {
+            return name;
+        }
+
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+
+        public Integer getPoints() {
+            return points;
+        }
+
+
+        public void setPoints(final Integer points) {
+            this.points = points;
+        }
+
+
+        public Boolean getActive() {
+            return active;
+        }
+
+
+        public void setActive(final Boolean active) {
+            this.active = active;
+        }
+
+
+        public Timestamp getCreatedAtUtc() {
+            return createdAtUtc;
+        }
+
+
+        public void setCreatedAtUtc(final Timestamp createdAtUtc) {
+            this.createdAtUtc = createdAtUtc;
+        }
+
+
+        public Long getCreatedBy() {
+            return createdBy;
+        }
+
+
+        public void setCreatedBy(final Long createdBy) {
+            this.createdBy = createdBy;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * I´m the map based session handler which was used before the {@link SessionContext}.
+ *
+ * I store the session information in a string-keyed map per thread and log every access.
+ * I´m only used as baseline for the {@link SessionHandlerBenchmark}.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class MapSessionHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(MapSessionHandler.class);
+
+    private static final ThreadLocal<Map<String, Object>> THREAD_LOCAL = ThreadLocal.withInitial(HashMap::new);
+
+    private static final String CONNECTION = "CONNECTION";
+    private static final String IS_ACTIVE = "IS_ACTIVE";
+
+
+    /**
+     * Private constructor
+     */
+    private MapSessionHandler() {
+        // empty private constructor
+    }
+
+
+    static Connection getConnection() {
+        LOG.debug("Get connection from ThreadLocal.");
+
+        if (THREAD_LOCAL.get().get(CONNECTION) == null) {
+            throw new IllegalStateException("unexpected empty ThreadLocal for Connection");
+        }
+
+        return (Connection) THREAD_LOCAL.get().get(CONNECTION);
+    }
+
+
+    static void setConnection(final Connection connection) {
+        LOG.debug("Set new connection in ThreadLocal.");
+
+        if (THREAD_LOCAL.get().containsKey(CONNECTION)) {
+            THREAD_LOCAL.get().remove(CONNECTION);
+        }
+
+        THREAD_LOCAL.get().put(CONNECTION, connection);
+    }
+
+
+    static void removeConnection() {
+        LOG.debug("Remove connection from ThreadLocal.");
+
+        THREAD_LOCAL.get().remove(CONNECTION);
+        THREAD_LOCAL.get().put(IS_ACTIVE, false);
+    }
+
+
+    static Boolean isActive() {
+        if (THREAD_LOCAL.get().get(IS_ACTIVE) == null) {
+            return false;
+        }
+
+        return (Boolean) THREAD_LOCAL.get().get(IS_ACTIVE);
+    }
+
+
+    static void setIsActive(final Boolean active) {
+        THREAD_LOCAL.get().put(IS_ACTIVE, active);
+    }
+}
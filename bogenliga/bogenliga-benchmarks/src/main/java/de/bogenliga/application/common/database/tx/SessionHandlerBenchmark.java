@@ -0,0 +1,104 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure the session handling overhead of a single transaction.
+ *
+ * Each benchmark method executes the {@link SessionHandler} calls of the {@link PostgresqlTransactionManager}
+ * for begin, three statements, commit and release without database access.
+ * The {@link MapSessionHandler} is the baseline with the string-keyed map.
+ *
+ * I´m located in the package of the {@link SessionHandler} to access the package-private API.
+ *
+ * Run with {@code java -jar bogenliga-benchmarks/target/benchmarks.jar SessionHandlerBenchmark -prof gc}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SessionHandlerBenchmark {
+
+    private static final int STATEMENTS = 3;
+
+    private final Connection connection = (Connection) Proxy.newProxyInstance(
+            SessionHandlerBenchmark.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> null);
+
+
+    @Benchmark
+    public Connection mapTransaction() {
+        // begin
+        MapSessionHandler.setConnection(connection);
+        MapSessionHandler.setIsActive(true);
+
+        // statements with TransactionManager.getConnection()
+        Connection result = null;
+        for (int i = 0; i < STATEMENTS; i++) {
+            if (MapSessionHandler.isActive()) {
+                result = MapSessionHandler.getConnection();
+            }
+        }
+
+        // commit
+        if (MapSessionHandler.isActive()) {
+            result = MapSessionHandler.getConnection();
+            MapSessionHandler.setIsActive(false);
+        }
+
+        // release
+        if (!MapSessionHandler.isActive()) {
+            result = MapSessionHandler.getConnection();
+            MapSessionHandler.removeConnection();
+        }
+        return result;
+    }
+
+
+    @Benchmark
+    public Connection contextTransaction() {
+        // begin
+        SessionHandler.setConnection(connection);
+        SessionHandler.setIsActive(true);
+
+        // statements with TransactionManager.getConnection()
+        Connection result = null;
+        for (int i = 0; i < STATEMENTS; i++) {
+            if (SessionHandler.isActive()) {
+                result = SessionHandler.getConnection();
+            }
+        }
+
+        // commit
+        final SessionContext context = SessionHandler.getContext();
+        if (context != null && context.isActive()) {
+            result = SessionHandler.getConnection();
+            context.setActive(false);
+        }
+
+        // release
+        if (!SessionHandler.isActive()) {
+            result = SessionHandler.getConnection();
+            SessionHandler.removeConnection();
+        }
+        return result;
+    }
+}
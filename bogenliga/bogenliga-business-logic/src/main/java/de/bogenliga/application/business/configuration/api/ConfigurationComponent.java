@@ -1,8 +1,14 @@
 package de.bogenliga.application.business.configuration.api;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVersion;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
 import de.bogenliga.application.common.component.ComponentFacade;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
 
 /**
  * I´m responsible for the configuration database requests.
@@ -11,6 +17,10 @@ import de.bogenliga.application.common.component.ComponentFacade;
  */
 public interface ConfigurationComponent extends ComponentFacade {
 
+    /**
+     * Maximum number of configuration entries per page
+     */
+    int MAX_PAGE_LIMIT = 1000;
 
     /**
      * I return all configuration entries.
@@ -31,6 +41,66 @@ public interface ConfigurationComponent extends ComponentFacade {
     ConfigurationVO findByKey(String key);
 
 
+    /**
+     * I return the configuration entries with the given keys.
+     *
+     * All keys are resolved with a single request. Unknown keys are no error and are missing in the result.
+     *
+     * @param keys of the configuration key-value pairs
+     * @return configuration entries in the order of the keys;
+     * empty list, if no configuration is found
+     */
+    List<ConfigurationVO> findByKeys(List<String> keys);
+
+
+    /**
+     * I return the configuration entries of a key namespace.
+     *
+     * The keys are dotted namespaces, e.g. the prefix "app.bogenliga.frontend" returns
+     * "app.bogenliga.frontend.autorefresh.active" and "app.bogenliga.frontend.autorefresh.interval".
+     *
+     * @param prefix of the configuration keys, the characters are compared literally
+     * @return configuration entries ordered by key;
+     * empty list, if no configuration is found
+     */
+    List<ConfigurationVO> findByPrefix(String prefix);
+
+
+    /**
+     * I return a page of configuration entries ordered by key.
+     *
+     * The pages are selected with keyset pagination, so each page has the same cost regardless of its position.
+     * The next page starts after the key of the last entry of the previous page.
+     *
+     * @param after key of the last entry of the previous page; null for the first page
+     * @param limit maximum number of entries of the page, between 1 and {@link #MAX_PAGE_LIMIT}
+     * @return page of configuration entries ordered by key
+     */
+    Page<ConfigurationVO> findPage(String after, int limit);
+
+
+    /**
+     * I return all configuration entries with their version.
+     *
+     * The version changes with every modification of the configuration entries.
+     * The entries and the version come from the same read, so the entries are loaded and hashed once.
+     *
+     * @return configuration entries of {@link #findAll()} with their content hash
+     * @see ConfigurationVersion
+     */
+    Versioned<List<ConfigurationVO>> findAllWithVersion();
+
+
+    /**
+     * I return the configuration entry with the given key and its version.
+     *
+     * @param key of the configuration key-value pair
+     * @return configuration entry of {@link #findByKey(String)} with its content hash
+     * @see ConfigurationVersion
+     */
+    Versioned<ConfigurationVO> findByKeyWithVersion(String key);
+
+
     /**
      * I persist a new configuration in the database.
      *
@@ -49,10 +119,47 @@ public interface ConfigurationComponent extends ComponentFacade {
     ConfigurationVO update(ConfigurationVO configurationVO);
 
 
+    /**
+     * I create or replace a configuration. The configuration is identified by the key.
+     *
+     * A new configuration is created, if no configuration with the key exists.
+     * Otherwise the value of the existing configuration is replaced.
+     * The request is idempotent and does not require to check the existence first.
+     *
+     * @param configurationVO to create or replace
+     * @return persisted version of the configuration
+     */
+    ConfigurationVO upsert(ConfigurationVO configurationVO);
+
+
     /**
      * I delete an existing configuration. The configuration is identified by the key.
      *
      * @param configurationVO to delete an existing configuration key-value-pair
      */
     void delete(ConfigurationVO configurationVO);
+
+
+    /**
+     * I write all configuration entries to the output stream.
+     *
+     * The entries are streamed from the database and are not loaded into memory.
+     *
+     * @param copyFormat   data format of the export
+     * @param outputStream target of the export
+     * @return number of exported configuration entries
+     */
+    long exportAll(CopyFormat copyFormat, OutputStream outputStream);
+
+
+    /**
+     * I persist all configuration entries of the input stream.
+     *
+     * Existing configurations with the same key are updated, new configurations are created.
+     *
+     * @param copyFormat  data format of the import
+     * @param inputStream source of the import
+     * @return number of created or updated configuration entries
+     */
+    long importAll(CopyFormat copyFormat, InputStream inputStream);
 }
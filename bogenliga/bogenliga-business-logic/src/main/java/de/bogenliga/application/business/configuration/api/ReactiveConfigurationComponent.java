@@ -0,0 +1,105 @@
+package de.bogenliga.application.business.configuration.api;
+
+import java.util.List;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.component.ComponentFacade;
+import de.bogenliga.application.common.component.types.Page;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * I´m responsible for the non-blocking configuration database requests.
+ *
+ * I provide the same operations as the {@link ConfigurationComponent}, but the caller is not blocked
+ * while the database request is executed. The result is emitted, when the request is completed.
+ * The errors of the {@link ConfigurationComponent} are emitted as error signal,
+ * e.g. a {@link de.bogenliga.application.common.errorhandling.exception.BusinessException}.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://projectreactor.io/docs/core/release/reference/">Reactor Reference Guide</a>
+ */
+public interface ReactiveConfigurationComponent extends ComponentFacade {
+
+
+    /**
+     * I return all configuration entries.
+     *
+     * @return all configuration entries in the database;
+     * empty, if not configuration is found
+     */
+    Flux<ConfigurationVO> findAll();
+
+
+    /**
+     * I return a configuration entry with the given key.
+     *
+     * @param key of the configuration key-value pair
+     * @return single configuration entry with the given key
+     */
+    Mono<ConfigurationVO> findByKey(String key);
+
+
+    /**
+     * I return the configuration entries with the given keys.
+     *
+     * @param keys of the configuration key-value pairs
+     * @return configuration entries in the order of the keys, without the unknown keys
+     */
+    Flux<ConfigurationVO> findByKeys(List<String> keys);
+
+
+    /**
+     * I return the configuration entries of a key namespace.
+     *
+     * @param prefix of the configuration keys
+     * @return configuration entries ordered by key
+     */
+    Flux<ConfigurationVO> findByPrefix(String prefix);
+
+
+    /**
+     * I return a page of configuration entries ordered by key.
+     *
+     * @param after key of the last entry of the previous page; null for the first page
+     * @param limit maximum number of entries of the page
+     * @return page of configuration entries ordered by key
+     * @see ConfigurationComponent#findPage(String, int)
+     */
+    Mono<Page<ConfigurationVO>> findPage(String after, int limit);
+
+
+    /**
+     * I persist a new configuration in the database.
+     *
+     * @param configurationVO new configuration
+     * @return persisted version of the configuration
+     */
+    Mono<ConfigurationVO> create(ConfigurationVO configurationVO);
+
+
+    /**
+     * I update an existing configuration. The configuration is identified by the key.
+     *
+     * @param configurationVO to update an existing configuration value
+     * @return persisted version of the configuration
+     */
+    Mono<ConfigurationVO> update(ConfigurationVO configurationVO);
+
+
+    /**
+     * I create or replace a configuration. The configuration is identified by the key.
+     *
+     * @param configurationVO to create or replace
+     * @return persisted version of the configuration
+     */
+    Mono<ConfigurationVO> upsert(ConfigurationVO configurationVO);
+
+
+    /**
+     * I delete an existing configuration. The configuration is identified by the key.
+     *
+     * @param configurationVO to delete an existing configuration key-value-pair
+     * @return completion signal of the deletion
+     */
+    Mono<Void> delete(ConfigurationVO configurationVO);
+}
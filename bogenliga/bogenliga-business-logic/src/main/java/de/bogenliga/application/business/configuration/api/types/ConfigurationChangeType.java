@@ -0,0 +1,15 @@
+package de.bogenliga.application.business.configuration.api.types;
+
+/**
+ * I represent the type of a configuration change.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see ConfigurationChangedEvent
+ */
+public enum ConfigurationChangeType {
+    CREATE,
+    UPDATE,
+    DELETE,
+    // an unknown number of entries changed, e.g. by an import, and must be reloaded
+    RESET
+}
@@ -0,0 +1,73 @@
+package de.bogenliga.application.business.configuration.api.types;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * I´m published after a configuration entry was changed.
+ *
+ * The events are published for the changes of this application node and,
+ * if the database notifications are available, for the changes of the other nodes.
+ * A change can be published more than once, e.g. by the component and by the database notification.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see org.springframework.context.ApplicationEventPublisher
+ */
+public class ConfigurationChangedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final ConfigurationChangeType changeType;
+    private final String key;
+    private final String value;
+
+
+    /**
+     * Constructor with all parameters
+     *
+     * @param source     publisher of the event
+     * @param changeType type of the change
+     * @param key        of the changed configuration entry; null for {@link ConfigurationChangeType#RESET}
+     * @param value      new value of the configuration entry; null for deleted entries
+     */
+    public ConfigurationChangedEvent(final Object source, final ConfigurationChangeType changeType,
+                                     final String key, final String value) {
+        super(source);
+        this.changeType = changeType;
+        this.key = key;
+        this.value = value;
+    }
+
+
+    /**
+     * I create the event for an unknown number of changed configuration entries.
+     *
+     * @param source publisher of the event
+     * @return reset event
+     */
+    public static ConfigurationChangedEvent reset(final Object source) {
+        return new ConfigurationChangedEvent(source, ConfigurationChangeType.RESET, null, null);
+    }
+
+
+    public ConfigurationChangeType getChangeType() {
+        return changeType;
+    }
+
+
+    public String getKey() {
+        return key;
+    }
+
+
+    public String getValue() {
+        return value;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ConfigurationChangedEvent{" +
+                "changeType=" + changeType +
+                ", key='" + key + '\'' +
+                '}';
+    }
+}
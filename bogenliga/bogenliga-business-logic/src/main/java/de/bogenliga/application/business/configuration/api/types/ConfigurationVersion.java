@@ -0,0 +1,100 @@
+package de.bogenliga.application.business.configuration.api.types;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+
+/**
+ * I calculate the version of configuration entries.
+ *
+ * The version is a content hash of the keys and values ordered by key.
+ * The order of the database rows depends on updates, VACUUM and the queried replica,
+ * so the entries are sorted before hashing.
+ * Equal configuration entries have the same version on all application nodes,
+ * so the version can be used as strong entity tag (ETag) behind a load balancer.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public final class ConfigurationVersion {
+
+    private static final String ALGORITHM = "SHA-256";
+    // 128 bit of the hash
+    private static final int VERSION_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final Comparator<ConfigurationVO> BY_KEY = Comparator.comparing(ConfigurationVO::getKey,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+
+    /**
+     * Private constructor
+     */
+    private ConfigurationVersion() {
+        // empty private constructor
+    }
+
+
+    /**
+     * I return the version of a single configuration entry.
+     *
+     * @param configurationVO configuration entry
+     * @return hex encoded content hash
+     */
+    public static String of(final ConfigurationVO configurationVO) {
+        return of(Collections.singletonList(configurationVO));
+    }
+
+
+    /**
+     * I return the version of the configuration entries independent of their order.
+     *
+     * @param configurationVOList configuration entries
+     * @return hex encoded content hash
+     */
+    public static String of(final List<ConfigurationVO> configurationVOList) {
+        final MessageDigest digest = createDigest();
+
+        final List<ConfigurationVO> sortedList = new ArrayList<>(configurationVOList);
+        sortedList.sort(BY_KEY);
+
+        for (final ConfigurationVO configurationVO : sortedList) {
+            update(digest, configurationVO.getKey());
+            update(digest, configurationVO.getValue());
+        }
+
+        return toHex(digest.digest());
+    }
+
+
+    private static void update(final MessageDigest digest, final String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // separate the values and distinguish NULL from empty values
+        digest.update((byte) (value == null ? 1 : 0));
+    }
+
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, e);
+        }
+    }
+
+
+    private static String toHex(final byte[] hash) {
+        final char[] hex = new char[VERSION_BYTES * 2];
+        for (int i = 0; i < VERSION_BYTES; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX[hash[i] & 0x0f];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,38 @@
+package de.bogenliga.application.business.configuration.api.types;
+
+/**
+ * I´m a configuration value with the version of exactly this value.
+ *
+ * The value and the version come from the same read, so an entity tag always matches the response body.
+ *
+ * @param <V> configuration entry or list of configuration entries
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see ConfigurationVersion
+ */
+public final class Versioned<V> {
+
+    private final V value;
+    private final String version;
+
+
+    /**
+     * Constructor
+     *
+     * @param value   configuration entry or list of configuration entries
+     * @param version content hash of the value
+     */
+    public Versioned(final V value, final String version) {
+        this.value = value;
+        this.version = version;
+    }
+
+
+    public V getValue() {
+        return value;
+    }
+
+
+    public String getVersion() {
+        return version;
+    }
+}
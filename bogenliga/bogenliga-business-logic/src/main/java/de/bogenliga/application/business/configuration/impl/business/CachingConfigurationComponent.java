@@ -0,0 +1,440 @@
+package de.bogenliga.application.business.configuration.impl.business;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVersion;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.configuration.CacheConfiguration;
+import de.bogenliga.application.common.database.CopyFormat;
+import de.bogenliga.application.common.database.tx.Propagation;
+import de.bogenliga.application.common.database.tx.TransactionManager;
+import de.bogenliga.application.common.validation.Preconditions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * I´m a read-through cache of the {@link ConfigurationComponent}.
+ *
+ * I decorate the {@link ConfigurationComponentImpl} and serve the configuration entries from memory.
+ * The caches are bounded by size (W-TinyLFU eviction) and the entries expire after the configured duration.
+ * Every write invalidates the modified key and the cached list of all entries.
+ *
+ * The cached entries are loaded in a read-write transaction on the primary database.
+ * A read-only transaction can be routed to a replica, which lags behind the last commit,
+ * and the stale entries and versions would be served until they expire.
+ *
+ * The hit, miss and eviction metrics are published with the {@link MeterRegistry}, if available,
+ * e.g. /actuator/metrics/cache.gets?tag=cache:configuration.entries
+ *
+ * The version of the cached entries is calculated once per load,
+ * so the version can be checked without loading or hashing the entries.
+ *
+ * I return copies of the cached value objects, because the value objects are mutable.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://github.com/ben-manes/caffeine">Caffeine</a>
+ */
+@Primary
+@Component
+public class CachingConfigurationComponent implements ConfigurationComponent {
+
+    static final String ENTRIES_CACHE = "configuration.entries";
+    static final String LIST_CACHE = "configuration.all";
+
+    private static final String ALL = "ALL";
+    // the lists of a key namespace are cached with the list of all entries and invalidated together
+    private static final String PREFIX = "PREFIX:";
+
+    private final ConfigurationComponent delegate;
+    private final TransactionManager transactionManager;
+    private final Cache<String, Snapshot<ConfigurationVO>> entries;
+    private final Cache<String, Snapshot<List<ConfigurationVO>>> lists;
+    // incremented by every invalidation to detect concurrent writes while loading
+    private final AtomicLong generation = new AtomicLong();
+
+
+    /**
+     * Constructor
+     *
+     * dependency injection with {@link Autowired}
+     *
+     * @param delegate              to load the configuration entries from the database
+     * @param transactionManager    to load the configuration entries from the primary database
+     * @param cacheConfiguration    with the size and expiration of the caches
+     * @param meterRegistryProvider to register the cache metrics, if available
+     */
+    @Autowired
+    public CachingConfigurationComponent(
+            @Qualifier("configurationComponentImpl") final ConfigurationComponent delegate,
+            final TransactionManager transactionManager,
+            final CacheConfiguration cacheConfiguration,
+            final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.delegate = delegate;
+        this.transactionManager = transactionManager;
+        this.entries = createCache(cacheConfiguration);
+        this.lists = createCache(cacheConfiguration);
+
+        final MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, entries, ENTRIES_CACHE);
+            CaffeineCacheMetrics.monitor(meterRegistry, lists, LIST_CACHE);
+        }
+    }
+
+
+    private static <V> Cache<String, V> createCache(final CacheConfiguration cacheConfiguration) {
+        return Caffeine.newBuilder()
+                .maximumSize(cacheConfiguration.getMaximumSize())
+                .expireAfterWrite(cacheConfiguration.getExpireAfterWrite(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+
+    @Override
+    public List<ConfigurationVO> findAll() {
+        return copy(loadAll().getValue());
+    }
+
+
+    @Override
+    public ConfigurationVO findByKey(final String key) {
+        // let the delegate check the precondition
+        if (key == null || key.isEmpty()) {
+            return copy(delegate.findByKey(key));
+        }
+
+        return copy(load(key).getValue());
+    }
+
+
+    @Override
+    public List<ConfigurationVO> findByKeys(final List<String> keys) {
+        // let the delegate check the precondition
+        if (keys == null) {
+            return delegate.findByKeys(keys);
+        }
+
+        final long loadGeneration = generation.get();
+        final Map<String, Snapshot<ConfigurationVO>> snapshots = new HashMap<>(entries.getAllPresent(keys));
+        final List<String> missingKeys = keys.stream()
+                .filter(key -> key != null && !snapshots.containsKey(key))
+                .distinct()
+                .collect(Collectors.toList());
+
+        // load all missing entries with a single request
+        if (!missingKeys.isEmpty()) {
+            for (final ConfigurationVO configurationVO : loadFromPrimary(() -> delegate.findByKeys(missingKeys))) {
+                final Snapshot<ConfigurationVO> snapshot = new Snapshot<>(configurationVO,
+                        ConfigurationVersion.of(configurationVO));
+                snapshots.put(configurationVO.getKey(), snapshot);
+                entries.asMap().putIfAbsent(configurationVO.getKey(), snapshot);
+
+                // the snapshot may have been loaded before a concurrent write was committed
+                if (generation.get() != loadGeneration) {
+                    entries.asMap().remove(configurationVO.getKey(), snapshot);
+                }
+            }
+        }
+
+        return keys.stream()
+                .distinct()
+                .map(snapshots::get)
+                .filter(Objects::nonNull)
+                .map(snapshot -> copy(snapshot.getValue()))
+                .collect(Collectors.toList());
+    }
+
+
+    @Override
+    public List<ConfigurationVO> findByPrefix(final String prefix) {
+        // let the delegate check the precondition
+        if (prefix == null || prefix.isEmpty()) {
+            return delegate.findByPrefix(prefix);
+        }
+
+        return copy(load(lists, PREFIX + prefix, key -> {
+            final List<ConfigurationVO> configurationVOList = loadFromPrimary(() -> delegate.findByPrefix(prefix));
+            return new Snapshot<>(configurationVOList, ConfigurationVersion.of(configurationVOList));
+        }).getValue());
+    }
+
+
+    /**
+     * I load the pages from the delegate without caching.
+     *
+     * A page is a bounded index range scan and the combinations of cursor and limit are unbounded,
+     * so cached pages would hardly be reused.
+     */
+    @Override
+    public Page<ConfigurationVO> findPage(final String after, final int limit) {
+        return delegate.findPage(after, limit);
+    }
+
+
+    @Override
+    public Versioned<List<ConfigurationVO>> findAllWithVersion() {
+        final Snapshot<List<ConfigurationVO>> snapshot = loadAll();
+        return new Versioned<>(copy(snapshot.getValue()), snapshot.getVersion());
+    }
+
+
+    @Override
+    public Versioned<ConfigurationVO> findByKeyWithVersion(final String key) {
+        // let the delegate check the precondition
+        if (key == null || key.isEmpty()) {
+            return delegate.findByKeyWithVersion(key);
+        }
+
+        final Snapshot<ConfigurationVO> snapshot = load(key);
+        return new Versioned<>(copy(snapshot.getValue()), snapshot.getVersion());
+    }
+
+
+    @Override
+    public ConfigurationVO create(final ConfigurationVO configurationVO) {
+        try {
+            return delegate.create(configurationVO);
+        } finally {
+            invalidate(configurationVO);
+        }
+    }
+
+
+    @Override
+    public ConfigurationVO update(final ConfigurationVO configurationVO) {
+        try {
+            return delegate.update(configurationVO);
+        } finally {
+            invalidate(configurationVO);
+        }
+    }
+
+
+    @Override
+    public ConfigurationVO upsert(final ConfigurationVO configurationVO) {
+        try {
+            return delegate.upsert(configurationVO);
+        } finally {
+            invalidate(configurationVO);
+        }
+    }
+
+
+    @Override
+    public void delete(final ConfigurationVO configurationVO) {
+        try {
+            delegate.delete(configurationVO);
+        } finally {
+            invalidate(configurationVO);
+        }
+    }
+
+
+    @Override
+    public long exportAll(final CopyFormat copyFormat, final OutputStream outputStream) {
+        return delegate.exportAll(copyFormat, outputStream);
+    }
+
+
+    @Override
+    public long importAll(final CopyFormat copyFormat, final InputStream inputStream) {
+        try {
+            return delegate.importAll(copyFormat, inputStream);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+
+    /**
+     * I remove the configuration entry with the given key and the list of all entries from the cache.
+     *
+     * @param key of the modified configuration entry
+     */
+    public void invalidate(final String key) {
+        Preconditions.checkNotNull(key, "Key must not be null");
+
+        generation.incrementAndGet();
+        entries.invalidate(key);
+        lists.invalidateAll();
+    }
+
+
+    /**
+     * I reload the configuration entry with the given key from the primary database.
+     *
+     * The cached entry is replaced, because it may have been loaded before the change.
+     * A deleted entry is removed from the cache. The lists are invalidated.
+     *
+     * @param key of the modified configuration entry
+     * @return current configuration entry; null, if the entry does not exist
+     */
+    public ConfigurationVO reload(final String key) {
+        Preconditions.checkNotNull(key, "Key must not be null");
+
+        generation.incrementAndGet();
+        lists.invalidateAll();
+
+        // a missing entry does not throw an exception, which would roll back the transaction
+        final List<ConfigurationVO> configurationVOList = loadFromPrimary(
+                () -> delegate.findByKeys(Collections.singletonList(key)));
+
+        if (configurationVOList.isEmpty()) {
+            entries.invalidate(key);
+            return null;
+        }
+
+        final ConfigurationVO configurationVO = configurationVOList.get(0);
+        entries.put(key, new Snapshot<>(configurationVO, ConfigurationVersion.of(configurationVO)));
+        return copy(configurationVO);
+    }
+
+
+    /**
+     * I remove all configuration entries from the cache.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.invalidateAll();
+        lists.invalidateAll();
+    }
+
+
+    private void invalidate(final ConfigurationVO configurationVO) {
+        if (configurationVO != null && configurationVO.getKey() != null) {
+            invalidate(configurationVO.getKey());
+        } else {
+            generation.incrementAndGet();
+            lists.invalidateAll();
+        }
+    }
+
+
+    private Snapshot<List<ConfigurationVO>> loadAll() {
+        return load(lists, ALL, key -> {
+            final List<ConfigurationVO> configurationVOList = loadFromPrimary(delegate::findAll);
+            return new Snapshot<>(configurationVOList, ConfigurationVersion.of(configurationVOList));
+        });
+    }
+
+
+    private Snapshot<ConfigurationVO> load(final String key) {
+        return load(entries, key, k -> {
+            final ConfigurationVO configurationVO = loadFromPrimary(() -> delegate.findByKey(k));
+            return configurationVO == null
+                    ? null
+                    : new Snapshot<>(configurationVO, ConfigurationVersion.of(configurationVO));
+        });
+    }
+
+
+    private <V> Snapshot<V> load(final Cache<String, Snapshot<V>> cache, final String key,
+                                 final Function<String, Snapshot<V>> loader) {
+        final long loadGeneration = generation.get();
+        final Snapshot<V> snapshot = cache.get(key, loader);
+
+        // the snapshot may have been loaded before a concurrent write was committed
+        if (generation.get() != loadGeneration && snapshot != null) {
+            cache.asMap().remove(key, snapshot);
+        }
+
+        return snapshot == null ? Snapshot.empty() : snapshot;
+    }
+
+
+    /**
+     * I load the value in a read-write transaction, which is not routed to a read-only replica.
+     *
+     * The read-only transactions of the delegate join the transaction.
+     *
+     * @param loader to load the value with the delegate
+     * @param <T>    type of the value
+     * @return loaded value
+     */
+    private <T> T loadFromPrimary(final Supplier<T> loader) {
+        transactionManager.begin(Propagation.REQUIRED, false);
+
+        try {
+            final T result = loader.get();
+            transactionManager.commit();
+            return result;
+        } catch (final RuntimeException e) {
+            transactionManager.rollback();
+            throw e;
+        } finally {
+            transactionManager.release();
+        }
+    }
+
+
+    private static ConfigurationVO copy(final ConfigurationVO configurationVO) {
+        return configurationVO == null
+                ? null
+                : new ConfigurationVO(configurationVO.getKey(), configurationVO.getValue());
+    }
+
+
+    private static List<ConfigurationVO> copy(final List<ConfigurationVO> configurationVOList) {
+        return configurationVOList.stream()
+                .map(CachingConfigurationComponent::copy)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * I´m a cached value with its version.
+     *
+     * The version is calculated once when the value is loaded.
+     *
+     * @param <V> cached value
+     */
+    private static final class Snapshot<V> {
+        private static final Snapshot<?> EMPTY = new Snapshot<>(null, null);
+
+        private final V value;
+        private final String version;
+
+
+        Snapshot(final V value, final String version) {
+            this.value = value;
+            this.version = version;
+        }
+
+
+        @SuppressWarnings("unchecked")
+        static <V> Snapshot<V> empty() {
+            return (Snapshot<V>) EMPTY;
+        }
+
+
+        V getValue() {
+            return value;
+        }
+
+
+        String getVersion() {
+            return version;
+        }
+    }
+}
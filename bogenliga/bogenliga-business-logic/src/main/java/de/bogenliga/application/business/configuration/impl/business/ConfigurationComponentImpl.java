@@ -1,14 +1,29 @@
 package de.bogenliga.application.business.configuration.impl.business;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangeType;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangedEvent;
 import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVersion;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
 import de.bogenliga.application.business.configuration.impl.dao.ConfigurationDAO;
 import de.bogenliga.application.business.configuration.impl.entity.ConfigurationBE;
 import de.bogenliga.application.business.configuration.impl.mapper.ConfigurationMapper;
+import de.bogenliga.application.common.component.dao.UpsertResult;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
+import de.bogenliga.application.common.database.tx.TransactionManager;
+import de.bogenliga.application.common.database.tx.Transactional;
 import de.bogenliga.application.common.errorhandling.ErrorCode;
 import de.bogenliga.application.common.errorhandling.exception.BusinessException;
 import de.bogenliga.application.common.validation.Preconditions;
@@ -16,16 +31,29 @@ import de.bogenliga.application.common.validation.Preconditions;
 /**
  * I´m the implementation of {@link ConfigurationComponent}.
  *
+ * I publish a {@link ConfigurationChangedEvent} after the commit of each modification.
+ * The listeners are not notified about rolled back changes.
+ *
+ * Each business call is a single transaction. The reading calls use read-only transactions.
+ *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
  */
 @Component
+@Transactional(readOnly = true)
 public class ConfigurationComponentImpl implements ConfigurationComponent {
 
     private static final String PRECONDITION_MSG_CONFIGURATION = "ConfigurationVO must not be null";
     private static final String PRECONDITION_MSG_CONFIGURATION_KEY = "ConfigurationVO key must not be null or empty";
+    private static final String PRECONDITION_MSG_CONFIGURATION_KEYS = "Keys must not be null";
+    private static final String PRECONDITION_MSG_CONFIGURATION_PREFIX = "Prefix must not be null or empty";
+    private static final String PRECONDITION_MSG_PAGE_LIMIT = "Limit must be between 1 and " + MAX_PAGE_LIMIT;
     private static final String PRECONDITION_MSG_CONFIGURATION_VALUE = "ConfigurationVO value must not be null";
+    private static final String PRECONDITION_MSG_COPY_FORMAT = "CopyFormat must not be null";
+    private static final String PRECONDITION_MSG_STREAM = "Stream must not be null";
 
     private final ConfigurationDAO configurationDAO;
+    private final TransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
@@ -33,11 +61,17 @@ public class ConfigurationComponentImpl implements ConfigurationComponent {
      *
      * dependency injection with {@link Autowired}
      *
-     * @param configurationDAO to access the database and return configuration representations
+     * @param configurationDAO   to access the database and return configuration representations
+     * @param transactionManager to publish the configuration changes after the commit
+     * @param eventPublisher     to publish the configuration changes
      */
     @Autowired
-    public ConfigurationComponentImpl(final ConfigurationDAO configurationDAO) {
+    public ConfigurationComponentImpl(final ConfigurationDAO configurationDAO,
+                                      final TransactionManager transactionManager,
+                                      final ApplicationEventPublisher eventPublisher) {
         this.configurationDAO = configurationDAO;
+        this.transactionManager = transactionManager;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -64,6 +98,55 @@ public class ConfigurationComponentImpl implements ConfigurationComponent {
 
 
     @Override
+    public List<ConfigurationVO> findByKeys(final List<String> keys) {
+        Preconditions.checkNotNull(keys, PRECONDITION_MSG_CONFIGURATION_KEYS);
+
+        final Map<String, ConfigurationBE> configurationBEMap = configurationDAO.findByKeys(keys).stream()
+                .collect(Collectors.toMap(ConfigurationBE::getConfigurationKey, Function.identity()));
+
+        return keys.stream()
+                .distinct()
+                .map(configurationBEMap::get)
+                .filter(Objects::nonNull)
+                .map(ConfigurationMapper.toVO)
+                .collect(Collectors.toList());
+    }
+
+
+    @Override
+    public List<ConfigurationVO> findByPrefix(final String prefix) {
+        Preconditions.checkNotNullOrEmpty(prefix, PRECONDITION_MSG_CONFIGURATION_PREFIX);
+
+        return configurationDAO.findByPrefix(prefix).stream()
+                .map(ConfigurationMapper.toVO)
+                .collect(Collectors.toList());
+    }
+
+
+    @Override
+    public Page<ConfigurationVO> findPage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0 && limit <= MAX_PAGE_LIMIT, PRECONDITION_MSG_PAGE_LIMIT);
+
+        return configurationDAO.findPage(after, limit).map(ConfigurationMapper.toVO);
+    }
+
+
+    @Override
+    public Versioned<List<ConfigurationVO>> findAllWithVersion() {
+        final List<ConfigurationVO> configurationVOList = findAll();
+        return new Versioned<>(configurationVOList, ConfigurationVersion.of(configurationVOList));
+    }
+
+
+    @Override
+    public Versioned<ConfigurationVO> findByKeyWithVersion(final String key) {
+        final ConfigurationVO configurationVO = findByKey(key);
+        return new Versioned<>(configurationVO, ConfigurationVersion.of(configurationVO));
+    }
+
+
+    @Override
+    @Transactional
     public ConfigurationVO create(final ConfigurationVO configurationVO) {
         Preconditions.checkNotNull(configurationVO, PRECONDITION_MSG_CONFIGURATION);
         Preconditions.checkNotNullOrEmpty(configurationVO.getKey(), PRECONDITION_MSG_CONFIGURATION_KEY);
@@ -71,11 +154,16 @@ public class ConfigurationComponentImpl implements ConfigurationComponent {
                 PRECONDITION_MSG_CONFIGURATION_VALUE);
 
         final ConfigurationBE configurationBE = ConfigurationMapper.toBE.apply(configurationVO);
-        return ConfigurationMapper.toVO.apply(configurationDAO.create(configurationBE));
+        final ConfigurationVO createdConfigurationVO = ConfigurationMapper.toVO.apply(
+                configurationDAO.create(configurationBE));
+
+        publish(ConfigurationChangeType.CREATE, createdConfigurationVO);
+        return createdConfigurationVO;
     }
 
 
     @Override
+    @Transactional
     public ConfigurationVO update(final ConfigurationVO configurationVO) {
         Preconditions.checkNotNull(configurationVO, PRECONDITION_MSG_CONFIGURATION);
         Preconditions.checkNotNullOrEmpty(configurationVO.getKey(), PRECONDITION_MSG_CONFIGURATION_KEY);
@@ -83,16 +171,76 @@ public class ConfigurationComponentImpl implements ConfigurationComponent {
                 PRECONDITION_MSG_CONFIGURATION_VALUE);
 
         final ConfigurationBE configurationBE = ConfigurationMapper.toBE.apply(configurationVO);
-        return ConfigurationMapper.toVO.apply(configurationDAO.update(configurationBE));
+        final ConfigurationVO updatedConfigurationVO = ConfigurationMapper.toVO.apply(
+                configurationDAO.update(configurationBE));
+
+        publish(ConfigurationChangeType.UPDATE, updatedConfigurationVO);
+        return updatedConfigurationVO;
     }
 
 
     @Override
+    @Transactional
+    public ConfigurationVO upsert(final ConfigurationVO configurationVO) {
+        checkConfigurationVO(configurationVO);
+
+        final ConfigurationBE configurationBE = ConfigurationMapper.toBE.apply(configurationVO);
+        final UpsertResult<ConfigurationBE> upsertResult = configurationDAO.upsert(configurationBE);
+        final ConfigurationVO upsertedConfigurationVO = ConfigurationMapper.toVO.apply(
+                upsertResult.getBusinessEntity());
+
+        publish(upsertResult.isInserted() ? ConfigurationChangeType.CREATE : ConfigurationChangeType.UPDATE,
+                upsertedConfigurationVO);
+        return upsertedConfigurationVO;
+    }
+
+
+    @Override
+    @Transactional
     public void delete(final ConfigurationVO configurationVO) {
         Preconditions.checkNotNull(configurationVO, PRECONDITION_MSG_CONFIGURATION);
         Preconditions.checkNotNullOrEmpty(configurationVO.getKey(), PRECONDITION_MSG_CONFIGURATION_KEY);
 
         final ConfigurationBE configurationBE = ConfigurationMapper.toBE.apply(configurationVO);
         configurationDAO.delete(configurationBE);
+
+        publish(ConfigurationChangeType.DELETE, new ConfigurationVO(configurationVO.getKey(), null));
+    }
+
+
+    @Override
+    public long exportAll(final CopyFormat copyFormat, final OutputStream outputStream) {
+        Preconditions.checkNotNull(copyFormat, PRECONDITION_MSG_COPY_FORMAT);
+        Preconditions.checkNotNull(outputStream, PRECONDITION_MSG_STREAM);
+
+        return configurationDAO.exportAll(copyFormat, outputStream);
+    }
+
+
+    @Override
+    @Transactional
+    public long importAll(final CopyFormat copyFormat, final InputStream inputStream) {
+        Preconditions.checkNotNull(copyFormat, PRECONDITION_MSG_COPY_FORMAT);
+        Preconditions.checkNotNull(inputStream, PRECONDITION_MSG_STREAM);
+
+        final long importedRows = configurationDAO.importAll(copyFormat, inputStream);
+
+        transactionManager.afterCommit(() -> eventPublisher.publishEvent(ConfigurationChangedEvent.reset(this)));
+        return importedRows;
+    }
+
+
+    private static void checkConfigurationVO(final ConfigurationVO configurationVO) {
+        Preconditions.checkNotNull(configurationVO, PRECONDITION_MSG_CONFIGURATION);
+        Preconditions.checkNotNullOrEmpty(configurationVO.getKey(), PRECONDITION_MSG_CONFIGURATION_KEY);
+        Preconditions.checkNotNull(configurationVO.getValue(),
+                PRECONDITION_MSG_CONFIGURATION_VALUE);
+    }
+
+
+    private void publish(final ConfigurationChangeType changeType, final ConfigurationVO configurationVO) {
+        final ConfigurationChangedEvent event = new ConfigurationChangedEvent(this, changeType,
+                configurationVO.getKey(), configurationVO.getValue());
+        transactionManager.afterCommit(() -> eventPublisher.publishEvent(event));
     }
 }
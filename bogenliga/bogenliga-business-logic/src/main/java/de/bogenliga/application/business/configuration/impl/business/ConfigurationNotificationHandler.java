@@ -0,0 +1,111 @@
+package de.bogenliga.application.business.configuration.impl.business;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangeType;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangedEvent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.database.notification.DatabaseNotificationHandler;
+
+/**
+ * I keep the {@link CachingConfigurationComponent} coherent with the changes of the other application nodes.
+ *
+ * The trigger of the table t_configuration publishes each change on the channel "configuration_changed"
+ * with the payload {@code <operation>:<configuration key>}, e.g. {@code UPDATE:app.bogenliga.frontend.autorefresh.active}.
+ * A TRUNCATE is published without key.
+ *
+ * I reload the modified key or evict all entries, if the key is unknown or the listener was reconnected.
+ * Afterwards I publish the change as {@link ConfigurationChangedEvent} with the current value of the entry,
+ * so the subscribers of this node receive the changes of all nodes.
+ *
+ * The current value is loaded from the primary database and replaces the cached entry,
+ * see {@link CachingConfigurationComponent#reload(String)}.
+ * A concurrently deleted entry is published as deletion.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see de.bogenliga.application.common.database.notification.PostgresqlNotificationListener
+ */
+@Component
+public class ConfigurationNotificationHandler implements DatabaseNotificationHandler {
+
+    static final String CHANNEL = "configuration_changed";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationNotificationHandler.class);
+    private static final char SEPARATOR = ':';
+    private static final String INSERT = "INSERT";
+    private static final String DELETE = "DELETE";
+
+    private final CachingConfigurationComponent cachingConfigurationComponent;
+    private final ApplicationEventPublisher eventPublisher;
+
+
+    /**
+     * Constructor
+     *
+     * dependency injection with {@link Autowired}
+     *
+     * @param cachingConfigurationComponent with the cached configuration entries
+     * @param eventPublisher                to publish the configuration changes
+     */
+    @Autowired
+    public ConfigurationNotificationHandler(final CachingConfigurationComponent cachingConfigurationComponent,
+                                            final ApplicationEventPublisher eventPublisher) {
+        this.cachingConfigurationComponent = cachingConfigurationComponent;
+        this.eventPublisher = eventPublisher;
+    }
+
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+
+
+    @Override
+    public void onNotification(final String payload) {
+        final int separatorIndex = payload == null ? -1 : payload.indexOf(SEPARATOR);
+
+        if (separatorIndex < 0 || separatorIndex == payload.length() - 1) {
+            LOG.debug("Invalidate all configuration entries after '{}'.", payload);
+            cachingConfigurationComponent.invalidateAll();
+            eventPublisher.publishEvent(ConfigurationChangedEvent.reset(this));
+        } else {
+            final String operation = payload.substring(0, separatorIndex);
+            // the key can contain the separator
+            final String key = payload.substring(separatorIndex + 1);
+
+            LOG.debug("Reload configuration entry '{}'.", key);
+            eventPublisher.publishEvent(createEvent(operation, key));
+        }
+    }
+
+
+    @Override
+    public void onListen() {
+        // changes while the listener was disconnected are unknown
+        cachingConfigurationComponent.invalidateAll();
+        eventPublisher.publishEvent(ConfigurationChangedEvent.reset(this));
+    }
+
+
+    private ConfigurationChangedEvent createEvent(final String operation, final String key) {
+        if (DELETE.equals(operation)) {
+            cachingConfigurationComponent.invalidate(key);
+        } else {
+            // the payload does not contain the value, load the current value into the cache
+            final ConfigurationVO configurationVO = cachingConfigurationComponent.reload(key);
+
+            // otherwise the entry was deleted or renamed in the meantime
+            if (configurationVO != null) {
+                return new ConfigurationChangedEvent(this, INSERT.equals(operation)
+                        ? ConfigurationChangeType.CREATE
+                        : ConfigurationChangeType.UPDATE, key, configurationVO.getValue());
+            }
+        }
+
+        return new ConfigurationChangedEvent(this, ConfigurationChangeType.DELETE, key, null);
+    }
+}
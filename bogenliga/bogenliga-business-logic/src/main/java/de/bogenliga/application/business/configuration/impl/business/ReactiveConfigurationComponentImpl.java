@@ -0,0 +1,183 @@
+package de.bogenliga.application.business.configuration.impl.business;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.ReactiveConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.configuration.DatabaseConfiguration;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * I´m the non-blocking facade of the {@link ConfigurationComponent}.
+ *
+ * The JDBC driver blocks the calling thread until the database responds. I execute the blocking requests of the
+ * {@link CachingConfigurationComponent} on a dedicated scheduler, so the callers are not blocked.
+ * The scheduler has one thread per connection of the connection pool, because every request
+ * holds a connection for its whole duration. Further requests are queued without blocking a thread.
+ * The queue is bounded, so an overload does not accumulate requests until the memory is exhausted.
+ * A request exceeding the queue fails with a {@link TechnicalException} with
+ * {@link ErrorCode#SERVICE_UNAVAILABLE_ERROR}.
+ *
+ * Each request is executed on a single thread, so the transaction scopes of the {@link ConfigurationComponent}
+ * work unchanged.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://projectreactor.io/docs/core/release/reference/#faq.wrap-blocking">
+ * Reactor - How do I wrap a synchronous, blocking call?</a>
+ */
+@Component
+public class ReactiveConfigurationComponentImpl implements ReactiveConfigurationComponent, DisposableBean {
+
+    private static final String THREAD_NAME_PREFIX = "bogenliga-jdbc-";
+
+    private final ConfigurationComponent configurationComponent;
+    private final Scheduler scheduler;
+
+
+    /**
+     * Constructor
+     *
+     * dependency injection with {@link Autowired}
+     *
+     * @param configurationComponent to execute the blocking database requests
+     * @param databaseConfiguration  with the size of the connection pool and the request queue
+     */
+    @Autowired
+    public ReactiveConfigurationComponentImpl(final ConfigurationComponent configurationComponent,
+                                              final DatabaseConfiguration databaseConfiguration) {
+        this(configurationComponent, Schedulers.fromExecutorService(
+                createExecutorService(databaseConfiguration.getPool().getMaximumPoolSize(),
+                        databaseConfiguration.getPool().getRequestQueueSize())));
+    }
+
+
+    /**
+     * Constructor for tests
+     *
+     * @param configurationComponent to execute the blocking database requests
+     * @param scheduler              to execute the blocking database requests on
+     */
+    ReactiveConfigurationComponentImpl(final ConfigurationComponent configurationComponent,
+                                       final Scheduler scheduler) {
+        this.configurationComponent = configurationComponent;
+        this.scheduler = scheduler;
+    }
+
+
+    /**
+     * I create a fixed thread pool with a bounded queue, which rejects the requests exceeding the queue.
+     *
+     * @param threads   number of threads
+     * @param queueSize maximum number of waiting requests
+     * @return executor for the blocking requests
+     */
+    static ExecutorService createExecutorService(final int threads, final int queueSize) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+
+    @Override
+    public Flux<ConfigurationVO> findAll() {
+        return execute(configurationComponent::findAll)
+                .flatMapIterable(configurationVOList -> configurationVOList);
+    }
+
+
+    @Override
+    public Mono<ConfigurationVO> findByKey(final String key) {
+        return execute(() -> configurationComponent.findByKey(key));
+    }
+
+
+    @Override
+    public Flux<ConfigurationVO> findByKeys(final List<String> keys) {
+        return execute(() -> configurationComponent.findByKeys(keys))
+                .flatMapIterable(configurationVOList -> configurationVOList);
+    }
+
+
+    @Override
+    public Flux<ConfigurationVO> findByPrefix(final String prefix) {
+        return execute(() -> configurationComponent.findByPrefix(prefix))
+                .flatMapIterable(configurationVOList -> configurationVOList);
+    }
+
+
+    @Override
+    public Mono<Page<ConfigurationVO>> findPage(final String after, final int limit) {
+        return execute(() -> configurationComponent.findPage(after, limit));
+    }
+
+
+    @Override
+    public Mono<ConfigurationVO> create(final ConfigurationVO configurationVO) {
+        return execute(() -> configurationComponent.create(configurationVO));
+    }
+
+
+    @Override
+    public Mono<ConfigurationVO> update(final ConfigurationVO configurationVO) {
+        return execute(() -> configurationComponent.update(configurationVO));
+    }
+
+
+    @Override
+    public Mono<ConfigurationVO> upsert(final ConfigurationVO configurationVO) {
+        return execute(() -> configurationComponent.upsert(configurationVO));
+    }
+
+
+    @Override
+    public Mono<Void> delete(final ConfigurationVO configurationVO) {
+        return execute(() -> {
+            configurationComponent.delete(configurationVO);
+            return null;
+        });
+    }
+
+
+    /**
+     * I execute the blocking request on the scheduler.
+     *
+     * @param request to execute
+     * @param <T>     type of the result
+     * @return result of the request; empty, if the result is null
+     */
+    private <T> Mono<T> execute(final Callable<T> request) {
+        return Mono.fromCallable(request)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new TechnicalException(ErrorCode.SERVICE_UNAVAILABLE_ERROR,
+                                "Too many pending database requests", e));
+    }
+
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
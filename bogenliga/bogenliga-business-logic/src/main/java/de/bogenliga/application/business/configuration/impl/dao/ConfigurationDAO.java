@@ -1,5 +1,9 @@
 package de.bogenliga.application.business.configuration.impl.dao;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +15,10 @@ import de.bogenliga.application.business.configuration.impl.entity.Configuration
 import de.bogenliga.application.common.component.dao.BasicDAO;
 import de.bogenliga.application.common.component.dao.BusinessEntityConfiguration;
 import de.bogenliga.application.common.component.dao.DataAccessObject;
+import de.bogenliga.application.common.component.dao.UpsertResult;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
+import de.bogenliga.application.common.database.SQL;
 
 /**
  * DataAccessObject for the configuration entity in the database.
@@ -37,11 +45,24 @@ public class ConfigurationDAO implements DataAccessObject {
      */
     private static final String FIND_ALL =
             "SELECT * "
-                    + " FROM t_configuration";
+                    + " FROM t_configuration "
+                    + " ORDER BY configuration_key";
     private static final String FIND_BY_KEY =
             "SELECT * "
                     + " FROM t_configuration "
                     + " WHERE configuration_key = ?";
+    // uses the index with the pattern operator class for the range scan
+    private static final String FIND_BY_PREFIX =
+            "SELECT * "
+                    + " FROM t_configuration "
+                    + " WHERE configuration_key LIKE ? "
+                    + " ORDER BY configuration_key";
+    // column order of the import and export
+    private static final List<String> COPY_COLUMNS = Arrays.asList("configuration_key", "configuration_value");
+    private static final String EXPORT_ALL =
+            "SELECT " + String.join(", ", COPY_COLUMNS)
+                    + " FROM t_configuration "
+                    + " ORDER BY configuration_key";
 
     private final BasicDAO basicDao;
 
@@ -81,20 +102,88 @@ public class ConfigurationDAO implements DataAccessObject {
     }
 
 
+    /**
+     * I return the configuration entries with keys starting with the given prefix.
+     *
+     * @param prefix of the configuration keys, the characters are compared literally
+     * @return list of {@link ConfigurationBE} ordered by key or an empty list if no result found
+     */
+    public List<ConfigurationBE> findByPrefix(final String prefix) {
+        return basicDao.selectEntityList(CONFIG, FIND_BY_PREFIX, SQL.escapeLikePattern(prefix) + "%");
+    }
+
+
+    /**
+     * I return a page of configuration entries ordered by key.
+     *
+     * @param after key of the last entry of the previous page; null for the first page
+     * @param limit maximum number of entries of the page
+     * @return page of {@link ConfigurationBE} ordered by key
+     */
+    public Page<ConfigurationBE> findPage(final String after, final int limit) {
+        return basicDao.selectEntityPage(CONFIG, CONFIGURATION_BE_KEY, after, limit);
+    }
+
+
+    /**
+     * I return the configuration entries with the given keys with a single query.
+     *
+     * @param keys of the configuration entries
+     * @return list of {@link ConfigurationBE}, without the unknown keys
+     */
+    public List<ConfigurationBE> findByKeys(final Collection<String> keys) {
+        return basicDao.selectEntityListByKeys(CONFIG, CONFIGURATION_BE_KEY, keys);
+    }
+
+
     public ConfigurationBE create(final ConfigurationBE configurationBE) {
         return basicDao.insertEntity(CONFIG, configurationBE);
     }
 
 
     public ConfigurationBE update(final ConfigurationBE configurationBE) {
-        return basicDao.updateEntity(CONFIG, configurationBE, CONFIGURATION_BE_KEY, FIND_BY_KEY);
+        return basicDao.updateEntity(CONFIG, configurationBE, CONFIGURATION_BE_KEY);
+    }
+
+
+    /**
+     * I create or replace the configuration entry with the key of the business entity.
+     *
+     * @param configurationBE to create or replace
+     * @return persisted {@link ConfigurationBE} and whether it was created or updated
+     */
+    public UpsertResult<ConfigurationBE> upsert(final ConfigurationBE configurationBE) {
+        return basicDao.upsertEntity(CONFIG, configurationBE, CONFIGURATION_BE_KEY);
     }
 
 
     public void delete(final ConfigurationBE configurationBE) {
         basicDao.deleteEntity(CONFIG, configurationBE, CONFIGURATION_BE_KEY);
     }
-}
 
 
+    /**
+     * I export all configuration entries to the output stream.
+     *
+     * @param copyFormat   data format of the export
+     * @param outputStream target of the export
+     * @return number of exported configuration entries
+     */
+    public long exportAll(final CopyFormat copyFormat, final OutputStream outputStream) {
+        return basicDao.copyOut(CONFIG, EXPORT_ALL, copyFormat, outputStream);
+    }
+
 
+    /**
+     * I import the configuration entries of the input stream.
+     *
+     * Existing configuration entries with the same key are updated.
+     *
+     * @param copyFormat  data format of the import with the columns "configuration_key" and "configuration_value"
+     * @param inputStream source of the import
+     * @return number of created or updated configuration entries
+     */
+    public long importAll(final CopyFormat copyFormat, final InputStream inputStream) {
+        return basicDao.copyIn(CONFIG, CONFIGURATION_BE_KEY, COPY_COLUMNS, copyFormat, inputStream);
+    }
+}
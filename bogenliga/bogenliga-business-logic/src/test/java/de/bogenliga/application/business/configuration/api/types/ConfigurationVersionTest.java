@@ -0,0 +1,47 @@
+package de.bogenliga.application.business.configuration.api.types;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public class ConfigurationVersionTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+
+    @Test
+    public void of_shouldNotDependOnOrder() {
+        // prepare test data
+        final ConfigurationVO first = new ConfigurationVO("a", VALUE);
+        final ConfigurationVO second = new ConfigurationVO("b", VALUE);
+
+        // call test method
+        final String actual = ConfigurationVersion.of(Arrays.asList(first, second));
+
+        // assert result
+        assertThat(actual)
+                .hasSize(32)
+                .isEqualTo(ConfigurationVersion.of(Arrays.asList(second, first)));
+    }
+
+
+    @Test
+    public void of_shouldDependOnContent() {
+        // prepare test data
+        final ConfigurationVO configurationVO = new ConfigurationVO(KEY, VALUE);
+
+        // call test method
+        final String actual = ConfigurationVersion.of(configurationVO);
+
+        // assert result
+        assertThat(actual)
+                .isEqualTo(ConfigurationVersion.of(Collections.singletonList(new ConfigurationVO(KEY, VALUE))))
+                .isNotEqualTo(ConfigurationVersion.of(new ConfigurationVO(KEY, "")))
+                .isNotEqualTo(ConfigurationVersion.of(new ConfigurationVO(KEY, null)));
+    }
+}
@@ -0,0 +1,339 @@
+package de.bogenliga.application.business.configuration.impl.business;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.beans.factory.ObjectProvider;
+import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVersion;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.configuration.CacheConfiguration;
+import de.bogenliga.application.common.database.tx.Propagation;
+import de.bogenliga.application.common.database.tx.TransactionManager;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class CachingConfigurationComponentTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private ConfigurationComponent delegate;
+    @Mock
+    private TransactionManager transactionManager;
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private MeterRegistry meterRegistry;
+    private CachingConfigurationComponent underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+
+        underTest = new CachingConfigurationComponent(delegate, transactionManager, new CacheConfiguration(),
+                meterRegistryProvider);
+    }
+
+
+    @Test
+    public void findByKey_shouldLoadOnce() {
+        // prepare test data
+        final ConfigurationVO expected = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenReturn(expected);
+
+        // call test method
+        final ConfigurationVO first = underTest.findByKey(KEY);
+        final ConfigurationVO second = underTest.findByKey(KEY);
+
+        // assert result
+        assertThat(first.getValue()).isEqualTo(VALUE);
+        assertThat(second.getValue()).isEqualTo(VALUE);
+        // mutable value objects are copied
+        assertThat(second).isNotSameAs(first).isNotSameAs(expected);
+
+        assertThat(meterRegistry.get("cache.gets")
+                .tag("cache", CachingConfigurationComponent.ENTRIES_CACHE)
+                .tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+
+        // verify invocations
+        verify(delegate, times(1)).findByKey(KEY);
+    }
+
+
+    @Test
+    public void findByKeys_shouldLoadMissingKeysOnce() {
+        // prepare test data
+        final ConfigurationVO cached = new ConfigurationVO(KEY, VALUE);
+        final ConfigurationVO other = new ConfigurationVO("other", VALUE);
+
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenReturn(cached);
+        when(delegate.findByKeys(Arrays.asList("other", "unknown"))).thenReturn(Collections.singletonList(other));
+
+        // call test method
+        underTest.findByKey(KEY);
+        final List<ConfigurationVO> actual = underTest.findByKeys(Arrays.asList("other", KEY, "unknown"));
+        final ConfigurationVO actualOther = underTest.findByKey("other");
+
+        // assert result
+        assertThat(actual).extracting(ConfigurationVO::getKey).containsExactly("other", KEY);
+        assertThat(actual.get(1)).isNotSameAs(cached);
+        assertThat(actualOther.getValue()).isEqualTo(VALUE);
+
+        // verify invocations
+        verify(delegate).findByKey(KEY);
+        verify(delegate).findByKeys(Arrays.asList("other", "unknown"));
+        verify(delegate, never()).findByKey("other");
+    }
+
+
+    @Test
+    public void findByPrefix_shouldBeInvalidatedByWrite() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+        final List<ConfigurationVO> namespace = Collections.singletonList(input);
+
+        // configure mocks
+        when(delegate.findByPrefix("ke")).thenReturn(namespace);
+        when(delegate.update(input)).thenReturn(input);
+
+        // call test method
+        underTest.findByPrefix("ke");
+        underTest.findByPrefix("ke");
+        underTest.update(input);
+        final List<ConfigurationVO> actual = underTest.findByPrefix("ke");
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0)).isNotSameAs(input);
+
+        // verify invocations
+        verify(delegate, times(2)).findByPrefix("ke");
+    }
+
+
+    @Test
+    public void findPage_shouldNotBeCached() {
+        // prepare test data
+        final Page<ConfigurationVO> page = new Page<>(
+                Collections.singletonList(new ConfigurationVO(KEY, VALUE)), false);
+
+        // configure mocks
+        when(delegate.findPage(null, 10)).thenReturn(page);
+
+        // call test method
+        underTest.findPage(null, 10);
+        final Page<ConfigurationVO> actual = underTest.findPage(null, 10);
+
+        // assert result
+        assertThat(actual).isSameAs(page);
+
+        // verify invocations
+        verify(delegate, times(2)).findPage(null, 10);
+    }
+
+
+    @Test
+    public void findByKey_withoutResult_shouldNotCache() {
+        // prepare test data
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenThrow(new BusinessException(ErrorCode.ENTITY_NOT_FOUND_ERROR, KEY));
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class).isThrownBy(() -> underTest.findByKey(KEY));
+        assertThatExceptionOfType(BusinessException.class).isThrownBy(() -> underTest.findByKey(KEY));
+
+        // assert result
+
+        // verify invocations
+        verify(delegate, times(2)).findByKey(KEY);
+    }
+
+
+    @Test
+    public void update_shouldInvalidateKeyAndList() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+        final List<ConfigurationVO> all = Collections.singletonList(input);
+
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenReturn(input);
+        when(delegate.findAll()).thenReturn(all);
+        when(delegate.update(input)).thenReturn(input);
+
+        // call test method
+        underTest.findByKey(KEY);
+        underTest.findAll();
+        underTest.update(input);
+        underTest.findByKey(KEY);
+        final List<ConfigurationVO> actual = underTest.findAll();
+
+        // assert result
+        assertThat(actual).hasSize(1);
+
+        // verify invocations
+        verify(delegate, times(2)).findByKey(KEY);
+        verify(delegate, times(2)).findAll();
+        verify(delegate).update(input);
+    }
+
+
+   @Test
+    public void delete_withError_shouldInvalidate() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, null);
+
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenReturn(new ConfigurationVO(KEY, VALUE));
+        doThrow(new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, KEY)).when(delegate).delete(input);
+
+        // call test method
+        underTest.findByKey(KEY);
+        assertThatExceptionOfType(BusinessException.class).isThrownBy(() -> underTest.delete(input));
+        underTest.findByKey(KEY);
+
+        // assert result
+
+        // verify invocations
+        verify(delegate, times(2)).findByKey(KEY);
+    }
+
+
+    @Test
+    public void findAllWithVersion_shouldUseCachedSnapshot() {
+        // prepare test data
+        final List<ConfigurationVO> all = Collections.singletonList(new ConfigurationVO(KEY, VALUE));
+        final List<ConfigurationVO> updated = Collections.singletonList(new ConfigurationVO(KEY, "updated"));
+
+        // configure mocks
+        when(delegate.findAll()).thenReturn(all, updated);
+
+        // call test method
+        final Versioned<List<ConfigurationVO>> first = underTest.findAllWithVersion();
+        final List<ConfigurationVO> actual = underTest.findAll();
+        underTest.invalidate(KEY);
+        final Versioned<List<ConfigurationVO>> second = underTest.findAllWithVersion();
+
+        // assert result
+        assertThat(first.getVersion()).isEqualTo(ConfigurationVersion.of(actual));
+        assertThat(first.getValue().get(0)).isNotSameAs(all.get(0));
+        assertThat(second.getVersion()).isNotEqualTo(first.getVersion()).isEqualTo(ConfigurationVersion.of(updated));
+        assertThat(second.getValue()).extracting(ConfigurationVO::getValue).containsExactly("updated");
+
+        // verify invocations
+        verify(delegate, times(2)).findAll();
+        verify(delegate, never()).findAllWithVersion();
+    }
+
+
+    @Test
+    public void findByKey_afterWrite_withStaleReplica_shouldLoadFromPrimary() {
+        // prepare test data
+        final ConfigurationVO stale = new ConfigurationVO(KEY, VALUE);
+        final ConfigurationVO updated = new ConfigurationVO(KEY, "updated");
+        final AtomicBoolean primary = new AtomicBoolean();
+
+        // configure mocks
+        // a read-write transaction uses the primary database, a read-only transaction the lagging replica
+        doAnswer(invocation -> {
+            primary.set(!invocation.<Boolean>getArgument(1));
+            return null;
+        }).when(transactionManager).begin(any(Propagation.class), anyBoolean());
+        doAnswer(invocation -> {
+            primary.set(false);
+            return null;
+        }).when(transactionManager).release();
+        when(delegate.update(updated)).thenReturn(updated);
+        when(delegate.findByKey(KEY)).thenAnswer(invocation -> primary.get() ? updated : stale);
+        when(delegate.findAll()).thenAnswer(invocation -> Collections.singletonList(primary.get() ? updated : stale));
+
+        // call test method
+        underTest.update(updated);
+        final ConfigurationVO actual = underTest.findByKey(KEY);
+        final Versioned<List<ConfigurationVO>> actualList = underTest.findAllWithVersion();
+
+        // assert result
+        assertThat(actual.getValue()).isEqualTo("updated");
+        assertThat(actualList.getValue()).extracting(ConfigurationVO::getValue).containsExactly("updated");
+        assertThat(actualList.getVersion()).isEqualTo(ConfigurationVersion.of(Collections.singletonList(updated)));
+
+        // verify invocations
+        verify(transactionManager, times(2)).begin(Propagation.REQUIRED, false);
+        verify(transactionManager, times(2)).commit();
+        verify(transactionManager, times(2)).release();
+    }
+
+
+    @Test
+    public void reload_shouldReplaceCachedEntry() {
+        // prepare test data
+        final ConfigurationVO stale = new ConfigurationVO(KEY, VALUE);
+        final ConfigurationVO updated = new ConfigurationVO(KEY, "updated");
+
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenReturn(stale);
+        when(delegate.findByKeys(Collections.singletonList(KEY))).thenReturn(Collections.singletonList(updated));
+
+        // call test method
+        underTest.findByKey(KEY);
+        final ConfigurationVO reloaded = underTest.reload(KEY);
+        final ConfigurationVO actual = underTest.findByKey(KEY);
+
+        // assert result
+        assertThat(reloaded.getValue()).isEqualTo("updated");
+        assertThat(actual.getValue()).isEqualTo("updated");
+
+        // verify invocations
+        verify(delegate, times(1)).findByKey(KEY);
+        verify(transactionManager, times(2)).begin(Propagation.REQUIRED, false);
+    }
+
+
+    @Test
+    public void reload_withDeletedEntry_shouldRemoveCachedEntry() {
+        // prepare test data
+        // configure mocks
+        when(delegate.findByKey(KEY)).thenReturn(new ConfigurationVO(KEY, VALUE));
+        when(delegate.findByKeys(Collections.singletonList(KEY))).thenReturn(Collections.emptyList());
+
+        // call test method
+        underTest.findByKey(KEY);
+        final ConfigurationVO actual = underTest.reload(KEY);
+        underTest.findByKey(KEY);
+
+        // assert result
+        assertThat(actual).isNull();
+
+        // verify invocations
+        // the missing entry does not roll back the transaction
+        verify(transactionManager, never()).rollback();
+        verify(delegate, times(2)).findByKey(KEY);
+    }
+}
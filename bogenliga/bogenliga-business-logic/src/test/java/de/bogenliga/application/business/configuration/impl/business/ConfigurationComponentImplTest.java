@@ -1,7 +1,13 @@
 package de.bogenliga.application.business.configuration.impl.business;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -10,10 +16,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.springframework.context.ApplicationEventPublisher;
+import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangeType;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangedEvent;
 import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVersion;
+import de.bogenliga.application.business.configuration.api.types.Versioned;
 import de.bogenliga.application.business.configuration.impl.dao.ConfigurationDAO;
 import de.bogenliga.application.business.configuration.impl.entity.ConfigurationBE;
+import de.bogenliga.application.common.component.dao.UpsertResult;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
+import de.bogenliga.application.common.database.tx.TransactionManager;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
 import de.bogenliga.application.common.errorhandling.exception.BusinessException;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -37,10 +55,28 @@ public class ConfigurationComponentImplTest {
     public MockitoRule mockitoRule = MockitoJUnit.rule();
     @Mock
     private ConfigurationDAO configurationDAO;
+    @Mock
+    private TransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private ConfigurationComponentImpl underTest;
     @Captor
     private ArgumentCaptor<ConfigurationBE> configurationBEArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<ConfigurationChangedEvent> eventArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<Runnable> callbackArgumentCaptor;
+
+
+    @Before
+    public void commitTransaction() {
+        // the transactions of the tests are committed immediately
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(transactionManager).afterCommit(any(Runnable.class));
+    }
 
 
     @Test
@@ -101,6 +137,34 @@ public class ConfigurationComponentImplTest {
     }
 
 
+    @Test
+    public void findAllWithVersion() {
+        // prepare test data
+        final ConfigurationBE first = new ConfigurationBE();
+        first.setConfigurationKey(KEY);
+        first.setConfigurationValue(VALUE);
+        final ConfigurationBE second = new ConfigurationBE();
+        second.setConfigurationKey(KEY);
+        second.setConfigurationValue(VALUE + VALUE);
+
+        // configure mocks
+        when(configurationDAO.findAll()).thenReturn(Collections.singletonList(first),
+                Collections.singletonList(first), Collections.singletonList(second));
+
+        // call test method
+        final Versioned<List<ConfigurationVO>> actual = underTest.findAllWithVersion();
+
+        // assert result
+        assertThat(actual.getValue()).hasSize(1);
+        assertThat(actual.getVersion()).isEqualTo(ConfigurationVersion.of(actual.getValue()));
+        assertThat(underTest.findAllWithVersion().getVersion()).isEqualTo(actual.getVersion());
+        assertThat(underTest.findAllWithVersion().getVersion()).isNotEqualTo(actual.getVersion());
+
+        // verify invocations
+        verify(configurationDAO, times(3)).findAll();
+    }
+
+
     @Test
     public void findByKey_withoutKey_shouldThrowException() {
         // prepare test data
@@ -175,6 +239,65 @@ public class ConfigurationComponentImplTest {
                 .isEqualTo(input.getKey());
         assertThat(persistedBE.getConfigurationValue())
                 .isEqualTo(input.getValue());
+
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+
+        final ConfigurationChangedEvent event = eventArgumentCaptor.getValue();
+
+        assertThat(event.getChangeType()).isEqualTo(ConfigurationChangeType.CREATE);
+        assertThat(event.getKey()).isEqualTo(input.getKey());
+        assertThat(event.getValue()).isEqualTo(input.getValue());
+    }
+
+
+    @Test
+    public void create_shouldPublishEventAfterCommit() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+
+        // configure mocks
+        doNothing().when(transactionManager).afterCommit(any(Runnable.class));
+        when(configurationDAO.create(any(ConfigurationBE.class))).thenReturn(expectedBE);
+
+        // call test method
+        underTest.create(input);
+
+        // assert result
+        // the event is not published before the commit or after a rollback
+        verify(eventPublisher, never()).publishEvent(any(ConfigurationChangedEvent.class));
+
+        // verify invocations
+        verify(transactionManager).afterCommit(callbackArgumentCaptor.capture());
+
+        callbackArgumentCaptor.getValue().run();
+
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getChangeType()).isEqualTo(ConfigurationChangeType.CREATE);
+        assertThat(eventArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+    }
+
+
+    @Test
+    public void create_withFailedWrite_shouldNotPublishEvent() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(configurationDAO.create(any(ConfigurationBE.class)))
+                .thenThrow(new TechnicalException(ErrorCode.DATABASE_ERROR, "duplicate key"));
+
+        // call test method
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.create(input));
+
+        // assert result
+
+        // verify invocations
+        verifyZeroInteractions(transactionManager, eventPublisher);
     }
 
 
@@ -302,6 +425,172 @@ public class ConfigurationComponentImplTest {
     }
 
 
+    @Test
+    public void upsert() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+
+        // configure mocks
+        when(configurationDAO.upsert(any(ConfigurationBE.class))).thenReturn(new UpsertResult<>(expectedBE, false));
+
+        // call test method
+        final ConfigurationVO actual = underTest.upsert(input);
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getKey()).isEqualTo(KEY);
+        assertThat(actual.getValue()).isEqualTo(VALUE);
+
+        // verify invocations
+        verify(configurationDAO).upsert(configurationBEArgumentCaptor.capture());
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+
+        assertThat(configurationBEArgumentCaptor.getValue().getConfigurationKey()).isEqualTo(KEY);
+        assertThat(eventArgumentCaptor.getValue().getChangeType()).isEqualTo(ConfigurationChangeType.UPDATE);
+        assertThat(eventArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+    }
+
+
+    @Test
+    public void upsert_withNewKey_shouldPublishCreate() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+
+        // configure mocks
+        when(configurationDAO.upsert(any(ConfigurationBE.class))).thenReturn(new UpsertResult<>(expectedBE, true));
+
+        // call test method
+        underTest.upsert(input);
+
+        // assert result
+
+        // verify invocations
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+
+        assertThat(eventArgumentCaptor.getValue().getChangeType()).isEqualTo(ConfigurationChangeType.CREATE);
+        assertThat(eventArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+        assertThat(eventArgumentCaptor.getValue().getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void upsert_withoutValue_shouldThrowException() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, null);
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.upsert(input))
+                .withMessageContaining("value");
+
+        // verify invocations
+        verifyZeroInteractions(configurationDAO, eventPublisher);
+    }
+
+
+   @Test
+    public void findByKeys_shouldReturnEntriesInOrderOfKeys() {
+        // prepare test data
+        final ConfigurationBE first = new ConfigurationBE();
+        first.setConfigurationKey("first");
+        first.setConfigurationValue(VALUE);
+        final ConfigurationBE second = new ConfigurationBE();
+        second.setConfigurationKey("second");
+        second.setConfigurationValue(VALUE);
+        final List<String> keys = Arrays.asList("second", "unknown", "first", "second");
+
+        // configure mocks
+        when(configurationDAO.findByKeys(keys)).thenReturn(Arrays.asList(first, second));
+
+        // call test method
+        final List<ConfigurationVO> actual = underTest.findByKeys(keys);
+
+        // assert result
+        assertThat(actual).extracting(ConfigurationVO::getKey).containsExactly("second", "first");
+
+        // verify invocations
+        verify(configurationDAO).findByKeys(keys);
+    }
+
+
+    @Test
+    public void findByPrefix() {
+        // prepare test data
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+
+        // configure mocks
+        when(configurationDAO.findByPrefix("ke")).thenReturn(Collections.singletonList(expectedBE));
+
+        // call test method
+        final List<ConfigurationVO> actual = underTest.findByPrefix("ke");
+
+        // assert result
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).getKey()).isEqualTo(KEY);
+        assertThat(actual.get(0).getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void findByPrefix_withoutPrefix_shouldThrowException() {
+        // prepare test data
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.findByPrefix(""))
+                .withMessageContaining("Prefix must not be null or empty");
+
+        // verify invocations
+        verifyZeroInteractions(configurationDAO);
+    }
+
+
+    @Test
+    public void findPage() {
+        // prepare test data
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+
+        // configure mocks
+        when(configurationDAO.findPage("after", 1)).thenReturn(
+                new Page<>(Collections.singletonList(expectedBE), true));
+
+        // call test method
+        final Page<ConfigurationVO> actual = underTest.findPage("after", 1);
+
+        // assert result
+        assertThat(actual.hasNext()).isTrue();
+        assertThat(actual.getContent()).hasSize(1);
+        assertThat(actual.getContent().get(0).getKey()).isEqualTo(KEY);
+        assertThat(actual.getContent().get(0).getValue()).isEqualTo(VALUE);
+    }
+
+
+    @Test
+    public void findPage_withTooLargeLimit_shouldThrowException() {
+        // prepare test data
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.findPage(null, ConfigurationComponent.MAX_PAGE_LIMIT + 1))
+                .withMessageContaining("Limit must be between 1 and");
+
+        // verify invocations
+        verifyZeroInteractions(configurationDAO);
+    }
+
+
     @Test
     public void update_withoutInput_shouldThrowException() {
         // prepare test data
@@ -478,4 +767,44 @@ public class ConfigurationComponentImplTest {
         // verify invocations
         verifyZeroInteractions(configurationDAO);
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void importAll() {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // configure mocks
+        when(configurationDAO.importAll(CopyFormat.CSV, inputStream)).thenReturn(5L);
+
+        // call test method
+        final long actual = underTest.importAll(CopyFormat.CSV, inputStream);
+
+        // assert result
+        assertThat(actual).isEqualTo(5L);
+
+        // verify invocations
+        verify(configurationDAO).importAll(CopyFormat.CSV, inputStream);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+
+        assertThat(eventArgumentCaptor.getValue().getChangeType()).isEqualTo(ConfigurationChangeType.RESET);
+    }
+
+
+    @Test
+    public void exportAll_withoutFormat_shouldThrowException() {
+        // prepare test data
+        final OutputStream outputStream = new ByteArrayOutputStream();
+
+        // configure mocks
+
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.exportAll(null, outputStream));
+
+        // assert result
+
+        // verify invocations
+        verifyZeroInteractions(configurationDAO);
+    }
+}
@@ -0,0 +1,160 @@
+package de.bogenliga.application.business.configuration.impl.business;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.context.ApplicationEventPublisher;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangeType;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationChangedEvent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class ConfigurationNotificationHandlerTest {
+
+    private static final String KEY = "app.bogenliga.frontend.autorefresh.active";
+    private static final String VALUE = "true";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private CachingConfigurationComponent cachingConfigurationComponent;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Captor
+    private ArgumentCaptor<ConfigurationChangedEvent> eventArgumentCaptor;
+
+    private ConfigurationNotificationHandler underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        underTest = new ConfigurationNotificationHandler(cachingConfigurationComponent, eventPublisher);
+    }
+
+
+    @Test
+    public void getChannel() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final String actual = underTest.getChannel();
+
+        // assert result
+        assertThat(actual).isEqualTo(ConfigurationNotificationHandler.CHANNEL);
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void onNotification_withKey_shouldInvalidateKey() {
+        // prepare test data
+        final String keyWithSeparator = KEY + ":suffix";
+
+        // configure mocks
+        when(cachingConfigurationComponent.reload(KEY)).thenReturn(new ConfigurationVO(KEY, VALUE));
+
+        // call test method
+        underTest.onNotification("UPDATE:" + KEY);
+        underTest.onNotification("DELETE:" + keyWithSeparator);
+
+        // assert result
+
+        // verify invocations
+        verify(cachingConfigurationComponent).reload(KEY);
+        verify(cachingConfigurationComponent).invalidate(keyWithSeparator);
+        verify(cachingConfigurationComponent, never()).reload(keyWithSeparator);
+        verify(cachingConfigurationComponent, never()).invalidateAll();
+        verify(eventPublisher, times(2)).publishEvent(eventArgumentCaptor.capture());
+
+        final List<ConfigurationChangedEvent> events = eventArgumentCaptor.getAllValues();
+
+        assertThat(events.get(0).getChangeType()).isEqualTo(ConfigurationChangeType.UPDATE);
+        assertThat(events.get(0).getValue()).isEqualTo(VALUE);
+        assertThat(events.get(1).getChangeType()).isEqualTo(ConfigurationChangeType.DELETE);
+        assertThat(events.get(1).getKey()).isEqualTo(keyWithSeparator);
+    }
+
+
+    @Test
+    public void onNotification_withRemovedKey_shouldPublishDelete() {
+        // prepare test data
+        // configure mocks
+        when(cachingConfigurationComponent.reload(KEY)).thenReturn(null);
+
+        // call test method
+        underTest.onNotification("INSERT:" + KEY);
+
+        // assert result
+
+        // verify invocations
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+
+        assertThat(eventArgumentCaptor.getValue().getChangeType()).isEqualTo(ConfigurationChangeType.DELETE);
+        assertThat(eventArgumentCaptor.getValue().getKey()).isEqualTo(KEY);
+        verify(cachingConfigurationComponent, never()).findByKey(anyString());
+    }
+
+
+    @Test
+    public void onNotification_withDatabaseError_shouldNotPublishEvent() {
+        // prepare test data
+        // configure mocks
+        when(cachingConfigurationComponent.reload(KEY))
+                .thenThrow(new TechnicalException(ErrorCode.DATABASE_ERROR, KEY));
+
+        // call test method
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.onNotification("UPDATE:" + KEY));
+
+        // assert result
+
+        // verify invocations
+        verify(cachingConfigurationComponent).reload(KEY);
+        verifyZeroInteractions(eventPublisher);
+    }
+
+
+    @Test
+    public void onNotification_withoutKey_shouldInvalidateAll() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        underTest.onNotification("TRUNCATE");
+        underTest.onNotification(null);
+
+        // assert result
+
+        // verify invocations
+        verify(cachingConfigurationComponent, times(2)).invalidateAll();
+        verify(cachingConfigurationComponent, never()).invalidate(anyString());
+    }
+
+
+    @Test
+    public void onListen_shouldInvalidateAll() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        underTest.onListen();
+
+        // assert result
+
+        // verify invocations
+        verify(cachingConfigurationComponent).invalidateAll();
+    }
+}
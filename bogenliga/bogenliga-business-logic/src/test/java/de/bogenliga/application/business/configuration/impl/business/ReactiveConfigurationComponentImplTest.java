@@ -0,0 +1,284 @@
+package de.bogenliga.application.business.configuration.impl.business;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import de.bogenliga.application.business.configuration.api.ConfigurationComponent;
+import de.bogenliga.application.business.configuration.api.types.ConfigurationVO;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.BusinessException;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class ReactiveConfigurationComponentImplTest {
+
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+    private static final String THREAD_NAME = "test-scheduler";
+    private static final long TIMEOUT = 5_000;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private ConfigurationComponent configurationComponent;
+
+    private Scheduler scheduler;
+    private ReactiveConfigurationComponentImpl underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        scheduler = Schedulers.newSingle(THREAD_NAME);
+        underTest = new ReactiveConfigurationComponentImpl(configurationComponent, scheduler);
+    }
+
+
+    @After
+    public void disposeScheduler() {
+        underTest.destroy();
+    }
+
+
+    @Test
+    public void findAll_shouldEmitEntries() {
+        // prepare test data
+        final List<ConfigurationVO> expected = Arrays.asList(
+                new ConfigurationVO(KEY, VALUE), new ConfigurationVO("other", VALUE));
+
+        // configure mocks
+        when(configurationComponent.findAll()).thenReturn(expected);
+
+        // call test method
+        final List<ConfigurationVO> actual = underTest.findAll().collectList().block();
+
+        // assert result
+        assertThat(actual).containsExactlyElementsOf(expected);
+
+        // verify invocations
+        verify(configurationComponent).findAll();
+    }
+
+
+    @Test
+    public void findByKeys_shouldEmitEntries() {
+        // prepare test data
+        final List<String> keys = Arrays.asList(KEY, "unknown");
+        final List<ConfigurationVO> expected = Collections.singletonList(new ConfigurationVO(KEY, VALUE));
+
+        // configure mocks
+        when(configurationComponent.findByKeys(keys)).thenReturn(expected);
+
+        // call test method
+        final List<ConfigurationVO> actual = underTest.findByKeys(keys).collectList().block();
+
+        // assert result
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+
+    @Test
+    public void findByPrefix_shouldEmitEntries() {
+        // prepare test data
+        final List<ConfigurationVO> expected = Collections.singletonList(new ConfigurationVO(KEY, VALUE));
+
+        // configure mocks
+        when(configurationComponent.findByPrefix("ke")).thenReturn(expected);
+
+        // call test method
+        final List<ConfigurationVO> actual = underTest.findByPrefix("ke").collectList().block();
+
+        // assert result
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+
+    @Test
+    public void findPage_shouldEmitPage() {
+        // prepare test data
+        final Page<ConfigurationVO> expected = new Page<>(
+                Collections.singletonList(new ConfigurationVO(KEY, VALUE)), true);
+
+        // configure mocks
+        when(configurationComponent.findPage(KEY, 1)).thenReturn(expected);
+
+        // call test method
+        final Page<ConfigurationVO> actual = underTest.findPage(KEY, 1).block();
+
+        // assert result
+        assertThat(actual).isSameAs(expected);
+    }
+
+
+    @Test
+    public void findByKey_shouldExecuteOnScheduler() {
+        // prepare test data
+        final ConfigurationVO expected = new ConfigurationVO(KEY, VALUE);
+        final AtomicReference<String> threadName = new AtomicReference<>();
+
+        // configure mocks
+        when(configurationComponent.findByKey(KEY)).thenAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            return expected;
+        });
+
+        // call test method
+        final Mono<ConfigurationVO> result = underTest.findByKey(KEY);
+
+        // assert result
+        // nothing is executed before the subscription
+        verifyZeroInteractions(configurationComponent);
+
+        assertThat(result.block()).isSameAs(expected);
+        assertThat(threadName.get()).startsWith(THREAD_NAME);
+    }
+
+
+    @Test
+    public void findByKey_withUnknownKey_shouldEmitError() {
+        // prepare test data
+        final BusinessException exception = new BusinessException(ErrorCode.ENTITY_NOT_FOUND_ERROR, "not found");
+
+        // configure mocks
+        when(configurationComponent.findByKey(KEY)).thenThrow(exception);
+
+        // call test method
+        final Mono<ConfigurationVO> result = underTest.findByKey(KEY);
+
+        // assert result
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(result::block)
+                .isSameAs(exception);
+    }
+
+
+    @Test
+    public void findByKey_withFullQueue_shouldEmitServiceUnavailable() throws InterruptedException {
+        // prepare test data
+        final ConfigurationVO expected = new ConfigurationVO(KEY, VALUE);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        underTest.destroy();
+        underTest = new ReactiveConfigurationComponentImpl(configurationComponent, Schedulers.fromExecutorService(
+                ReactiveConfigurationComponentImpl.createExecutorService(1, 1)));
+
+        // configure mocks
+        when(configurationComponent.findByKey(KEY)).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            return expected;
+        });
+
+        // call test method
+        // the first request occupies the only thread, the second request waits in the queue
+        final Mono<ConfigurationVO> running = underTest.findByKey(KEY).cache();
+        running.subscribe();
+        assertThat(blocked.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        final Mono<ConfigurationVO> queued = underTest.findByKey(KEY).cache();
+        queued.subscribe();
+
+        final Mono<ConfigurationVO> rejected = underTest.findByKey(KEY);
+
+        // assert result
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(rejected::block)
+                .matches(e -> e.getErrorCode() == ErrorCode.SERVICE_UNAVAILABLE_ERROR);
+
+        release.countDown();
+
+        assertThat(running.block()).isSameAs(expected);
+        assertThat(queued.block()).isSameAs(expected);
+
+        // verify invocations
+        verify(configurationComponent, times(2)).findByKey(KEY);
+    }
+
+
+    @Test
+    public void create() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(configurationComponent.create(input)).thenReturn(input);
+
+        // call test method
+        final ConfigurationVO actual = underTest.create(input).block();
+
+        // assert result
+        assertThat(actual).isSameAs(input);
+
+        // verify invocations
+        verify(configurationComponent).create(input);
+    }
+
+
+    @Test
+    public void update() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(configurationComponent.update(input)).thenReturn(input);
+
+        // call test method
+        final ConfigurationVO actual = underTest.update(input).block();
+
+        // assert result
+        assertThat(actual).isSameAs(input);
+
+        // verify invocations
+        verify(configurationComponent).update(input);
+    }
+
+
+    @Test
+    public void upsert() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, VALUE);
+
+        // configure mocks
+        when(configurationComponent.upsert(input)).thenReturn(input);
+
+        // call test method
+        final ConfigurationVO actual = underTest.upsert(input).block();
+
+        // assert result
+        assertThat(actual).isSameAs(input);
+
+        // verify invocations
+        verify(configurationComponent).upsert(input);
+    }
+
+
+    @Test
+    public void delete() {
+        // prepare test data
+        final ConfigurationVO input = new ConfigurationVO(KEY, null);
+
+        // call test method
+        underTest.delete(input).block();
+
+        // verify invocations
+        verify(configurationComponent).delete(input);
+    }
+}
@@ -1,5 +1,10 @@
 package de.bogenliga.application.business.configuration.impl.dao;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.junit.Rule;
@@ -10,6 +15,9 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import de.bogenliga.application.business.configuration.impl.entity.ConfigurationBE;
 import de.bogenliga.application.common.component.dao.BasicDAO;
+import de.bogenliga.application.common.component.dao.UpsertResult;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -65,7 +73,7 @@ public class ConfigurationBasicDAOTest {
                 .isEqualTo(expectedBE.getConfigurationValue());
 
         // verify invocations
-        verify(basicDao).selectEntityList(any(), any(), any());
+        verify(basicDao).selectEntityList(any(), contains("ORDER BY configuration_key"), any());
 
 
     }
@@ -131,7 +139,7 @@ public class ConfigurationBasicDAOTest {
         input.setConfigurationValue(VALUE);
 
         // configure mocks
-        when(basicDao.updateEntity(any(), any(), any(), any())).thenReturn(input);
+        when(basicDao.updateEntity(any(), any(), any())).thenReturn(input);
 
         // call test method
         final ConfigurationBE actual = underTest.update(input);
@@ -145,11 +153,98 @@ public class ConfigurationBasicDAOTest {
                 .isEqualTo(input.getConfigurationValue());
 
         // verify invocations
-        verify(basicDao).updateEntity(any(), eq(input), any(), any());
+        verify(basicDao).updateEntity(any(), eq(input), any());
     }
 
 
     @Test
+    public void upsert() {
+        // prepare test data
+        final ConfigurationBE input = new ConfigurationBE();
+        input.setConfigurationKey(KEY);
+        input.setConfigurationValue(VALUE);
+
+        // configure mocks
+        when(basicDao.upsertEntity(any(), any(), any())).thenReturn(new UpsertResult<>(input, true));
+
+        // call test method
+        final UpsertResult<ConfigurationBE> actual = underTest.upsert(input);
+
+        // assert result
+        assertThat(actual.getBusinessEntity()).isSameAs(input);
+        assertThat(actual.isInserted()).isTrue();
+
+        // verify invocations
+        verify(basicDao).upsertEntity(any(), eq(input), eq("configurationKey"));
+    }
+
+
+    @Test
+    public void findByKeys() {
+        // prepare test data
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+        final List<String> keys = Arrays.asList(KEY, "unknown");
+
+        // configure mocks
+        when(basicDao.selectEntityListByKeys(any(), any(), any())).thenReturn(Collections.singletonList(expectedBE));
+
+        // call test method
+        final List<ConfigurationBE> actual = underTest.findByKeys(keys);
+
+        // assert result
+        assertThat(actual).containsExactly(expectedBE);
+
+        // verify invocations
+        verify(basicDao).selectEntityListByKeys(any(), eq("configurationKey"), eq(keys));
+    }
+
+
+    @Test
+    public void findByPrefix_shouldEscapeWildcards() {
+        // prepare test data
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey("app_1.key");
+        expectedBE.setConfigurationValue(VALUE);
+
+        // configure mocks
+        when(basicDao.selectEntityList(any(), any(), any())).thenReturn(Collections.singletonList(expectedBE));
+
+        // call test method
+        final List<ConfigurationBE> actual = underTest.findByPrefix("app_1.");
+
+        // assert result
+        assertThat(actual).containsExactly(expectedBE);
+
+        // verify invocations
+        verify(basicDao).selectEntityList(any(), contains("LIKE ?"), eq("app\\_1.%"));
+    }
+
+
+    @Test
+    public void findPage_shouldSeekByKey() {
+        // prepare test data
+        final ConfigurationBE expectedBE = new ConfigurationBE();
+        expectedBE.setConfigurationKey(KEY);
+        expectedBE.setConfigurationValue(VALUE);
+        final Page<ConfigurationBE> expected = new Page<>(Collections.singletonList(expectedBE), false);
+
+        // configure mocks
+        when(basicDao.<ConfigurationBE>selectEntityPage(any(), any(), any(), anyInt())).thenReturn(expected);
+
+        // call test method
+        final Page<ConfigurationBE> actual = underTest.findPage("after", 10);
+
+        // assert result
+        assertThat(actual).isSameAs(expected);
+
+        // verify invocations
+        verify(basicDao).selectEntityPage(any(), eq("configurationKey"), eq("after"), eq(10));
+    }
+
+
+   @Test
     public void delete() {
         // prepare test data
         final ConfigurationBE input = new ConfigurationBE();
@@ -166,4 +261,46 @@ public class ConfigurationBasicDAOTest {
         // verify invocations
         verify(basicDao).deleteEntity(any(), eq(input), any());
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void exportAll() {
+        // prepare test data
+        final OutputStream outputStream = new ByteArrayOutputStream();
+
+        // configure mocks
+        when(basicDao.copyOut(any(), anyString(), any(), any())).thenReturn(2L);
+
+        // call test method
+        final long actual = underTest.exportAll(CopyFormat.CSV, outputStream);
+
+        // assert result
+        assertThat(actual).isEqualTo(2L);
+
+        // verify invocations
+        verify(basicDao).copyOut(any(), startsWith("SELECT configuration_key, configuration_value "),
+                eq(CopyFormat.CSV), eq(outputStream));
+    }
+
+
+    @Test
+    public void importAll() {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // configure mocks
+        when(basicDao.copyIn(any(), anyString(), anyList(), any(), any())).thenReturn(3L);
+
+        // call test method
+        final long actual = underTest.importAll(CopyFormat.BINARY, inputStream);
+
+        // assert result
+        assertThat(actual).isEqualTo(3L);
+
+        // verify invocations
+        // the import expects the column order of the export
+        verify(basicDao).copyIn(any(), eq("configurationKey"),
+                eq(Arrays.asList("configuration_key", "configuration_value")), eq(CopyFormat.BINARY),
+                eq(inputStream));
+    }
+}
@@ -3,32 +3,43 @@ package de.bogenliga.application.common.component.dao;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Map;
-import org.apache.commons.dbutils.BasicRowProcessor;
-import org.apache.commons.dbutils.BeanProcessor;
-import org.apache.commons.dbutils.handlers.BeanHandler;
+import org.apache.commons.dbutils.ResultSetHandler;
+import de.bogenliga.application.common.database.BeanRowMapper;
 
 /**
- * I´m a generic {@link BeanHandler} class to map the {@link ResultSet} to a java bean.
+ * I´m a generic {@link ResultSetHandler} class to map the first row of the {@link ResultSet} to a java bean.
  *
- * I handle the mapping between table column names and the bean parameter names.
+ * I handle the mapping between table column names and the bean parameter names with a {@link BeanRowMapper}.
+ * I´m stateless and cached in the {@link BusinessEntityConfiguration}.
  *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
- * @see BeanHandler
+ * @see BeanRowMapper
  * @see ResultSet
  */
-public class BasicBeanHandler<T> extends BeanHandler<T> {
+public class BasicBeanHandler<T> implements ResultSetHandler<T> {
+
+    private final BeanRowMapper<T> rowMapper;
+
 
     /**
      * ResultSet mapping with custom business entity parameter names
      */
     BasicBeanHandler(final Class<T> businessEntityClass, final Map<String, String> columnToFieldMapping) {
-        super(businessEntityClass, new BasicRowProcessor(new BeanProcessor(columnToFieldMapping)));
+        this(new BeanRowMapper<>(businessEntityClass, columnToFieldMapping));
+    }
+
+
+    /**
+     * ResultSet mapping with a shared row mapper
+     */
+    BasicBeanHandler(final BeanRowMapper<T> rowMapper) {
+        this.rowMapper = rowMapper;
     }
 
 
     @Override
     public T handle(final ResultSet rs) throws SQLException {
-        return super.handle(rs);
+        return rs.next() ? rowMapper.toBean(rs) : null;
     }
 
 }
@@ -1,26 +1,46 @@
 package de.bogenliga.application.common.component.dao;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
-import org.apache.commons.dbutils.BasicRowProcessor;
-import org.apache.commons.dbutils.BeanProcessor;
-import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.apache.commons.dbutils.ResultSetHandler;
+import de.bogenliga.application.common.database.BeanRowMapper;
 
 /**
  * I map the {@link ResultSet} to a business entity list
  *
- * I handle the mapping between table column names and the bean parameter names.
+ * I handle the mapping between table column names and the bean parameter names with a {@link BeanRowMapper}.
+ * The column indexes are resolved once for all rows of the result set.
+ * I´m stateless and cached in the {@link BusinessEntityConfiguration}.
  *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
- * @see BeanListHandler
+ * @see BeanRowMapper
  * @see ResultSet
  */
-public class BasicBeanListHandler<T> extends BeanListHandler<T> {
+public class BasicBeanListHandler<T> implements ResultSetHandler<List<T>> {
+
+    private final BeanRowMapper<T> rowMapper;
+
 
     /**
      * ResultSet mapping with custom business entity parameter names
      */
     BasicBeanListHandler(final Class<T> businessEntityClass, final Map<String, String> columnToFieldMapping) {
-        super(businessEntityClass, new BasicRowProcessor(new BeanProcessor(columnToFieldMapping)));
+        this(new BeanRowMapper<>(businessEntityClass, columnToFieldMapping));
+    }
+
+
+    /**
+     * ResultSet mapping with a shared row mapper
+     */
+    BasicBeanListHandler(final BeanRowMapper<T> rowMapper) {
+        this.rowMapper = rowMapper;
+    }
+
+
+    @Override
+    public List<T> handle(final ResultSet rs) throws SQLException {
+        return rowMapper.toBeanList(rs);
     }
 }
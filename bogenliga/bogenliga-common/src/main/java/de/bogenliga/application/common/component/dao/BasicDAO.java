@@ -1,46 +1,115 @@
 package de.bogenliga.application.common.component.dao;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Array;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import org.apache.commons.dbutils.QueryRunner;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.commons.dbutils.handlers.ColumnListHandler;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import de.bogenliga.application.common.component.entity.BusinessEntity;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.configuration.DatabaseConfiguration;
+import de.bogenliga.application.common.database.BeanRowMapper;
+import de.bogenliga.application.common.database.CopyFormat;
 import de.bogenliga.application.common.database.SQL;
+import de.bogenliga.application.common.database.SQLStatementPlan;
 import de.bogenliga.application.common.database.tx.TransactionManager;
 import de.bogenliga.application.common.errorhandling.ErrorCode;
 import de.bogenliga.application.common.errorhandling.exception.BusinessException;
 import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+import io.micrometer.core.instrument.MeterRegistry;
 
 
 /**
  * Basic data access object implementation for CRUD operations.
  *
+ * Each operation begins a transaction scope, which joins the active transaction of the thread.
+ * So a component can group several operations into one transaction with a single connection and commit,
+ * e.g. with {@link de.bogenliga.application.common.database.tx.Transactional}.
+ * Without active transaction the connection is released after the operation.
+ *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
  * @see <a href="https://www.baeldung.com/apache-commons-dbutils">A Guide to Apache Commons DbUtils</a>
  */
 @Repository
 public class BasicDAO implements DataAccessObject {
 
-    private QueryRunner run = new QueryRunner();
+    /**
+     * Number of rows fetched from the server-side cursor per round trip
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    /**
+     * Number of statements sent to the database per batch round trip
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /**
+     * Number of keys bound to a single array parameter per select round trip
+     */
+    public static final int DEFAULT_KEY_CHUNK_SIZE = 1000;
+
+    private static final String EXPLAIN = "EXPLAIN ";
+    // numbers the staged rows of an import in the order of the input stream
+    private static final String STAGING_ORDINAL_COLUMN = "staging_ordinal";
+
+    private final MeteredQueryRunner run;
+    private final QueryLogger queryLogger;
+    private final StatementMetrics statementMetrics;
     private final TransactionManager transactionManager;
 
 
+    /**
+     * Constructor
+     *
+     * dependency injection with {@link Autowired}
+     *
+     * @param transactionManager    to provide the database connection
+     * @param databaseConfiguration to configure the sql query logging
+     * @param meterRegistryProvider to register the statement metrics and the hit rate of the statement cache,
+     *                              if available
+     */
     @Autowired
-    public BasicDAO(final TransactionManager transactionManager) {
-        this.transactionManager = transactionManager;
+    public BasicDAO(final TransactionManager transactionManager,
+                    final DatabaseConfiguration databaseConfiguration,
+                    final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(transactionManager, new MeteredQueryRunner(meterRegistryProvider.getIfAvailable()),
+                new QueryLogger(databaseConfiguration.getQueryLogging()),
+                new StatementMetrics(meterRegistryProvider.getIfAvailable()));
     }
 
 
     /**
      * Package-protected constructor with all dependencies
      */
-    BasicDAO(final TransactionManager transactionManager, final QueryRunner queryRunner) {
+    BasicDAO(final TransactionManager transactionManager, final MeteredQueryRunner queryRunner,
+             final QueryLogger queryLogger, final StatementMetrics statementMetrics) {
         this.transactionManager = transactionManager;
         this.run = queryRunner;
+        this.queryLogger = queryLogger;
+        this.statementMetrics = statementMetrics;
     }
 
 
@@ -69,11 +138,19 @@ public class BasicDAO implements DataAccessObject {
                                     final String sqlQuery,
                                     final Object... params) {
         try {
-            return run.query(getConnection(), logSQL(businessEntityConfiguration.getLogger(), sqlQuery, params),
-                    new BasicBeanHandler<>(businessEntityConfiguration.getBusinessEntity(),
-                            businessEntityConfiguration.getColumnToFieldMapping()), params);
+            begin(businessEntityConfiguration);
+
+            final T businessEntity = execute(businessEntityConfiguration, sqlQuery, params,
+                    () -> run.query(getConnection(), sqlQuery, businessEntityConfiguration.getBeanHandler(), params));
+
+            transactionManager.commit();
+
+            return businessEntity;
         } catch (final SQLException e) {
+            transactionManager.rollback();
             throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
         }
     }
 
@@ -95,12 +172,18 @@ public class BasicDAO implements DataAccessObject {
                                         final Object... params) {
         final List<T> businessEntityList;
         try {
-            businessEntityList = run.query(getConnection(),
-                    logSQL(businessEntityConfiguration.getLogger(), sqlQuery, params),
-                    new BasicBeanListHandler<>(businessEntityConfiguration.getBusinessEntity(),
-                            businessEntityConfiguration.getColumnToFieldMapping()), params);
+            begin(businessEntityConfiguration);
+
+            businessEntityList = execute(businessEntityConfiguration, sqlQuery, params,
+                    () -> run.query(getConnection(), sqlQuery, businessEntityConfiguration.getBeanListHandler(),
+                            params));
+
+            transactionManager.commit();
         } catch (final SQLException e) {
+            transactionManager.rollback();
             throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
         }
 
         return businessEntityList == null ? Collections.emptyList() : businessEntityList;
@@ -108,10 +191,187 @@ public class BasicDAO implements DataAccessObject {
     }
 
 
+    /**
+     * I return the list of {@link BusinessEntity} with the given keys
+     * and chunk the keys with the {@link #DEFAULT_KEY_CHUNK_SIZE}.
+     *
+     * @see #selectEntityListByKeys(BusinessEntityConfiguration, String, Collection, int)
+     */
+    public <T> List<T> selectEntityListByKeys(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                              final String fieldSelector, final Collection<?> keys) {
+        return selectEntityListByKeys(businessEntityConfiguration, fieldSelector, keys, DEFAULT_KEY_CHUNK_SIZE);
+    }
+
+
+    /**
+     * I return the list of {@link BusinessEntity} with the given keys.
+     *
+     * The keys are bound to a single PostgreSQL array parameter with
+     * SELECT * FROM {table} WHERE {column} = ANY(?)
+     * So any number of keys is resolved with one indexed query per chunk and the SQL text is always the same.
+     * Null and duplicate keys are ignored. Keys without table row are missing in the result list.
+     *
+     * Encapsulate all SELECT queries into a transaction or join the active transaction.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param fieldSelector               to identify the table rows in the WHERE clause
+     * @param keys                        values of the {@code fieldSelector}, e.g. Strings, Integers or Longs
+     * @param chunkSize                   maximum number of keys per query
+     * @return list of {@link BusinessEntity} in the order of the database or an empty list if no result found
+     */
+    public <T> List<T> selectEntityListByKeys(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                              final String fieldSelector, final Collection<?> keys,
+                                              final int chunkSize) {
+        final List<Object> distinctKeys = keys.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (distinctKeys.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final String arrayType = toArrayType(distinctKeys.get(0));
+        final String sqlQuery = String.format("SELECT * FROM %s WHERE %s = ANY(?)",
+                businessEntityConfiguration.getTable(), businessEntityConfiguration.getColumn(fieldSelector));
+
+        final List<T> businessEntityList = new ArrayList<>();
+        try {
+            begin(businessEntityConfiguration);
+
+            for (int from = 0; from < distinctKeys.size(); from += chunkSize) {
+                final Array keyArray = getConnection().createArrayOf(arrayType,
+                        distinctKeys.subList(from, Math.min(from + chunkSize, distinctKeys.size())).toArray());
+                final Object[] params = {keyArray};
+                try {
+                    businessEntityList.addAll(execute(businessEntityConfiguration, sqlQuery, params,
+                            () -> run.query(getConnection(), sqlQuery, businessEntityConfiguration.getBeanListHandler(),
+                                    params)));
+                } finally {
+                    keyArray.free();
+                }
+            }
+
+            transactionManager.commit();
+        } catch (final SQLException e) {
+            transactionManager.rollback();
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
+        }
+
+        return businessEntityList;
+    }
+
+
+    /**
+     * I return a page of {@link BusinessEntity} ordered by the given unique field.
+     *
+     * The page is selected with keyset pagination
+     * SELECT * FROM {table} WHERE {column} > ? ORDER BY {column} LIMIT ?
+     * The database seeks the start of the page in the index of the unique column,
+     * so the cost of a page does not depend on the number of previous pages like with OFFSET.
+     * One additional row is requested to determine the existence of a next page.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param fieldSelector               unique and indexed field to order and identify the page
+     * @param after                       value of the {@code fieldSelector} of the last entry of the previous page;
+     *                                    null for the first page
+     * @param limit                       maximum number of entries of the page
+     * @return page of business entities ordered by the {@code fieldSelector}
+     */
+    public <T> Page<T> selectEntityPage(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                        final String fieldSelector, final Object after, final int limit) {
+        if (limit < 1) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR,
+                    String.format("Invalid page limit %d", limit), limit);
+        }
+
+        final String table = businessEntityConfiguration.getTable();
+        final String column = businessEntityConfiguration.getColumn(fieldSelector);
+
+        final List<T> businessEntityList;
+        if (after == null) {
+            businessEntityList = selectEntityList(businessEntityConfiguration,
+                    String.format("SELECT * FROM %s ORDER BY %s LIMIT ?", table, column), limit + 1);
+        } else {
+            businessEntityList = selectEntityList(businessEntityConfiguration,
+                    String.format("SELECT * FROM %s WHERE %s > ? ORDER BY %s LIMIT ?", table, column, column),
+                    after, limit + 1);
+        }
+
+        return Page.of(businessEntityList, limit);
+    }
+
+
+    /**
+     * I return a lazy {@link Stream} of {@link BusinessEntity} for the given sql SELECT query.
+     *
+     * The rows are fetched with a server-side cursor and the {@link #DEFAULT_FETCH_SIZE}.
+     *
+     * @see #streamEntities(BusinessEntityConfiguration, int, String, Object...)
+     */
+    public <T> Stream<T> streamEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                        final String sqlQuery,
+                                        final Object... params) {
+        return streamEntities(businessEntityConfiguration, DEFAULT_FETCH_SIZE, sqlQuery, params);
+    }
+
+
+    /**
+     * I return a lazy {@link Stream} of {@link BusinessEntity} for the given sql SELECT query.
+     *
+     * The PostgreSQL driver only uses a server-side cursor inside a transaction and with a fetch size.
+     * Therefore the stream begins a transaction scope, which joins an active transaction, and holds the connection
+     * until the stream is closed. Only {@code fetchSize} rows are kept in memory.
+     *
+     * The stream must be consumed in the calling thread and closed, e.g. with try-with-resources.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param fetchSize                   number of rows fetched per round trip
+     * @param sqlQuery                    to request the business entities
+     * @param params                      The parameter(s) are used to select the business entities in the WHERE clause
+     * @return lazy stream of business entities, which releases the connection on close
+     */
+    public <T> Stream<T> streamEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                        final int fetchSize,
+                                        final String sqlQuery,
+                                        final Object... params) {
+        begin(businessEntityConfiguration);
+
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            final StatementMetrics.Statement metrics = statementMetrics.get(
+                    businessEntityConfiguration.getTable(), sqlQuery);
+            final long start = queryLogger.start();
+            statement = run.prepareCursor(getConnection(), sqlQuery);
+            statement.setFetchSize(fetchSize);
+            run.fillStatement(statement, params);
+            resultSet = statement.executeQuery();
+            // duration until the first rows are fetched, the number of rows is unknown
+            metrics.record(queryLogger.log(businessEntityConfiguration.getLogger(), start, sqlQuery, params), -1);
+
+            final ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(resultSet,
+                    businessEntityConfiguration.getRowMapper().bind(resultSet));
+            final Cursor cursor = new Cursor(statement, resultSet);
+
+            return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+
+        } catch (final SQLException | RuntimeException e) {
+            new Cursor(statement, resultSet).abort();
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        }
+    }
+
+
     /**
      * I persist a single {@link BusinessEntity}
      *
-     * Encapsulate the INSERT query into a transaction.
+     * Encapsulate the INSERT query into a transaction or join the active transaction.
+     * The persisted row is returned by the INSERT ... RETURNING query.
      *
      * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
      *                                    "object-relational" mapping between the business entity and the database table
@@ -121,19 +381,15 @@ public class BasicDAO implements DataAccessObject {
      */
     public <T> T insertEntity(final BusinessEntityConfiguration<T> businessEntityConfiguration,
                               final T insertBusinessEntity) {
-        final SQL.SQLWithParameter sql = SQL.insertSQL(insertBusinessEntity, businessEntityConfiguration.getTable(),
-                businessEntityConfiguration.getColumnToFieldMapping());
+        final SQL.SQLWithParameter sql = businessEntityConfiguration.getInsertPlan(true).bind(insertBusinessEntity);
 
         T businessEntityAfterInsert;
         try {
-            transactionManager.begin();
+            begin(businessEntityConfiguration);
 
-            businessEntityAfterInsert = run.insert(getConnection(),
-                    logSQL(businessEntityConfiguration.getLogger(), sql.getSql(), sql.getParameter()),
-                    new BasicBeanHandler<>(
-                            businessEntityConfiguration.getBusinessEntity(),
-                            businessEntityConfiguration.getColumnToFieldMapping()),
-                    sql.getParameter());
+            businessEntityAfterInsert = execute(businessEntityConfiguration, sql.getSql(), sql.getParameter(),
+                    () -> run.query(getConnection(), sql.getSql(), businessEntityConfiguration.getBeanHandler(),
+                            sql.getParameter()));
 
             transactionManager.commit();
         } catch (final SQLException e) {
@@ -147,11 +403,52 @@ public class BasicDAO implements DataAccessObject {
     }
 
 
+    /**
+     * I create or replace a single {@link BusinessEntity}
+     *
+     * A new table row is inserted, if no row with the value of the {@code conflictFieldSelector} exists.
+     * Otherwise the existing row is updated. Both is done atomically with a single
+     * INSERT ... ON CONFLICT ... RETURNING query, so concurrent callers do not need to check the existence first.
+     *
+     * Encapsulate the query into a transaction or join the active transaction.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param upsertBusinessEntity        business entity to persist
+     *                                    the INSERT ... ON CONFLICT sql query is automatically generated
+     * @param conflictFieldSelector       to identify the existing table row, requires a unique column
+     * @return instance of the persisted business entity and whether the table row was inserted or updated
+     */
+    public <T> UpsertResult<T> upsertEntity(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                            final T upsertBusinessEntity, final String conflictFieldSelector) {
+        final SQL.SQLWithParameter sql = businessEntityConfiguration.getUpsertPlan(conflictFieldSelector, true)
+                .bind(upsertBusinessEntity);
+
+        UpsertResult<T> businessEntityAfterUpsert;
+        try {
+            begin(businessEntityConfiguration);
+
+            businessEntityAfterUpsert = execute(businessEntityConfiguration, sql.getSql(), sql.getParameter(),
+                    () -> run.query(getConnection(), sql.getSql(), businessEntityConfiguration.getUpsertHandler(),
+                            sql.getParameter()));
+
+            transactionManager.commit();
+        } catch (final SQLException e) {
+            transactionManager.rollback();
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
+        }
+
+        return businessEntityAfterUpsert;
+    }
+
+
     /**
      * I update one or more {@link BusinessEntity} objects
      * in the database.
      *
-     * Encapsulate the UPDATE query into a transaction.
+     * Encapsulate the UPDATE query into a transaction or join the active transaction.
      *
      * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
      *                                    "object-relational" mapping between the business entity and the database table
@@ -162,11 +459,10 @@ public class BasicDAO implements DataAccessObject {
      */
     public <T> int updateEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
                                   final T updateBusinessEntity, final String fieldSelector) {
-        final SQL.SQLWithParameter sql = SQL.updateSQL(updateBusinessEntity, businessEntityConfiguration.getTable(),
-                fieldSelector,
-                businessEntityConfiguration.getColumnToFieldMapping());
+        final SQL.SQLWithParameter sql = businessEntityConfiguration.getUpdatePlan(fieldSelector)
+                .bind(updateBusinessEntity);
         try {
-            transactionManager.begin();
+            begin(businessEntityConfiguration);
 
             final int affectedRows = runUpdate(businessEntityConfiguration, sql);
 
@@ -186,39 +482,38 @@ public class BasicDAO implements DataAccessObject {
      * I update a single {@link BusinessEntity} object
      * in the database.
      *
-     * Encapsulate the UPDATE and SELECT query into a transaction.
+     * Encapsulate the UPDATE query into a transaction or join the active transaction.
+     * The modified row is returned by the UPDATE ... RETURNING query,
+     * so the business entity is not selected again after the update.
      *
      * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
      *                                    "object-relational" mapping between the business entity and the database table
      * @param updateBusinessEntity        business entity to persist
      *                                    the UPDATE sql query is automatically generated
      * @param fieldSelector               to identify the target table row in the WHERE clause
-     * @param singleSelectSql             to select the modified business entity after the update
      * @return instance of the updated business entity
      * @throws BusinessException if no or more than 1 row is affected by the update
      */
     public <T> T updateEntity(final BusinessEntityConfiguration<T> businessEntityConfiguration,
-                              final T updateBusinessEntity, final String fieldSelector, final String singleSelectSql) {
-        final SQL.SQLWithParameter sql = SQL.updateSQL(updateBusinessEntity, businessEntityConfiguration.getTable(),
-                fieldSelector,
-                businessEntityConfiguration.getColumnToFieldMapping());
+                              final T updateBusinessEntity, final String fieldSelector) {
+        final SQL.SQLWithParameter sql = businessEntityConfiguration.getUpdatePlan(fieldSelector, true)
+                .bind(updateBusinessEntity);
 
-        T businessEntityAfterUpdate;
+        final List<T> businessEntitiesAfterUpdate;
 
         try {
-            transactionManager.begin();
+            begin(businessEntityConfiguration);
 
-            final int affectedRows = run.update(getConnection(),
-                    logSQL(businessEntityConfiguration.getLogger(), sql.getSql(), sql.getParameter()),
-                    sql.getParameter());
+            // every modified row is returned
+            businessEntitiesAfterUpdate = execute(businessEntityConfiguration, sql.getSql(), sql.getParameter(),
+                    () -> run.query(getConnection(), sql.getSql(), businessEntityConfiguration.getBeanListHandler(),
+                            sql.getParameter()));
+            final int affectedRows = businessEntitiesAfterUpdate.size();
 
             // last parameter := identifier for the update query
             final Object fieldSelectorValue = sql.getParameter()[sql.getParameter().length - 1];
 
             if (affectedRows == 1) {
-                businessEntityAfterUpdate = selectSingleEntity(businessEntityConfiguration, singleSelectSql,
-                        fieldSelectorValue);
-
                 transactionManager.commit();
 
             } else if (affectedRows == 0) {
@@ -242,7 +537,29 @@ public class BasicDAO implements DataAccessObject {
             transactionManager.release();
         }
 
-        return businessEntityAfterUpdate;
+        return businessEntitiesAfterUpdate.get(0);
+    }
+
+
+    /**
+     * I update a single {@link BusinessEntity} object
+     * in the database.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param updateBusinessEntity        business entity to persist
+     *                                    the UPDATE sql query is automatically generated
+     * @param fieldSelector               to identify the target table row in the WHERE clause
+     * @param singleSelectSql             ignored, the modified row is returned by the UPDATE query
+     * @return instance of the updated business entity
+     * @throws BusinessException if no or more than 1 row is affected by the update
+     * @deprecated use {@link #updateEntity(BusinessEntityConfiguration, Object, String)}
+     * without the additional SELECT query
+     */
+    @Deprecated
+    public <T> T updateEntity(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                              final T updateBusinessEntity, final String fieldSelector, final String singleSelectSql) {
+        return updateEntity(businessEntityConfiguration, updateBusinessEntity, fieldSelector);
     }
 
 
@@ -259,11 +576,10 @@ public class BasicDAO implements DataAccessObject {
      */
     public <T> void deleteEntity(final BusinessEntityConfiguration<T> businessEntityConfiguration,
                                  final T deleteBusinessEntity, final String fieldSelector) {
-        final SQL.SQLWithParameter sql = SQL.deleteSQL(deleteBusinessEntity, businessEntityConfiguration.getTable(),
-                fieldSelector,
-                businessEntityConfiguration.getColumnToFieldMapping());
+        final SQL.SQLWithParameter sql = businessEntityConfiguration.getDeletePlan(fieldSelector)
+                .bind(deleteBusinessEntity);
         try {
-            transactionManager.begin();
+            begin(businessEntityConfiguration);
 
             final int affectedRows = runUpdate(businessEntityConfiguration, sql);
 
@@ -288,29 +604,569 @@ public class BasicDAO implements DataAccessObject {
     }
 
 
+    /**
+     * I persist a list of {@link BusinessEntity} with JDBC batches of the {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @see #insertEntities(BusinessEntityConfiguration, List, int)
+     */
+    public <T> int[] insertEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> insertBusinessEntities) {
+        return insertEntities(businessEntityConfiguration, insertBusinessEntities, DEFAULT_BATCH_SIZE);
+    }
+
+
+    /**
+     * I persist a list of {@link BusinessEntity} with JDBC batches.
+     *
+     * Encapsulate all INSERT batches into a single transaction.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param insertBusinessEntities      business entities to persist
+     *                                    the INSERT sql query is automatically generated
+     * @param batchSize                   maximum number of rows per batch round trip
+     * @return number of inserted rows for each business entity or {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public <T> int[] insertEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> insertBusinessEntities, final int batchSize) {
+        return runBatch(businessEntityConfiguration, businessEntityConfiguration.getInsertPlan(),
+                insertBusinessEntities, batchSize);
+    }
+
+
+    /**
+     * I create or replace a list of {@link BusinessEntity} with JDBC batches of the {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @see #upsertEntities(BusinessEntityConfiguration, List, String, int)
+     */
+    public <T> int[] upsertEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> upsertBusinessEntities, final String conflictFieldSelector) {
+        return upsertEntities(businessEntityConfiguration, upsertBusinessEntities, conflictFieldSelector,
+                DEFAULT_BATCH_SIZE);
+    }
+
+
+    /**
+     * I create or replace a list of {@link BusinessEntity} with JDBC batches.
+     *
+     * Encapsulate all INSERT ... ON CONFLICT batches into a single transaction.
+     * If the value of the {@code conflictFieldSelector} occurs more than once, the last business entity wins.
+     * The duplicates are removed before batching, because PostgreSQL rejects a multi-row
+     * INSERT ... ON CONFLICT DO UPDATE, which affects a row twice, e.g. with {@code reWriteBatchedInserts}.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param upsertBusinessEntities      business entities to persist
+     *                                    the INSERT ... ON CONFLICT sql query is automatically generated
+     * @param conflictFieldSelector       to identify the existing table rows, requires a unique column
+     * @param batchSize                   maximum number of rows per batch round trip
+     * @return number of inserted or updated rows for each distinct business entity
+     * or {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public <T> int[] upsertEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> upsertBusinessEntities, final String conflictFieldSelector,
+                                    final int batchSize) {
+        final SQLStatementPlan plan = businessEntityConfiguration.getUpsertPlan(conflictFieldSelector, false);
+        return runBatch(businessEntityConfiguration, plan, removeConflicts(plan, upsertBusinessEntities),
+                batchSize);
+    }
+
+
+    /**
+     * I update a list of {@link BusinessEntity} with JDBC batches of the {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @see #updateEntities(BusinessEntityConfiguration, List, String, int)
+     */
+    public <T> int[] updateEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> updateBusinessEntities, final String fieldSelector) {
+        return updateEntities(businessEntityConfiguration, updateBusinessEntities, fieldSelector,
+                DEFAULT_BATCH_SIZE);
+    }
+
+
+    /**
+     * I update a list of {@link BusinessEntity} with JDBC batches.
+     *
+     * Encapsulate all UPDATE batches into a single transaction.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param updateBusinessEntities      business entities to persist
+     *                                    the UPDATE sql query is automatically generated
+     * @param fieldSelector               to identify the target table rows in the WHERE clause
+     * @param batchSize                   maximum number of rows per batch round trip
+     * @return number of modified table rows for each business entity
+     */
+    public <T> int[] updateEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> updateBusinessEntities, final String fieldSelector,
+                                    final int batchSize) {
+        return runBatch(businessEntityConfiguration, businessEntityConfiguration.getUpdatePlan(fieldSelector),
+                updateBusinessEntities, batchSize);
+    }
+
+
+    /**
+     * I delete a list of {@link BusinessEntity} with JDBC batches of the {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @see #deleteEntities(BusinessEntityConfiguration, List, String, int)
+     */
+    public <T> int[] deleteEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> deleteBusinessEntities, final String fieldSelector) {
+        return deleteEntities(businessEntityConfiguration, deleteBusinessEntities, fieldSelector,
+                DEFAULT_BATCH_SIZE);
+    }
+
+
+    /**
+     * I delete a list of {@link BusinessEntity} with JDBC batches.
+     *
+     * Encapsulate all DELETE batches into a single transaction.
+     * In contrast to {@link #deleteEntity(BusinessEntityConfiguration, Object, String)} missing rows are no error,
+     * the affected rows are reported for each business entity.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param deleteBusinessEntities      business entities to delete
+     *                                    the DELETE sql query is automatically generated
+     * @param fieldSelector               to identify the target table rows in the WHERE clause
+     * @param batchSize                   maximum number of rows per batch round trip
+     * @return number of deleted table rows for each business entity
+     */
+    public <T> int[] deleteEntities(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                                    final List<T> deleteBusinessEntities, final String fieldSelector,
+                                    final int batchSize) {
+        return runBatch(businessEntityConfiguration, businessEntityConfiguration.getDeletePlan(fieldSelector),
+                deleteBusinessEntities, batchSize);
+    }
+
+
+    /**
+     * I remove the business entities with the same value of the ON CONFLICT column, the last one wins.
+     *
+     * The remaining business entities keep the order of their last occurrence.
+     * Null values never conflict and are kept.
+     */
+    private static <T> List<T> removeConflicts(final SQLStatementPlan plan, final List<T> businessEntities) {
+        if (!plan.hasConflictParameter()) {
+            return businessEntities;
+        }
+
+        final Map<Object, Integer> lastIndexes = new HashMap<>();
+        for (int i = 0; i < businessEntities.size(); i++) {
+            final Object conflictValue = plan.bindConflictParameter(businessEntities.get(i));
+            if (conflictValue != null) {
+                lastIndexes.put(conflictValue, i);
+            }
+        }
+
+        if (lastIndexes.size() == businessEntities.size()) {
+            return businessEntities;
+        }
+
+        final List<T> distinctBusinessEntities = new ArrayList<>(businessEntities.size());
+        for (int i = 0; i < businessEntities.size(); i++) {
+            final T businessEntity = businessEntities.get(i);
+            final Object conflictValue = plan.bindConflictParameter(businessEntity);
+            if (conflictValue == null || lastIndexes.get(conflictValue) == i) {
+                distinctBusinessEntities.add(businessEntity);
+            }
+        }
+        return distinctBusinessEntities;
+    }
+
+
+    private <T> int[] runBatch(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                               final SQLStatementPlan plan, final List<T> businessEntities,
+                               final int batchSize) {
+        if (batchSize < 1) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR,
+                    String.format("Invalid batch size %d", batchSize), batchSize);
+        }
+
+        final int[] affectedRows = new int[businessEntities.size()];
+        if (businessEntities.isEmpty()) {
+            return affectedRows;
+        }
+
+        try {
+            begin(businessEntityConfiguration);
+
+            for (int offset = 0; offset < businessEntities.size(); offset += batchSize) {
+                final List<T> chunk = businessEntities.subList(offset,
+                        Math.min(offset + batchSize, businessEntities.size()));
+                final Object[][] parameter = new Object[chunk.size()][];
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    parameter[i] = plan.bindParameter(chunk.get(i));
+                }
+
+                // the parameters of a batch are not logged
+                final int[] chunkAffectedRows = execute(businessEntityConfiguration, plan.getSql(), null,
+                        () -> run.batch(getConnection(), plan.getSql(), parameter));
+
+                System.arraycopy(chunkAffectedRows, 0, affectedRows, offset, chunkAffectedRows.length);
+            }
+
+            transactionManager.commit();
+        } catch (final SQLException e) {
+            transactionManager.rollback();
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
+        }
+
+        return affectedRows;
+    }
+
+
+    /**
+     * I write the result of the sql SELECT query with the PostgreSQL COPY command to the output stream.
+     *
+     * The rows are streamed from the database to the output stream without mapping them to business entities.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to log the COPY command
+     * @param sqlQuery                    to select the exported rows, without ?-parameters
+     * @param copyFormat                  data format of the output stream
+     * @param outputStream                target of the exported rows, the stream is not closed
+     * @return number of exported rows
+     */
+    public <T> long copyOut(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                            final String sqlQuery, final CopyFormat copyFormat,
+                            final OutputStream outputStream) {
+        final String copySql = String.format("COPY (%s) TO STDOUT WITH %s", sqlQuery, copyFormat.getOptions());
+
+        try {
+            begin(businessEntityConfiguration);
+
+            final long exportedRows = execute(businessEntityConfiguration, copySql, null,
+                    () -> getCopyManager().copyOut(copySql, outputStream));
+
+            transactionManager.commit();
+
+            return exportedRows;
+        } catch (final SQLException | IOException e) {
+            transactionManager.rollback();
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
+        }
+    }
+
+
+    /**
+     * I merge the rows of the input stream with the PostgreSQL COPY command into the business entity table.
+     *
+     * The rows are streamed into a temporary staging table with the columns of the business entity
+     * and an ordinal, which numbers the rows in the order of the input stream.
+     * Then all staged rows are inserted into the business entity table. Existing rows with the same
+     * {@code fieldSelector} are updated ("upsert"). If the input contains the same identifier twice,
+     * the last row is used.
+     *
+     * All steps are encapsulated into a single transaction. A staging table of a previous import
+     * in the same transaction is replaced.
+     *
+     * @param businessEntityConfiguration The {@code businessEntityConfiguration} is used to process the
+     *                                    "object-relational" mapping between the business entity and the database table
+     * @param fieldSelector               to identify existing table rows, must be a unique column
+     * @param copyColumns                 ordered column names of the input stream, e.g. the columns of the export,
+     *                                    must contain the column of the {@code fieldSelector}
+     * @param copyFormat                  data format of the input stream
+     * @param inputStream                 source of the imported rows, the stream is not closed
+     * @return number of inserted or updated rows
+     */
+    public <T> long copyIn(final BusinessEntityConfiguration<T> businessEntityConfiguration,
+                           final String fieldSelector, final List<String> copyColumns, final CopyFormat copyFormat,
+                           final InputStream inputStream) {
+        final String table = businessEntityConfiguration.getTable();
+        final String stagingTable = "staging_" + table;
+        final String identifierColumn = businessEntityConfiguration.getColumn(fieldSelector);
+
+        if (!copyColumns.contains(identifierColumn)) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR,
+                    String.format("Missing identifier column %s in the copy columns", identifierColumn),
+                    identifierColumn);
+        }
+
+        final String columnList = String.join(", ", copyColumns);
+
+        final StringBuilder updateColumns = new StringBuilder();
+        for (final String column : copyColumns) {
+            if (!column.equals(identifierColumn)) {
+                updateColumns.append(updateColumns.length() == 0 ? "" : ", ")
+                        .append(column).append(" = EXCLUDED.").append(column);
+            }
+        }
+
+        final String dropSql = String.format("DROP TABLE IF EXISTS %s", stagingTable);
+        final String createSql = String.format(
+                "CREATE TEMPORARY TABLE %s (LIKE %s INCLUDING DEFAULTS, %s bigserial) ON COMMIT DROP",
+                stagingTable, table, STAGING_ORDINAL_COLUMN);
+        // the ordinal is not copied and numbers the rows in the order of the input stream
+        final String copySql = String.format("COPY %s (%s) FROM STDIN WITH %s",
+                stagingTable, columnList, copyFormat.getOptions());
+        // DISTINCT ON: ON CONFLICT cannot update a row twice, keep the last staged row of each identifier
+        final String mergeSql = String.format("INSERT INTO %1$s (%2$s)"
+                        + " SELECT DISTINCT ON (%3$s) %2$s FROM %4$s ORDER BY %3$s, %6$s DESC"
+                        + " ON CONFLICT (%3$s) DO %5$s",
+                table, columnList, identifierColumn, stagingTable,
+                updateColumns.length() == 0 ? "NOTHING" : "UPDATE SET " + updateColumns, STAGING_ORDINAL_COLUMN);
+
+        try {
+            begin(businessEntityConfiguration);
+
+            execute(businessEntityConfiguration, dropSql, null, () -> run.update(getConnection(), dropSql));
+            execute(businessEntityConfiguration, createSql, null, () -> run.update(getConnection(), createSql));
+            execute(businessEntityConfiguration, copySql, null,
+                    () -> getCopyManager().copyIn(copySql, inputStream));
+            final int mergedRows = execute(businessEntityConfiguration, mergeSql, null,
+                    () -> run.update(getConnection(), mergeSql));
+
+            transactionManager.commit();
+
+            return mergedRows;
+        } catch (final SQLException | IOException e) {
+            transactionManager.rollback();
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        } finally {
+            transactionManager.release();
+        }
+    }
+
+
+    /**
+     * I begin the transaction scope of an operation and measure the time to get the connection.
+     */
+    private void begin(final BusinessEntityConfiguration<?> businessEntityConfiguration) {
+        final long start = queryLogger.start();
+        transactionManager.begin();
+        statementMetrics.recordConnection(businessEntityConfiguration.getTable(), queryLogger.elapsed(start));
+    }
+
+
+    /**
+     * I execute a single sql statement, record its metrics and log it.
+     *
+     * The execution plan of a slow statement is logged, too.
+     *
+     * @param businessEntityConfiguration of the statement
+     * @param sql                         statement to execute
+     * @param parameter                   of the statement; null, if the statement has no single parameter list
+     * @param execution                   of the statement
+     * @return result of the execution
+     * @throws SQLException if the execution fails
+     * @throws E            if the execution fails, e.g. an {@link IOException} of a COPY command
+     */
+    private <R, E extends Exception> R execute(final BusinessEntityConfiguration<?> businessEntityConfiguration,
+                                               final String sql, final Object[] parameter,
+                                               final Execution<R, E> execution) throws SQLException, E {
+        final StatementMetrics.Statement statement = statementMetrics.get(businessEntityConfiguration.getTable(),
+                sql);
+        final long start = queryLogger.start();
+
+        final R result;
+        try {
+            result = execution.execute();
+        } catch (final Exception e) {
+            statement.recordError(queryLogger.elapsed(start));
+            throw e;
+        }
+
+        final long duration = queryLogger.log(businessEntityConfiguration.getLogger(), start, sql, parameter);
+        statement.record(duration, countRows(result));
+
+        if (queryLogger.isExplained(duration, sql, parameter, statement)) {
+            explain(businessEntityConfiguration.getLogger(), sql, parameter);
+        }
+        return result;
+    }
+
+
+    /**
+     * I log the execution plan of a slow statement.
+     *
+     * The EXPLAIN is executed within a savepoint, so a failure does not abort the transaction.
+     */
+    private void explain(final Logger logger, final String sql, final Object[] parameter) {
+        final Connection connection = getConnection();
+        Savepoint savepoint = null;
+        try {
+            savepoint = connection.setSavepoint();
+            final List<String> plan = run.query(connection, EXPLAIN + sql, new ColumnListHandler<String>(1),
+                    parameter);
+            connection.releaseSavepoint(savepoint);
+            queryLogger.logPlan(logger, sql, plan);
+        } catch (final SQLException e) {
+            logger.debug("Cannot explain the slow query: {}", e.getMessage());
+            rollbackQuietly(connection, savepoint);
+        }
+    }
+
+
+    private static void rollbackQuietly(final Connection connection, final Savepoint savepoint) {
+        if (savepoint != null) {
+            try {
+                connection.rollback(savepoint);
+            } catch (final SQLException e) {
+                // the transaction is rolled back by the caller
+            }
+        }
+    }
+
+
+    private static long countRows(final Object result) {
+        if (result == null) {
+            return 0;
+        } else if (result instanceof Number) {
+            return ((Number) result).longValue();
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof int[]) {
+            long rows = 0;
+            for (final int affectedRows : (int[]) result) {
+                rows += Math.max(affectedRows, 0);
+            }
+            return rows;
+        }
+        // single business entity
+        return 1;
+    }
+
+
+    /**
+     * I return the PostgreSQL element type of a key array.
+     */
+    private static String toArrayType(final Object key) {
+        if (key instanceof String) {
+            return "varchar";
+        } else if (key instanceof Integer) {
+            return "int4";
+        } else if (key instanceof Long) {
+            return "int8";
+        }
+        throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR,
+                String.format("Unsupported key type '%s'", key.getClass().getName()));
+    }
+
+
+    private CopyManager getCopyManager() throws SQLException {
+        // the pooled connection is a proxy of the PostgreSQL connection
+        return getConnection().unwrap(PGConnection.class).getCopyAPI();
+    }
+
+
     private <T> int runUpdate(final BusinessEntityConfiguration<T> businessEntityConfiguration,
                               final SQL.SQLWithParameter sql) throws SQLException {
-        int affectedRows = 0;
+        return execute(businessEntityConfiguration, sql.getSql(), sql.getParameter(),
+                () -> run.update(getConnection(), sql.getSql(), sql.getParameter()));
+    }
 
-        affectedRows = run.update(getConnection(),
-                logSQL(businessEntityConfiguration.getLogger(), sql.getSql(), sql.getParameter()),
-                sql.getParameter());
 
-        return affectedRows;
+    /**
+     * I´m a single sql statement executed with the connection of the transaction.
+     */
+    @FunctionalInterface
+    private interface Execution<R, E extends Exception> {
+        R execute() throws SQLException, E;
+    }
+
+
+    /**
+     * I´m the open server-side cursor of a stream.
+     *
+     * I close the statement and the transaction scope of the stream.
+     */
+    private final class Cursor {
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+
+
+        Cursor(final PreparedStatement statement, final ResultSet resultSet) {
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+
+        void close() {
+            try {
+                closeStatement();
+                transactionManager.commit();
+            } catch (final SQLException e) {
+                transactionManager.rollback();
+                throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+            } finally {
+                transactionManager.release();
+            }
+        }
+
+
+        void abort() {
+            try {
+                closeStatement();
+            } catch (final SQLException e) {
+                // the original error is thrown
+            } finally {
+                transactionManager.rollback();
+                transactionManager.release();
+            }
+        }
+
+
+        private void closeStatement() throws SQLException {
+            try {
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+            } finally {
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * I map the rows of the result set on demand.
+     */
+    private static final class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet resultSet;
+        private final BeanRowMapper.Binding<T> binding;
+
+
+        ResultSetSpliterator(final ResultSet resultSet, final BeanRowMapper.Binding<T> binding) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.resultSet = resultSet;
+            this.binding = binding;
+        }
+
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                action.accept(binding.toBean(resultSet));
+                return true;
+            } catch (final SQLException e) {
+                throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+            }
+        }
     }
 
 
     /**
      * I log the sql query with the given logger instance and return the query to the query runner.
      *
+     * The query is logged at DEBUG level without the duration.
+     * The executed queries of the data access object are logged with the {@link QueryLogger}.
+     *
      * @param logger specific {@link DataAccessObject} logger to log the logging message source in the log output
      * @param sql    query to log
      * @return sql query
      */
     protected final String logSQL(final Logger logger, final String sql) {
-        if (logger.isInfoEnabled()) {
-            logger.info(sql);
-        }
+        logger.debug("sql={}", sql);
         return sql;
     }
 
@@ -318,15 +1174,18 @@ public class BasicDAO implements DataAccessObject {
     /**
      * I log the sql query with the given logger instance and return the query to the query runner.
      *
+     * The query is logged at DEBUG level. The parameters are only formatted and logged at TRACE level.
+     *
      * @param logger            specific {@link DataAccessObject} logger to log the logging message source in the log output
      * @param sql               query with ?-parameters to log
-     * @param sqlQueryParameter the ?-parameters are replaced with the {@code sqlQueryParameter}
-     * @return sql query with parameters
+     * @param sqlQueryParameter the ?-parameters of the query
+     * @return sql query
      */
     protected final String logSQL(final Logger logger, final String sql, final Object... sqlQueryParameter) {
-        if (logger.isInfoEnabled()) {
-            final String formatString = sql.replace("?", "%s");
-            logger.info(String.format(formatString, sqlQueryParameter));
+        if (logger.isTraceEnabled()) {
+            logger.trace("sql={} parameter={}", sql, Arrays.deepToString(sqlQueryParameter));
+        } else {
+            logger.debug("sql={}", sql);
         }
         return sql;
     }
@@ -0,0 +1,37 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.commons.dbutils.ResultSetHandler;
+import de.bogenliga.application.common.database.BeanRowMapper;
+import de.bogenliga.application.common.database.SQL;
+
+/**
+ * I map the first row of an INSERT ... ON CONFLICT ... RETURNING query to an {@link UpsertResult}.
+ *
+ * The business entity is mapped with the {@link BeanRowMapper}, the additional {@link SQL#INSERTED_COLUMN}
+ * distinguishes an inserted from an updated table row.
+ * I´m stateless and cached in the {@link BusinessEntityConfiguration}.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see SQL#compileUpsertSQL
+ */
+public class BasicUpsertHandler<T> implements ResultSetHandler<UpsertResult<T>> {
+
+    private final BeanRowMapper<T> rowMapper;
+
+
+    /**
+     * ResultSet mapping with a shared row mapper
+     */
+    BasicUpsertHandler(final BeanRowMapper<T> rowMapper) {
+        this.rowMapper = rowMapper;
+    }
+
+
+    @Override
+    public UpsertResult<T> handle(final ResultSet rs) throws SQLException {
+        return rs.next() ? new UpsertResult<>(rowMapper.toBean(rs), rs.getBoolean(SQL.INSERTED_COLUMN)) : null;
+    }
+
+}
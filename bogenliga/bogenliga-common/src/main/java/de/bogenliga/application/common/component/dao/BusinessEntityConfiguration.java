@@ -2,12 +2,19 @@ package de.bogenliga.application.common.component.dao;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
+import de.bogenliga.application.common.database.BeanRowMapper;
+import de.bogenliga.application.common.database.SQL;
+import de.bogenliga.application.common.database.SQLStatementPlan;
 
 /**
  * I contain the configuration for the business entity mapping between database table and java object.
  *
  * The configuration is used by the {@link BasicDAO} to perform the "object-relational-mapping".
+ * The generated INSERT, UPSERT, UPDATE and DELETE statements are compiled once and cached in the configuration.
+ * The result set handlers share a single {@link BeanRowMapper} and are cached, too.
  *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
  */
@@ -18,6 +25,14 @@ public class BusinessEntityConfiguration<T> {
 
     private final Logger logger;
 
+    private final ConcurrentMap<String, SQLStatementPlan> statementPlans = new ConcurrentHashMap<>();
+
+    // lazy initialized, the handlers are stateless and can be shared
+    private volatile BeanRowMapper<T> rowMapper;
+    private volatile BasicBeanHandler<T> beanHandler;
+    private volatile BasicBeanListHandler<T> beanListHandler;
+    private volatile BasicUpsertHandler<T> upsertHandler;
+
 
     /**
      * Constructor with mandatory parameter
@@ -54,4 +69,157 @@ public class BusinessEntityConfiguration<T> {
     Logger getLogger() {
         return logger;
     }
+
+
+    /**
+     * I resolve the table column name of a business entity parameter.
+     *
+     * @param field name of the business entity parameter
+     * @return mapped column name or the parameter name, if no mapping exists
+     */
+    String getColumn(final String field) {
+        if (columnToFieldMapping != null) {
+            for (final Map.Entry<String, String> entry : columnToFieldMapping.entrySet()) {
+                if (field.equals(entry.getValue())) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return field;
+    }
+
+
+    /**
+     * I return the compiled INSERT statement of the business entity.
+     *
+     * @return cached statement plan
+     */
+    SQLStatementPlan getInsertPlan() {
+        return getInsertPlan(false);
+    }
+
+
+    /**
+     * I return the compiled INSERT statement of the business entity.
+     *
+     * @param returning to return the inserted row with a RETURNING clause
+     * @return cached statement plan
+     */
+    SQLStatementPlan getInsertPlan(final boolean returning) {
+        return statementPlans.computeIfAbsent(returning ? "INSERT:RETURNING" : "INSERT",
+                key -> SQL.compileInsertSQL(businessEntity, table, columnToFieldMapping, returning));
+    }
+
+
+    /**
+     * I return the compiled UPDATE statement of the business entity.
+     *
+     * @param fieldSelector to identify the target table rows in the WHERE clause
+     * @return cached statement plan
+     */
+    SQLStatementPlan getUpdatePlan(final String fieldSelector) {
+        return getUpdatePlan(fieldSelector, false);
+    }
+
+
+    /**
+     * I return the compiled UPDATE statement of the business entity.
+     *
+     * @param fieldSelector to identify the target table rows in the WHERE clause
+     * @param returning     to return the modified rows with a RETURNING clause
+     * @return cached statement plan
+     */
+    SQLStatementPlan getUpdatePlan(final String fieldSelector, final boolean returning) {
+        return statementPlans.computeIfAbsent((returning ? "UPDATE:RETURNING:" : "UPDATE:") + fieldSelector,
+                key -> SQL.compileUpdateSQL(businessEntity, table, fieldSelector, columnToFieldMapping, returning));
+    }
+
+
+    /**
+     * I return the compiled INSERT ... ON CONFLICT statement of the business entity.
+     *
+     * @param conflictFieldSelector to identify the existing table row with a unique column
+     * @param returning             to return the inserted or updated row with a RETURNING clause
+     * @return cached statement plan
+     */
+    SQLStatementPlan getUpsertPlan(final String conflictFieldSelector, final boolean returning) {
+        return statementPlans.computeIfAbsent((returning ? "UPSERT:RETURNING:" : "UPSERT:") + conflictFieldSelector,
+                key -> SQL.compileUpsertSQL(businessEntity, table, conflictFieldSelector, columnToFieldMapping,
+                        returning));
+    }
+
+
+    /**
+     * I return the compiled DELETE statement of the business entity.
+     *
+     * @param fieldSelector to identify the target table row in the WHERE clause
+     * @return cached statement plan
+     */
+    SQLStatementPlan getDeletePlan(final String fieldSelector) {
+        return statementPlans.computeIfAbsent("DELETE:" + fieldSelector,
+                key -> SQL.compileDeleteSQL(businessEntity, table, fieldSelector, columnToFieldMapping));
+    }
+
+
+    /**
+     * I return the cached row mapper of the business entity.
+     *
+     * @return row mapper shared by the result set handlers
+     */
+    BeanRowMapper<T> getRowMapper() {
+        if (rowMapper == null) {
+            initializeHandlers();
+        }
+        return rowMapper;
+    }
+
+
+    /**
+     * I return the cached result set handler for a single business entity.
+     *
+     * @return handler of the first row
+     */
+    BasicBeanHandler<T> getBeanHandler() {
+        if (beanHandler == null) {
+            initializeHandlers();
+        }
+        return beanHandler;
+    }
+
+
+    /**
+     * I return the cached result set handler for a business entity list.
+     *
+     * @return handler of all rows
+     */
+    BasicBeanListHandler<T> getBeanListHandler() {
+        if (beanListHandler == null) {
+            initializeHandlers();
+        }
+        return beanListHandler;
+    }
+
+
+    /**
+     * I return the cached result set handler for an upserted business entity.
+     *
+     * @return handler of the first row with the inserted flag
+     */
+    BasicUpsertHandler<T> getUpsertHandler() {
+        if (upsertHandler == null) {
+            initializeHandlers();
+        }
+        return upsertHandler;
+    }
+
+
+    private synchronized void initializeHandlers() {
+        if (rowMapper == null) {
+            final BeanRowMapper<T> mapper = new BeanRowMapper<>(businessEntity, columnToFieldMapping);
+            beanHandler = new BasicBeanHandler<>(mapper);
+            beanListHandler = new BasicBeanListHandler<>(mapper);
+            upsertHandler = new BasicUpsertHandler<>(mapper);
+            rowMapper = mapper;
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.commons.dbutils.QueryRunner;
+import org.postgresql.PGStatement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * I´m a {@link QueryRunner}, which measures the hit rate of the statement cache of the PostgreSQL driver.
+ *
+ * The driver caches the statements of each pooled connection by their sql text.
+ * After {@code prepareThreshold} executions on the connection a statement is executed as named server-side
+ * prepared statement, so the database skips the parsing and planning of the statement.
+ * I count these executions as hits and all other executions as misses of the statement cache.
+ *
+ * Only constant sql texts can be cached, e.g. the queries of the data access objects and the
+ * statements of the {@link de.bogenliga.application.common.database.SQLStatementPlan}.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://jdbc.postgresql.org/documentation/head/server-prepare.html">
+ * PostgreSQL JDBC - Server Prepared Statements</a>
+ */
+class MeteredQueryRunner extends QueryRunner {
+
+    static final String STATEMENT_CACHE_METER = "database.statement.cache";
+
+    private final Counter hits;
+    private final Counter misses;
+
+
+    /**
+     * Constructor
+     *
+     * @param meterRegistry to register the hits and misses of the statement cache; null, if not available
+     */
+    MeteredQueryRunner(final MeterRegistry meterRegistry) {
+        this.hits = meterRegistry == null ? null : createCounter(meterRegistry, "hit");
+        this.misses = meterRegistry == null ? null : createCounter(meterRegistry, "miss");
+    }
+
+
+    private static Counter createCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder(STATEMENT_CACHE_METER)
+                .tag("result", result)
+                .description("Number of statement executions with or without server-side prepared statement")
+                .register(meterRegistry);
+    }
+
+
+    @Override
+    protected PreparedStatement prepareStatement(final Connection conn, final String sql) throws SQLException {
+        return record(super.prepareStatement(conn, sql));
+    }
+
+
+    /**
+     * I prepare a forward-only, read-only statement for a server-side cursor.
+     *
+     * The {@link QueryRunner} closes its statements after the execution, so a streamed query
+     * prepares the statement with me and is measured as well.
+     *
+     * @param conn connection of the active transaction
+     * @param sql  query of the cursor
+     * @return prepared statement, which has to be closed by the caller
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepareCursor(final Connection conn, final String sql) throws SQLException {
+        return record(conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+    }
+
+
+    private PreparedStatement record(final PreparedStatement statement) throws SQLException {
+        if (hits != null && statement.isWrapperFor(PGStatement.class)) {
+            // the statement uses the cached server-side prepared statement with the next execution
+            if (statement.unwrap(PGStatement.class).isUseServerPrepare()) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        return statement;
+    }
+}
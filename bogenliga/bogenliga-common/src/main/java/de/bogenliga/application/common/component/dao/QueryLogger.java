@@ -0,0 +1,167 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import de.bogenliga.application.common.configuration.DatabaseConfiguration;
+
+/**
+ * I log the executed sql queries with the logger of the data access object.
+ *
+ * Slow queries are always logged at WARN level.
+ * The other queries are sampled with the configured sample rate and logged at DEBUG level.
+ * The parameters of a query are only logged, if the TRACE level is enabled.
+ *
+ * The messages are formatted as key-value pairs, e.g. {@code duration=12ms sql=SELECT ...}.
+ * A fast query, which is not sampled, is neither formatted nor logged.
+ *
+ * The execution plan of a slow query is logged at most once per explain interval.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class QueryLogger {
+    private static final String QUERY_MESSAGE = "duration={}ms sql={}";
+    private static final String QUERY_PARAMETER_MESSAGE = "duration={}ms sql={} parameter={}";
+    private static final String SLOW_QUERY_MESSAGE = "slow query duration={}ms sql={}";
+    private static final String SLOW_QUERY_PARAMETER_MESSAGE = "slow query duration={}ms sql={} parameter={}";
+    private static final String[] EXPLAINABLE_COMMANDS = {"SELECT", "WITH", "INSERT", "UPDATE", "DELETE"};
+    private static final String QUERY_PLAN_MESSAGE = "slow query sql={} plan=\n{}";
+
+    private final double sampleRate;
+    private final long slowQueryThreshold;
+    private final long explainInterval;
+    private final LongSupplier clock;
+
+
+    /**
+     * Constructor
+     *
+     * @param settings of the query logging
+     */
+    QueryLogger(final DatabaseConfiguration.QueryLogging settings) {
+        this(settings.getSampleRate(), settings.getSlowQueryThreshold(), settings.getExplainInterval(),
+                System::nanoTime);
+    }
+
+
+    /**
+     * @param sampleRate         fraction of the fast queries to log, between 0 and 1
+     * @param slowQueryThreshold minimum duration in milliseconds of a slow query
+     * @param explainInterval    minimum time in milliseconds between two EXPLAIN of a slow query; 0, if disabled
+     * @param clock              current time in nanoseconds
+     */
+    QueryLogger(final double sampleRate, final long slowQueryThreshold, final long explainInterval,
+                final LongSupplier clock) {
+        this.sampleRate = sampleRate;
+        this.slowQueryThreshold = TimeUnit.MILLISECONDS.toNanos(slowQueryThreshold);
+        this.explainInterval = TimeUnit.MILLISECONDS.toNanos(explainInterval);
+        this.clock = clock;
+    }
+
+
+    /**
+     * I return the start time of a query.
+     *
+     * @return start time in nanoseconds
+     */
+    long start() {
+        return clock.getAsLong();
+    }
+
+
+    /**
+     * I return the elapsed time since the start of a query.
+     *
+     * @param start time of {@link #start()}
+     * @return duration in nanoseconds
+     */
+    long elapsed(final long start) {
+        return clock.getAsLong() - start;
+    }
+
+
+    /**
+     * I log the sql query, if it is slow or sampled.
+     *
+     * @param logger    specific {@link DataAccessObject} logger to log the logging message source in the log output
+     * @param start     time of {@link #start()} before the query was executed
+     * @param sql       executed query with ?-parameters
+     * @param parameter of the query; null, if the query has no single parameter list
+     * @return duration of the query in nanoseconds
+     */
+    long log(final Logger logger, final long start, final String sql, final Object[] parameter) {
+        final long duration = elapsed(start);
+
+        if (duration >= slowQueryThreshold) {
+            if (logger.isTraceEnabled() && parameter != null) {
+                logger.warn(SLOW_QUERY_PARAMETER_MESSAGE, toMillis(duration), sql, Arrays.deepToString(parameter));
+            } else {
+                logger.warn(SLOW_QUERY_MESSAGE, toMillis(duration), sql);
+            }
+        } else if (logger.isDebugEnabled() && isSampled()) {
+            if (logger.isTraceEnabled() && parameter != null) {
+                logger.trace(QUERY_PARAMETER_MESSAGE, toMillis(duration), sql, Arrays.deepToString(parameter));
+            } else {
+                logger.debug(QUERY_MESSAGE, toMillis(duration), sql);
+            }
+        }
+        return duration;
+    }
+
+
+    /**
+     * I decide, if the execution plan of the query is logged.
+     *
+     * Only slow queries with a single parameter list are explained, e.g. no batches or COPY commands.
+     *
+     * @param duration  of the query in nanoseconds
+     * @param sql       executed query
+     * @param parameter of the query; null, if the query has no single parameter list
+     * @param statement metrics of the query to limit the EXPLAIN per statement
+     * @return true, if the caller should explain the query
+     */
+    boolean isExplained(final long duration, final String sql, final Object[] parameter,
+                        final StatementMetrics.Statement statement) {
+        return duration >= slowQueryThreshold
+                && explainInterval > 0
+                && parameter != null
+                && isExplainable(sql)
+                && statement.tryExplain(clock.getAsLong(), explainInterval);
+    }
+
+
+    /**
+     * I log the execution plan of a slow query at WARN level.
+     *
+     * @param logger specific {@link DataAccessObject} logger to log the logging message source in the log output
+     * @param sql    explained query
+     * @param plan   lines of the EXPLAIN output
+     */
+    void logPlan(final Logger logger, final String sql, final List<String> plan) {
+        logger.warn(QUERY_PLAN_MESSAGE, sql, String.join("\n", plan));
+    }
+
+
+    private static boolean isExplainable(final String sql) {
+        final String trimmed = sql.trim();
+        for (final String command : EXPLAINABLE_COMMANDS) {
+            if (trimmed.regionMatches(true, 0, command, 0, command.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private boolean isSampled() {
+        return sampleRate >= 1 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
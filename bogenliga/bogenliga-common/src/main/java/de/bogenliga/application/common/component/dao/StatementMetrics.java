@@ -0,0 +1,204 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * I contain the metrics of the sql statements of the data access objects.
+ *
+ * Each statement is identified by the table of the business entity and its normalized sql text.
+ * I publish the following meters with the tags "table" and "statement":
+ * <ul>
+ * <li>{@value #STATEMENT_METER}: latency histogram of the statement executions with the tag "outcome"
+ * (success or error)</li>
+ * <li>{@value #ROWS_METER}: number of selected or modified rows per execution</li>
+ * </ul>
+ * and the time to begin the transaction scope of an operation, including the time to borrow a connection
+ * from the pool, as {@value #CONNECTION_METER} with the tag "table".
+ *
+ * The number of statements is limited to {@value #MAX_STATEMENTS}. Further statements are published with
+ * the statement tag {@value #OTHER_STATEMENTS}. Without {@link MeterRegistry} no meters are published.
+ *
+ * The meters are exposed with the metrics endpoint of the Spring Boot actuator, e.g.
+ * {@code /actuator/metrics/database.statement?tag=table:t_configuration}
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class StatementMetrics {
+    static final String STATEMENT_METER = "database.statement";
+    static final String ROWS_METER = "database.statement.rows";
+    static final String CONNECTION_METER = "database.statement.connection";
+    static final String OTHER_STATEMENTS = "other";
+
+    private static final int MAX_STATEMENTS = 500;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Statement> statements = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> connectionTimers = new ConcurrentHashMap<>();
+
+
+    /**
+     * Constructor
+     *
+     * @param meterRegistry to register the meters; null, if not available
+     */
+    StatementMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    /**
+     * I return the metrics of the given sql statement.
+     *
+     * @param table of the business entity
+     * @param sql   statement with ?-parameters
+     * @return statement metrics
+     */
+    Statement get(final String table, final String sql) {
+        final Statement statement = statements.get(sql);
+        if (statement != null) {
+            return statement;
+        }
+
+        if (statements.size() >= MAX_STATEMENTS) {
+            // the NUL character does not occur in a sql text, so the key cannot collide with a statement
+            return statements.computeIfAbsent(OTHER_STATEMENTS + '\u0000' + table,
+                    key -> new Statement(table, OTHER_STATEMENTS));
+        }
+        return statements.computeIfAbsent(sql, key -> new Statement(table, normalize(sql)));
+    }
+
+
+    /**
+     * I record the time to begin the transaction scope of an operation.
+     *
+     * @param table    of the business entity
+     * @param duration in nanoseconds
+     */
+    void recordConnection(final String table, final long duration) {
+        if (meterRegistry == null) {
+            return;
+        }
+
+        Timer timer = connectionTimers.get(table);
+        if (timer == null) {
+            timer = connectionTimers.computeIfAbsent(table, key -> Timer.builder(CONNECTION_METER)
+                    .tag("table", table)
+                    .description("Time to begin the transaction scope and borrow a connection from the pool")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        timer.record(duration, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * I normalize the sql text for the statement tag.
+     *
+     * The literals are replaced with "?" and the whitespaces are collapsed.
+     *
+     * @param sql statement
+     * @return normalized statement
+     */
+    static String normalize(final String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+
+    /**
+     * I´m the metrics of a single sql statement.
+     */
+    final class Statement {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+        // earliest time in nanoseconds of the next EXPLAIN of the statement
+        private final AtomicLong nextExplain = new AtomicLong(Long.MIN_VALUE);
+
+
+        private Statement(final String table, final String statement) {
+            if (meterRegistry == null) {
+                this.success = null;
+                this.error = null;
+                this.rows = null;
+            } else {
+                this.success = createTimer(table, statement, "success");
+                this.error = createTimer(table, statement, "error");
+                this.rows = DistributionSummary.builder(ROWS_METER)
+                        .tag("table", table)
+                        .tag("statement", statement)
+                        .description("Number of selected or modified rows per sql statement")
+                        .register(meterRegistry);
+            }
+        }
+
+
+        private Timer createTimer(final String table, final String statement, final String outcome) {
+            return Timer.builder(STATEMENT_METER)
+                    .tag("table", table)
+                    .tag("statement", statement)
+                    .tag("outcome", outcome)
+                    .description("Execution time of the sql statement")
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry);
+        }
+
+
+        /**
+         * I record a successful execution.
+         *
+         * @param duration in nanoseconds
+         * @param rowCount number of selected or modified rows; negative, if unknown
+         */
+        void record(final long duration, final long rowCount) {
+            if (success != null) {
+                success.record(duration, TimeUnit.NANOSECONDS);
+                if (rowCount >= 0) {
+                    rows.record(rowCount);
+                }
+            }
+        }
+
+
+        /**
+         * I record a failed execution.
+         *
+         * @param duration in nanoseconds
+         */
+        void recordError(final long duration) {
+            if (error != null) {
+                error.record(duration, TimeUnit.NANOSECONDS);
+            }
+        }
+
+
+        /**
+         * I decide, if the caller explains the statement.
+         *
+         * Each statement is explained at most once per interval, even with concurrent slow executions.
+         *
+         * @param now      current time in nanoseconds
+         * @param interval minimum time in nanoseconds between two EXPLAIN of the statement
+         * @return true, if the caller explains the statement
+         */
+        boolean tryExplain(final long now, final long interval) {
+            final long next = nextExplain.get();
+            return (next == Long.MIN_VALUE || now - next >= 0) && nextExplain.compareAndSet(next, now + interval);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.bogenliga.application.common.component.dao;
+
+/**
+ * I´m the result of an INSERT ... ON CONFLICT DO UPDATE query.
+ *
+ * I contain the persisted business entity and distinguish an inserted from an updated table row.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see BasicDAO#upsertEntity(BusinessEntityConfiguration, Object, String)
+ */
+public final class UpsertResult<T> {
+
+    private final T businessEntity;
+    private final boolean inserted;
+
+
+    /**
+     * Constructor with all parameters
+     *
+     * @param businessEntity persisted business entity
+     * @param inserted       true, if the table row was inserted, false if an existing row was updated
+     */
+    public UpsertResult(final T businessEntity, final boolean inserted) {
+        this.businessEntity = businessEntity;
+        this.inserted = inserted;
+    }
+
+
+    public T getBusinessEntity() {
+        return businessEntity;
+    }
+
+
+    public boolean isInserted() {
+        return inserted;
+    }
+}
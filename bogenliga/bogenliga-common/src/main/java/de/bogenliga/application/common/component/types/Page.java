@@ -0,0 +1,82 @@
+package de.bogenliga.application.common.component.types;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * I´m a single page of a keyset pagination.
+ *
+ * The entries of the page are ordered by a unique key. The next page starts after the key of the last entry,
+ * so every page is requested with an index range scan instead of skipping the previous entries with an OFFSET.
+ *
+ * @param <T> type of the page entries
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://use-the-index-luke.com/no-offset">Use The Index, Luke - Paging Through Results</a>
+ */
+public final class Page<T> {
+
+    private final List<T> content;
+    private final boolean hasNext;
+
+
+    /**
+     * Constructor
+     *
+     * @param content entries of the page
+     * @param hasNext true, if further entries exist after the last entry
+     */
+    public Page(final List<T> content, final boolean hasNext) {
+        this.content = Collections.unmodifiableList(content);
+        this.hasNext = hasNext;
+    }
+
+
+    /**
+     * I create a page of a query result with one more row than the limit.
+     *
+     * The additional row is not part of the page and only indicates the existence of a next page.
+     *
+     * @param rows  of the query with a limit of {@code limit + 1}
+     * @param limit maximum number of entries of the page
+     * @param <T>   type of the page entries
+     * @return page with a maximum of {@code limit} entries
+     */
+    public static <T> Page<T> of(final List<T> rows, final int limit) {
+        if (rows.size() > limit) {
+            return new Page<>(rows.subList(0, limit), true);
+        }
+        return new Page<>(rows, false);
+    }
+
+
+    /**
+     * I convert the entries of the page, e.g. the business entities to value objects.
+     *
+     * @param mapper to convert each entry
+     * @param <R>    type of the converted entries
+     * @return page with the converted entries
+     */
+    public <R> Page<R> map(final Function<? super T, ? extends R> mapper) {
+        return new Page<>(content.stream().map(mapper).collect(Collectors.toList()), hasNext);
+    }
+
+
+    public List<T> getContent() {
+        return content;
+    }
+
+
+    /**
+     * @return last entry of the page as start of the next page; null, if the page is empty
+     */
+    public T getLast() {
+        return content.isEmpty() ? null : content.get(content.size() - 1);
+    }
+
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+}
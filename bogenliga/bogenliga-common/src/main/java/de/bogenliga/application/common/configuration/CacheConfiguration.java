@@ -0,0 +1,40 @@
+package de.bogenliga.application.common.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * I contain the type-safed values of the application properties with the prefix "cache."
+ *
+ * The values configure the in-process caches of the business components.
+ * All durations are defined in milliseconds.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://github.com/ben-manes/caffeine/wiki/Eviction">Caffeine - Eviction</a>
+ */
+@Component
+@ConfigurationProperties("cache")
+public class CacheConfiguration {
+    private long maximumSize = 10_000;
+    private long expireAfterWrite = 60_000;
+
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+
+    public void setMaximumSize(final long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+
+    public long getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+
+    public void setExpireAfterWrite(final long expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
@@ -1,11 +1,21 @@
 package de.bogenliga.application.common.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 /**
  * I contain the type-safed values of the application properties with the prefix "database."
  *
+ * The connection pool is configured with the properties with the prefix "database.pool."
+ * The listener of the database notifications is configured with the properties with the prefix
+ * "database.notification."
+ * The read-only replicas are configured with the properties with the prefix "database.replicas[index]."
+ * and use the database name and credentials of the primary database.
+ * The routing to the replicas is configured with the properties with the prefix "database.replication."
+ * The logging of the executed sql queries is configured with the properties with the prefix "database.queryLogging."
+ *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
  */
 @Component
@@ -16,6 +26,18 @@ public class DatabaseConfiguration {
     private String databaseName;
     private String user;
     private String password;
+    // rewrite batched INSERT statements to multi-row INSERT statements
+    private boolean reWriteBatchedInserts;
+    // executions of a statement on a connection before the driver uses a named server-side prepared statement
+    private int prepareThreshold = 5;
+    // maximum number of cached statements per connection
+    private int preparedStatementCacheQueries = 256;
+    private int preparedStatementCacheSizeMiB = 5;
+    private final Pool pool = new Pool();
+    private final Notification notification = new Notification();
+    private List<Replica> replicas = new ArrayList<>();
+    private final Replication replication = new Replication();
+    private final QueryLogging queryLogging = new QueryLogging();
 
 
     public String getHost() {
@@ -66,4 +88,326 @@ public class DatabaseConfiguration {
     public void setPassword(final String password) {
         this.password = password;
     }
-}
\ No newline at end of file
+
+
+    public boolean isReWriteBatchedInserts() {
+        return reWriteBatchedInserts;
+    }
+
+
+    public void setReWriteBatchedInserts(final boolean reWriteBatchedInserts) {
+        this.reWriteBatchedInserts = reWriteBatchedInserts;
+    }
+
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+
+    public void setPrepareThreshold(final int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+
+    public int getPreparedStatementCacheQueries() {
+        return preparedStatementCacheQueries;
+    }
+
+
+    public void setPreparedStatementCacheQueries(final int preparedStatementCacheQueries) {
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+    }
+
+
+    public int getPreparedStatementCacheSizeMiB() {
+        return preparedStatementCacheSizeMiB;
+    }
+
+
+    public void setPreparedStatementCacheSizeMiB(final int preparedStatementCacheSizeMiB) {
+        this.preparedStatementCacheSizeMiB = preparedStatementCacheSizeMiB;
+    }
+
+
+    public Pool getPool() {
+        return pool;
+    }
+
+
+    public Notification getNotification() {
+        return notification;
+    }
+
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+
+    public void setReplicas(final List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+
+    public Replication getReplication() {
+        return replication;
+    }
+
+
+    public QueryLogging getQueryLogging() {
+        return queryLogging;
+    }
+
+
+    /**
+     * I contain the connection pool settings.
+     *
+     * All durations are defined in milliseconds.
+     *
+     * @see <a href="https://github.com/brettwooldridge/HikariCP#configuration-knobs-baby">
+     * HikariCP - Configuration</a>
+     */
+    public static class Pool {
+        private int minimumIdle = 2;
+        private int maximumPoolSize = 10;
+        private long idleTimeout = 600_000;
+        private long maxLifetime = 1_800_000;
+        private long connectionTimeout = 30_000;
+        private long validationTimeout = 5_000;
+        private String connectionTestQuery;
+        // requests of the non-blocking facades waiting for a connection, further requests are rejected
+        private int requestQueueSize = 100;
+
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+
+        public void setMinimumIdle(final int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+
+        public void setMaximumPoolSize(final int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+
+        public void setIdleTimeout(final long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+
+        public long getMaxLifetime() {
+            return maxLifetime;
+        }
+
+
+        public void setMaxLifetime(final long maxLifetime) {
+            this.maxLifetime = maxLifetime;
+        }
+
+
+        public long getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+
+        public void setConnectionTimeout(final long connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+
+        public long getValidationTimeout() {
+            return validationTimeout;
+        }
+
+
+        public void setValidationTimeout(final long validationTimeout) {
+            this.validationTimeout = validationTimeout;
+        }
+
+
+        public String getConnectionTestQuery() {
+            return connectionTestQuery;
+        }
+
+
+        public void setConnectionTestQuery(final String connectionTestQuery) {
+            this.connectionTestQuery = connectionTestQuery;
+        }
+
+
+        public int getRequestQueueSize() {
+            return requestQueueSize;
+        }
+
+
+        public void setRequestQueueSize(final int requestQueueSize) {
+            this.requestQueueSize = requestQueueSize;
+        }
+    }
+
+
+    /**
+     * I contain the settings of the database notification listener.
+     *
+     * All durations are defined in milliseconds.
+     */
+    public static class Notification {
+        // maximum time to wait for new notifications before the listener checks its state
+        private int pollTimeout = 10_000;
+        // the reconnect delay is doubled after each failed attempt up to the maximum delay
+        private long reconnectDelay = 1_000;
+        private long maxReconnectDelay = 60_000;
+
+
+        public int getPollTimeout() {
+            return pollTimeout;
+        }
+
+
+        public void setPollTimeout(final int pollTimeout) {
+            this.pollTimeout = pollTimeout;
+        }
+
+
+        public long getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+
+        public void setReconnectDelay(final long reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+
+
+        public long getMaxReconnectDelay() {
+            return maxReconnectDelay;
+        }
+
+
+        public void setMaxReconnectDelay(final long maxReconnectDelay) {
+            this.maxReconnectDelay = maxReconnectDelay;
+        }
+    }
+
+
+    /**
+     * I contain the endpoint of a read-only replica.
+     */
+    public static class Replica {
+        private String host;
+        private int port = 5432;
+
+
+        public String getHost() {
+            return host;
+        }
+
+
+        public void setHost(final String host) {
+            this.host = host;
+        }
+
+
+        public int getPort() {
+            return port;
+        }
+
+
+        public void setPort(final int port) {
+            this.port = port;
+        }
+    }
+
+
+    /**
+     * I contain the settings of the routing to the read-only replicas.
+     *
+     * All durations are defined in milliseconds.
+     */
+    public static class Replication {
+        // maximum time to wait for a replica connection before the next replica or the primary is used
+        private long connectionTimeout = 1_000;
+        // a failed replica is skipped for the retry delay, afterwards a single transaction checks the replica
+        private long retryDelay = 10_000;
+
+
+        public long getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+
+        public void setConnectionTimeout(final long connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+
+        public long getRetryDelay() {
+            return retryDelay;
+        }
+
+
+        public void setRetryDelay(final long retryDelay) {
+            this.retryDelay = retryDelay;
+        }
+    }
+
+
+    /**
+     * I contain the settings of the sql query logging.
+     *
+     * All durations are defined in milliseconds.
+     */
+    public static class QueryLogging {
+        // fraction of the fast queries logged at DEBUG level, between 0 (none) and 1 (all)
+        private double sampleRate = 0.01;
+        // queries with at least this duration are always logged at WARN level
+        private long slowQueryThreshold = 500;
+        // minimum time between two EXPLAIN of the same slow query, 0 disables the EXPLAIN
+        private long explainInterval = 60_000;
+
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+
+        public void setSampleRate(final double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+
+        public long getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+
+        public void setSlowQueryThreshold(final long slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
+
+
+        public long getExplainInterval() {
+            return explainInterval;
+        }
+
+
+        public void setExplainInterval(final long explainInterval) {
+            this.explainInterval = explainInterval;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.bogenliga.application.common.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * I contain the type-safed values of the application properties with the prefix "stream."
+ *
+ * The values configure the server-sent event streams of the services.
+ * All durations are defined in milliseconds.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">Server-sent events</a>
+ */
+@Component
+@ConfigurationProperties("stream")
+public class StreamConfiguration {
+    // the client reconnects with the last event id after the timeout
+    private long timeout = 1_800_000;
+    // comment lines keep idle connections open through proxies and detect closed connections
+    private long heartbeatInterval = 30_000;
+    // number of events to resume a stream with the last event id
+    private int historySize = 1_000;
+    // number of pending events of a slow subscriber, before the subscriber is disconnected
+    private int sendQueueSize = 100;
+    // threads sending the events, a blocked send occupies a thread until the client receives data
+    private int senderThreads = 8;
+    // subscribers with pending events waiting for a sender thread, further subscribers are disconnected
+    private int senderQueueSize = 10_000;
+
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+
+    public void setTimeout(final long timeout) {
+        this.timeout = timeout;
+    }
+
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+
+    public void setHeartbeatInterval(final long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+
+    public void setHistorySize(final int historySize) {
+        this.historySize = historySize;
+    }
+
+
+    public int getSendQueueSize() {
+        return sendQueueSize;
+    }
+
+
+    public void setSendQueueSize(final int sendQueueSize) {
+        this.sendQueueSize = sendQueueSize;
+    }
+
+
+    public int getSenderThreads() {
+        return senderThreads;
+    }
+
+
+    public void setSenderThreads(final int senderThreads) {
+        this.senderThreads = senderThreads;
+    }
+
+
+    public int getSenderQueueSize() {
+        return senderQueueSize;
+    }
+
+
+    public void setSenderQueueSize(final int senderQueueSize) {
+        this.senderQueueSize = senderQueueSize;
+    }
+}
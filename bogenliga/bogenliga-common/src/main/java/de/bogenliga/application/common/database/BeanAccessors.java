@@ -0,0 +1,184 @@
+package de.bogenliga.application.common.database;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+
+/**
+ * I compile the getter, setter and constructors of business entities to functional accessors.
+ *
+ * The accessors are generated once with the {@link LambdaMetafactory} and can be invoked without reflection.
+ * If the accessor cannot be generated, e.g. the method is not accessible, a reflection based accessor is used.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://www.optaplanner.org/blog/2018/01/09/JavaReflectionButMuchFaster.html">
+ * Java Reflection, but much faster</a>
+ */
+public final class BeanAccessors {
+    private static final Logger LOG = LoggerFactory.getLogger(BeanAccessors.class);
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_TO_WRAPPER = new HashMap<>();
+
+
+    static {
+        PRIMITIVE_TO_WRAPPER.put(boolean.class, Boolean.class);
+        PRIMITIVE_TO_WRAPPER.put(byte.class, Byte.class);
+        PRIMITIVE_TO_WRAPPER.put(char.class, Character.class);
+        PRIMITIVE_TO_WRAPPER.put(short.class, Short.class);
+        PRIMITIVE_TO_WRAPPER.put(int.class, Integer.class);
+        PRIMITIVE_TO_WRAPPER.put(long.class, Long.class);
+        PRIMITIVE_TO_WRAPPER.put(float.class, Float.class);
+        PRIMITIVE_TO_WRAPPER.put(double.class, Double.class);
+    }
+
+
+    /**
+     * Private constructor
+     */
+    private BeanAccessors() {
+        // empty private constructor
+    }
+
+
+    /**
+     * I compile the getter method to a function.
+     *
+     * @param getter without parameter
+     * @return function which invokes the getter on the given bean and returns the (boxed) value
+     */
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> getter(final Method getter) {
+        if (!isVisible(getter.getDeclaringClass())) {
+            return bean -> invoke(getter, bean);
+        }
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle getterHandle = lookup.unreflect(getter);
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getterHandle,
+                    MethodType.methodType(wrap(getter.getReturnType()), getter.getDeclaringClass()));
+
+            return (Function<Object, Object>) callSite.getTarget().invokeExact();
+
+        } catch (final Throwable e) { // NOSONAR invokeExact() declares Throwable
+            LOG.debug("Use reflection to access {}: {}", getter, e.getMessage());
+            return bean -> invoke(getter, bean);
+        }
+    }
+
+
+    /**
+     * I compile the setter method to a bi-consumer.
+     *
+     * @param setter with a single parameter
+     * @return consumer which invokes the setter on the given bean with the given (boxed) value
+     */
+    @SuppressWarnings("unchecked")
+    public static BiConsumer<Object, Object> setter(final Method setter) {
+        if (!isVisible(setter.getDeclaringClass())) {
+            return (bean, value) -> invoke(setter, bean, value);
+        }
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle setterHandle = lookup.unreflect(setter);
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    setterHandle,
+                    MethodType.methodType(void.class, setter.getDeclaringClass(),
+                            wrap(setter.getParameterTypes()[0])));
+
+            return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+
+        } catch (final Throwable e) { // NOSONAR invokeExact() declares Throwable
+            LOG.debug("Use reflection to access {}: {}", setter, e.getMessage());
+            return (bean, value) -> invoke(setter, bean, value);
+        }
+    }
+
+
+    /**
+     * I compile the default constructor to a supplier.
+     *
+     * @param constructor without parameter
+     * @return supplier which creates a new instance
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> constructor(final Constructor<T> constructor) {
+        if (!isVisible(constructor.getDeclaringClass())) {
+            return () -> newInstance(constructor);
+        }
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle constructorHandle = lookup.unreflectConstructor(constructor);
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructorHandle,
+                    MethodType.methodType(constructor.getDeclaringClass()));
+
+            return (Supplier<T>) callSite.getTarget().invokeExact();
+
+        } catch (final Throwable e) { // NOSONAR invokeExact() declares Throwable
+            LOG.debug("Use reflection to access {}: {}", constructor, e.getMessage());
+            return () -> newInstance(constructor);
+        }
+    }
+
+
+    private static Object invoke(final Method method, final Object bean, final Object... args) {
+        try {
+            return method.invoke(bean, args);
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        }
+    }
+
+
+    private static <T> T newInstance(final Constructor<T> constructor) {
+        try {
+            return constructor.newInstance();
+        } catch (final InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        }
+    }
+
+
+    /**
+     * The generated accessors are defined in my class loader and can only link classes visible to it.
+     */
+    private static boolean isVisible(final Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, BeanAccessors.class.getClassLoader()) == type;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+
+    static Class<?> wrap(final Class<?> type) {
+        return type.isPrimitive() ? PRIMITIVE_TO_WRAPPER.get(type) : type;
+    }
+}
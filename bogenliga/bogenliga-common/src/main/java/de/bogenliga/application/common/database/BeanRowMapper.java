@@ -0,0 +1,318 @@
+package de.bogenliga.application.common.database;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import de.bogenliga.application.common.errorhandling.ErrorCode;
+import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+
+/**
+ * I map the rows of a {@link ResultSet} to instances of a business entity class.
+ *
+ * I replace the commons-dbutils {@link org.apache.commons.dbutils.BeanProcessor}.
+ * The bean properties are introspected once and the setters are compiled to functional accessors
+ * with the {@link BeanAccessors}.
+ * The column indexes are resolved once for each result set shape (ordered column labels)
+ * and cached as a {@link Binding}, so mapping a row only reads the columns and invokes the setters.
+ *
+ * The column labels are mapped to the bean properties like the {@link org.apache.commons.dbutils.BeanProcessor}:
+ * The {@code columnToFieldMapping} overrides the property name of a column,
+ * the property names are compared case insensitive and unmapped columns are ignored.
+ *
+ * I´m thread-safe and should be cached for each business entity configuration.
+ *
+ * @param <T> business entity class
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public final class BeanRowMapper<T> {
+
+    private static final Map<Class<?>, ColumnReader> COLUMN_READERS = createColumnReaders();
+
+    private final Class<T> businessEntityClass;
+    private final Supplier<T> constructor;
+    private final Map<String, String> columnToFieldMapping;
+    private final Map<String, Property> properties;
+
+    private final ConcurrentMap<List<String>, Binding<T>> bindings = new ConcurrentHashMap<>();
+
+
+    /**
+     * Constructor
+     *
+     * @param businessEntityClass  with a public default constructor and public setters
+     * @param columnToFieldMapping to map custom column names
+     */
+    public BeanRowMapper(final Class<T> businessEntityClass, final Map<String, String> columnToFieldMapping) {
+        this.businessEntityClass = businessEntityClass;
+        this.columnToFieldMapping = columnToFieldMapping == null
+                ? Collections.emptyMap() : new HashMap<>(columnToFieldMapping);
+
+        try {
+            this.constructor = BeanAccessors.constructor(businessEntityClass.getConstructor());
+        } catch (final NoSuchMethodException e) {
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        }
+
+        this.properties = introspect(businessEntityClass);
+    }
+
+
+    /**
+     * I map the current row of the result set.
+     *
+     * Use {@link #bind(ResultSet)} to map multiple rows of the same result set.
+     *
+     * @param rs positioned on a row
+     * @return new business entity instance
+     * @throws SQLException if a column cannot be read or converted
+     */
+    public T toBean(final ResultSet rs) throws SQLException {
+        return bind(rs).toBean(rs);
+    }
+
+
+    /**
+     * I map all remaining rows of the result set.
+     *
+     * @param rs not yet positioned result set
+     * @return list of new business entity instances
+     * @throws SQLException if a column cannot be read or converted
+     */
+    public List<T> toBeanList(final ResultSet rs) throws SQLException {
+        final List<T> results = new ArrayList<>();
+
+        if (!rs.next()) {
+            return results;
+        }
+
+        final Binding<T> binding = bind(rs);
+        do {
+            results.add(binding.toBean(rs));
+        } while (rs.next());
+
+        return results;
+    }
+
+
+    /**
+     * I return the column binding for the shape of the result set.
+     *
+     * @param rs to read the column labels from the {@link ResultSetMetaData}
+     * @return cached binding
+     * @throws SQLException if the result set metadata cannot be read
+     */
+    public Binding<T> bind(final ResultSet rs) throws SQLException {
+        final ResultSetMetaData metaData = rs.getMetaData();
+        final int columnCount = metaData.getColumnCount();
+        final String[] columnLabels = new String[columnCount];
+
+        for (int column = 1; column <= columnCount; column++) {
+            String columnLabel = metaData.getColumnLabel(column);
+            if (columnLabel == null || columnLabel.isEmpty()) {
+                columnLabel = metaData.getColumnName(column);
+            }
+            columnLabels[column - 1] = columnLabel;
+        }
+
+        return bindings.computeIfAbsent(Arrays.asList(columnLabels), this::createBinding);
+    }
+
+
+    private Binding<T> createBinding(final List<String> columnLabels) {
+        final List<Integer> columnIndexes = new ArrayList<>();
+        final List<Property> columnProperties = new ArrayList<>();
+
+        for (int i = 0; i < columnLabels.size(); i++) {
+            final String columnLabel = columnLabels.get(i);
+            final String propertyName = columnToFieldMapping.getOrDefault(columnLabel, columnLabel);
+            final Property property = columnLabel == null
+                    ? null : properties.get(propertyName.toLowerCase());
+
+            if (property != null) {
+                columnIndexes.add(i + 1);
+                columnProperties.add(property);
+            }
+        }
+
+        return new Binding<>(constructor, columnIndexes, columnProperties);
+    }
+
+
+    private static Map<String, Property> introspect(final Class<?> businessEntityClass) {
+        final BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(businessEntityClass);
+        } catch (final IntrospectionException e) {
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+        }
+
+        final Map<String, Property> properties = new HashMap<>();
+        for (final PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            final Method writeMethod = descriptor.getWriteMethod();
+
+            if (writeMethod != null) {
+                properties.putIfAbsent(descriptor.getName().toLowerCase(),
+                        new Property(descriptor.getName(), descriptor.getPropertyType(),
+                                BeanAccessors.setter(writeMethod)));
+            }
+        }
+        return properties;
+    }
+
+
+    @Override
+    public String toString() {
+        return "BeanRowMapper{" +
+                "businessEntityClass=" + businessEntityClass.getName() +
+                ", bindings=" + bindings.size() +
+                '}';
+    }
+
+
+    /**
+     * I´m the resolved mapping of a result set shape.
+     *
+     * I contain the column index, the typed column reader and the compiled setter of each mapped column.
+     *
+     * @param <T> business entity class
+     */
+    public static final class Binding<T> {
+        private final Supplier<T> constructor;
+        private final int[] columnIndexes;
+        private final Property[] properties;
+
+
+        Binding(final Supplier<T> constructor, final List<Integer> columnIndexes,
+                final List<Property> properties) {
+            this.constructor = constructor;
+            this.columnIndexes = columnIndexes.stream().mapToInt(Integer::intValue).toArray();
+            this.properties = properties.toArray(new Property[0]);
+        }
+
+
+        /**
+         * I map the current row of the result set.
+         *
+         * @param rs positioned on a row with the bound shape
+         * @return new business entity instance
+         * @throws SQLException if a column cannot be read or converted
+         */
+        public T toBean(final ResultSet rs) throws SQLException {
+            final T bean = constructor.get();
+
+            for (int i = 0; i < columnIndexes.length; i++) {
+                properties[i].write(bean, rs, columnIndexes[i]);
+            }
+
+            return bean;
+        }
+    }
+
+
+    /**
+     * I´m a writable bean property with the column reader for the property type.
+     */
+    private static final class Property {
+        private final String name;
+        private final Class<?> type;
+        private final boolean primitive;
+        private final ColumnReader reader;
+        private final BiConsumer<Object, Object> setter;
+
+
+        Property(final String name, final Class<?> type, final BiConsumer<Object, Object> setter) {
+            this.name = name;
+            this.type = BeanAccessors.wrap(type);
+            this.primitive = type.isPrimitive();
+            this.reader = COLUMN_READERS.getOrDefault(this.type, ResultSet::getObject);
+            this.setter = setter;
+        }
+
+
+        void write(final Object bean, final ResultSet rs, final int columnIndex) throws SQLException {
+            final Object value = convert(reader.read(rs, columnIndex));
+
+            // keep the default value of primitive properties for NULL columns
+            if (value == null && primitive) {
+                return;
+            }
+
+            setter.accept(bean, value);
+        }
+
+
+        @SuppressWarnings("unchecked")
+        private Object convert(final Object value) throws SQLException {
+            if (value == null || type.isInstance(value)) {
+                return value;
+
+            } else if (value instanceof java.util.Date) {
+                final long time = ((java.util.Date) value).getTime();
+
+                if (type == java.sql.Date.class) {
+                    return new java.sql.Date(time);
+                } else if (type == java.sql.Time.class) {
+                    return new java.sql.Time(time);
+                } else if (type == Timestamp.class) {
+                    return new Timestamp(time);
+                }
+
+            } else if (value instanceof String && type.isEnum()) {
+                return Enum.valueOf(type.asSubclass(Enum.class), (String) value);
+            }
+
+            throw new SQLException(String.format("Cannot set %s: incompatible types, cannot convert %s to %s",
+                    name, value.getClass().getName(), type.getName()));
+        }
+    }
+
+
+    /**
+     * I read a column value with the typed {@link ResultSet} getter.
+     */
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet rs, int columnIndex) throws SQLException;
+    }
+
+
+    private static ColumnReader nullable(final ColumnReader reader) {
+        return (rs, columnIndex) -> {
+            final Object value = reader.read(rs, columnIndex);
+            return rs.wasNull() ? null : value;
+        };
+    }
+
+
+    private static Map<Class<?>, ColumnReader> createColumnReaders() {
+        final Map<Class<?>, ColumnReader> readers = new HashMap<>();
+        readers.put(String.class, ResultSet::getString);
+        readers.put(Integer.class, nullable(ResultSet::getInt));
+        readers.put(Boolean.class, nullable(ResultSet::getBoolean));
+        readers.put(Long.class, nullable(ResultSet::getLong));
+        readers.put(Double.class, nullable(ResultSet::getDouble));
+        readers.put(Float.class, nullable(ResultSet::getFloat));
+        readers.put(Short.class, nullable(ResultSet::getShort));
+        readers.put(Byte.class, nullable(ResultSet::getByte));
+        readers.put(Timestamp.class, ResultSet::getTimestamp);
+        readers.put(SQLXML.class, ResultSet::getSQLXML);
+        return Collections.unmodifiableMap(readers);
+    }
+}
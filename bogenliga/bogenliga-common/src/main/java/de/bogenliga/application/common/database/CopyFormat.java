@@ -0,0 +1,36 @@
+package de.bogenliga.application.common.database;
+
+/**
+ * I define the supported data formats of the PostgreSQL COPY command.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://www.postgresql.org/docs/current/sql-copy.html">PostgreSQL - COPY</a>
+ */
+public enum CopyFormat {
+    /**
+     * Comma separated values with a header line
+     */
+    CSV("(FORMAT csv, HEADER true)"),
+    /**
+     * PostgreSQL binary format, only readable by PostgreSQL
+     */
+    BINARY("(FORMAT binary)");
+
+    private final String options;
+
+
+    /**
+     * Constructor
+     */
+    CopyFormat(final String options) {
+        this.options = options;
+    }
+
+
+    /**
+     * @return option list of the COPY command
+     */
+    public String getOptions() {
+        return options;
+    }
+}
@@ -1,24 +1,42 @@
 package de.bogenliga.application.common.database;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import de.bogenliga.application.common.errorhandling.ErrorCode;
 import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+import de.bogenliga.application.common.validation.Preconditions;
 
 /**
  * Helper-Klasse um fuer komplexe SQL Spalten-Eindeutigkeit herzustellen, indem
  * jeder Spalte der zugehoerige Tabellenname mit _ vorangestellt wird.
  *
+ * Die Statements werden als {@link SQLStatementPlan} kompiliert. Ein Plan wird einmal pro Klasse erstellt
+ * und ermittelt fuer jedes Objekt nur noch die Parameterwerte.
+ *
  * @author Alexander Jost
  */
 public final class SQL {
 
+    // compiled statements of the object based methods
+    private static final ConcurrentMap<PlanKey, SQLStatementPlan> PLANS = new ConcurrentHashMap<>();
+    // PostgreSQL returns the modified rows with the statement
+    private static final String RETURNING_ALL = " RETURNING *";
+    /**
+     * Spalte eines UPSERT mit RETURNING, die true enthaelt, wenn die Zeile eingefuegt und nicht aktualisiert wurde
+     */
+    public static final String INSERTED_COLUMN = "inserted";
+    // a new row version without a deleting transaction was inserted by the statement
+    private static final String RETURNING_ALL_WITH_INSERTED = RETURNING_ALL + ", (xmax = 0) AS " + INSERTED_COLUMN;
+
 
     /**
      * Baut ein INSERT INTO table_name (column1, column2, column3,...) VALUES (?, ?, ?,...); aus dem uebergebenen
@@ -51,40 +69,34 @@ public final class SQL {
      */
     public static SQLWithParameter insertSQL(final Object insertObj, final String tableName,
                                              final Map<String, String> columnToFieldMapping) {
-        final SQLWithParameter sqlWithParameter = new SQL().new SQLWithParameter();
-        final StringBuilder sql = new StringBuilder();
-        final StringBuilder values = new StringBuilder();
-        final List<Object> para = new ArrayList<>();
-
-        sql.append("INSERT INTO ");
-        values.append(") VALUES (");
-
-        try {
-            final String tName = insertObj.getClass().getSimpleName();
-
-            if (tableName != null) {
-                sql.append(tableName);
-            } else {
-                sql.append(tName);
-            }
-
-            sql.append(" (");
-            final Field[] fields = insertObj.getClass().getDeclaredFields();
+        return insertSQL(insertObj, tableName, columnToFieldMapping, false);
+    }
 
-            appendFieldsToInsertStatement(insertObj, columnToFieldMapping, sql, values, para, fields);
 
-        } catch (final SecurityException | IllegalArgumentException | NoSuchMethodException | IllegalAccessException
-                | InvocationTargetException e) {
-            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+    /**
+     * Baut ein INSERT INTO {table_name} ({column1}, {column2}, {column3},...) VALUES (?, ?, ?,...);
+     * aus dem uebergebenen Object, optional mit RETURNING *.
+     *
+     * Mit {@code returning} liefert das Statement die eingefuegte Zeile als Ergebnis, so dass die Zeile
+     * ohne weitere Abfrage gelesen werden kann.
+     *
+     * @param insertObj            Object, fuer das das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für das Object
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter
+     * @param returning            true, um die eingefuegte Zeile zurueckzugeben
+     * @return INSERT SQL und zugehoerige Parameterliste
+     */
+    public static SQLWithParameter insertSQL(final Object insertObj, final String tableName,
+                                             final Map<String, String> columnToFieldMapping,
+                                             final boolean returning) {
+        final PlanKey key = new PlanKey(statement("INSERT", returning), insertObj.getClass(), tableName, null,
+                columnToFieldMapping);
+        SQLStatementPlan plan = PLANS.get(key);
+        if (plan == null) {
+            plan = compileInsertSQL(insertObj.getClass(), tableName, columnToFieldMapping, returning);
+            PLANS.putIfAbsent(key.copy(), plan);
         }
-
-        sql.append(values);
-        sql.append(");");
-
-        sqlWithParameter.setSql(sql.toString());
-        sqlWithParameter.setParameter(para.toArray());
-
-        return sqlWithParameter;
+        return plan.bind(insertObj);
     }
 
 
@@ -122,43 +134,37 @@ public final class SQL {
     public static SQLWithParameter updateSQL(final Object updateObj, final String tableName,
                                              final String fieldSelector,
                                              final Map<String, String> columnToFieldMapping) {
-        final SQLWithParameter sqlWithParameter = new SQL().new SQLWithParameter();
-        final StringBuilder sql = new StringBuilder();
-        final List<Object> para = new ArrayList<>();
-        final Object idValue;
-        sql.append("UPDATE ");
-
-        try {
-            final String tName = updateObj.getClass().getSimpleName();
-
-            if (tableName != null) {
-                sql.append(tableName);
-            } else {
-                sql.append(tName);
-            }
+        return updateSQL(updateObj, tableName, fieldSelector, columnToFieldMapping, false);
+    }
 
-            sql.append(" SET ");
-            final Field[] fields = updateObj.getClass().getDeclaredFields();
 
-            idValue = appendFieldsToUpdateStatement(updateObj, fieldSelector, columnToFieldMapping, sql, para, fields);
-        } catch (final SecurityException | IllegalArgumentException | NoSuchMethodException | IllegalAccessException
-                | InvocationTargetException e) {
-            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
-        }
-
-        sql.append(" WHERE ");
-        if (fieldSelector != null) {
-            sql.append(resolveColumName(fieldSelector, columnToFieldMapping));
-        } else {
-            sql.append("id");
+    /**
+     * Baut ein UPDATE {table_name} SET {column1}=?, {column2}=?, {column3}=?, ...) WHERE {fieldSelector} = ?;
+     * aus dem uebergebenen Object, optional mit RETURNING *.
+     *
+     * Mit {@code returning} liefert das Statement die geaenderten Zeilen als Ergebnis. Die Anzahl der Zeilen
+     * entspricht der Anzahl der geaenderten Zeilen.
+     *
+     * @param updateObj            Object, fuer das das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für das Object
+     * @param fieldSelector        Definiert den Identifier fuer die betroffene Zeile
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter
+     * @param returning            true, um die geaenderten Zeilen zurueckzugeben
+     * @return UPDATE SQL und zugehoerige Parameterliste
+     */
+    public static SQLWithParameter updateSQL(final Object updateObj, final String tableName,
+                                             final String fieldSelector,
+                                             final Map<String, String> columnToFieldMapping,
+                                             final boolean returning) {
+        final PlanKey key = new PlanKey(statement("UPDATE", returning), updateObj.getClass(), tableName,
+                fieldSelector, columnToFieldMapping);
+        SQLStatementPlan plan = PLANS.get(key);
+        if (plan == null) {
+            plan = compileUpdateSQL(updateObj.getClass(), tableName, fieldSelector, columnToFieldMapping,
+                    returning);
+            PLANS.putIfAbsent(key.copy(), plan);
         }
-        sql.append(" = ?;");
-        para.add(idValue);
-
-        sqlWithParameter.setSql(sql.toString());
-        sqlWithParameter.setParameter(para.toArray());
-
-        return sqlWithParameter;
+        return plan.bind(updateObj);
     }
 
 
@@ -194,43 +200,349 @@ public final class SQL {
     public static SQLWithParameter deleteSQL(final Object updateObj, final String tableName,
                                              final String fieldSelector,
                                              final Map<String, String> columnToFieldMapping) {
-        final SQLWithParameter sqlWithParameter = new SQL().new SQLWithParameter();
+        return deleteSQL(updateObj, tableName, fieldSelector, columnToFieldMapping, false);
+    }
+
+
+    /**
+     * Baut ein DELETE FROM {table_name} WHERE {fieldSelector} = ?; aus dem uebergebenen Object,
+     * optional mit RETURNING *.
+     *
+     * Mit {@code returning} liefert das Statement die geloeschten Zeilen als Ergebnis.
+     *
+     * @param updateObj            Object, fuer das das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für das Object
+     * @param fieldSelector        Definiert den Identifier fuer die betroffene Zeile
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter.
+     *                             Auch der {@code fieldSelector} wird mit diesem Mapping konvertiert.
+     * @param returning            true, um die geloeschten Zeilen zurueckzugeben
+     * @return DELETE SQL und zugehoerige Parameterliste
+     */
+    public static SQLWithParameter deleteSQL(final Object updateObj, final String tableName,
+                                             final String fieldSelector,
+                                             final Map<String, String> columnToFieldMapping,
+                                             final boolean returning) {
+        final PlanKey key = new PlanKey(statement("DELETE", returning), updateObj.getClass(), tableName,
+                fieldSelector, columnToFieldMapping);
+        SQLStatementPlan plan = PLANS.get(key);
+        if (plan == null) {
+            plan = compileDeleteSQL(updateObj.getClass(), tableName, fieldSelector, columnToFieldMapping,
+                    returning);
+            PLANS.putIfAbsent(key.copy(), plan);
+        }
+        return plan.bind(updateObj);
+    }
+
+
+    /**
+     * Baut ein INSERT INTO {table_name} ({column1}, {column2}, ...) VALUES (?, ?, ...)
+     * ON CONFLICT ({conflictColumn}) DO UPDATE SET ...; aus dem uebergebenen Object, optional mit RETURNING *.
+     *
+     * @param upsertObj             Object, fuer das das Statement gebaut wird
+     * @param tableName             Definiert den Tabellennamen für das Object
+     * @param conflictFieldSelector Definiert das Feld, dessen Spalte den Konflikt erkennt
+     * @param columnToFieldMapping  Definiert die Spaltennamen für die Object Parameter
+     * @param returning             true, um die eingefuegte oder aktualisierte Zeile zurueckzugeben
+     * @return UPSERT SQL und zugehoerige Parameterliste
+     * @see #compileUpsertSQL(Class, String, String, Map, boolean)
+     */
+    public static SQLWithParameter upsertSQL(final Object upsertObj, final String tableName,
+                                             final String conflictFieldSelector,
+                                             final Map<String, String> columnToFieldMapping,
+                                             final boolean returning) {
+        final PlanKey key = new PlanKey(statement("UPSERT", returning), upsertObj.getClass(), tableName,
+                conflictFieldSelector, columnToFieldMapping);
+        SQLStatementPlan plan = PLANS.get(key);
+        if (plan == null) {
+            plan = compileUpsertSQL(upsertObj.getClass(), tableName, conflictFieldSelector, columnToFieldMapping,
+                    returning);
+            PLANS.putIfAbsent(key.copy(), plan);
+        }
+        return plan.bind(upsertObj);
+    }
+
+
+    /**
+     * Kompiliert ein INSERT INTO {table_name} ({column1}, {column2}, ...) VALUES (?, ?, ...);
+     * fuer die uebergebene Klasse.
+     *
+     * Der SQL-Text und die Getter fuer die ?-Parameter werden nur einmal ermittelt.
+     * Der Plan kann fuer beliebig viele Objekte der Klasse wiederverwendet werden.
+     *
+     * @param entityClass          Klasse, fuer die das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für die Klasse
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter
+     * @return kompiliertes INSERT SQL
+     */
+    public static SQLStatementPlan compileInsertSQL(final Class<?> entityClass, final String tableName,
+                                                    final Map<String, String> columnToFieldMapping) {
+        return compileInsertSQL(entityClass, tableName, columnToFieldMapping, false);
+    }
+
+
+    /**
+     * Kompiliert ein INSERT INTO {table_name} ({column1}, {column2}, ...) VALUES (?, ?, ...);
+     * fuer die uebergebene Klasse, optional mit RETURNING *.
+     *
+     * @param entityClass          Klasse, fuer die das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für die Klasse
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter
+     * @param returning            true, um die eingefuegte Zeile zurueckzugeben
+     * @return kompiliertes INSERT SQL
+     */
+    public static SQLStatementPlan compileInsertSQL(final Class<?> entityClass, final String tableName,
+                                                    final Map<String, String> columnToFieldMapping,
+                                                    final boolean returning) {
+        return compileInsert(entityClass, tableName, null, columnToFieldMapping, returning);
+    }
+
+
+    /**
+     * Kompiliert ein INSERT INTO {table_name} ({column1}, {column2}, ...) VALUES (?, ?, ...)
+     * ON CONFLICT ({conflictColumn}) DO UPDATE SET {column1} = EXCLUDED.{column1}, ...;
+     * fuer die uebergebene Klasse, optional mit RETURNING *.
+     *
+     * Existiert bereits eine Zeile mit dem Wert des {@code conflictFieldSelector}, wird diese Zeile mit allen
+     * anderen Spalten aktualisiert. Sonst wird eine neue Zeile eingefuegt. Beides erfolgt atomar in einem
+     * Statement. Die Spalte des {@code conflictFieldSelector} benoetigt einen Unique-Index oder Primary Key.
+     *
+     * Mit {@code returning} liefert das Statement die eingefuegte oder aktualisierte Zeile in jedem Fall.
+     * Die zusaetzliche Spalte {@link #INSERTED_COLUMN} unterscheidet eine eingefuegte von einer aktualisierten Zeile.
+     *
+     * @param entityClass           Klasse, fuer die das Statement gebaut wird
+     * @param tableName             Definiert den Tabellennamen für die Klasse
+     * @param conflictFieldSelector Definiert das Feld, dessen Spalte den Konflikt erkennt
+     * @param columnToFieldMapping  Definiert die Spaltennamen für die Object Parameter.
+     *                              Auch der {@code conflictFieldSelector} wird mit diesem Mapping konvertiert.
+     * @param returning             true, um die eingefuegte oder aktualisierte Zeile zurueckzugeben
+     * @return kompiliertes UPSERT SQL
+     */
+    public static SQLStatementPlan compileUpsertSQL(final Class<?> entityClass, final String tableName,
+                                                    final String conflictFieldSelector,
+                                                    final Map<String, String> columnToFieldMapping,
+                                                    final boolean returning) {
+        Preconditions.checkNotNullOrEmpty(conflictFieldSelector, "Conflict field selector must not be null or empty");
+        return compileInsert(entityClass, tableName, conflictFieldSelector, columnToFieldMapping, returning);
+    }
+
+
+    private static SQLStatementPlan compileInsert(final Class<?> entityClass, final String tableName,
+                                                  final String conflictFieldSelector,
+                                                  final Map<String, String> columnToFieldMapping,
+                                                  final boolean returning) {
+        final Map<String, String> fieldToColumnMapping = invert(columnToFieldMapping);
         final StringBuilder sql = new StringBuilder();
-        final List<Object> para = new ArrayList<>();
-        final Object idValue;
+        final StringBuilder values = new StringBuilder();
+        final List<String> columns = new ArrayList<>();
+        final List<SQLStatementPlan.ParameterAccessor> accessors = new ArrayList<>();
 
-        sql.append("DELETE FROM ");
+        sql.append("INSERT INTO ").append(resolveTableName(entityClass, tableName)).append(" (");
+        values.append(") VALUES (");
 
-        try {
-            final String tName = updateObj.getClass().getSimpleName();
+        for (final Field field : getMappableFields(entityClass)) {
+            // resolve getter for all mappable fields
+            final SQLStatementPlan.ParameterAccessor accessor = compileAccessor(entityClass, field, true);
 
-            if (tableName != null) {
-                sql.append(tableName);
-            } else {
-                sql.append(tName);
+            if (field.getName().equals("id")) {
+                continue;
             }
 
-            final Field[] fields = updateObj.getClass().getDeclaredFields();
+            if (!columns.isEmpty()) {
+                sql.append(", ");
+                values.append(", ");
+            }
 
-            idValue = appendFieldsToDeleteStatement(updateObj, fieldSelector, fields);
-        } catch (final SecurityException | IllegalArgumentException | NoSuchMethodException | IllegalAccessException
-                | InvocationTargetException e) {
-            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
+            final String columnName = resolveColumName(field.getName(), fieldToColumnMapping);
+
+            sql.append(columnName);
+            values.append("?");
+            columns.add(columnName);
+            accessors.add(accessor);
         }
 
-        sql.append(" WHERE ");
-        if (fieldSelector != null) {
-            sql.append(resolveColumName(fieldSelector, columnToFieldMapping));
+        sql.append(values);
+        sql.append(")");
+
+        String conflictColumn = null;
+        if (conflictFieldSelector != null) {
+            conflictColumn = resolveColumName(conflictFieldSelector, fieldToColumnMapping);
+            final StringBuilder updateColumns = new StringBuilder();
+            for (final String column : columns) {
+                if (!column.equals(conflictColumn)) {
+                    updateColumns.append(updateColumns.length() == 0 ? "" : ", ")
+                            .append(column).append(" = EXCLUDED.").append(column);
+                }
+            }
+            // DO NOTHING would not return the existing row, so update the conflict column itself
+            if (updateColumns.length() == 0) {
+                updateColumns.append(conflictColumn).append(" = EXCLUDED.").append(conflictColumn);
+            }
+            sql.append(" ON CONFLICT (").append(conflictColumn).append(") DO UPDATE SET ").append(updateColumns);
+
+            if (returning) {
+                sql.append(RETURNING_ALL_WITH_INSERTED);
+            }
+            sql.append(";");
         } else {
-            sql.append("id");
+            end(sql, returning);
         }
-        sql.append(" = ?;");
-        para.add(idValue);
 
-        sqlWithParameter.setSql(sql.toString());
-        sqlWithParameter.setParameter(para.toArray());
+        return new SQLStatementPlan(sql.toString(), columns, accessors, conflictColumn);
+    }
 
-        return sqlWithParameter;
+
+    /**
+     * Kompiliert ein UPDATE {table_name} SET {column1}=?, {column2}=?, ... WHERE {fieldSelector} = ?;
+     * fuer die uebergebene Klasse.
+     *
+     * Der SQL-Text und die Getter fuer die ?-Parameter werden nur einmal ermittelt.
+     * Der Plan kann fuer beliebig viele Objekte der Klasse wiederverwendet werden.
+     *
+     * @param entityClass          Klasse, fuer die das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für die Klasse
+     * @param fieldSelector        Definiert den Identifier fuer die betroffene Zeile
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter
+     * @return kompiliertes UPDATE SQL
+     */
+    public static SQLStatementPlan compileUpdateSQL(final Class<?> entityClass, final String tableName,
+                                                    final String fieldSelector,
+                                                    final Map<String, String> columnToFieldMapping) {
+        return compileUpdateSQL(entityClass, tableName, fieldSelector, columnToFieldMapping, false);
+    }
+
+
+    /**
+     * Kompiliert ein UPDATE {table_name} SET {column1}=?, {column2}=?, ... WHERE {fieldSelector} = ?;
+     * fuer die uebergebene Klasse, optional mit RETURNING *.
+     *
+     * @param entityClass          Klasse, fuer die das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für die Klasse
+     * @param fieldSelector        Definiert den Identifier fuer die betroffene Zeile
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter
+     * @param returning            true, um die geaenderten Zeilen zurueckzugeben
+     * @return kompiliertes UPDATE SQL
+     */
+    public static SQLStatementPlan compileUpdateSQL(final Class<?> entityClass, final String tableName,
+                                                    final String fieldSelector,
+                                                    final Map<String, String> columnToFieldMapping,
+                                                    final boolean returning) {
+        final Map<String, String> fieldToColumnMapping = invert(columnToFieldMapping);
+        final StringBuilder sql = new StringBuilder();
+        final List<String> columns = new ArrayList<>();
+        final List<SQLStatementPlan.ParameterAccessor> accessors = new ArrayList<>();
+        SQLStatementPlan.ParameterAccessor idAccessor = SQLStatementPlan.ParameterAccessor.nullValue();
+
+        sql.append("UPDATE ").append(resolveTableName(entityClass, tableName)).append(" SET ");
+
+        for (final Field field : getMappableFields(entityClass)) {
+            final String fName = field.getName();
+
+            if (fName.equals("id") || fName.equals(fieldSelector)) {
+                idAccessor = compileAccessor(entityClass, field, false);
+                continue;
+            }
+
+            final SQLStatementPlan.ParameterAccessor accessor = compileAccessor(entityClass, field, true);
+
+            if (!columns.isEmpty()) {
+                sql.append(", ");
+            }
+
+            final String columnName = resolveColumName(fName, fieldToColumnMapping);
+
+            sql.append(columnName).append("=").append("?");
+            columns.add(columnName);
+            accessors.add(accessor);
+        }
+
+        sql.append(" WHERE ").append(resolveIdentifierColumn(fieldSelector, fieldToColumnMapping)).append(" = ?");
+        end(sql, returning);
+        accessors.add(idAccessor);
+
+        return new SQLStatementPlan(sql.toString(), columns, accessors);
+    }
+
+
+    /**
+     * Kompiliert ein DELETE FROM {table_name} WHERE {fieldSelector} = ?; fuer die uebergebene Klasse.
+     *
+     * Der SQL-Text und der Getter fuer den ?-Parameter werden nur einmal ermittelt.
+     * Der Plan kann fuer beliebig viele Objekte der Klasse wiederverwendet werden.
+     *
+     * @param entityClass          Klasse, fuer die das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für die Klasse
+     * @param fieldSelector        Definiert den Identifier fuer die betroffene Zeile
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter.
+     *                             Auch der {@code fieldSelector} wird mit diesem Mapping konvertiert.
+     * @return kompiliertes DELETE SQL
+     */
+    public static SQLStatementPlan compileDeleteSQL(final Class<?> entityClass, final String tableName,
+                                                    final String fieldSelector,
+                                                    final Map<String, String> columnToFieldMapping) {
+        return compileDeleteSQL(entityClass, tableName, fieldSelector, columnToFieldMapping, false);
+    }
+
+
+    /**
+     * Kompiliert ein DELETE FROM {table_name} WHERE {fieldSelector} = ?; fuer die uebergebene Klasse,
+     * optional mit RETURNING *.
+     *
+     * @param entityClass          Klasse, fuer die das Statement gebaut wird
+     * @param tableName            Definiert den Tabellennamen für die Klasse
+     * @param fieldSelector        Definiert den Identifier fuer die betroffene Zeile
+     * @param columnToFieldMapping Definiert die Spaltennamen für die Object Parameter.
+     *                             Auch der {@code fieldSelector} wird mit diesem Mapping konvertiert.
+     * @param returning            true, um die geloeschten Zeilen zurueckzugeben
+     * @return kompiliertes DELETE SQL
+     */
+    public static SQLStatementPlan compileDeleteSQL(final Class<?> entityClass, final String tableName,
+                                                    final String fieldSelector,
+                                                    final Map<String, String> columnToFieldMapping,
+                                                    final boolean returning) {
+        final Map<String, String> fieldToColumnMapping = invert(columnToFieldMapping);
+        final StringBuilder sql = new StringBuilder();
+        SQLStatementPlan.ParameterAccessor idAccessor = SQLStatementPlan.ParameterAccessor.nullValue();
+
+        sql.append("DELETE FROM ").append(resolveTableName(entityClass, tableName));
+
+        String identifier = "id";
+        if (fieldSelector != null && !fieldSelector.equals(identifier)) {
+            identifier = fieldSelector;
+        }
+
+        for (final Field field : getMappableFields(entityClass)) {
+            if (field.getName().equals(identifier)) {
+                idAccessor = compileAccessor(entityClass, field, true);
+            }
+        }
+
+        final String identifierColumn = resolveIdentifierColumn(fieldSelector, fieldToColumnMapping);
+        sql.append(" WHERE ").append(identifierColumn).append(" = ?");
+        end(sql, returning);
+
+        return new SQLStatementPlan(sql.toString(), Collections.singletonList(identifierColumn),
+                Collections.singletonList(idAccessor));
+    }
+
+
+    /**
+     * Maskiert die Platzhalter % und _ sowie das Escape-Zeichen \ fuer ein LIKE Muster.
+     *
+     * Beispiel fuer eine Praefix-Suche: {@code WHERE column LIKE ?} mit {@code escapeLikePattern(prefix) + "%"}
+     *
+     * @param value Text, der woertlich gesucht wird
+     * @return maskierter Text fuer das Standard-Escape-Zeichen \ von PostgreSQL
+     */
+    public static String escapeLikePattern(final String value) {
+        final StringBuilder pattern = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.toString();
     }
 
 
@@ -245,40 +557,25 @@ public final class SQL {
     }
 
 
-    private static void appendFieldsToInsertStatement(final Object insertObj,
-                                                      final Map<String, String> columnToFieldMapping,
-                                                      final StringBuilder sql, final StringBuilder values,
-                                                      final List<Object> para,
-                                                      final Field[] fields)
-            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-        boolean first = true;
-        for (final Field field : fields) {
+    private static List<Field> getMappableFields(final Class<?> entityClass) {
+        final List<Field> mappableFields = new ArrayList<>();
+        for (final Field field : entityClass.getDeclaredFields()) {
             if (isMappableField(field)) {
-                final String fName = field.getName();
-
-                final String getterName = retrieveGetterName(field, fName);
-                final Method getter = insertObj.getClass().getDeclaredMethod(getterName);
-                Object value = getter.invoke(insertObj);
-
-                if (fName.equals("id")) {
-                    continue;
-                } else if (value != null && value.getClass().isEnum()) {
-                    value = ((Enum) value).name();
-                }
-
-                if (first) {
-                    first = false;
-                } else {
-                    sql.append(", ");
-                    values.append(", ");
-                }
+                mappableFields.add(field);
+            }
+        }
+        return mappableFields;
+    }
 
-                final String columnName = resolveColumName(fName, columnToFieldMapping);
 
-                sql.append(columnName);
-                values.append("?");
-                para.add(value);
-            }
+    private static SQLStatementPlan.ParameterAccessor compileAccessor(final Class<?> entityClass,
+                                                                      final Field field,
+                                                                      final boolean enumToName) {
+        try {
+            final Method getter = entityClass.getDeclaredMethod(retrieveGetterName(field, field.getName()));
+            return new SQLStatementPlan.ParameterAccessor(BeanAccessors.getter(getter), enumToName);
+        } catch (final SecurityException | NoSuchMethodException e) {
+            throw new TechnicalException(ErrorCode.DATABASE_ERROR, e);
         }
     }
 
@@ -296,87 +593,108 @@ public final class SQL {
     }
 
 
-    private static String resolveColumName(final String fieldName, final Map<String, String> columnToFieldMapping) {
-        for (final Map.Entry<String, String> entry : columnToFieldMapping.entrySet()) {
-            if (fieldName.equals(entry.getValue())) {
-                return entry.getKey();
-            }
+    /**
+     * Liefert den Statement Typ fuer den Cache Key, mit und ohne RETURNING * getrennt.
+     */
+    private static String statement(final String statement, final boolean returning) {
+        return returning ? statement + RETURNING_ALL : statement;
+    }
+
+
+    /**
+     * Beendet das Statement, optional mit RETURNING *.
+     */
+    private static void end(final StringBuilder sql, final boolean returning) {
+        if (returning) {
+            sql.append(RETURNING_ALL);
         }
+        sql.append(";");
+    }
 
-        return fieldName;
+
+    private static String resolveTableName(final Class<?> entityClass, final String tableName) {
+        return tableName != null ? tableName : entityClass.getSimpleName();
     }
 
 
-    private static Object appendFieldsToUpdateStatement(final Object updateObj, final String fieldSelector,
-                                                        final Map<String, String> columnToFieldMapping,
-                                                        final StringBuilder sql,
-                                                        final List<Object> para,
-                                                        final Field[] fields)
-            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-        boolean first = true;
-        Object idValue = null;
-        for (final Field field : fields) {
-            if (isMappableField(field)) {
-                final String fName = field.getName();
-                final String getterName = retrieveGetterName(field, fName);
-                final Method getter = updateObj.getClass().getDeclaredMethod(getterName);
-                Object value = getter.invoke(updateObj);
-
-                if (fName.equals("id") || fName.equals(fieldSelector)) {
-                    idValue = value;
-                    continue;
-                } else if (value != null && value.getClass().isEnum()) {
-                    value = ((Enum) value).name();
-                }
+    private static String resolveIdentifierColumn(final String fieldSelector,
+                                                  final Map<String, String> fieldToColumnMapping) {
+        return fieldSelector != null ? resolveColumName(fieldSelector, fieldToColumnMapping) : "id";
+    }
 
-                if (first) {
-                    first = false;
-                } else {
-                    sql.append(", ");
-                }
 
-                final String columnName = resolveColumName(fName, columnToFieldMapping);
+    private static String resolveColumName(final String fieldName, final Map<String, String> fieldToColumnMapping) {
+        return fieldToColumnMapping.getOrDefault(fieldName, fieldName);
+    }
+
 
-                sql.append(columnName).append("=").append("?");
-                para.add(value);
+    /**
+     * Invertiert das Spalten-zu-Feld Mapping, um die Spaltennamen ohne Suche aufzuloesen.
+     *
+     * Bei mehrdeutigen Feldnamen gewinnt der erste Eintrag wie bei der bisherigen linearen Suche.
+     */
+    private static Map<String, String> invert(final Map<String, String> columnToFieldMapping) {
+        final Map<String, String> fieldToColumnMapping = new HashMap<>();
+        if (columnToFieldMapping != null) {
+            for (final Map.Entry<String, String> entry : columnToFieldMapping.entrySet()) {
+                fieldToColumnMapping.putIfAbsent(entry.getValue(), entry.getKey());
             }
         }
-        return idValue;
+        return fieldToColumnMapping;
     }
 
 
-    private static Object appendFieldsToDeleteStatement(final Object updateObj, final String fieldSelector,
-                                                        final Field[] fields)
-            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-        Object idValue = null;
-
-        String identifier = "id";
-        if (fieldSelector != null && !fieldSelector.equals(identifier)) {
-            identifier = fieldSelector;
+    /**
+     * Schluessel fuer die kompilierten Statements der Object basierten Methoden.
+     *
+     * Das Mapping wird erst beim Speichern kopiert, damit die Suche im Cache keine Kopie erzeugt.
+     */
+    private static final class PlanKey {
+        private final String statement;
+        private final Class<?> entityClass;
+        private final String tableName;
+        private final String fieldSelector;
+        private final Map<String, String> columnToFieldMapping;
+
+
+        PlanKey(final String statement, final Class<?> entityClass, final String tableName,
+                final String fieldSelector, final Map<String, String> columnToFieldMapping) {
+            this.statement = statement;
+            this.entityClass = entityClass;
+            this.tableName = tableName;
+            this.fieldSelector = fieldSelector;
+            this.columnToFieldMapping = columnToFieldMapping == null
+                    ? Collections.emptyMap() : columnToFieldMapping;
         }
 
-        for (final Field field : fields) {
-            if (isMappableField(field)) {
-                final String fName = field.getName();
-
 
-                if (fName.equals(identifier)) {
-
-                    final String getterName = retrieveGetterName(field, fName);
-                    final Method getter = updateObj.getClass().getDeclaredMethod(getterName);
+        PlanKey copy() {
+            return new PlanKey(statement, entityClass, tableName, fieldSelector,
+                    new HashMap<>(columnToFieldMapping));
+        }
 
-                    Object value = getter.invoke(updateObj);
 
-                    if (value != null && value.getClass().isEnum()) {
-                        value = ((Enum) value).name();
-                    }
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final PlanKey planKey = (PlanKey) o;
+            return statement.equals(planKey.statement)
+                    && entityClass.equals(planKey.entityClass)
+                    && Objects.equals(tableName, planKey.tableName)
+                    && Objects.equals(fieldSelector, planKey.fieldSelector)
+                    && columnToFieldMapping.equals(planKey.columnToFieldMapping);
+        }
 
-                    idValue = value;
 
-                }
-            }
+        @Override
+        public int hashCode() {
+            return Objects.hash(statement, entityClass, tableName, fieldSelector, columnToFieldMapping);
         }
-        return idValue;
     }
 
 
@@ -0,0 +1,145 @@
+package de.bogenliga.application.common.database;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * I´m a compiled SQL statement for a business entity class.
+ *
+ * I contain the static SQL text, the ordered column list and the compiled accessors for the ?-parameters.
+ * I´m created once for each business entity configuration and only extract the parameter values
+ * for each statement execution.
+ *
+ * I´m immutable and thread-safe.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see SQL
+ */
+public final class SQLStatementPlan {
+    private final String sql;
+    private final List<String> columns;
+    private final ParameterAccessor[] parameterAccessors;
+    // ?-parameter of the ON CONFLICT column or -1
+    private final int conflictParameterIndex;
+
+
+    /**
+     * Constructor without conflict column
+     *
+     * @param sql                with ?-parameters
+     * @param columns            ordered column names of the statement
+     * @param parameterAccessors ordered accessors for the ?-parameters
+     */
+    SQLStatementPlan(final String sql, final List<String> columns,
+                     final List<ParameterAccessor> parameterAccessors) {
+        this(sql, columns, parameterAccessors, null);
+    }
+
+
+    /**
+     * Constructor with all parameters
+     *
+     * @param sql                with ?-parameters
+     * @param columns            ordered column names of the statement
+     * @param parameterAccessors ordered accessors for the ?-parameters
+     * @param conflictColumn     column of the ON CONFLICT clause, optional
+     */
+    SQLStatementPlan(final String sql, final List<String> columns,
+                     final List<ParameterAccessor> parameterAccessors, final String conflictColumn) {
+        this.sql = sql;
+        this.columns = Collections.unmodifiableList(columns);
+        this.parameterAccessors = parameterAccessors.toArray(new ParameterAccessor[0]);
+        this.conflictParameterIndex = conflictColumn != null ? columns.indexOf(conflictColumn) : -1;
+    }
+
+
+    public String getSql() {
+        return sql;
+    }
+
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+
+    /**
+     * I extract the ?-parameter values from the given business entity.
+     *
+     * @param entity instance of the compiled business entity class
+     * @return parameter values in the order of the ?-parameters
+     */
+    public Object[] bindParameter(final Object entity) {
+        final Object[] parameter = new Object[parameterAccessors.length];
+        for (int i = 0; i < parameterAccessors.length; i++) {
+            parameter[i] = parameterAccessors[i].get(entity);
+        }
+        return parameter;
+    }
+
+
+    /**
+     * I return, if the value of the ON CONFLICT column is a ?-parameter of the statement.
+     */
+    public boolean hasConflictParameter() {
+        return conflictParameterIndex >= 0;
+    }
+
+
+    /**
+     * I extract the value of the ON CONFLICT column from the given business entity.
+     *
+     * @param entity instance of the compiled business entity class
+     * @return parameter value or null, if the statement has no conflict column
+     */
+    public Object bindConflictParameter(final Object entity) {
+        return hasConflictParameter() ? parameterAccessors[conflictParameterIndex].get(entity) : null;
+    }
+
+
+    /**
+     * I bind the given business entity to the compiled statement.
+     *
+     * @param entity instance of the compiled business entity class
+     * @return SQL statement with the parameter values
+     */
+    public SQL.SQLWithParameter bind(final Object entity) {
+        final SQL.SQLWithParameter sqlWithParameter = new SQL().new SQLWithParameter();
+        sqlWithParameter.setSql(sql);
+        sqlWithParameter.setParameter(bindParameter(entity));
+        return sqlWithParameter;
+    }
+
+
+    /**
+     * I read a single ?-parameter value from the business entity.
+     */
+    static final class ParameterAccessor {
+        private static final ParameterAccessor NULL_VALUE = new ParameterAccessor(entity -> null, false);
+
+        private final Function<Object, Object> getter;
+        private final boolean enumToName;
+
+
+        ParameterAccessor(final Function<Object, Object> getter, final boolean enumToName) {
+            this.getter = getter;
+            this.enumToName = enumToName;
+        }
+
+
+        static ParameterAccessor nullValue() {
+            return NULL_VALUE;
+        }
+
+
+        Object get(final Object entity) {
+            final Object value = getter.apply(entity);
+
+            if (enumToName && value instanceof Enum) {
+                return ((Enum<?>) value).name();
+            }
+            return value;
+        }
+    }
+}
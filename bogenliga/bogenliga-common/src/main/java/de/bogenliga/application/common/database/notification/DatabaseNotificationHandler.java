@@ -0,0 +1,39 @@
+package de.bogenliga.application.common.database.notification;
+
+/**
+ * I handle the notifications of a database channel.
+ *
+ * The handlers are discovered as Spring beans by the {@link PostgresqlNotificationListener}.
+ * The listener subscribes to the channel of each handler and invokes the handler on its own thread.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://www.postgresql.org/docs/9.6/static/sql-notify.html">PostgreSQL - NOTIFY</a>
+ */
+public interface DatabaseNotificationHandler {
+
+    /**
+     * I return the name of the database channel.
+     *
+     * @return lower case channel name used with pg_notify(channel, payload)
+     */
+    String getChannel();
+
+
+    /**
+     * I handle a notification of the channel.
+     *
+     * @param payload of the notification, can be empty
+     */
+    void onNotification(String payload);
+
+
+    /**
+     * I´m invoked after the listener subscribed to the channel.
+     *
+     * Notifications are not delivered while the listener is disconnected,
+     * so state derived from the notifications should be reset.
+     */
+    default void onListen() {
+        // nothing to reset
+    }
+}
@@ -0,0 +1,270 @@
+package de.bogenliga.application.common.database.notification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import de.bogenliga.application.common.configuration.DatabaseConfiguration;
+
+/**
+ * I listen to the notifications of the PostgreSQL database and dispatch them to the
+ * {@link DatabaseNotificationHandler}s.
+ *
+ * I use a dedicated database connection outside of the connection pool,
+ * because the subscriptions (LISTEN) are bound to the session and the connection is blocked while waiting.
+ * The notifications are received on a single daemon thread.
+ * If the connection is lost, I reconnect with an exponential backoff and notify the handlers with
+ * {@link DatabaseNotificationHandler#onListen()}, because notifications are not queued for disconnected sessions.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see <a href="https://jdbc.postgresql.org/documentation/head/listennotify.html">PostgreSQL JDBC - Listen / Notify</a>
+ */
+@Profile({"LOCAL", "INT", "PROD"})
+@Component
+public class PostgresqlNotificationListener implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostgresqlNotificationListener.class);
+    private static final String THREAD_NAME = "bogenliga-notification-listener";
+    private static final String APPLICATION_NAME = "bogenliga-notification-listener";
+
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseConfiguration.Notification settings;
+    private final Map<String, List<DatabaseNotificationHandler>> handlersByChannel = new LinkedHashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+    private Connection connection;
+
+
+    /**
+     * Constructor
+     *
+     * dependency injection with {@link Autowired}
+     *
+     * @param databaseConfiguration with the connection and notification properties
+     * @param handlersProvider      with the handlers of the database channels, if available
+     */
+    @Autowired
+    public PostgresqlNotificationListener(final DatabaseConfiguration databaseConfiguration,
+                                          final ObjectProvider<List<DatabaseNotificationHandler>> handlersProvider) {
+        this(() -> createDataSource(databaseConfiguration).getConnection(),
+                databaseConfiguration.getNotification(),
+                handlersProvider.getIfAvailable());
+    }
+
+
+    /**
+     * Package-private constructor with all dependencies
+     *
+     * @param connectionFactory to open the dedicated connection
+     * @param settings          with the poll timeout and the reconnect delays
+     * @param handlers          of the database channels
+     */
+    PostgresqlNotificationListener(final ConnectionFactory connectionFactory,
+                                   final DatabaseConfiguration.Notification settings,
+                                   final List<DatabaseNotificationHandler> handlers) {
+        this.connectionFactory = connectionFactory;
+        this.settings = settings;
+
+        if (handlers != null) {
+            for (final DatabaseNotificationHandler handler : handlers) {
+                handlersByChannel.computeIfAbsent(handler.getChannel(), channel -> new ArrayList<>()).add(handler);
+            }
+        }
+    }
+
+
+    private static PGSimpleDataSource createDataSource(final DatabaseConfiguration databaseConfiguration) {
+        final PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setServerName(databaseConfiguration.getHost());
+        dataSource.setPortNumber(databaseConfiguration.getPort());
+        dataSource.setDatabaseName(databaseConfiguration.getDatabaseName());
+        dataSource.setUser(databaseConfiguration.getUser());
+        dataSource.setPassword(databaseConfiguration.getPassword());
+        dataSource.setApplicationName(APPLICATION_NAME);
+        // detect broken connections while waiting for notifications
+        dataSource.setTcpKeepAlive(true);
+        return dataSource;
+    }
+
+
+    /**
+     * Start the listener thread on application startup
+     */
+    @PostConstruct
+    public void start() {
+        if (handlersByChannel.isEmpty()) {
+            LOG.info("No database notification handlers found. The listener is not started.");
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Stop the listener thread and close the connection on application shutdown
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                // the listener checks the state after the poll timeout
+                thread.join(settings.getPollTimeout() + 1_000L);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+
+    /**
+     * I receive the notifications until the listener is stopped.
+     */
+    @Override
+    public void run() {
+        long reconnectDelay = settings.getReconnectDelay();
+
+        while (running) {
+            try {
+                listen();
+                reconnectDelay = settings.getReconnectDelay();
+
+                while (running) {
+                    poll();
+                }
+
+            } catch (final SQLException | RuntimeException e) {
+                LOG.warn("Database notification listener disconnected. Reconnect in {} ms: {}",
+                        reconnectDelay, e.getMessage());
+                close();
+
+                if (!sleep(reconnectDelay)) {
+                    break;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, settings.getMaxReconnectDelay());
+            }
+        }
+
+        close();
+        LOG.info("Database notification listener stopped.");
+    }
+
+
+    /**
+     * I open the dedicated connection and subscribe to the channels of the handlers.
+     *
+     * @throws SQLException if the connection cannot be opened or the subscription fails
+     */
+    void listen() throws SQLException {
+        connection = connectionFactory.connect();
+        connection.setAutoCommit(true);
+
+        try (final Statement statement = connection.createStatement()) {
+            for (final String channel : handlersByChannel.keySet()) {
+                statement.execute("LISTEN " + quoteIdentifier(channel));
+            }
+        }
+
+        LOG.info("Listening to the database channels {}.", handlersByChannel.keySet());
+
+        for (final List<DatabaseNotificationHandler> handlers : handlersByChannel.values()) {
+            for (final DatabaseNotificationHandler handler : handlers) {
+                handler.onListen();
+            }
+        }
+    }
+
+
+    /**
+     * I wait for new notifications and dispatch them to the handlers of the channel.
+     *
+     * @throws SQLException if the connection is broken
+     */
+    void poll() throws SQLException {
+        final PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                .getNotifications(settings.getPollTimeout());
+
+        if (notifications == null) {
+            return;
+        }
+
+        for (final PGNotification notification : notifications) {
+            dispatch(notification.getName(), notification.getParameter());
+        }
+    }
+
+
+    private void dispatch(final String channel, final String payload) {
+        LOG.debug("Received database notification '{}' on channel '{}'.", payload, channel);
+
+        for (final DatabaseNotificationHandler handler : handlersByChannel.getOrDefault(channel,
+                Collections.emptyList())) {
+            try {
+                handler.onNotification(payload);
+            } catch (final RuntimeException e) {
+                // a failing handler must not break the subscription of the other handlers
+                LOG.error("Database notification handler {} failed.", handler.getClass().getName(), e);
+            }
+        }
+    }
+
+
+    void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (final SQLException e) {
+                LOG.debug("Cannot close the database notification connection: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+
+
+    private boolean sleep(final long delay) {
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+    private static String quoteIdentifier(final String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+
+    /**
+     * I open a new database connection.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+}
@@ -3,10 +3,21 @@ package de.bogenliga.application.common.database.tx;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import org.postgresql.ds.PGSimpleDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
@@ -15,26 +26,49 @@ import de.bogenliga.application.common.errorhandling.ErrorCode;
 import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
 
 /**
+ * I manage the transactions on the PostgreSQL database.
+ *
+ * The database connections are provided by a connection pool.
+ * A released connection is returned to the pool and reused by the next transaction.
+ *
+ * New read-only transactions are distributed to the configured replicas.
+ * If no replica is available, the read-only transactions use the primary database.
+ *
+ * The transactions are reference counted. Nested scopes of a thread share the connection of the outermost
+ * scope and only the outermost scope commits, see {@link Propagation}.
+ * The after-commit callbacks run after the outermost scope is released, so they do not hold the connection.
+ *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
  * @see <a href="https://www.baeldung.com/properties-with-spring">Properties with Spring and Spring Boot</a>
+ * @see <a href="https://github.com/brettwooldridge/HikariCP">HikariCP</a>
  */
 @Profile({"LOCAL", "INT", "PROD"})
 @Service("TransactionManager")
 public class PostgresqlTransactionManager implements TransactionManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(PostgresqlTransactionManager.class);
+    private static final String POOL_NAME = "bogenliga-pool";
+    private static final String SET_READ_ONLY = "SET TRANSACTION READ ONLY";
+
     private DataSource ds;
+    private ReplicaRouter replicaRouter;
     private DatabaseConfiguration databaseConfiguration;
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
 
 
     /**
      * Constructor
      *
      * Initialize and test database connection
+     *
+     * @param databaseConfiguration with the connection and pool properties
+     * @param meterRegistryProvider to register the connection pool metrics, if available
      */
     @Autowired
-    public PostgresqlTransactionManager(final DatabaseConfiguration databaseConfiguration) {
+    public PostgresqlTransactionManager(final DatabaseConfiguration databaseConfiguration,
+                                        final ObjectProvider<MeterRegistry> meterRegistryProvider) {
         this.databaseConfiguration = databaseConfiguration;
+        this.meterRegistryProvider = meterRegistryProvider;
     }
 
 
@@ -44,7 +78,19 @@ public class PostgresqlTransactionManager implements TransactionManager {
      * @param dataSource with the database connection
      */
     PostgresqlTransactionManager(final DataSource dataSource) {
+        this(dataSource, new ReplicaRouter(Collections.emptyList(), 0, System::currentTimeMillis));
+    }
+
+
+    /**
+     * Package-private constructor with all dependencies
+     *
+     * @param dataSource    with the database connection
+     * @param replicaRouter with the replica connections for read-only transactions
+     */
+    PostgresqlTransactionManager(final DataSource dataSource, final ReplicaRouter replicaRouter) {
         this.ds = dataSource;
+        this.replicaRouter = replicaRouter;
     }
 
 
@@ -56,22 +102,22 @@ public class PostgresqlTransactionManager implements TransactionManager {
                         databaseConfiguration.getDatabaseName(), databaseConfiguration.getUser(),
                         databaseConfiguration.getPassword().length());
 
-                final PGSimpleDataSource postgresqlDatasource = new PGSimpleDataSource();  // Empty instance.
-                // The value `localhost` means the Postgres cluster running locally on the same machine.
-                postgresqlDatasource.setServerName(databaseConfiguration.getHost());
-                postgresqlDatasource.setPortNumber(databaseConfiguration.getPort());
-                // A connection to Postgres must be made to a specific database rather than to the server as a whole.
-                // You likely have an initial database created named `public`.
-                postgresqlDatasource.setDatabaseName(databaseConfiguration.getDatabaseName());
-                // Or use the super-user 'postgres' for user name if you installed Postgres with defaults and
-                // have not yet created user(s) for your application.
-                postgresqlDatasource.setUser(databaseConfiguration.getUser());
-                postgresqlDatasource.setPassword(databaseConfiguration.getPassword());
+                final HikariDataSource pooledDatasource = new HikariDataSource(
+                        createPoolConfiguration(databaseConfiguration));
 
-                ds = postgresqlDatasource;
+                final MeterRegistry meterRegistry = meterRegistryProvider == null
+                        ? null
+                        : meterRegistryProvider.getIfAvailable();
+                if (meterRegistry != null) {
+                    // expose pool occupancy and connection wait time with the spring boot actuator
+                    pooledDatasource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                }
+
+                ds = pooledDatasource;
+                replicaRouter = createReplicaRouter(meterRegistry);
 
                 testConnection();
-            } catch (final SQLException | NullPointerException e) {
+            } catch (final SQLException | RuntimeException e) {
                 throw new TechnicalException(ErrorCode.DATABASE_CONNECTION_ERROR, e);
             }
         }
@@ -80,6 +126,124 @@ public class PostgresqlTransactionManager implements TransactionManager {
     }
 
 
+    /**
+     * I create the connection pool configuration for the PostgreSQL database.
+     *
+     * The pool validates idle connections before they are borrowed and replaces connections after the
+     * configured maximum lifetime.
+     *
+     * @param databaseConfiguration with the connection and pool properties
+     * @return configuration of the connection pool
+     */
+    static HikariConfig createPoolConfiguration(final DatabaseConfiguration databaseConfiguration) {
+        final DatabaseConfiguration.Pool pool = databaseConfiguration.getPool();
+        final HikariConfig poolConfiguration = new HikariConfig();
+
+        poolConfiguration.setPoolName(POOL_NAME);
+        poolConfiguration.setDataSourceClassName(PGSimpleDataSource.class.getName());
+        poolConfiguration.addDataSourceProperty("serverName", databaseConfiguration.getHost());
+        poolConfiguration.addDataSourceProperty("portNumber", databaseConfiguration.getPort());
+        poolConfiguration.addDataSourceProperty("databaseName", databaseConfiguration.getDatabaseName());
+        // the driver reports SUCCESS_NO_INFO for the rows of rewritten batch INSERTs
+        poolConfiguration.addDataSourceProperty("reWriteBatchedInserts",
+                databaseConfiguration.isReWriteBatchedInserts());
+        // the driver caches the statements of each pooled connection by their sql text
+        poolConfiguration.addDataSourceProperty("prepareThreshold", databaseConfiguration.getPrepareThreshold());
+        poolConfiguration.addDataSourceProperty("preparedStatementCacheQueries",
+                databaseConfiguration.getPreparedStatementCacheQueries());
+        poolConfiguration.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                databaseConfiguration.getPreparedStatementCacheSizeMiB());
+        poolConfiguration.setUsername(databaseConfiguration.getUser());
+        poolConfiguration.setPassword(databaseConfiguration.getPassword());
+
+        poolConfiguration.setMinimumIdle(pool.getMinimumIdle());
+        poolConfiguration.setMaximumPoolSize(pool.getMaximumPoolSize());
+        poolConfiguration.setIdleTimeout(pool.getIdleTimeout());
+        poolConfiguration.setMaxLifetime(pool.getMaxLifetime());
+        poolConfiguration.setConnectionTimeout(pool.getConnectionTimeout());
+        poolConfiguration.setValidationTimeout(pool.getValidationTimeout());
+        // without test query the JDBC4 Connection.isValid() check is used
+        poolConfiguration.setConnectionTestQuery(pool.getConnectionTestQuery());
+
+        // the transaction manager starts every transaction explicitly
+        poolConfiguration.setAutoCommit(false);
+        poolConfiguration.setTransactionIsolation("TRANSACTION_READ_COMMITTED");
+
+        return poolConfiguration;
+    }
+
+
+    /**
+     * I create the connection pool configuration for a read-only replica.
+     *
+     * The replica uses the database name, the credentials and the pool settings of the primary database.
+     * The pool does not fail on startup, if the replica is not available,
+     * and waits only the replication connection timeout for a connection.
+     *
+     * @param databaseConfiguration with the connection, pool and replication properties
+     * @param replica               endpoint of the replica
+     * @param index                 of the replica
+     * @return configuration of the replica connection pool
+     */
+    static HikariConfig createReplicaPoolConfiguration(final DatabaseConfiguration databaseConfiguration,
+                                                       final DatabaseConfiguration.Replica replica,
+                                                       final int index) {
+        final HikariConfig poolConfiguration = createPoolConfiguration(databaseConfiguration);
+
+        poolConfiguration.setPoolName(POOL_NAME + "-replica-" + index);
+        poolConfiguration.addDataSourceProperty("serverName", replica.getHost());
+        poolConfiguration.addDataSourceProperty("portNumber", replica.getPort());
+        poolConfiguration.setConnectionTimeout(databaseConfiguration.getReplication().getConnectionTimeout());
+        // set once per physical connection
+        poolConfiguration.setReadOnly(true);
+        poolConfiguration.setInitializationFailTimeout(-1);
+
+        return poolConfiguration;
+    }
+
+
+    private ReplicaRouter createReplicaRouter(final MeterRegistry meterRegistry) {
+        final List<DataSource> replicaDataSources = new ArrayList<>();
+        final List<DatabaseConfiguration.Replica> replicas = databaseConfiguration.getReplicas();
+
+        for (int i = 0; i < replicas.size(); i++) {
+            LOG.info("Register read-only replica jdbc:postgresql://{}:{}/{}", replicas.get(i).getHost(),
+                    replicas.get(i).getPort(), databaseConfiguration.getDatabaseName());
+
+            final HikariDataSource replicaDataSource = new HikariDataSource(
+                    createReplicaPoolConfiguration(databaseConfiguration, replicas.get(i), i));
+            if (meterRegistry != null) {
+                replicaDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+            replicaDataSources.add(replicaDataSource);
+        }
+
+        return new ReplicaRouter(replicaDataSources, databaseConfiguration.getReplication().getRetryDelay(),
+                System::currentTimeMillis);
+    }
+
+
+    /**
+     * Close the connection pools on application shutdown
+     */
+    @PreDestroy
+    public void close() {
+        if (ds instanceof HikariDataSource) {
+            LOG.info("Close connection pool {}.", POOL_NAME);
+            ((HikariDataSource) ds).close();
+        }
+
+        if (replicaRouter != null) {
+            for (final DataSource replicaDataSource : replicaRouter.getDataSources()) {
+                if (replicaDataSource instanceof HikariDataSource) {
+                    LOG.info("Close connection pool {}.", ((HikariDataSource) replicaDataSource).getPoolName());
+                    ((HikariDataSource) replicaDataSource).close();
+                }
+            }
+        }
+    }
+
+
     /**
      * Initial database connection check
      *
@@ -103,19 +267,81 @@ public class PostgresqlTransactionManager implements TransactionManager {
 
 
     /**
-     * Start transaction
+     * Start a transaction scope
+     *
+     * Without active transaction a new connection is borrowed from the pool.
+     * Otherwise the scope joins the transaction of the thread, creates a savepoint or suspends the transaction
+     * according to the {@link Propagation}.
+     *
+     * A new read-only transaction uses a replica connection, if available.
+     * On the primary database it is started with "SET TRANSACTION READ ONLY".
+     * PostgreSQL rejects all modifications of the transaction and skips the write bookkeeping.
+     *
+     * @param propagation behavior of the scope, if a transaction is already active
+     * @param readOnly    true, if a new transaction should not modify the database
      */
     @Override
-    public void begin() {
-        LOG.debug("Starting transaction.");
-        final Connection connection;
+    public void begin(final Propagation propagation, final boolean readOnly) {
+        final SessionContext context = SessionHandler.getContext();
+
+        if (context == null || context.getConnection() == null) {
+            LOG.debug("Starting transaction.");
+            openConnection(readOnly);
+            SessionHandler.getContext().enter();
+
+        } else if (propagation == Propagation.REQUIRES_NEW) {
+            LOG.debug("Suspend transaction and start new transaction.");
+            SessionHandler.suspend();
+            try {
+                openConnection(readOnly);
+            } catch (final TechnicalException e) {
+                SessionHandler.removeConnection();
+                throw e;
+            }
+            SessionHandler.getContext().enter();
+
+        } else if (propagation == Propagation.NESTED && context.getDepth() > 0) {
+            LOG.debug("Starting nested transaction.");
+            context.setActive(true);
+            try {
+                context.enter(context.getConnection().setSavepoint());
+            } catch (final SQLException e) {
+                throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
+            }
+
+        } else {
+            // the outermost scope takes over an implicit transaction of getConnection()
+            LOG.debug("Join transaction.");
+            context.setActive(true);
+            context.enter();
+        }
+    }
+
+
+    private void openConnection(final boolean readOnly) {
+        Connection connection = null;
 
         try {
-            connection = getDataSource().getConnection();
+            final DataSource primaryDataSource = getDataSource();
+            connection = readOnly ? replicaRouter.getConnection() : null;
+            final boolean replica = connection != null;
+
+            if (!replica) {
+                connection = primaryDataSource.getConnection();
+            }
             connection.setAutoCommit(false);
             connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
-            LOG.debug("Created new connection from Datasource.");
+            LOG.debug("Created new connection from {}.", replica ? "replica" : "Datasource");
+
+            // the replica connections are read-only
+            if (readOnly && !replica) {
+                // only valid for the current transaction, the pooled connection is not modified
+                try (final Statement statement = connection.createStatement()) {
+                    statement.execute(SET_READ_ONLY);
+                }
+            }
         } catch (final SQLException e) {
+            closeQuietly(connection);
             throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
         }
 
@@ -124,16 +350,49 @@ public class PostgresqlTransactionManager implements TransactionManager {
     }
 
 
+    /**
+     * Undo all changes of the transaction scope
+     *
+     * The outermost scope rolls back the transaction.
+     * A nested scope rolls back to its savepoint. A joined scope marks the transaction as rollback-only.
+     */
     @Override
     public void rollback() {
-        if (isActive()) {
+        final SessionContext context = SessionHandler.getContext();
+
+        if (context != null && context.getDepth() > 1) {
+            if (context.isCompleted()) {
+                LOG.warn("Trying types rollback completed transaction scope.");
+                return;
+            }
+
+            try {
+                final Savepoint savepoint = context.getSavepoint();
+                if (savepoint == null) {
+                    LOG.debug("Mark transaction as rollback-only.");
+                    context.setRollbackOnly(true);
+                } else {
+                    context.getConnection().rollback(savepoint);
+                    context.discardScopeCallbacks();
+                    LOG.debug("Rollback nested transaction.");
+                }
+            } catch (final SQLException e) {
+                throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
+            } finally {
+                context.complete();
+            }
+
+        } else if (context != null && context.isActive()) {
             try {
                 SessionHandler.getConnection().rollback();
-                LOG.debug("Rollback transaction.");
+                LOG.debug("Rollback transaction after {} ms.", context.getDurationMillis());
             } catch (final SQLException e) {
                 throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
             } finally {
-                SessionHandler.setIsActive(false);
+                context.setActive(false);
+                context.setRollbackOnly(false);
+                context.discardCallbacks();
+                context.complete();
             }
         } else {
             LOG.warn("Trying types rollback inactive transaction.");
@@ -143,17 +402,59 @@ public class PostgresqlTransactionManager implements TransactionManager {
 
     /**
      * Commit all changes and close transaction
+     *
+     * Only the outermost scope commits the transaction.
+     * A nested scope releases its savepoint. A joined scope does not change the transaction.
+     *
+     * @throws TechnicalException if the transaction was marked as rollback-only by an inner scope
      */
     @Override
     public void commit() {
-        if (isActive()) {
+        final SessionContext context = SessionHandler.getContext();
+
+        if (context != null && context.getDepth() > 1) {
+            if (context.isCompleted()) {
+                LOG.warn("Trying types commit completed transaction scope.");
+                return;
+            }
+
+            try {
+                final Savepoint savepoint = context.getSavepoint();
+                if (savepoint != null) {
+                    context.getConnection().releaseSavepoint(savepoint);
+                    LOG.debug("Commit nested transaction.");
+                }
+            } catch (final SQLException e) {
+                throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
+            } finally {
+                context.complete();
+            }
+
+        } else if (context != null && context.isActive()) {
+            final boolean rollbackOnly = context.isRollbackOnly();
+
             try {
-                SessionHandler.getConnection().commit();
-                LOG.debug("Commit transaction.");
+                if (rollbackOnly) {
+                    SessionHandler.getConnection().rollback();
+                    context.discardCallbacks();
+                    LOG.debug("Rollback transaction marked as rollback-only after {} ms.",
+                            context.getDurationMillis());
+                } else {
+                    SessionHandler.getConnection().commit();
+                    context.commitCallbacks();
+                    LOG.debug("Commit transaction after {} ms.", context.getDurationMillis());
+                }
             } catch (final SQLException e) {
                 throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
             } finally {
-                SessionHandler.setIsActive(false);
+                context.setActive(false);
+                context.setRollbackOnly(false);
+                context.complete();
+            }
+
+            if (rollbackOnly) {
+                throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR,
+                        "Transaction rolled back, because an inner transaction scope was rolled back.");
             }
         } else {
             LOG.warn("Trying types commit inactive transaction.");
@@ -162,22 +463,83 @@ public class PostgresqlTransactionManager implements TransactionManager {
 
 
     /**
-     * Release database connection and rollback all uncommited changes
+     * Close the transaction scope
+     *
+     * An uncompleted scope is rolled back.
+     * The outermost scope releases the database connection and rollback all uncommited changes.
+     * The connection is returned to the connection pool
+     * and the session information is removed from the thread.
+     * A suspended transaction is resumed.
+     * Afterwards the callbacks of the committed transaction run.
      */
     @Override
     public void release() {
-        try {
-            if (isActive()) {
-                LOG.warn("Trying types release active transaction. Rollback command will be executed.");
-                rollback();
+        final SessionContext context = SessionHandler.getContext();
+
+        if (context != null && context.getDepth() > 1) {
+            try {
+                if (!context.isCompleted()) {
+                    LOG.warn("Trying types release uncompleted transaction scope. Rollback command will be executed.");
+                    rollback();
+                }
+            } finally {
+                context.exit();
             }
+            return;
+        }
 
-            SessionHandler.getConnection().close();
-            LOG.debug("Release connection.");
+        final List<Runnable> callbacks = context == null
+                ? Collections.emptyList()
+                : context.takeCommittedCallbacks();
+
+        try {
+            final Connection connection = SessionHandler.getConnection();
+            try {
+                if (isActive()) {
+                    LOG.warn("Trying types release active transaction. Rollback command will be executed.");
+                    rollback();
+                }
+            } finally {
+                connection.close();
+                LOG.debug("Release connection.");
+            }
         } catch (final SQLException e) {
             throw new TechnicalException(ErrorCode.DATABASE_TRANSACTION_ERROR, e);
         } finally {
             SessionHandler.removeConnection();
+            runCallbacks(callbacks);
+        }
+    }
+
+
+    /**
+     * Run the callback after the commit of the transaction
+     *
+     * The callback is added to the transaction of the current scope.
+     * Without transaction scope the callback runs immediately.
+     *
+     * @param callback e.g. to publish the changes of the transaction
+     */
+    @Override
+    public void afterCommit(final Runnable callback) {
+        final SessionContext context = SessionHandler.getContext();
+
+        if (context != null && context.getDepth() > 0) {
+            context.addAfterCommitCallback(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+
+    private static void runCallbacks(final List<Runnable> callbacks) {
+        for (final Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (final RuntimeException e) {
+                // the transaction is already committed and must not be reported as failed
+                LOG.error("After-commit callback failed: {}", e.getMessage(), e);
+            }
         }
     }
 
@@ -187,11 +549,27 @@ public class PostgresqlTransactionManager implements TransactionManager {
      */
     @Override
     public Connection getConnection() {
-        if (!isActive()) {
+        final SessionContext context = SessionHandler.getContext();
+
+        if (context != null && context.getConnection() != null) {
+            // continue on the connection of the open scope after commit or rollback
+            context.setActive(true);
+        } else if (!isActive()) {
             LOG.debug("Call types getConnection() without active transaction. Start transaction automatically...");
-            begin();
+            openConnection(false);
         }
 
         return SessionHandler.getConnection();
     }
+
+
+    private static void closeQuietly(final Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (final SQLException e) {
+                LOG.debug("Cannot close the database connection: {}", e.getMessage());
+            }
+        }
+    }
 }
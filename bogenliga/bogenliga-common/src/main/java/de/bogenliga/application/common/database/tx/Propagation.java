@@ -0,0 +1,33 @@
+package de.bogenliga.application.common.database.tx;
+
+/**
+ * I define how a new transaction scope behaves, if the thread already has an active transaction.
+ *
+ * Each {@link TransactionManager#begin(Propagation)} opens a transaction scope,
+ * which is closed with {@link TransactionManager#release()}.
+ * Only the outermost scope of a connection commits or rolls back the database transaction.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public enum Propagation {
+    /**
+     * Join the active transaction or start a new one.
+     *
+     * A rollback of the inner scope marks the whole transaction as rollback-only.
+     */
+    REQUIRED,
+
+    /**
+     * Suspend the active transaction and start a new one on a separate connection.
+     *
+     * The suspended transaction is resumed after the release of the new transaction.
+     */
+    REQUIRES_NEW,
+
+    /**
+     * Start a nested transaction with a savepoint in the active transaction or start a new one.
+     *
+     * A rollback of the inner scope only undoes the changes after the savepoint.
+     */
+    NESTED
+}
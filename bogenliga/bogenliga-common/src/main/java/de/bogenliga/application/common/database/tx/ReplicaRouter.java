@@ -0,0 +1,138 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * I distribute the read-only transactions round robin to the replicas.
+ *
+ * A replica is skipped for the retry delay, if no connection can be borrowed from its pool.
+ * After the retry delay a single transaction checks the replica again, the other transactions still skip it.
+ * If no replica is available, I return no connection and the transaction uses the primary database.
+ *
+ * The replicas are updated asynchronously. Read-only transactions can see an older state than the primary.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class ReplicaRouter {
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final List<Replica> replicas;
+    private final long retryDelay;
+    private final LongSupplier clock;
+    private final AtomicInteger next = new AtomicInteger();
+
+
+    /**
+     * @param dataSources of the replicas
+     * @param retryDelay  time in milliseconds a failed replica is skipped
+     * @param clock       current time in milliseconds
+     */
+    ReplicaRouter(final List<? extends DataSource> dataSources, final long retryDelay, final LongSupplier clock) {
+        final List<Replica> replicaList = new ArrayList<>(dataSources.size());
+        for (int i = 0; i < dataSources.size(); i++) {
+            replicaList.add(new Replica(i, dataSources.get(i)));
+        }
+        this.replicas = Collections.unmodifiableList(replicaList);
+        this.retryDelay = retryDelay;
+        this.clock = clock;
+    }
+
+
+    List<DataSource> getDataSources() {
+        final List<DataSource> dataSources = new ArrayList<>(replicas.size());
+        for (final Replica replica : replicas) {
+            dataSources.add(replica.dataSource);
+        }
+        return dataSources;
+    }
+
+
+    /**
+     * I return a connection of the next available replica.
+     *
+     * @return replica connection; null, if no replica is available
+     */
+    Connection getConnection() {
+        final int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+
+        final int start = Math.floorMod(next.getAndIncrement(), size);
+
+        for (int i = 0; i < size; i++) {
+            final Replica replica = replicas.get((start + i) % size);
+
+            if (replica.tryAcquire(clock.getAsLong(), retryDelay)) {
+                try {
+                    final Connection connection = replica.dataSource.getConnection();
+                    replica.markAvailable();
+                    return connection;
+                } catch (final SQLException e) {
+                    LOG.warn("Replica {} is not available. Retry in {} ms: {}", replica.index, retryDelay,
+                            e.getMessage());
+                    replica.markUnavailable(clock.getAsLong() + retryDelay);
+                }
+            }
+        }
+
+        LOG.debug("No replica available. Use the primary database.");
+        return null;
+    }
+
+
+    /**
+     * I´m the state of a single replica.
+     */
+    private static final class Replica {
+        private static final long AVAILABLE = 0;
+
+        private final int index;
+        private final DataSource dataSource;
+        // time until the replica is skipped; AVAILABLE, if the last connection succeeded
+        private final AtomicLong unavailableUntil = new AtomicLong(AVAILABLE);
+
+
+        Replica(final int index, final DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+
+
+        /**
+         * @return true, if the replica is available or the caller checks the failed replica
+         */
+        boolean tryAcquire(final long now, final long retryDelay) {
+            final long until = unavailableUntil.get();
+
+            if (until == AVAILABLE) {
+                return true;
+            }
+
+            // only one caller checks the replica, the others skip it for another retry delay
+            return now >= until && unavailableUntil.compareAndSet(until, now + retryDelay);
+        }
+
+
+        void markAvailable() {
+            if (unavailableUntil.getAndSet(AVAILABLE) != AVAILABLE) {
+                LOG.info("Replica {} is available again.", index);
+            }
+        }
+
+
+        void markUnavailable(final long until) {
+            unavailableUntil.set(until);
+        }
+    }
+}
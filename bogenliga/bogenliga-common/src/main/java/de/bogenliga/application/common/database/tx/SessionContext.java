@@ -0,0 +1,269 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * I contain the session state of a single thread.
+ *
+ * I replace the string-keyed map of the {@link SessionHandler} with typed fields,
+ * so the state can be accessed without lookups and boxing.
+ * I´m only accessed by the owning thread and therefore not synchronized.
+ * I´m created for the outermost transaction of the thread and released with the connection, see {@link #reset()}.
+ *
+ * The transaction scopes of the connection are kept in a stack. The scope objects are reused,
+ * so joining a transaction does not allocate. A context with the suspended transaction of a
+ * {@link Propagation#REQUIRES_NEW} scope is linked as predecessor.
+ *
+ * The after-commit callbacks of the transaction are pending until the outermost scope commits.
+ * A rollback discards the pending callbacks, a rollback to a savepoint only the callbacks of the nested scope.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+final class SessionContext {
+    private Connection connection;
+    private boolean active;
+    // number of nested transaction scopes on the connection
+    private int depth;
+    // System.nanoTime() of the transaction start
+    private long startTime;
+    // an inner scope was rolled back, the outermost scope must not commit
+    private boolean rollbackOnly;
+    // reused scope objects, only the first {@code depth} scopes are open
+    private final List<Scope> scopes = new ArrayList<>();
+    // callbacks of the open transaction, created with the first callback
+    private List<Runnable> pendingCallbacks;
+    // callbacks of the committed transaction, which run after the release of the connection
+    private List<Runnable> committedCallbacks;
+    private final SessionContext suspended;
+
+
+    SessionContext() {
+        this(null);
+    }
+
+
+    /**
+     * @param suspended context of the suspended transaction, which is resumed after this context
+     */
+    SessionContext(final SessionContext suspended) {
+        this.suspended = suspended;
+    }
+
+
+    Connection getConnection() {
+        return connection;
+    }
+
+
+    void setConnection(final Connection connection) {
+        this.connection = connection;
+    }
+
+
+    boolean isActive() {
+        return active;
+    }
+
+
+    void setActive(final boolean active) {
+        if (active && !this.active) {
+            startTime = System.nanoTime();
+        }
+        this.active = active;
+    }
+
+
+    int getDepth() {
+        return depth;
+    }
+
+
+    /**
+     * I enter a nested transaction scope, which joins the transaction.
+     *
+     * @return depth of the entered scope, starting with 1
+     */
+    int enter() {
+        return enter(null);
+    }
+
+
+    /**
+     * I enter a nested transaction scope.
+     *
+     * @param savepoint to roll back the scope; null, if the scope joins the transaction
+     * @return depth of the entered scope, starting with 1
+     */
+    int enter(final Savepoint savepoint) {
+        if (depth == scopes.size()) {
+            scopes.add(new Scope());
+        }
+        scopes.get(depth).open(savepoint, pendingCallbacks == null ? 0 : pendingCallbacks.size());
+        return ++depth;
+    }
+
+
+    /**
+     * I leave the current transaction scope.
+     *
+     * @return depth of the remaining scopes; 0, if the outermost scope was left
+     */
+    int exit() {
+        if (depth > 0) {
+            depth--;
+        }
+        return depth;
+    }
+
+
+    /**
+     * @return savepoint of the current scope; null, if the scope joins the transaction or no scope is open
+     */
+    Savepoint getSavepoint() {
+        return depth > 0 ? scopes.get(depth - 1).savepoint : null;
+    }
+
+
+    /**
+     * @return true, if the current scope is committed or rolled back
+     */
+    boolean isCompleted() {
+        return depth > 0 && scopes.get(depth - 1).completed;
+    }
+
+
+    /**
+     * I mark the current scope as committed or rolled back.
+     */
+    void complete() {
+        if (depth > 0) {
+            scopes.get(depth - 1).completed = true;
+        }
+    }
+
+
+    boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+
+    void setRollbackOnly(final boolean rollbackOnly) {
+        this.rollbackOnly = rollbackOnly;
+    }
+
+
+    /**
+     * I add a callback, which runs after the commit of the transaction.
+     *
+     * @param callback to run after the commit
+     */
+    void addAfterCommitCallback(final Runnable callback) {
+        if (pendingCallbacks == null) {
+            pendingCallbacks = new ArrayList<>();
+        }
+        pendingCallbacks.add(callback);
+    }
+
+
+    /**
+     * I discard the callbacks of the current scope after the rollback to its savepoint.
+     */
+    void discardScopeCallbacks() {
+        if (depth > 0 && pendingCallbacks != null) {
+            final int callbacks = scopes.get(depth - 1).callbacks;
+            pendingCallbacks.subList(callbacks, pendingCallbacks.size()).clear();
+        }
+    }
+
+
+    /**
+     * I discard all callbacks of the rolled back transaction.
+     */
+    void discardCallbacks() {
+        pendingCallbacks = null;
+    }
+
+
+    /**
+     * I keep the callbacks of the committed transaction until the connection is released.
+     */
+    void commitCallbacks() {
+        if (pendingCallbacks != null) {
+            if (committedCallbacks == null) {
+                committedCallbacks = pendingCallbacks;
+            } else {
+                committedCallbacks.addAll(pendingCallbacks);
+            }
+            pendingCallbacks = null;
+        }
+    }
+
+
+    /**
+     * I return and remove the callbacks of the committed transactions.
+     *
+     * @return callbacks in the order of registration; empty, if no callback was registered
+     */
+    List<Runnable> takeCommittedCallbacks() {
+        final List<Runnable> callbacks = committedCallbacks;
+        committedCallbacks = null;
+        return callbacks == null ? Collections.emptyList() : callbacks;
+    }
+
+
+    SessionContext getSuspended() {
+        return suspended;
+    }
+
+
+    /**
+     * I reset all fields, so a released context does not keep the connection or the transaction state.
+     */
+    void reset() {
+        connection = null;
+        active = false;
+        depth = 0;
+        startTime = 0;
+        rollbackOnly = false;
+        pendingCallbacks = null;
+        committedCallbacks = null;
+        for (final Scope scope : scopes) {
+            scope.open(null, 0);
+        }
+    }
+
+
+    long getStartTime() {
+        return startTime;
+    }
+
+
+    /**
+     * @return duration of the active transaction in milliseconds; 0, if no transaction is active
+     */
+    long getDurationMillis() {
+        return active ? (System.nanoTime() - startTime) / 1_000_000 : 0;
+    }
+
+
+    /**
+     * I´m a transaction scope on the connection.
+     */
+    private static final class Scope {
+        private Savepoint savepoint;
+        private boolean completed;
+        // number of pending callbacks before the scope was opened
+        private int callbacks;
+
+
+        void open(final Savepoint savepoint, final int callbacks) {
+            this.savepoint = savepoint;
+            this.completed = false;
+            this.callbacks = callbacks;
+        }
+    }
+}
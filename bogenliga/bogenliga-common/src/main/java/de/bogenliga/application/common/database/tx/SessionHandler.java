@@ -1,8 +1,6 @@
 package de.bogenliga.application.common.database.tx;
 
 import java.sql.Connection;
-import java.util.HashMap;
-import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,15 +9,25 @@ import org.slf4j.LoggerFactory;
  *
  * Handle database connection and support the transaction management.
  *
+ * The session state is stored in a typed {@link SessionContext} per thread.
+ * The context is created with the first connection of the thread.
+ * It is reset and removed from the ThreadLocal with {@link #removeConnection()} of the outermost connection,
+ * so pooled request threads do not keep the connection, the state of a previous request
+ * or a reference to the class loader of an undeployed application.
+ * Read access without session does not create a context.
+ *
+ * A transaction can be suspended by a new transaction on a separate connection, see {@link #suspend()}.
+ * The suspended context is resumed, if the connection of the new transaction is removed.
+ *
+ * The state is not inherited by child threads.
+ *
  * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
  */
 final class SessionHandler {
     private static final Logger LOG = LoggerFactory.getLogger(SessionHandler.class);
 
-    private static final ThreadLocal<Map<String, Object>> THREAD_LOCAL = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<SessionContext> THREAD_LOCAL = new ThreadLocal<>();
 
-    private static final String CONNECTION = "CONNECTION";
-    private static final String IS_ACTIVE = "IS_ACTIVE";
     private static final String UNEXPECTED_EMPTY_THREAD_LOCAL_FOR_CONNECTION =
             "unexpected empty ThreadLocal for Connection";
 
@@ -38,17 +46,13 @@ final class SessionHandler {
      * @return the connection bound types the caller thread.
      */
     static Connection getConnection() {
-        LOG.debug("Get connection from ThreadLocal.");
-
-        final Connection connection;
+        final SessionContext context = THREAD_LOCAL.get();
 
-        if (THREAD_LOCAL.get().get(CONNECTION) == null) {
+        if (context == null || context.getConnection() == null) {
             throw new IllegalStateException(UNEXPECTED_EMPTY_THREAD_LOCAL_FOR_CONNECTION);
         }
 
-        connection = (Connection) THREAD_LOCAL.get().get(CONNECTION);
-
-        return connection;
+        return context.getConnection();
     }
 
 
@@ -59,25 +63,45 @@ final class SessionHandler {
      * @param connection the connection types set in ThreadLocal
      */
     static void setConnection(final Connection connection) {
-        LOG.debug("Set new connection in ThreadLocal.");
+        final SessionContext context = getOrCreateContext();
 
-        if (THREAD_LOCAL.get().containsKey(CONNECTION)) {
+        if (context.getConnection() != null) {
             LOG.warn("Found unexpected connection in ThreadLocal, will be removed and overwritten by new one.");
-            THREAD_LOCAL.get().remove(CONNECTION);
         }
 
-        THREAD_LOCAL.get().put(CONNECTION, connection);
+        context.setConnection(connection);
     }
 
 
     /**
-     * Remove the connection from ThreadLocal.
+     * Remove the connection and reset all session information in ThreadLocal.
+     *
+     * A suspended transaction of the thread is resumed.
+     * Otherwise the session context is removed from the ThreadLocal.
      */
     static void removeConnection() {
-        LOG.debug("Remove connection from ThreadLocal.");
+        final SessionContext context = THREAD_LOCAL.get();
 
-        THREAD_LOCAL.get().remove(CONNECTION);
-        THREAD_LOCAL.get().put(IS_ACTIVE, false);
+        if (context != null) {
+            context.reset();
+
+            if (context.getSuspended() != null) {
+                THREAD_LOCAL.set(context.getSuspended());
+            } else {
+                THREAD_LOCAL.remove();
+            }
+        }
+    }
+
+
+    /**
+     * Suspend the session information of the calling thread.
+     *
+     * The thread gets an empty session for a new connection,
+     * until the new connection is removed with {@link #removeConnection()}.
+     */
+    static void suspend() {
+        THREAD_LOCAL.set(new SessionContext(THREAD_LOCAL.get()));
     }
 
 
@@ -86,12 +110,9 @@ final class SessionHandler {
      *
      * @return true, if transaction on connection is active, false else
      */
-    static Boolean isActive() {
-        if (THREAD_LOCAL.get().get(IS_ACTIVE) == null) {
-            return false;
-        }
-
-        return (Boolean) THREAD_LOCAL.get().get(IS_ACTIVE);
+    static boolean isActive() {
+        final SessionContext context = THREAD_LOCAL.get();
+        return context != null && context.isActive();
     }
 
 
@@ -100,7 +121,33 @@ final class SessionHandler {
      *
      * @param active true, if transaction on connection is active, false else
      */
-    static void setIsActive(final Boolean active) {
-        THREAD_LOCAL.get().put(IS_ACTIVE, active);
+    static void setIsActive(final boolean active) {
+        final SessionContext context = active ? getOrCreateContext() : THREAD_LOCAL.get();
+
+        if (context != null) {
+            context.setActive(active);
+        }
+    }
+
+
+    /**
+     * Return the session information of the calling thread.
+     *
+     * @return session context; null, if the thread has no session
+     */
+    static SessionContext getContext() {
+        return THREAD_LOCAL.get();
+    }
+
+
+    private static SessionContext getOrCreateContext() {
+        SessionContext context = THREAD_LOCAL.get();
+
+        if (context == null) {
+            context = new SessionContext();
+            THREAD_LOCAL.set(context);
+        }
+
+        return context;
     }
 }
@@ -0,0 +1,96 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * I encapsulate the calls of {@link Transactional} methods into a transaction scope.
+ *
+ * The scope is committed after the method returns and rolled back, if the method throws an exception.
+ * It is released in any case, so the connection is returned to the pool after the outermost call.
+ * The release of the outermost committed scope runs the callbacks of {@link TransactionManager#afterCommit(Runnable)}.
+ *
+ * The {@link TransactionManager} is resolved with the first call,
+ * so the interceptor can be created before the database beans.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+public class TransactionInterceptor implements MethodInterceptor {
+
+    private final Supplier<TransactionManager> transactionManagerSupplier;
+    private final Map<Method, Transactional> attributeCache = new ConcurrentHashMap<>();
+
+    private volatile TransactionManager transactionManager;
+
+
+    /**
+     * Constructor
+     *
+     * @param transactionManagerSupplier to resolve the transaction manager on demand
+     */
+    public TransactionInterceptor(final Supplier<TransactionManager> transactionManagerSupplier) {
+        this.transactionManagerSupplier = transactionManagerSupplier;
+    }
+
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final Class<?> targetClass = invocation.getThis() == null ? null : AopUtils.getTargetClass(
+                invocation.getThis());
+        final Transactional transactional = getTransactional(invocation.getMethod(), targetClass);
+
+        if (transactional == null) {
+            return invocation.proceed();
+        }
+
+        final TransactionManager manager = getTransactionManager();
+        manager.begin(transactional.propagation(), transactional.readOnly());
+
+        try {
+            final Object result = invocation.proceed();
+            manager.commit();
+            return result;
+        } catch (final Throwable e) { // NOSONAR the exception of the method is thrown again
+            manager.rollback();
+            throw e;
+        } finally {
+            manager.release();
+        }
+    }
+
+
+    /**
+     * I return the annotation of the implementing method or its class.
+     *
+     * @param method      called interface or class method
+     * @param targetClass of the bean; null, if unknown
+     * @return transaction attributes; null, if the method is not transactional
+     */
+    Transactional getTransactional(final Method method, final Class<?> targetClass) {
+        final Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        return attributeCache.computeIfAbsent(specificMethod, key -> {
+            final Transactional methodAnnotation = AnnotationUtils.findAnnotation(key, Transactional.class);
+            if (methodAnnotation != null) {
+                return methodAnnotation;
+            }
+            return AnnotationUtils.findAnnotation(key.getDeclaringClass(), Transactional.class);
+        });
+    }
+
+
+    private TransactionManager getTransactionManager() {
+        TransactionManager manager = transactionManager;
+        if (manager == null) {
+            manager = transactionManagerSupplier.get();
+            transactionManager = manager;
+        }
+        return manager;
+    }
+}
@@ -5,6 +5,10 @@ import java.sql.Connection;
 /**
  * I´m a common interface for all database {@link TransactionManager}
  *
+ * The transactions are reference counted: each begin opens a transaction scope,
+ * which has to be completed with commit or rollback and closed with release.
+ * Multiple scopes of a thread share one connection and one commit.
+ *
  * Created by ajost on 29.10.2015.
  */
 public interface TransactionManager {
@@ -14,9 +18,31 @@ public interface TransactionManager {
     boolean isActive();
 
     /**
-     * Start a transaction
+     * Start a transaction or join the active transaction
+     *
+     * @see Propagation#REQUIRED
+     */
+    default void begin() {
+        begin(Propagation.REQUIRED);
+    }
+
+    /**
+     * Start a read-write transaction scope
+     *
+     * @param propagation behavior of the scope, if a transaction is already active
+     */
+    default void begin(Propagation propagation) {
+        begin(propagation, false);
+    }
+
+    /**
+     * Start a transaction scope
+     *
+     * @param propagation behavior of the scope, if a transaction is already active
+     * @param readOnly    true, if a new transaction should not modify the database.
+     *                    A scope, which joins an active transaction, keeps the mode of the transaction.
      */
-    void begin();
+    void begin(Propagation propagation, boolean readOnly);
 
     /**
      * Undo all changes while transaction (begin)
@@ -33,8 +59,19 @@ public interface TransactionManager {
      */
     void release();
 
+    /**
+     * Run the callback after the commit of the transaction
+     *
+     * The callback runs after the outermost scope of the transaction is committed and released.
+     * It is discarded, if the transaction or the nested scope of the registration is rolled back.
+     * Without transaction scope the callback runs immediately.
+     *
+     * @param callback e.g. to publish the changes of the transaction
+     */
+    void afterCommit(Runnable callback);
+
     /**
      * @return database connection
      */
     Connection getConnection();
-}
\ No newline at end of file
+}
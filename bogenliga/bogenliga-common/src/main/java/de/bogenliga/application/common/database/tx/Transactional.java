@@ -0,0 +1,38 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * I define the transaction boundary of a business call.
+ *
+ * Each call of an annotated public method of a spring bean is encapsulated into a transaction scope
+ * of the {@link TransactionManager}. All database operations of the call share one connection
+ * and are committed once after the method returns. The scope is rolled back, if the method throws an exception.
+ *
+ * The annotation of a method overrides the annotation of the class.
+ * The scope is created by a proxy of the bean, so calls within the bean do not start a new scope.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ * @see TransactionInterceptor
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Transactional {
+
+    /**
+     * @return behavior of the scope, if a transaction is already active
+     */
+    Propagation propagation() default Propagation.REQUIRED;
+
+    /**
+     * @return true, if the call does not modify the database
+     */
+    boolean readOnly() default false;
+}
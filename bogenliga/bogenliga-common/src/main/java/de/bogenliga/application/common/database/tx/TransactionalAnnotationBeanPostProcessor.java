@@ -0,0 +1,45 @@
+package de.bogenliga.application.common.database.tx;
+
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * I add the {@link TransactionInterceptor} to all beans with {@link Transactional} classes or methods.
+ *
+ * The beans are proxied with their interfaces, e.g. the
+ * {@link de.bogenliga.application.common.component.ComponentFacade} of a business component.
+ * Therefore the beans must be injected by interface.
+ *
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@Component
+public class TransactionalAnnotationBeanPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final long serialVersionUID = 1L;
+
+
+    /**
+     * Constructor
+     */
+    public TransactionalAnnotationBeanPostProcessor() {
+        // the transaction boundary encloses the advisors of other post processors
+        setBeforeExistingAdvisors(true);
+    }
+
+
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+
+        final Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Transactional.class, true))
+                .union(new AnnotationMatchingPointcut(null, Transactional.class, true));
+
+        this.advisor = new DefaultPointcutAdvisor(pointcut,
+                new TransactionInterceptor(() -> beanFactory.getBean(TransactionManager.class)));
+    }
+}
@@ -23,6 +23,8 @@ public enum ErrorCode {
     // server error
     INTERNAL_ERROR(ErrorCategory.TECHNICAL, "INTERNAL_ERROR"),
     UNEXPECTED_ERROR(ErrorCategory.TECHNICAL, "UNEXPECTED_ERROR"),
+    // overload
+    SERVICE_UNAVAILABLE_ERROR(ErrorCategory.TECHNICAL, "SERVICE_UNAVAILABLE_ERROR"),
     // backward compatibility
     DEPRECATED_VERSION_ERROR(ErrorCategory.TECHNICAL, "DEPRECATED_VERSION_ERROR"),
 
@@ -1,26 +1,46 @@
 package de.bogenliga.application.common.component.dao;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.dbutils.QueryRunner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.Logger;
+import de.bogenliga.application.common.component.types.Page;
+import de.bogenliga.application.common.database.CopyFormat;
 import de.bogenliga.application.common.database.tx.PostgresqlTransactionManager;
 import de.bogenliga.application.common.errorhandling.exception.BusinessException;
 import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Mockito.*;
@@ -46,14 +66,26 @@ public class BasicDAOTest {
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
     @Mock
-    private QueryRunner queryRunner;
+    private MeteredQueryRunner queryRunner;
     @Mock
     private Connection connection;
     @Mock
     private PostgresqlTransactionManager transactionManager;
     @Mock
     private Logger logger;
-    @InjectMocks
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private ResultSetMetaData resultSetMetaData;
+    @Mock
+    private PGConnection pgConnection;
+    @Mock
+    private CopyManager copyManager;
+    @Mock
+    private Savepoint savepoint;
+    private MeterRegistry meterRegistry;
     private BasicDAO underTest;
     @Captor
     private ArgumentCaptor<String> stringArgumentCaptor;
@@ -74,7 +106,9 @@ public class BasicDAOTest {
 
     @Before
     public void initUnderTest() {
-        underTest = new BasicDAO(transactionManager, queryRunner);
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new BasicDAO(transactionManager, queryRunner, new QueryLogger(0, 500, 0, System::nanoTime),
+                new StatementMetrics(meterRegistry));
     }
 
 
@@ -106,6 +140,9 @@ public class BasicDAOTest {
         // verify invocations
         verify(queryRunner).query(eq(connection), eq(SQL_QUERY_WITH_PARAMETER), any(BasicBeanHandler.class),
                 eq(PARAMETER));
+        verify(transactionManager).begin();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
     }
 
 
@@ -130,6 +167,10 @@ public class BasicDAOTest {
         // verify invocations
         verify(queryRunner).query(eq(connection), eq(SQL_QUERY_WITH_PARAMETER), any(BasicBeanHandler.class),
                 eq(PARAMETER));
+        verify(transactionManager).begin();
+        verify(transactionManager).rollback();
+        verify(transactionManager).release();
+        verify(transactionManager, never()).commit();
     }
 
 
@@ -164,12 +205,55 @@ public class BasicDAOTest {
         assertThat(actualBE.getId()).isEqualTo(expected.getId());
         assertThat(actualBE.getName()).isEqualTo(expected.getName());
 
+        assertThat(meterRegistry.get(StatementMetrics.STATEMENT_METER)
+                .tag("table", TABLE_NAME)
+                .tag("statement", "DUMMY SQL QUERY WITH PARAMETER ?;")
+                .tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(StatementMetrics.ROWS_METER).summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get(StatementMetrics.CONNECTION_METER).timer().count()).isEqualTo(1);
+
         // verify invocations
         verify(queryRunner).query(eq(connection), eq(SQL_QUERY_WITH_PARAMETER), any(BasicBeanListHandler.class),
                 eq(PARAMETER));
     }
 
 
+    @Test
+    public void selectEntityList_withSlowQuery_shouldLogExecutionPlan() throws SQLException {
+        // prepare test data
+        final String selectQuery = "SELECT * FROM table WHERE table_id = ?";
+        final AtomicLong now = new AtomicLong();
+        // each query takes one second
+        final QueryLogger queryLogger = new QueryLogger(0, 500, 60_000,
+                () -> now.addAndGet(TimeUnit.SECONDS.toNanos(1)));
+        final BasicDAO slowDAO = new BasicDAO(transactionManager, queryRunner, queryLogger,
+                new StatementMetrics(meterRegistry));
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+        when(queryRunner.query(eq(connection), eq(selectQuery), any(), eq(PARAMETER)))
+                .thenReturn(Collections.emptyList());
+        when(queryRunner.query(eq(connection), eq("EXPLAIN " + selectQuery), any(), eq(PARAMETER)))
+                .thenReturn(Arrays.asList("Seq Scan on table", "  Filter: (id = $1)"));
+
+        // call test method
+        slowDAO.selectEntityList(createConfig(logger), selectQuery, PARAMETER);
+        slowDAO.selectEntityList(createConfig(logger), selectQuery, PARAMETER);
+
+        // assert result
+
+        // verify invocations
+        verify(logger, times(2)).warn("slow query duration={}ms sql={}", 1000L, selectQuery);
+        // the execution plan is logged once per explain interval
+        verify(logger).warn("slow query sql={} plan=\n{}", selectQuery,
+                "Seq Scan on table\n  Filter: (id = $1)");
+        verify(connection).releaseSavepoint(savepoint);
+        verify(connection, never()).rollback(savepoint);
+    }
+
+
     @Test
     public void selectEntityList_withoutResult_shouldReturnEmptyList() throws SQLException {
         // prepare test data
@@ -229,7 +313,7 @@ public class BasicDAOTest {
 
         // configure mocks
         when(transactionManager.getConnection()).thenReturn(connection);
-        when(queryRunner.insert(
+        when(queryRunner.query(
                 eq(connection),
                 anyString(),
                 any(),
@@ -249,7 +333,7 @@ public class BasicDAOTest {
         verify(transactionManager).commit();
         verify(transactionManager).release();
 
-        verify(queryRunner).insert(eq(connection), stringArgumentCaptor.capture(),
+        verify(queryRunner).query(eq(connection), stringArgumentCaptor.capture(),
                 any(BasicBeanHandler.class),
                 eq(NAME));
 
@@ -259,7 +343,350 @@ public class BasicDAOTest {
                 .contains("INSERT INTO")
                 .contains(TABLE_NAME)
                 .contains(TABLE_COLUMN_NAME)
-                .contains("VALUES");
+                .contains("VALUES")
+                .endsWith(" RETURNING *;");
+    }
+
+
+    @Test
+    public void insertEntities_shouldSplitIntoBatches() throws SQLException {
+        // prepare test data
+        final TestBE first = new TestBE();
+        first.setName("first");
+        final TestBE second = new TestBE();
+        second.setName("second");
+        final TestBE third = new TestBE();
+        third.setName("third");
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.batch(eq(connection), anyString(), any(Object[][].class)))
+                .thenReturn(new int[]{1, 1}, new int[]{1});
+
+        // call test method
+        final int[] actual = underTest.insertEntities(createConfig(logger), Arrays.asList(first, second, third), 2);
+
+        // assert result
+        assertThat(actual).containsExactly(1, 1, 1);
+
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+
+        final ArgumentCaptor<Object[][]> parameterCaptor = ArgumentCaptor.forClass(Object[][].class);
+        verify(queryRunner, times(2)).batch(eq(connection), stringArgumentCaptor.capture(),
+                parameterCaptor.capture());
+
+        assertThat(stringArgumentCaptor.getValue())
+                .contains("INSERT INTO")
+                .contains(TABLE_NAME)
+                .contains(TABLE_COLUMN_NAME);
+        assertThat(parameterCaptor.getAllValues().get(0)).hasSize(2);
+        assertThat(parameterCaptor.getAllValues().get(1)[0]).containsExactly("third");
+    }
+
+
+    @Test
+    public void selectEntityListByKeys_shouldBindChunksAsArray() throws SQLException {
+        // prepare test data
+        final TestBE first = new TestBE();
+        first.setName("first");
+        final TestBE third = new TestBE();
+        third.setName("third");
+
+        final Array firstChunk = mock(Array.class);
+        final Array secondChunk = mock(Array.class);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(eq("varchar"), any(Object[].class))).thenReturn(firstChunk, secondChunk);
+        when(queryRunner.query(eq(connection), anyString(), any(), any(Array.class)))
+                .thenReturn(Collections.singletonList(first), Collections.singletonList(third));
+
+        // call test method
+        final List<TestBE> actual = underTest.selectEntityListByKeys(createConfig(logger), BE_PARAMETER_NAME,
+                Arrays.asList("first", "second", null, "first", "third"), 2);
+
+        // assert result
+        assertThat(actual).containsExactly(first, third);
+
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+
+        // null and duplicate keys are removed
+        verify(connection).createArrayOf("varchar", new Object[]{"first", "second"});
+        verify(connection).createArrayOf("varchar", new Object[]{"third"});
+        verify(firstChunk).free();
+        verify(secondChunk).free();
+
+        verify(queryRunner, times(2)).query(eq(connection), stringArgumentCaptor.capture(),
+                any(BasicBeanListHandler.class), any(Array.class));
+
+        assertThat(stringArgumentCaptor.getValue())
+                .isEqualTo(String.format("SELECT * FROM %s WHERE %s = ANY(?)", TABLE_NAME, TABLE_COLUMN_NAME));
+    }
+
+
+    @Test
+    public void selectEntityListByKeys_withoutKeys_shouldNotQuery() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final List<TestBE> actual = underTest.selectEntityListByKeys(createConfig(logger), BE_PARAMETER_ID,
+                Collections.singletonList(null));
+
+        // assert result
+        assertThat(actual).isEmpty();
+
+        // verify invocations
+        verifyZeroInteractions(transactionManager, queryRunner);
+    }
+
+
+    @Test
+    public void selectEntityListByKeys_withUnsupportedKeyType_shouldThrowException() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.selectEntityListByKeys(createConfig(logger), BE_PARAMETER_ID,
+                        Collections.singletonList(new Object())))
+                .withMessageContaining("Unsupported key type");
+
+        // verify invocations
+        verifyZeroInteractions(queryRunner);
+    }
+
+
+    @Test
+    public void selectEntityPage_shouldSeekAfterKey() throws SQLException {
+        // prepare test data
+        final TestBE first = new TestBE();
+        first.setName("first");
+        final TestBE second = new TestBE();
+        second.setName("second");
+        final TestBE third = new TestBE();
+        third.setName("third");
+
+        final String pageQuery = String.format("SELECT * FROM %s WHERE %s > ? ORDER BY %s LIMIT ?",
+                TABLE_NAME, TABLE_COLUMN_NAME, TABLE_COLUMN_NAME);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.query(eq(connection), eq(pageQuery), any(), eq("a"), eq(3)))
+                .thenReturn(Arrays.asList(first, second, third));
+
+        // call test method
+        final Page<TestBE> actual = underTest.selectEntityPage(createConfig(logger), BE_PARAMETER_NAME, "a", 2);
+
+        // assert result
+        // the additional row is not part of the page
+        assertThat(actual.getContent()).containsExactly(first, second);
+        assertThat(actual.getLast()).isSameAs(second);
+        assertThat(actual.hasNext()).isTrue();
+
+        // verify invocations
+        verify(queryRunner).query(eq(connection), eq(pageQuery), any(BasicBeanListHandler.class), eq("a"), eq(3));
+    }
+
+
+    @Test
+    public void selectEntityPage_withoutAfter_shouldSelectFirstPage() throws SQLException {
+        // prepare test data
+        final TestBE first = new TestBE();
+        first.setName("first");
+
+        final String pageQuery = String.format("SELECT * FROM %s ORDER BY %s LIMIT ?",
+                TABLE_NAME, TABLE_COLUMN_NAME);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.query(eq(connection), eq(pageQuery), any(), eq(3)))
+                .thenReturn(Collections.singletonList(first));
+
+        // call test method
+        final Page<TestBE> actual = underTest.selectEntityPage(createConfig(logger), BE_PARAMETER_NAME, null, 2);
+
+        // assert result
+        assertThat(actual.getContent()).containsExactly(first);
+        assertThat(actual.hasNext()).isFalse();
+    }
+
+
+    @Test
+    public void selectEntityPage_withInvalidLimit_shouldThrowException() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.selectEntityPage(createConfig(logger), BE_PARAMETER_NAME, null, 0))
+                .withMessageContaining("Invalid page limit");
+
+        // verify invocations
+        verifyZeroInteractions(queryRunner);
+    }
+
+
+    @Test
+    public void upsertEntity() throws SQLException {
+        // prepare test data
+        final TestBE expected = new TestBE();
+        expected.setId(ID);
+        expected.setName(NAME);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.query(
+                eq(connection),
+                anyString(),
+                any(),
+                anyString()))
+                .thenReturn(new UpsertResult<>(expected, true));
+
+        // call test method
+        final UpsertResult<TestBE> actual = underTest.upsertEntity(createConfig(logger), expected,
+                BE_PARAMETER_NAME);
+
+        // assert result
+        assertThat(actual.getBusinessEntity()).isSameAs(expected);
+        assertThat(actual.isInserted()).isTrue();
+
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+
+        verify(queryRunner).query(eq(connection), stringArgumentCaptor.capture(),
+                any(BasicUpsertHandler.class),
+                eq(NAME));
+
+        assertThat(stringArgumentCaptor.getValue())
+                .startsWith("INSERT INTO " + TABLE_NAME)
+                .contains("ON CONFLICT (" + TABLE_COLUMN_NAME + ") DO UPDATE SET")
+                .endsWith(" RETURNING *, (xmax = 0) AS inserted;");
+    }
+
+
+    @Test
+    public void upsertEntity_withSQLError_shouldThrowException() throws SQLException {
+        // prepare test data
+        final TestBE expected = new TestBE();
+        expected.setName(NAME);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        doThrow(SQLException.class).when(queryRunner).query(
+                eq(connection),
+                anyString(),
+                any(),
+                anyString());
+
+        // call test method
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.upsertEntity(createConfig(logger), expected, BE_PARAMETER_NAME));
+
+        // assert result
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(transactionManager).rollback();
+        verify(transactionManager).release();
+    }
+
+
+    @Test
+    public void upsertEntities_shouldSplitIntoBatches() throws SQLException {
+        // prepare test data
+        final TestBE first = new TestBE();
+        first.setName("first");
+        final TestBE second = new TestBE();
+        second.setName("second");
+        final TestBE third = new TestBE();
+        third.setName("third");
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.batch(eq(connection), anyString(), any(Object[][].class)))
+                .thenReturn(new int[]{1, 1}, new int[]{1});
+
+        // call test method
+        final int[] actual = underTest.upsertEntities(createConfig(logger), Arrays.asList(first, second, third),
+                BE_PARAMETER_NAME, 2);
+
+        // assert result
+        assertThat(actual).containsExactly(1, 1, 1);
+
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+
+        verify(queryRunner, times(2)).batch(eq(connection), stringArgumentCaptor.capture(), any(Object[][].class));
+
+        assertThat(stringArgumentCaptor.getValue())
+                .startsWith("INSERT INTO " + TABLE_NAME)
+                .contains("ON CONFLICT (" + TABLE_COLUMN_NAME + ")")
+                .doesNotContain("RETURNING");
+    }
+
+
+    @Test
+    public void upsertEntities_withDuplicateKeys_shouldKeepLastEntity() throws SQLException {
+        // prepare test data
+        final TestBE first = new TestBE();
+        first.setName("first");
+        final TestBE second = new TestBE();
+        second.setName("second");
+        final TestBE firstAgain = new TestBE();
+        firstAgain.setName("first");
+        final ArgumentCaptor<Object[][]> parameterArgumentCaptor = ArgumentCaptor.forClass(Object[][].class);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.batch(eq(connection), anyString(), any(Object[][].class)))
+                .thenReturn(new int[]{1, 1});
+
+        // call test method
+        final int[] actual = underTest.upsertEntities(createConfig(logger),
+                Arrays.asList(first, second, firstAgain), BE_PARAMETER_NAME);
+
+        // assert result
+        // a rewritten multi-row INSERT ... ON CONFLICT DO UPDATE must not affect a row twice
+        assertThat(actual).containsExactly(1, 1);
+
+        // verify invocations
+        verify(queryRunner).batch(eq(connection), anyString(), parameterArgumentCaptor.capture());
+
+        // the last occurrence of the conflict value is kept
+        assertThat(parameterArgumentCaptor.getValue()).extracting(parameter -> parameter[0])
+                .containsExactly("second", "first");
+    }
+
+
+    @Test
+    public void deleteEntities_withSQLError_shouldRollback() throws SQLException {
+        // prepare test data
+        final TestBE input = new TestBE();
+        input.setId(ID);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        doThrow(SQLException.class).when(queryRunner).batch(eq(connection), anyString(), any(Object[][].class));
+
+        // call test method
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.deleteEntities(createConfig(logger),
+                        Collections.singletonList(input), BE_PARAMETER_ID));
+
+        // assert result
+
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(transactionManager).rollback();
+        verify(transactionManager).release();
+        verify(transactionManager, never()).commit();
     }
 
 
@@ -272,7 +699,7 @@ public class BasicDAOTest {
 
         // configure mocks
         when(transactionManager.getConnection()).thenReturn(connection);
-        doThrow(SQLException.class).when(queryRunner).insert(
+        doThrow(SQLException.class).when(queryRunner).query(
                 eq(connection),
                 anyString(),
                 any(),
@@ -288,7 +715,7 @@ public class BasicDAOTest {
         verify(transactionManager).release();
         verify(transactionManager).rollback();
 
-        verify(queryRunner).insert(eq(connection), stringArgumentCaptor.capture(),
+        verify(queryRunner).query(eq(connection), stringArgumentCaptor.capture(),
                 any(BasicBeanHandler.class),
                 eq(NAME));
 
@@ -298,7 +725,8 @@ public class BasicDAOTest {
                 .contains("INSERT INTO")
                 .contains(TABLE_NAME)
                 .contains(TABLE_COLUMN_NAME)
-                .contains("VALUES");
+                .contains("VALUES")
+                .endsWith(" RETURNING *;");
     }
 
 
@@ -391,27 +819,19 @@ public class BasicDAOTest {
         expected.setId(ID);
         expected.setName(NAME);
 
-        final int affectedRows = 1;
-
         // configure mocks
         when(transactionManager.getConnection()).thenReturn(connection);
-        when(queryRunner.update(
-                eq(connection),
-                anyString(),
-                any(),
-                any()))
-                .thenReturn(affectedRows);
         when(queryRunner.query(
                 eq(connection),
                 anyString(),
                 any(),
-                any(Object.class)))
-                .thenReturn(expected);
+                any(),
+                any()))
+                .thenReturn(Collections.singletonList(expected));
 
 
         // call test method
-        final TestBE actual = underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID,
-                SQL_QUERY_WITH_PARAMETER);
+        final TestBE actual = underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID);
 
         // assert result
         assertThat(actual).isNotNull();
@@ -423,51 +843,74 @@ public class BasicDAOTest {
         verify(transactionManager).commit();
         verify(transactionManager).release();
 
-        verify(queryRunner).query(eq(connection), eq(SQL_QUERY_WITH_PARAMETER), any(BasicBeanHandler.class),
-                eq(ID));
-
-        verify(queryRunner).update(eq(connection), stringArgumentCaptor.capture(),
+        // single round trip without an additional SELECT query
+        verify(queryRunner).query(eq(connection), stringArgumentCaptor.capture(), any(BasicBeanListHandler.class),
                 eq(NAME), eq(ID));
+        verify(queryRunner, never()).update(any(Connection.class), anyString(), any(Object[].class));
 
         final String query = stringArgumentCaptor.getValue();
 
         assertThat(query)
                 .contains("UPDATE")
                 .contains(TABLE_NAME)
-                .contains(TABLE_NAME)
                 .contains(TABLE_COLUMN_ID)
-                .contains("WHERE");
+                .contains("WHERE")
+                .endsWith(" RETURNING *;");
     }
 
 
     @Test
-    public void updateEntity_withSQLError_shouldThrowException() throws SQLException {
+    @SuppressWarnings("deprecation")
+    public void updateEntity_withSingleSelectSql_shouldIgnoreSelect() throws SQLException {
         // prepare test data
         final TestBE expected = new TestBE();
         expected.setId(ID);
         expected.setName(NAME);
 
-        final int affectedRows = 1;
-
         // configure mocks
         when(transactionManager.getConnection()).thenReturn(connection);
-        when(queryRunner.update(
+        when(queryRunner.query(
                 eq(connection),
                 anyString(),
                 any(),
+                any(),
                 any()))
-                .thenReturn(affectedRows);
+                .thenReturn(Collections.singletonList(expected));
+
+
+        // call test method
+        final TestBE actual = underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID,
+                SQL_QUERY_WITH_PARAMETER);
+
+        // assert result
+        assertThat(actual).isSameAs(expected);
+
+        // verify invocations
+        verify(queryRunner, never()).query(eq(connection), eq(SQL_QUERY_WITH_PARAMETER), any(BasicBeanHandler.class),
+                any(Object.class));
+    }
+
+
+    @Test
+    public void updateEntity_withSQLError_shouldThrowException() throws SQLException {
+        // prepare test data
+        final TestBE expected = new TestBE();
+        expected.setId(ID);
+        expected.setName(NAME);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
         doThrow(SQLException.class).when(queryRunner).query(
                 eq(connection),
                 anyString(),
                 any(),
-                any(Object.class));
+                any(),
+                any());
 
 
         // call test method
         assertThatExceptionOfType(TechnicalException.class)
-                .isThrownBy(() -> underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID,
-                        SQL_QUERY_WITH_PARAMETER));
+                .isThrownBy(() -> underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID));
 
         // assert result
         // verify invocations
@@ -475,10 +918,7 @@ public class BasicDAOTest {
         verify(transactionManager).rollback();
         verify(transactionManager).release();
 
-        verify(queryRunner).query(eq(connection), eq(SQL_QUERY_WITH_PARAMETER), any(BasicBeanHandler.class),
-                eq(ID));
-
-        verify(queryRunner).update(eq(connection), stringArgumentCaptor.capture(),
+        verify(queryRunner).query(eq(connection), stringArgumentCaptor.capture(), any(BasicBeanListHandler.class),
                 eq(NAME), eq(ID));
 
         final String query = stringArgumentCaptor.getValue();
@@ -486,7 +926,6 @@ public class BasicDAOTest {
         assertThat(query)
                 .contains("UPDATE")
                 .contains(TABLE_NAME)
-                .contains(TABLE_NAME)
                 .contains(TABLE_COLUMN_ID)
                 .contains("WHERE");
     }
@@ -512,27 +951,28 @@ public class BasicDAOTest {
 
         // configure mocks
         when(transactionManager.getConnection()).thenReturn(connection);
-        when(queryRunner.update(
+        when(queryRunner.query(
                 eq(connection),
                 anyString(),
                 any(),
+                any(),
                 any()))
-                .thenReturn(affectedRows);
+                .thenReturn(Collections.nCopies(affectedRows, expected));
 
 
         // call test method
         assertThatExceptionOfType(BusinessException.class)
-                .isThrownBy(() -> underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID,
-                        SQL_QUERY_WITH_PARAMETER))
+                .isThrownBy(() -> underTest.updateEntity(createConfig(logger), expected, BE_PARAMETER_ID))
                 .withMessageContaining(errorMessage);
 
         // assert result
         // verify invocations
         verify(transactionManager).begin();
         verify(transactionManager).rollback();
+        verify(transactionManager, never()).commit();
         verify(transactionManager).release();
 
-        verify(queryRunner).update(eq(connection), stringArgumentCaptor.capture(),
+        verify(queryRunner).query(eq(connection), stringArgumentCaptor.capture(), any(BasicBeanListHandler.class),
                 eq(NAME), eq(ID));
 
         final String query = stringArgumentCaptor.getValue();
@@ -540,7 +980,6 @@ public class BasicDAOTest {
         assertThat(query)
                 .contains("UPDATE")
                 .contains(TABLE_NAME)
-                .contains(TABLE_NAME)
                 .contains(TABLE_COLUMN_ID)
                 .contains("WHERE");
     }
@@ -641,11 +1080,75 @@ public class BasicDAOTest {
     }
 
 
+    @Test
+    public void streamEntities() throws SQLException {
+        // prepare test data
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.prepareCursor(connection, SQL_QUERY_WITH_PARAMETER)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(resultSetMetaData);
+        when(resultSetMetaData.getColumnCount()).thenReturn(2);
+        when(resultSetMetaData.getColumnLabel(1)).thenReturn(TABLE_COLUMN_ID);
+        when(resultSetMetaData.getColumnLabel(2)).thenReturn(TABLE_COLUMN_NAME);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(1)).thenReturn(ID, ID + 1);
+        when(resultSet.getString(2)).thenReturn(NAME);
+
+        // call test method
+        final List<TestBE> actual;
+        try (final Stream<TestBE> stream = underTest.streamEntities(createConfig(logger), 50,
+                SQL_QUERY_WITH_PARAMETER, PARAMETER)) {
+
+            // assert result
+            verify(transactionManager, never()).commit();
+
+            actual = stream.collect(Collectors.toList());
+        }
+
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0).getId()).isEqualTo(ID);
+        assertThat(actual.get(1).getId()).isEqualTo(ID + 1);
+        assertThat(actual.get(1).getName()).isEqualTo(NAME);
+
+        // verify invocations
+        verify(transactionManager).begin();
+        verify(preparedStatement).setFetchSize(50);
+        verify(queryRunner).fillStatement(preparedStatement, PARAMETER);
+        verify(resultSet).close();
+        verify(preparedStatement).close();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+    }
+
+
+    @Test
+    public void streamEntities_withSQLError_shouldThrowException() throws SQLException {
+        // prepare test data
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(queryRunner.prepareCursor(connection, SQL_QUERY_WITH_PARAMETER)).thenReturn(preparedStatement);
+        doThrow(SQLException.class).when(preparedStatement).executeQuery();
+
+        // call test method
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.streamEntities(createConfig(logger), SQL_QUERY_WITH_PARAMETER,
+                        PARAMETER));
+
+        // assert result
+
+        // verify invocations
+        verify(preparedStatement).close();
+        verify(transactionManager).rollback();
+        verify(transactionManager).release();
+        verify(transactionManager, never()).commit();
+    }
+
+
     @Test
     public void logSQL() {
         // prepare test data
         // configure mocks
-        when(logger.isInfoEnabled()).thenReturn(true);
 
         // call test method
         final String actual = underTest.logSQL(logger, SQL_QUERY);
@@ -654,17 +1157,17 @@ public class BasicDAOTest {
         assertThat(actual).isEqualTo(SQL_QUERY);
 
         // verify invocations
-        verify(logger).info(SQL_QUERY);
+        verify(logger).debug("sql={}", SQL_QUERY);
     }
 
 
     @Test
     public void logSQL_withParameter() {
         // prepare test data
-        final String expected = SQL_QUERY_WITH_PARAMETER.replace("?", PARAMETER);
+        final String expected = "[" + PARAMETER + "]";
 
         // configure mocks
-        when(logger.isInfoEnabled()).thenReturn(true);
+        when(logger.isTraceEnabled()).thenReturn(true);
 
         // call test method
         final String actual = underTest.logSQL(logger, SQL_QUERY_WITH_PARAMETER, PARAMETER);
@@ -673,6 +1176,156 @@ public class BasicDAOTest {
         assertThat(actual).isEqualTo(SQL_QUERY_WITH_PARAMETER);
 
         // verify invocations
-        verify(logger).info(expected);
+        verify(logger).trace("sql={} parameter={}", SQL_QUERY_WITH_PARAMETER, expected);
+        verify(logger, never()).debug(anyString(), any(Object.class));
+    }
+
+
+    @Test
+    public void copyOut() throws SQLException, IOException {
+        // prepare test data
+        final OutputStream outputStream = new ByteArrayOutputStream();
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyOut(anyString(), eq(outputStream))).thenReturn(2L);
+
+        // call test method
+        final long actual = underTest.copyOut(createConfig(logger), SQL_QUERY, CopyFormat.CSV, outputStream);
+
+        // assert result
+        assertThat(actual).isEqualTo(2L);
+
+        // verify invocations
+        verify(copyManager).copyOut(stringArgumentCaptor.capture(), eq(outputStream));
+        assertThat(stringArgumentCaptor.getValue())
+                .isEqualTo("COPY (" + SQL_QUERY + ") TO STDOUT WITH (FORMAT csv, HEADER true)");
+
+        verify(transactionManager).begin();
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+    }
+
+
+    @Test
+    public void copyIn_shouldMergeStagingTable() throws SQLException, IOException {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(queryRunner.update(eq(connection), anyString())).thenReturn(0, 0, 3);
+
+        // call test method
+        final long actual = underTest.copyIn(createConfig(logger), BE_PARAMETER_ID,
+                Arrays.asList(TABLE_COLUMN_ID, TABLE_COLUMN_NAME), CopyFormat.BINARY, inputStream);
+
+        // assert result
+        assertThat(actual).isEqualTo(3L);
+
+        // verify invocations
+        verify(copyManager).copyIn(stringArgumentCaptor.capture(), eq(inputStream));
+        assertThat(stringArgumentCaptor.getValue())
+                .isEqualTo("COPY staging_table (" + TABLE_COLUMN_ID + ", " + TABLE_COLUMN_NAME
+                        + ") FROM STDIN WITH (FORMAT binary)");
+
+        verify(queryRunner, times(3)).update(eq(connection), stringArgumentCaptor.capture());
+        // a staging table of a previous import in the same transaction is replaced
+        assertThat(stringArgumentCaptor.getAllValues().get(1))
+                .isEqualTo("DROP TABLE IF EXISTS staging_table");
+        assertThat(stringArgumentCaptor.getAllValues().get(2))
+                .startsWith("CREATE TEMPORARY TABLE staging_table (LIKE table");
+        assertThat(stringArgumentCaptor.getAllValues().get(3))
+                .contains("INSERT INTO table (" + TABLE_COLUMN_ID + ", " + TABLE_COLUMN_NAME + ")")
+                .contains("ON CONFLICT (" + TABLE_COLUMN_ID + ") DO UPDATE SET "
+                        + TABLE_COLUMN_NAME + " = EXCLUDED." + TABLE_COLUMN_NAME);
+
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+    }
+
+
+    @Test
+    public void copyIn_withDuplicateKeys_shouldMergeLastRow() throws SQLException, IOException {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(
+                "1,first\n1,second\n".getBytes(StandardCharsets.UTF_8));
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(queryRunner.update(eq(connection), anyString())).thenReturn(0, 0, 1);
+
+        // call test method
+        final long actual = underTest.copyIn(createConfig(logger), BE_PARAMETER_ID,
+                Arrays.asList(TABLE_COLUMN_ID, TABLE_COLUMN_NAME), CopyFormat.CSV, inputStream);
+
+        // assert result
+        assertThat(actual).isEqualTo(1L);
+
+        // verify invocations
+        verify(copyManager).copyIn(stringArgumentCaptor.capture(), eq(inputStream));
+        // the ordinal is not copied, but numbers the staged rows in the order of the input stream
+        assertThat(stringArgumentCaptor.getValue())
+                .startsWith("COPY staging_table (" + TABLE_COLUMN_ID + ", " + TABLE_COLUMN_NAME + ")");
+
+        verify(queryRunner, times(3)).update(eq(connection), stringArgumentCaptor.capture());
+        assertThat(stringArgumentCaptor.getAllValues().get(2))
+                .endsWith(", staging_ordinal bigserial) ON COMMIT DROP");
+        // the physical row order (ctid) does not follow the input order
+        assertThat(stringArgumentCaptor.getAllValues().get(3))
+                .contains("SELECT DISTINCT ON (" + TABLE_COLUMN_ID + ") " + TABLE_COLUMN_ID + ", "
+                        + TABLE_COLUMN_NAME + " FROM staging_table")
+                .contains("ORDER BY " + TABLE_COLUMN_ID + ", staging_ordinal DESC")
+                .doesNotContain("ctid");
+    }
+
+
+    @Test
+    public void copyIn_withoutIdentifierColumn_shouldThrowException() {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // configure mocks
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> underTest.copyIn(createConfig(logger), BE_PARAMETER_ID,
+                        Collections.singletonList(TABLE_COLUMN_NAME), CopyFormat.CSV, inputStream))
+                .withMessageContaining(TABLE_COLUMN_ID);
+
+        // assert result
+
+        // verify invocations
+        verifyZeroInteractions(transactionManager, queryRunner);
+    }
+
+
+    @Test
+    public void copyIn_withSQLError_shouldRollback() throws SQLException, IOException {
+        // prepare test data
+        final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // configure mocks
+        when(transactionManager.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        doThrow(SQLException.class).when(copyManager).copyIn(anyString(), any(InputStream.class));
+
+        // call test method
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.copyIn(createConfig(logger), BE_PARAMETER_ID,
+                        Arrays.asList(TABLE_COLUMN_ID, TABLE_COLUMN_NAME), CopyFormat.CSV, inputStream));
+
+        // assert result
+
+        // verify invocations
+        verify(transactionManager).rollback();
+        verify(transactionManager).release();
+        verify(transactionManager, never()).commit();
     }
-}
\ No newline at end of file
+}
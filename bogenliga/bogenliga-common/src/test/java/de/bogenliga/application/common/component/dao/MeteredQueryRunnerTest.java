@@ -0,0 +1,127 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.postgresql.PGStatement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class MeteredQueryRunnerTest {
+
+    private static final String SQL_QUERY = "UPDATE t_test SET name = ? WHERE id = ?";
+    private static final String SELECT_QUERY = "SELECT * FROM t_test WHERE name = ?";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private PGStatement pgStatement;
+    @Mock
+    private ParameterMetaData parameterMetaData;
+
+    private MeterRegistry meterRegistry;
+    private MeteredQueryRunner underTest;
+
+
+    @Before
+    public void initUnderTest() throws SQLException {
+        when(preparedStatement.getParameterMetaData()).thenReturn(parameterMetaData);
+        when(parameterMetaData.getParameterCount()).thenReturn(2);
+
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new MeteredQueryRunner(meterRegistry);
+    }
+
+
+    @Test
+    public void update_shouldCountStatementCacheHitsAndMisses() throws SQLException {
+        // prepare test data
+
+        // configure mocks
+        when(connection.prepareStatement(SQL_QUERY)).thenReturn(preparedStatement);
+        when(preparedStatement.isWrapperFor(PGStatement.class)).thenReturn(true);
+        when(preparedStatement.unwrap(PGStatement.class)).thenReturn(pgStatement);
+        when(pgStatement.isUseServerPrepare()).thenReturn(false, true, true);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        // call test method
+        for (int i = 0; i < 3; i++) {
+            underTest.update(connection, SQL_QUERY, "name", 1L);
+        }
+
+        // assert result
+        assertThat(count("hit")).isEqualTo(2);
+        assertThat(count("miss")).isEqualTo(1);
+
+        // verify invocations
+        verify(preparedStatement, times(3)).executeUpdate();
+        verify(preparedStatement, times(3)).close();
+    }
+
+
+    @Test
+    public void update_withoutPostgresqlStatement_shouldNotCount() throws SQLException {
+        // prepare test data
+
+        // configure mocks
+        when(connection.prepareStatement(SQL_QUERY)).thenReturn(preparedStatement);
+
+        // call test method
+        underTest.update(connection, SQL_QUERY, "name", 1L);
+
+        // assert result
+        assertThat(count("hit")).isZero();
+        assertThat(count("miss")).isZero();
+
+        // verify invocations
+        verify(preparedStatement, never()).unwrap(any());
+    }
+
+
+    @Test
+    public void prepareCursor_shouldCountStatementCacheHit() throws SQLException {
+        // prepare test data
+
+        // configure mocks
+        when(connection.prepareStatement(SELECT_QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.isWrapperFor(PGStatement.class)).thenReturn(true);
+        when(preparedStatement.unwrap(PGStatement.class)).thenReturn(pgStatement);
+        when(pgStatement.isUseServerPrepare()).thenReturn(true);
+
+        // call test method
+        final PreparedStatement actual = underTest.prepareCursor(connection, SELECT_QUERY);
+
+        // assert result
+        assertThat(actual).isSameAs(preparedStatement);
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isZero();
+
+        // verify invocations
+        verify(preparedStatement, never()).close();
+    }
+
+
+    private double count(final String result) {
+        return meterRegistry.get(MeteredQueryRunner.STATEMENT_CACHE_METER).tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,137 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.slf4j.Logger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class QueryLoggerTest {
+
+    private static final String SQL_QUERY = "SELECT * FROM t_test WHERE id = ?";
+    private static final Object[] PARAMETER = {1L};
+    private static final long SLOW_QUERY_THRESHOLD = 500;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private Logger logger;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+
+    @Test
+    public void log_withSlowQuery_shouldAlwaysLogWarning() {
+        // prepare test data
+        final QueryLogger underTest = new QueryLogger(0, SLOW_QUERY_THRESHOLD, 0, now::get);
+
+        // configure mocks
+
+        // call test method
+        final long start = underTest.start();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(SLOW_QUERY_THRESHOLD));
+        underTest.log(logger, start, SQL_QUERY, PARAMETER);
+
+        // assert result
+        assertThat(start).isEqualTo(1_000);
+
+        // verify invocations
+        verify(logger).warn("slow query duration={}ms sql={}", SLOW_QUERY_THRESHOLD, SQL_QUERY);
+        verify(logger, never()).isDebugEnabled();
+    }
+
+
+    @Test
+    public void log_withSlowQueryAndTraceLevel_shouldLogParameter() {
+        // prepare test data
+        final QueryLogger underTest = new QueryLogger(0, SLOW_QUERY_THRESHOLD, 0, now::get);
+
+        // configure mocks
+        when(logger.isTraceEnabled()).thenReturn(true);
+
+        // call test method
+        final long start = underTest.start();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(SLOW_QUERY_THRESHOLD + 1));
+        underTest.log(logger, start, SQL_QUERY, PARAMETER);
+
+        // assert result
+
+        // verify invocations
+        verify(logger).warn("slow query duration={}ms sql={} parameter={}",
+                SLOW_QUERY_THRESHOLD + 1, SQL_QUERY, "[1]");
+    }
+
+
+    @Test
+    public void log_withFastQueryNotSampled_shouldNotLog() {
+        // prepare test data
+        final QueryLogger underTest = new QueryLogger(0, SLOW_QUERY_THRESHOLD, 0, now::get);
+
+        // configure mocks
+        when(logger.isDebugEnabled()).thenReturn(true);
+
+        // call test method
+        final long start = underTest.start();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        underTest.log(logger, start, SQL_QUERY, PARAMETER);
+
+        // assert result
+
+        // verify invocations
+        verify(logger).isDebugEnabled();
+        verifyNoMoreInteractions(logger);
+    }
+
+
+    @Test
+    public void log_withFastQuerySampled_shouldLogDebugWithoutParameter() {
+        // prepare test data
+        final QueryLogger underTest = new QueryLogger(1, SLOW_QUERY_THRESHOLD, 0, now::get);
+
+        // configure mocks
+        when(logger.isDebugEnabled()).thenReturn(true);
+
+        // call test method
+        final long start = underTest.start();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        underTest.log(logger, start, SQL_QUERY, PARAMETER);
+
+        // assert result
+
+        // verify invocations
+        verify(logger).debug("duration={}ms sql={}", 10L, SQL_QUERY);
+        verify(logger, never()).trace(anyString(), any(), any(), any());
+    }
+
+
+    @Test
+    public void log_withFastQuerySampledAndTraceLevel_shouldLogParameter() {
+        // prepare test data
+        final QueryLogger underTest = new QueryLogger(1, SLOW_QUERY_THRESHOLD, 0, now::get);
+
+        // configure mocks
+        when(logger.isDebugEnabled()).thenReturn(true);
+        when(logger.isTraceEnabled()).thenReturn(true);
+
+        // call test method
+        final long start = underTest.start();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        underTest.log(logger, start, SQL_QUERY, null);
+        underTest.log(logger, start, SQL_QUERY, PARAMETER);
+
+        // assert result
+
+        // verify invocations
+        verify(logger).debug("duration={}ms sql={}", 10L, SQL_QUERY);
+        verify(logger).trace("duration={}ms sql={} parameter={}", 10L, SQL_QUERY, "[1]");
+    }
+}
@@ -0,0 +1,117 @@
+package de.bogenliga.application.common.component.dao;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class StatementMetricsTest {
+
+    private static final String TABLE = "t_test";
+    private static final String SQL_QUERY = "SELECT * FROM t_test WHERE id = ?";
+
+    private MeterRegistry meterRegistry;
+    private StatementMetrics underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new StatementMetrics(meterRegistry);
+    }
+
+
+    @Test
+    public void get_shouldRecordExecutionsPerStatement() {
+        // prepare test data
+
+        // call test method
+        final StatementMetrics.Statement statement = underTest.get(TABLE, SQL_QUERY);
+        statement.record(TimeUnit.MILLISECONDS.toNanos(5), 3);
+        statement.record(TimeUnit.MILLISECONDS.toNanos(15), -1);
+        statement.recordError(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // assert result
+        assertThat(underTest.get(TABLE, SQL_QUERY)).isSameAs(statement);
+
+        final Timer success = meterRegistry.get(StatementMetrics.STATEMENT_METER)
+                .tags("table", TABLE, "statement", SQL_QUERY, "outcome", "success").timer();
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(success.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(20);
+        assertThat(meterRegistry.get(StatementMetrics.STATEMENT_METER).tag("outcome", "error").timer().count())
+                .isEqualTo(1);
+        // the unknown row count is not recorded
+        assertThat(meterRegistry.get(StatementMetrics.ROWS_METER).summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(StatementMetrics.ROWS_METER).summary().totalAmount()).isEqualTo(3);
+    }
+
+
+    @Test
+    public void recordConnection_shouldRecordPerTable() {
+        // prepare test data
+
+        // call test method
+        underTest.recordConnection(TABLE, TimeUnit.MILLISECONDS.toNanos(2));
+        underTest.recordConnection(TABLE, TimeUnit.MILLISECONDS.toNanos(4));
+
+        // assert result
+        final Timer timer = meterRegistry.get(StatementMetrics.CONNECTION_METER).tag("table", TABLE).timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(6);
+    }
+
+
+    @Test
+    public void normalize_shouldReplaceLiteralsAndWhitespaces() {
+        // prepare test data
+        final String sql = "SELECT *\n  FROM t_test\tWHERE name = 'it''s' AND version > 12 AND id = ? LIMIT 10";
+
+        // call test method
+        final String actual = StatementMetrics.normalize(sql);
+
+        // assert result
+        assertThat(actual).isEqualTo("SELECT * FROM t_test WHERE name = ? AND version > ? AND id = ? LIMIT ?");
+    }
+
+
+    @Test
+    public void tryExplain_shouldExplainOncePerInterval() {
+        // prepare test data
+        final long interval = TimeUnit.SECONDS.toNanos(60);
+        final StatementMetrics.Statement statement = underTest.get(TABLE, SQL_QUERY);
+
+        // call test method
+        final boolean first = statement.tryExplain(0, interval);
+        final boolean second = statement.tryExplain(interval - 1, interval);
+        final boolean third = statement.tryExplain(interval, interval);
+
+        // assert result
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(third).isTrue();
+    }
+
+
+    @Test
+    public void get_withoutMeterRegistry_shouldNotRecord() {
+        // prepare test data
+        final StatementMetrics metrics = new StatementMetrics(null);
+
+        // call test method
+        final StatementMetrics.Statement statement = metrics.get(TABLE, SQL_QUERY);
+        statement.record(1, 1);
+        statement.recordError(1);
+        metrics.recordConnection(TABLE, 1);
+
+        // assert result
+        assertThat(statement.tryExplain(0, 1)).isTrue();
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+}
@@ -0,0 +1,125 @@
+package de.bogenliga.application.common.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class BeanRowMapperTest {
+
+    private static final long ID = 123L;
+    private static final String NAME = "value";
+    private static final int NUMBER = 5;
+
+    private static final String[] COLUMNS = {"pk", "NAME", "is_active", "ready", "quantity", "entity_state", "unknown"};
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private ResultSetMetaData metaData;
+
+    private BeanRowMapper<TestBE> underTest;
+
+
+    private static Map<String, String> createFieldMapping() {
+        final Map<String, String> fieldMapping = new HashMap<>();
+        fieldMapping.put("pk", "id");
+        fieldMapping.put("is_active", "active");
+        fieldMapping.put("quantity", "number");
+        fieldMapping.put("entity_state", "state");
+        return fieldMapping;
+    }
+
+
+    @Before
+    public void initUnderTest() throws SQLException {
+        underTest = new BeanRowMapper<>(TestBE.class, createFieldMapping());
+
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(COLUMNS.length);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(COLUMNS[i]);
+        }
+    }
+
+
+    @Test
+    public void toBean() throws SQLException {
+        // prepare test data
+        // configure mocks
+        when(resultSet.getLong(1)).thenReturn(ID);
+        when(resultSet.getString(2)).thenReturn(NAME);
+        when(resultSet.getBoolean(3)).thenReturn(true);
+        when(resultSet.getBoolean(4)).thenReturn(false);
+        when(resultSet.getInt(5)).thenReturn(NUMBER);
+        when(resultSet.getObject(6)).thenReturn(TestEnum.TEST.name());
+        // id, active, ready (NULL), number
+        when(resultSet.wasNull()).thenReturn(false, false, true, false);
+
+        // call test method
+        final TestBE actual = underTest.toBean(resultSet);
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.getId()).isEqualTo(ID);
+        assertThat(actual.getName()).isEqualTo(NAME);
+        assertThat(actual.isActive()).isTrue();
+        assertThat(actual.isReady()).isNull();
+        assertThat(actual.getNumber()).isEqualTo(NUMBER);
+        assertThat(actual.getState()).isEqualTo(TestEnum.TEST);
+
+        // verify invocations
+        verify(resultSet, never()).getObject(7);
+    }
+
+
+    @Test
+    public void toBeanList_shouldResolveColumnsOnce() throws SQLException {
+        // prepare test data
+        // configure mocks
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L);
+
+        // call test method
+        final List<TestBE> actual = underTest.toBeanList(resultSet);
+
+        // assert result
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0).getId()).isEqualTo(1L);
+        assertThat(actual.get(1).getId()).isEqualTo(2L);
+
+        // verify invocations
+        verify(resultSet, times(1)).getMetaData();
+    }
+
+
+    @Test
+    public void bind_withSameShape_shouldReuseBinding() throws SQLException {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final BeanRowMapper.Binding<TestBE> first = underTest.bind(resultSet);
+        final BeanRowMapper.Binding<TestBE> second = underTest.bind(resultSet);
+
+        // assert result
+        assertThat(second).isSameAs(first);
+
+        // verify invocations
+    }
+}
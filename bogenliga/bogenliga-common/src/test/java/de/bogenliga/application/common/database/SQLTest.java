@@ -3,6 +3,8 @@ package de.bogenliga.application.common.database;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.Test;
+import de.bogenliga.application.common.errorhandling.exception.BusinessException;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 /**
@@ -314,4 +316,192 @@ public class SQLTest {
 
         // verify invocations
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void compileInsertSQL_shouldBindParameterOfEachEntity() {
+        // prepare test data
+        final TestBE other = createBE();
+        other.setName("other");
+        other.setState(null);
+
+        // configure mocks
+        // call test method
+        final SQLStatementPlan plan = SQL.compileInsertSQL(TestBE.class, TABLE_NAME, FIELD_MAPPING);
+
+        // assert result
+        assertThat(plan.getSql()).isEqualTo(SQL.insertSQL(INPUT, TABLE_NAME, FIELD_MAPPING).getSql());
+        assertThat(plan.getColumns()).containsExactly(TABLE_FIELD_NAME, TABLE_FIELD_ACTIVE, TABLE_FIELD_READY,
+                TABLE_FIELD_NUMBER, TABLE_FIELD_STATE);
+        assertThat(plan.bindParameter(INPUT)).containsExactly(NAME, ACTIVE, READY, NUMBER, STATE.name());
+        assertThat(plan.bindParameter(other)).containsExactly("other", ACTIVE, READY, NUMBER, null);
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void compileUpdateSQL_shouldBindIdentifierAsLastParameter() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQLStatementPlan plan = SQL.compileUpdateSQL(TestBE.class, TABLE_NAME, "name", FIELD_MAPPING);
+        final SQL.SQLWithParameter actual = plan.bind(INPUT);
+
+        // assert result
+        assertThat(actual.getSql())
+                .isEqualTo(String.format("UPDATE %s SET %s=?, %s=?, %s=?, %s=? WHERE %s = ?;",
+                        TABLE_NAME, TABLE_FIELD_ACTIVE, TABLE_FIELD_READY, TABLE_FIELD_NUMBER, TABLE_FIELD_STATE,
+                        TABLE_FIELD_NAME));
+        assertThat(actual.getParameter()).containsExactly(ACTIVE, READY, NUMBER, STATE.name(), NAME);
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void compileDeleteSQL_shouldBindIdentifier() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQLStatementPlan plan = SQL.compileDeleteSQL(TestBE.class, TABLE_NAME, "id", FIELD_MAPPING);
+        final SQL.SQLWithParameter actual = plan.bind(INPUT);
+
+        // assert result
+        assertThat(actual.getSql())
+                .isEqualTo(String.format("DELETE FROM %s WHERE %s = ?;", TABLE_NAME, TABLE_FIELD_ID));
+        assertThat(plan.getColumns()).containsExactly(TABLE_FIELD_ID);
+        assertThat(actual.getParameter()).containsExactly(ID);
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void escapeLikePattern_shouldEscapeWildcards() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final String actual = SQL.escapeLikePattern("app.100%_ready\\");
+
+        // assert result
+        assertThat(actual).isEqualTo("app.100\\%\\_ready\\\\");
+        assertThat(SQL.escapeLikePattern("app.bogenliga")).isEqualTo("app.bogenliga");
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void insertSQL_withReturning() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQL.SQLWithParameter actual = SQL.insertSQL(INPUT, TABLE_NAME, FIELD_MAPPING, true);
+
+        // assert result
+        assertThat(actual.getSql())
+                .isEqualTo(String.format("INSERT INTO %s (%s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?) RETURNING *;",
+                        TABLE_NAME, TABLE_FIELD_NAME, TABLE_FIELD_ACTIVE, TABLE_FIELD_READY, TABLE_FIELD_NUMBER,
+                        TABLE_FIELD_STATE));
+        assertThat(actual.getParameter()).containsExactly(NAME, ACTIVE, READY, NUMBER, STATE.name());
+
+        // the statements without RETURNING clause are cached separately
+        assertThat(SQL.insertSQL(INPUT, TABLE_NAME, FIELD_MAPPING).getSql()).doesNotContain("RETURNING");
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void updateSQL_withReturning() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQL.SQLWithParameter actual = SQL.updateSQL(INPUT, TABLE_NAME, "name", FIELD_MAPPING, true);
+
+        // assert result
+        assertThat(actual.getSql())
+                .isEqualTo(String.format("UPDATE %s SET %s=?, %s=?, %s=?, %s=? WHERE %s = ? RETURNING *;",
+                        TABLE_NAME, TABLE_FIELD_ACTIVE, TABLE_FIELD_READY, TABLE_FIELD_NUMBER, TABLE_FIELD_STATE,
+                        TABLE_FIELD_NAME));
+        assertThat(actual.getParameter()).containsExactly(ACTIVE, READY, NUMBER, STATE.name(), NAME);
+
+        // the statements without RETURNING clause are cached separately
+        assertThat(SQL.updateSQL(INPUT, TABLE_NAME, "name", FIELD_MAPPING).getSql()).doesNotContain("RETURNING");
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void deleteSQL_withReturning() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQL.SQLWithParameter actual = SQL.deleteSQL(INPUT, TABLE_NAME, "id", FIELD_MAPPING, true);
+
+        // assert result
+        assertThat(actual.getSql())
+                .isEqualTo(String.format("DELETE FROM %s WHERE %s = ? RETURNING *;", TABLE_NAME, TABLE_FIELD_ID));
+        assertThat(actual.getParameter()).containsExactly(ID);
+
+        // the statements without RETURNING clause are cached separately
+        assertThat(SQL.deleteSQL(INPUT, TABLE_NAME, "id", FIELD_MAPPING).getSql()).doesNotContain("RETURNING");
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void compileUpsertSQL_shouldUpdateAllOtherColumnsOnConflict() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQLStatementPlan plan = SQL.compileUpsertSQL(TestBE.class, TABLE_NAME, "name", FIELD_MAPPING, false);
+        final SQL.SQLWithParameter actual = plan.bind(INPUT);
+
+        // assert result
+        assertThat(actual.getSql())
+                .isEqualTo(String.format("INSERT INTO %1$s (%2$s, %3$s, %4$s, %5$s, %6$s) VALUES (?, ?, ?, ?, ?)"
+                                + " ON CONFLICT (%2$s) DO UPDATE SET %3$s = EXCLUDED.%3$s, %4$s = EXCLUDED.%4$s,"
+                                + " %5$s = EXCLUDED.%5$s, %6$s = EXCLUDED.%6$s;",
+                        TABLE_NAME, TABLE_FIELD_NAME, TABLE_FIELD_ACTIVE, TABLE_FIELD_READY, TABLE_FIELD_NUMBER,
+                        TABLE_FIELD_STATE));
+        assertThat(actual.getParameter()).containsExactly(NAME, ACTIVE, READY, NUMBER, STATE.name());
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void upsertSQL_withReturning() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        final SQL.SQLWithParameter actual = SQL.upsertSQL(INPUT, TABLE_NAME, "name", FIELD_MAPPING, true);
+
+        // assert result
+        assertThat(actual.getSql())
+                .startsWith(String.format("INSERT INTO %s (%s, ", TABLE_NAME, TABLE_FIELD_NAME))
+                .contains(String.format(" ON CONFLICT (%s) DO UPDATE SET ", TABLE_FIELD_NAME))
+                .doesNotContain(String.format("%1$s = EXCLUDED.%1$s", TABLE_FIELD_NAME))
+                .endsWith(" RETURNING *, (xmax = 0) AS inserted;");
+        assertThat(actual.getParameter()).containsExactly(NAME, ACTIVE, READY, NUMBER, STATE.name());
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void compileUpsertSQL_withoutConflictFieldSelector_shouldThrowException() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> SQL.compileUpsertSQL(TestBE.class, TABLE_NAME, null, FIELD_MAPPING, false))
+                .withMessageContaining("Conflict field selector");
+
+        // verify invocations
+    }
+}
@@ -0,0 +1,126 @@
+package de.bogenliga.application.common.database.notification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import de.bogenliga.application.common.configuration.DatabaseConfiguration;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class PostgresqlNotificationListenerTest {
+
+    private static final String CHANNEL = "test_changed";
+    private static final String OTHER_CHANNEL = "other_changed";
+    private static final String PAYLOAD = "UPDATE:key";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private PostgresqlNotificationListener.ConnectionFactory connectionFactory;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private PGConnection pgConnection;
+    @Mock
+    private PGNotification notification;
+    @Mock
+    private DatabaseNotificationHandler handler;
+    @Mock
+    private DatabaseNotificationHandler otherHandler;
+
+    private DatabaseConfiguration.Notification settings;
+    private PostgresqlNotificationListener underTest;
+
+
+    @Before
+    public void initUnderTest() throws SQLException {
+        settings = new DatabaseConfiguration.Notification();
+
+        when(handler.getChannel()).thenReturn(CHANNEL);
+        when(otherHandler.getChannel()).thenReturn(OTHER_CHANNEL);
+        when(connectionFactory.connect()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+
+        underTest = new PostgresqlNotificationListener(connectionFactory, settings,
+                Arrays.asList(handler, otherHandler));
+    }
+
+
+    @Test
+    public void listen() throws SQLException {
+        // prepare test data
+        // configure mocks
+        // call test method
+        underTest.listen();
+
+        // assert result
+
+        // verify invocations
+        verify(connection).setAutoCommit(true);
+        verify(statement).execute("LISTEN \"" + CHANNEL + "\"");
+        verify(statement).execute("LISTEN \"" + OTHER_CHANNEL + "\"");
+        verify(statement).close();
+        verify(handler).onListen();
+        verify(otherHandler).onListen();
+    }
+
+
+    @Test
+    public void poll_shouldDispatchToHandlerOfChannel() throws SQLException {
+        // prepare test data
+        // configure mocks
+        when(notification.getName()).thenReturn(CHANNEL);
+        when(notification.getParameter()).thenReturn(PAYLOAD);
+        when(pgConnection.getNotifications(settings.getPollTimeout()))
+                .thenReturn(new PGNotification[]{notification})
+                .thenReturn(null);
+        doThrow(new IllegalStateException("handler failed")).doNothing().when(handler).onNotification(PAYLOAD);
+
+        // call test method
+        underTest.listen();
+        underTest.poll();
+        underTest.poll();
+
+        // assert result
+
+        // verify invocations
+        verify(handler).onNotification(PAYLOAD);
+        verify(otherHandler, never()).onNotification(anyString());
+    }
+
+
+    @Test
+    public void poll_withBrokenConnection_shouldThrowSQLException() throws SQLException {
+        // prepare test data
+        // configure mocks
+        when(pgConnection.getNotifications(anyInt())).thenThrow(new SQLException("connection closed"));
+
+        // call test method
+        underTest.listen();
+
+        // assert result
+        assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(() -> underTest.poll());
+
+        underTest.close();
+
+        // verify invocations
+        verify(connection).close();
+    }
+}
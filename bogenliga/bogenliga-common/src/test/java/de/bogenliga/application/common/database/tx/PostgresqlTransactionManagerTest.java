@@ -3,13 +3,20 @@ package de.bogenliga.application.common.database.tx;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Collections;
 import javax.sql.DataSource;
+import com.zaxxer.hikari.HikariConfig;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import org.postgresql.ds.PGSimpleDataSource;
+import de.bogenliga.application.common.configuration.DatabaseConfiguration;
 import de.bogenliga.application.common.errorhandling.exception.TechnicalException;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -331,6 +338,455 @@ public class PostgresqlTransactionManagerTest {
     }
 
 
+    @Test
+    public void begin_readOnly_shouldSetTransactionReadOnly() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Statement statement = mock(Statement.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        // call test method
+        underTest.begin(Propagation.REQUIRED, true);
+
+        // a joined scope keeps the mode of the transaction
+        underTest.begin(Propagation.REQUIRED, true);
+        underTest.commit();
+        underTest.release();
+
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(statement).execute("SET TRANSACTION READ ONLY");
+        verify(statement).close();
+        verify(connection).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void begin_readOnly_withReplica_shouldUseReplicaConnection() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final DataSource replicaDataSource = mock(DataSource.class);
+        final Connection replicaConnection = mock(Connection.class);
+        underTest = new PostgresqlTransactionManager(dataSource,
+                new ReplicaRouter(Collections.singletonList(replicaDataSource), 1_000, System::currentTimeMillis));
+
+        // configure mocks
+        when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        underTest.begin(Propagation.REQUIRED, true);
+        final Connection readOnlyConnection = underTest.getConnection();
+        underTest.commit();
+        underTest.release();
+
+        underTest.begin(Propagation.REQUIRED, false);
+        final Connection readWriteConnection = underTest.getConnection();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(readOnlyConnection).isSameAs(replicaConnection);
+        assertThat(readWriteConnection).isSameAs(connection);
+
+        // verify invocations
+        // the replica pool provides read-only connections
+        verify(replicaConnection, never()).createStatement();
+        verify(replicaConnection).commit();
+        verify(replicaConnection).close();
+        verify(connection).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void begin_readOnly_withFailedReplica_shouldUsePrimary() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final DataSource replicaDataSource = mock(DataSource.class);
+        final Statement statement = mock(Statement.class);
+        underTest = new PostgresqlTransactionManager(dataSource,
+                new ReplicaRouter(Collections.singletonList(replicaDataSource), 1_000, System::currentTimeMillis));
+
+        // configure mocks
+        when(replicaDataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        // call test method
+        underTest.begin(Propagation.REQUIRED, true);
+        final Connection actual = underTest.getConnection();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(actual).isSameAs(connection);
+
+        // verify invocations
+        verify(statement).execute("SET TRANSACTION READ ONLY");
+        verify(connection).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void begin_withActiveTransaction_shouldJoinTransaction() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        underTest.begin();
+        underTest.begin();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isTrue();
+        assertThat(underTest.getConnection()).isSameAs(connection);
+        verify(connection, never()).commit();
+        verify(connection, never()).close();
+
+        underTest.commit();
+        underTest.release();
+
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(dataSource).getConnection();
+        verify(connection).commit();
+        verify(connection, never()).rollback();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void rollback_withJoinedTransaction_shouldMarkRollbackOnly() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        underTest.begin();
+        underTest.begin();
+        underTest.rollback();
+        underTest.release();
+
+        verify(connection, never()).rollback();
+
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.commit())
+                .withMessageContaining("rolled back");
+
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void begin_nested_shouldRollbackToSavepoint() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Savepoint savepoint = mock(Savepoint.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+
+        // call test method
+        underTest.begin();
+        underTest.begin(Propagation.NESTED);
+        underTest.rollback();
+        underTest.release();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(connection).rollback(savepoint);
+        verify(connection, never()).rollback();
+        verify(connection).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void begin_nested_shouldReleaseSavepointOnCommit() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Savepoint savepoint = mock(Savepoint.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+
+        // call test method
+        underTest.begin(Propagation.NESTED);
+        underTest.begin(Propagation.NESTED);
+        underTest.commit();
+        underTest.release();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        // the outermost scope does not need a savepoint
+        verify(connection).setSavepoint();
+        verify(connection).releaseSavepoint(savepoint);
+        verify(connection).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void begin_requiresNew_shouldSuspendTransaction() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Connection newConnection = mock(Connection.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection, newConnection);
+
+        // call test method
+        underTest.begin();
+        underTest.begin(Propagation.REQUIRES_NEW);
+
+        assertThat(underTest.getConnection()).isSameAs(newConnection);
+
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isTrue();
+        assertThat(underTest.getConnection()).isSameAs(connection);
+
+        underTest.rollback();
+        underTest.release();
+
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(newConnection).commit();
+        verify(newConnection).close();
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void afterCommit_shouldRunCallbackAfterRelease() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Runnable callback = mock(Runnable.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        underTest.begin();
+        underTest.begin();
+        underTest.afterCommit(callback);
+        underTest.commit();
+        underTest.release();
+        underTest.commit();
+
+        verify(callback, never()).run();
+
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.getContext()).isNull();
+
+        // verify invocations
+        final InOrder inOrder = inOrder(connection, callback);
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).close();
+        inOrder.verify(callback).run();
+    }
+
+
+    @Test
+    public void afterCommit_withRollback_shouldDiscardCallback() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Runnable callback = mock(Runnable.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        underTest.begin();
+        underTest.afterCommit(callback);
+        underTest.rollback();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(connection).rollback();
+        verify(callback, never()).run();
+    }
+
+
+    @Test
+    public void afterCommit_withRollbackOnly_shouldDiscardCallback() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Runnable callback = mock(Runnable.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        underTest.begin();
+        underTest.afterCommit(callback);
+        underTest.begin();
+        underTest.rollback();
+        underTest.release();
+
+        assertThatExceptionOfType(TechnicalException.class)
+                .isThrownBy(() -> underTest.commit());
+
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(connection, never()).commit();
+        verify(callback, never()).run();
+    }
+
+
+    @Test
+    public void afterCommit_withNestedRollback_shouldDiscardCallbackOfNestedScope() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Runnable callback = mock(Runnable.class);
+        final Runnable nestedCallback = mock(Runnable.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.setSavepoint()).thenReturn(mock(Savepoint.class));
+
+        // call test method
+        underTest.begin();
+        underTest.afterCommit(callback);
+        underTest.begin(Propagation.NESTED);
+        underTest.afterCommit(nestedCallback);
+        underTest.rollback();
+        underTest.release();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(callback).run();
+        verify(nestedCallback, never()).run();
+    }
+
+
+    @Test
+    public void afterCommit_withFailingCallback_shouldRunFollowingCallbacks() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Runnable callback = mock(Runnable.class);
+        final Runnable failingCallback = mock(Runnable.class);
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+        doThrow(IllegalStateException.class).when(failingCallback).run();
+
+        // call test method
+        underTest.begin();
+        underTest.afterCommit(failingCallback);
+        underTest.afterCommit(callback);
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(connection).commit();
+        verify(failingCallback).run();
+        verify(callback).run();
+    }
+
+
+    @Test
+    public void afterCommit_withoutTransaction_shouldRunCallback() {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Runnable callback = mock(Runnable.class);
+
+        // configure mocks
+
+        // call test method
+        underTest.afterCommit(callback);
+
+        // assert result
+        assertThat(SessionHandler.getContext()).isNull();
+
+        // verify invocations
+        verify(callback).run();
+    }
+
+
+    @Test
+    public void begin_withImplicitTransaction_shouldTakeOverConnection() throws SQLException {
+        // prepare test data
+        SessionHandler.removeConnection();
+
+        // configure mocks
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // call test method
+        final Connection implicitConnection = underTest.getConnection();
+
+        underTest.begin();
+        underTest.commit();
+        underTest.release();
+
+        // assert result
+        assertThat(implicitConnection).isSameAs(connection);
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // verify invocations
+        verify(dataSource).getConnection();
+        verify(connection).commit();
+        verify(connection).close();
+    }
+
+
     @Test
     public void getConnection() throws SQLException {
         // prepare test data
@@ -428,4 +884,96 @@ public class PostgresqlTransactionManagerTest {
         // assert result
         // verify invocations
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void createPoolConfiguration() {
+        // prepare test data
+        final DatabaseConfiguration databaseConfiguration = new DatabaseConfiguration();
+        databaseConfiguration.setHost("localhost");
+        databaseConfiguration.setPort(5432);
+        databaseConfiguration.setDatabaseName("database");
+        databaseConfiguration.setUser("user");
+        databaseConfiguration.setPassword("password");
+        databaseConfiguration.setReWriteBatchedInserts(true);
+        databaseConfiguration.getPool().setMinimumIdle(1);
+        databaseConfiguration.getPool().setMaximumPoolSize(5);
+        databaseConfiguration.getPool().setIdleTimeout(20_000);
+        databaseConfiguration.getPool().setMaxLifetime(60_000);
+        databaseConfiguration.getPool().setConnectionTimeout(1_000);
+        databaseConfiguration.getPool().setValidationTimeout(500);
+
+        // configure mocks
+
+        // call test method
+        final HikariConfig actual = PostgresqlTransactionManager.createPoolConfiguration(databaseConfiguration);
+
+        // assert result
+        assertThat(actual.getDataSourceClassName()).isEqualTo(PGSimpleDataSource.class.getName());
+        assertThat(actual.getDataSourceProperties())
+                .containsEntry("serverName", "localhost")
+                .containsEntry("portNumber", 5432)
+                .containsEntry("databaseName", "database")
+                .containsEntry("reWriteBatchedInserts", true);
+        assertThat(actual.getUsername()).isEqualTo("user");
+        assertThat(actual.getPassword()).isEqualTo("password");
+        assertThat(actual.getMinimumIdle()).isEqualTo(1);
+        assertThat(actual.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(actual.getIdleTimeout()).isEqualTo(20_000);
+        assertThat(actual.getMaxLifetime()).isEqualTo(60_000);
+        assertThat(actual.getConnectionTimeout()).isEqualTo(1_000);
+        assertThat(actual.getValidationTimeout()).isEqualTo(500);
+        assertThat(actual.isAutoCommit()).isFalse();
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void createReplicaPoolConfiguration() {
+        // prepare test data
+        final DatabaseConfiguration databaseConfiguration = new DatabaseConfiguration();
+        databaseConfiguration.setHost("primary");
+        databaseConfiguration.setPort(5432);
+        databaseConfiguration.setDatabaseName("database");
+        databaseConfiguration.setUser("user");
+        databaseConfiguration.getPool().setMaximumPoolSize(5);
+        databaseConfiguration.getReplication().setConnectionTimeout(500);
+        final DatabaseConfiguration.Replica replica = new DatabaseConfiguration.Replica();
+        replica.setHost("replica");
+        replica.setPort(5433);
+
+        // configure mocks
+
+        // call test method
+        final HikariConfig actual = PostgresqlTransactionManager.createReplicaPoolConfiguration(
+                databaseConfiguration, replica, 1);
+
+        // assert result
+        assertThat(actual.getPoolName()).isEqualTo("bogenliga-pool-replica-1");
+        assertThat(actual.getDataSourceProperties())
+                .containsEntry("serverName", "replica")
+                .containsEntry("portNumber", 5433)
+                .containsEntry("databaseName", "database");
+        assertThat(actual.getUsername()).isEqualTo("user");
+        assertThat(actual.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(actual.getConnectionTimeout()).isEqualTo(500);
+        assertThat(actual.isReadOnly()).isTrue();
+        assertThat(actual.getInitializationFailTimeout()).isNegative();
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void close_withoutPool() {
+        // prepare test data
+        // configure mocks
+        // call test method
+        underTest.close();
+
+        // assert result
+        // verify invocations
+        verifyZeroInteractions(dataSource);
+    }
+}
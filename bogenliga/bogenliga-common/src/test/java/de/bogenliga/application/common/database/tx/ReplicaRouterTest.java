@@ -0,0 +1,140 @@
+package de.bogenliga.application.common.database.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class ReplicaRouterTest {
+
+    private static final long RETRY_DELAY = 10_000;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private DataSource firstReplica;
+    @Mock
+    private DataSource secondReplica;
+    @Mock
+    private Connection firstConnection;
+    @Mock
+    private Connection secondConnection;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private ReplicaRouter underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        underTest = new ReplicaRouter(Arrays.asList(firstReplica, secondReplica), RETRY_DELAY, now::get);
+    }
+
+
+    @Test
+    public void getConnection_shouldDistributeRoundRobin() throws SQLException {
+        // prepare test data
+
+        // configure mocks
+        when(firstReplica.getConnection()).thenReturn(firstConnection);
+        when(secondReplica.getConnection()).thenReturn(secondConnection);
+
+        // call test method
+        final Connection first = underTest.getConnection();
+        final Connection second = underTest.getConnection();
+        final Connection third = underTest.getConnection();
+
+        // assert result
+        assertThat(first).isSameAs(firstConnection);
+        assertThat(second).isSameAs(secondConnection);
+        assertThat(third).isSameAs(firstConnection);
+
+        // verify invocations
+        verify(firstReplica, times(2)).getConnection();
+        verify(secondReplica).getConnection();
+    }
+
+
+    @Test
+    public void getConnection_withFailedReplica_shouldSkipReplicaUntilRetryDelay() throws SQLException {
+        // prepare test data
+
+        // configure mocks
+        when(firstReplica.getConnection()).thenThrow(new SQLException("connection refused"))
+                .thenReturn(firstConnection);
+        when(secondReplica.getConnection()).thenReturn(secondConnection);
+
+        // call test method
+        final Connection fallback = underTest.getConnection();
+        final Connection skipped = underTest.getConnection();
+        final Connection skippedAgain = underTest.getConnection();
+
+        now.addAndGet(RETRY_DELAY);
+        final Connection next = underTest.getConnection();
+        final Connection retried = underTest.getConnection();
+
+        // assert result
+        assertThat(fallback).isSameAs(secondConnection);
+        assertThat(skipped).isSameAs(secondConnection);
+        assertThat(skippedAgain).isSameAs(secondConnection);
+        assertThat(next).isSameAs(secondConnection);
+        assertThat(retried).isSameAs(firstConnection);
+
+        // verify invocations
+        verify(firstReplica, times(2)).getConnection();
+        verify(secondReplica, times(4)).getConnection();
+    }
+
+
+    @Test
+    public void getConnection_withoutAvailableReplica_shouldReturnNull() throws SQLException {
+        // prepare test data
+
+        // configure mocks
+        when(firstReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(secondReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // call test method
+        final Connection actual = underTest.getConnection();
+        final Connection skipped = underTest.getConnection();
+
+        // assert result
+        assertThat(actual).isNull();
+        assertThat(skipped).isNull();
+
+        // verify invocations
+        verify(firstReplica).getConnection();
+        verify(secondReplica).getConnection();
+    }
+
+
+    @Test
+    public void getConnection_withoutReplicas_shouldReturnNull() {
+        // prepare test data
+        final ReplicaRouter router = new ReplicaRouter(Collections.emptyList(), RETRY_DELAY, now::get);
+
+        // configure mocks
+
+        // call test method
+        final Connection actual = router.getConnection();
+
+        // assert result
+        assertThat(actual).isNull();
+
+        // verify invocations
+    }
+}
@@ -124,4 +124,113 @@ public class SessionHandlerTest {
 
         // verify invocations
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void removeConnection_shouldResetSessionContext() throws Exception {
+        // prepare test data
+        SessionHandler.setConnection(mock(Connection.class));
+        SessionHandler.setIsActive(true);
+        final SessionContext context = SessionHandler.getContext();
+        context.enter();
+
+        // configure mocks
+        // call test method
+        SessionHandler.removeConnection();
+
+        // assert result
+        assertThat(context.getConnection()).isNull();
+        assertThat(context.isActive()).isFalse();
+        assertThat(context.getDepth()).isZero();
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        // the context is not kept by the thread after the outermost scope
+        assertThat(SessionHandler.getContext()).isNull();
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void isActive_withoutSession_shouldNotCreateSessionContext() throws Exception {
+        // prepare test data
+        final SessionContext[] actual = new SessionContext[1];
+
+        // configure mocks
+        // call test method
+        final Thread thread = new Thread(() -> {
+            SessionHandler.isActive();
+            SessionHandler.setIsActive(false);
+            SessionHandler.removeConnection();
+            actual[0] = SessionHandler.getContext();
+        });
+        thread.start();
+        thread.join();
+
+        // assert result
+        assertThat(actual[0]).isNull();
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void sessionContext_shouldTrackDepthAndStartTime() {
+        // prepare test data
+        SessionHandler.removeConnection();
+        SessionHandler.setConnection(mock(Connection.class));
+
+        // configure mocks
+        // call test method
+        SessionHandler.setIsActive(true);
+        final SessionContext actual = SessionHandler.getContext();
+
+        // assert result
+        assertThat(actual.getStartTime()).isNotZero();
+        assertThat(actual.getDurationMillis()).isNotNegative();
+        assertThat(actual.enter()).isEqualTo(1);
+        assertThat(actual.enter()).isEqualTo(2);
+        assertThat(actual.exit()).isEqualTo(1);
+        assertThat(actual.exit()).isZero();
+        assertThat(actual.exit()).isZero();
+
+        SessionHandler.removeConnection();
+
+        // verify invocations
+    }
+
+
+    @Test
+    public void suspend_shouldResumeContextAfterRemoveConnection() {
+        // prepare test data
+        SessionHandler.removeConnection();
+        final Connection connection = mock(Connection.class);
+        final Connection newConnection = mock(Connection.class);
+        SessionHandler.setConnection(connection);
+        SessionHandler.setIsActive(true);
+        final SessionContext context = SessionHandler.getContext();
+
+        // configure mocks
+        // call test method
+        SessionHandler.suspend();
+
+        // assert result
+        assertThat(SessionHandler.getContext()).isNotSameAs(context);
+        assertThat(SessionHandler.isActive()).isFalse();
+
+        SessionHandler.setConnection(newConnection);
+        assertThat(SessionHandler.getConnection()).isSameAs(newConnection);
+
+        SessionHandler.removeConnection();
+
+        assertThat(SessionHandler.getContext()).isSameAs(context);
+        assertThat(SessionHandler.getConnection()).isSameAs(connection);
+        assertThat(SessionHandler.isActive()).isTrue();
+
+        SessionHandler.removeConnection();
+
+        assertThat(SessionHandler.getContext()).isNull();
+
+        // verify invocations
+    }
+}
@@ -0,0 +1,185 @@
+package de.bogenliga.application.common.database.tx;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.aop.framework.ProxyFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Andre Lehnert, eXXcellent solutions consulting & software gmbh
+ */
+@SuppressWarnings({"pmd-unit-tests:JUnitTestsShouldIncludeAssert", "squid:S2187"})
+public class TransactionInterceptorTest {
+
+    private static final String VALUE = "value";
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+    @Mock
+    private TransactionManager transactionManager;
+
+    private TransactionInterceptor underTest;
+
+
+    @Before
+    public void initUnderTest() {
+        underTest = new TransactionInterceptor(() -> transactionManager);
+    }
+
+
+    @Test
+    public void invoke_withReadOnlyClass_shouldCommitReadOnlyTransaction() {
+        // prepare test data
+        final TestFacade proxy = createProxy(new ReadOnlyTestFacade());
+
+        // configure mocks
+
+        // call test method
+        final String actual = proxy.find();
+
+        // assert result
+        assertThat(actual).isEqualTo(VALUE);
+
+        // verify invocations
+        final InOrder inOrder = inOrder(transactionManager);
+        inOrder.verify(transactionManager).begin(Propagation.REQUIRED, true);
+        inOrder.verify(transactionManager).commit();
+        inOrder.verify(transactionManager).release();
+        verify(transactionManager, never()).rollback();
+    }
+
+
+    @Test
+    public void invoke_withAnnotatedMethod_shouldOverrideClassAnnotation() {
+        // prepare test data
+        final TestFacade proxy = createProxy(new ReadOnlyTestFacade());
+
+        // configure mocks
+
+        // call test method
+        proxy.save(VALUE);
+
+        // assert result
+
+        // verify invocations
+        verify(transactionManager).begin(Propagation.NESTED, false);
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+    }
+
+
+    @Test
+    public void invoke_withException_shouldRollback() {
+        // prepare test data
+        final TestFacade proxy = createProxy(new ReadOnlyTestFacade());
+
+        // configure mocks
+
+        // call test method
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> proxy.save(null));
+
+        // assert result
+
+        // verify invocations
+        verify(transactionManager).begin(Propagation.NESTED, false);
+        verify(transactionManager).rollback();
+        verify(transactionManager).release();
+        verify(transactionManager, never()).commit();
+    }
+
+
+    @Test
+    public void invoke_withoutAnnotation_shouldNotStartTransaction() {
+        // prepare test data
+        final TestFacade proxy = createProxy(new MethodTestFacade());
+
+        // configure mocks
+
+        // call test method
+        final String actual = proxy.find();
+        proxy.save(VALUE);
+
+        // assert result
+        assertThat(actual).isEqualTo(VALUE);
+
+        // verify invocations
+        verify(transactionManager).begin(Propagation.REQUIRED, false);
+        verify(transactionManager).commit();
+        verify(transactionManager).release();
+    }
+
+
+    @Test
+    public void getTransactional_shouldResolveImplementingMethod() throws NoSuchMethodException {
+        // prepare test data
+
+        // configure mocks
+
+        // call test method
+        final Transactional actual = underTest.getTransactional(TestFacade.class.getMethod("find"),
+                ReadOnlyTestFacade.class);
+
+        // assert result
+        assertThat(actual).isNotNull();
+        assertThat(actual.readOnly()).isTrue();
+        assertThat(actual.propagation()).isEqualTo(Propagation.REQUIRED);
+
+        // verify invocations
+        verifyZeroInteractions(transactionManager);
+    }
+
+
+    private TestFacade createProxy(final TestFacade target) {
+        final ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(underTest);
+        return (TestFacade) proxyFactory.getProxy();
+    }
+
+
+    public interface TestFacade {
+        String find();
+
+        void save(String value);
+    }
+
+
+    @Transactional(readOnly = true)
+    public static class ReadOnlyTestFacade implements TestFacade {
+        @Override
+        public String find() {
+            return VALUE;
+        }
+
+
+        @Override
+        @Transactional(propagation = Propagation.NESTED)
+        public void save(final String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("value must not be null");
+            }
+        }
+    }
+
+
+    public static class MethodTestFacade implements TestFacade {
+        @Override
+        public String find() {
+            return VALUE;
+        }
+
+
+        @Override
+        @Transactional
+        public void save(final String value) {
+            // nothing to save
+        }
+    }
+}
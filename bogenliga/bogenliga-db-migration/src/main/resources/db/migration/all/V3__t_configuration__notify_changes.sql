@@ -0,0 +1,37 @@
+-- publish every change of t_configuration on the channel 'configuration_changed'
+-- payload: <TG_OP>:<configuration_key>, e.g. 'UPDATE:app.bogenliga.frontend.autorefresh.interval'
+-- the notifications are delivered to the listening application nodes after the commit
+CREATE OR REPLACE FUNCTION notify_configuration_changed()
+  RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP = 'TRUNCATE'
+  THEN
+    PERFORM pg_notify('configuration_changed', TG_OP);
+    RETURN NULL;
+  END IF;
+
+  IF TG_OP IN ('UPDATE', 'DELETE')
+  THEN
+    PERFORM pg_notify('configuration_changed', TG_OP || ':' || OLD.configuration_key);
+  END IF;
+
+  IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.configuration_key <> OLD.configuration_key)
+  THEN
+    PERFORM pg_notify('configuration_changed', TG_OP || ':' || NEW.configuration_key);
+  END IF;
+
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_configuration_changed
+  AFTER INSERT OR UPDATE OR DELETE
+  ON t_configuration
+  FOR EACH ROW
+EXECUTE PROCEDURE notify_configuration_changed();
+
+CREATE TRIGGER tr_configuration_truncated
+  AFTER TRUNCATE
+  ON t_configuration
+  FOR EACH STATEMENT
+EXECUTE PROCEDURE notify_configuration_changed();
@@ -0,0 +1,5 @@
+-- support prefix queries on the dotted configuration keys, e.g. configuration_key LIKE 'app.bogenliga.frontend%'
+-- the primary key index uses the collation of the database and supports LIKE only with the "C" collation,
+-- the pattern operator class compares byte-wise and is used for LIKE prefix range scans with any collation
+CREATE INDEX idx_configuration_key_pattern
+  ON t_configuration (configuration_key varchar_pattern_ops);